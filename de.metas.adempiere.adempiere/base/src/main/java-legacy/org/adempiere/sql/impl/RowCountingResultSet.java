@@ -0,0 +1,85 @@
+package org.adempiere.sql.impl;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.util.function.IntConsumer;
+
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * {@link ResultSet} wrapper which counts the fetched rows and reports them when the result set is closed.
+ */
+final class RowCountingResultSet implements InvocationHandler
+{
+	public static ResultSet wrap(@NonNull final ResultSet resultSet, @NonNull final IntConsumer onClose)
+	{
+		return (ResultSet)Proxy.newProxyInstance(
+				RowCountingResultSet.class.getClassLoader(),
+				new Class<?>[] { ResultSet.class },
+				new RowCountingResultSet(resultSet, onClose));
+	}
+
+	private final ResultSet delegate;
+	private final IntConsumer onClose;
+
+	private int rowsCount = 0;
+	private boolean closed = false;
+
+	private RowCountingResultSet(final ResultSet delegate, final IntConsumer onClose)
+	{
+		this.delegate = delegate;
+		this.onClose = onClose;
+	}
+
+	@Override
+	public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable
+	{
+		final Object retValue;
+		try
+		{
+			retValue = method.invoke(delegate, args);
+		}
+		catch (final InvocationTargetException ex)
+		{
+			throw ex.getCause() != null ? ex.getCause() : ex;
+		}
+
+		final String methodName = method.getName();
+		if ("next".equals(methodName) && Boolean.TRUE.equals(retValue))
+		{
+			rowsCount++;
+		}
+		else if ("close".equals(methodName) && !closed)
+		{
+			closed = true;
+			onClose.accept(rowsCount);
+		}
+
+		return retValue;
+	}
+}
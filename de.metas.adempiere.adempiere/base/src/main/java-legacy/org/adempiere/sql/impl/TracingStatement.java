@@ -10,6 +10,7 @@ import javax.sql.RowSet;
 
 import org.adempiere.ad.dao.IQueryStatisticsCollector;
 import org.compiere.util.CStatement;
+import org.compiere.util.CStatementVO;
 
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Stopwatch;
@@ -75,30 +76,69 @@ class TracingStatement<StatementType extends AbstractCStatementProxy<? extends S
 	protected final <T> T trace(final String sql, final SqlCall<T> sqlCall) throws SQLException
 	{
 		final IQueryStatisticsCollector collector = SQL_QUERIES_COLLECTOR;
-		if (collector == null)
+		if (collector == null || !collector.isSampleNext())
 		{
 			return sqlCall.call();
 		}
 
 		final Stopwatch duration = Stopwatch.createStarted();
 		final T retValue = sqlCall.call();
-		collector.collect(sql, duration.stop());
+		collector.collect(sql, duration.stop(), extractRowsCount(retValue));
 
-		return retValue;
+		return countFetchedRows(retValue, sql, collector);
 	}
 
 	protected final <T> T trace(final SqlCall<T> sqlCall) throws SQLException
 	{
 		final IQueryStatisticsCollector collector = SQL_QUERIES_COLLECTOR;
-		if (collector == null)
+		if (collector == null || !collector.isSampleNext())
 		{
 			return sqlCall.call();
 		}
 
 		final Stopwatch duration = Stopwatch.createStarted();
 		final T retValue = sqlCall.call();
-		collector.collect(delegate.getVO(), duration.stop());
+		final CStatementVO vo = delegate.getVO();
+		collector.collect(vo, duration.stop(), extractRowsCount(retValue));
+
+		return countFetchedRows(retValue, vo != null ? vo.getSql() : null, collector);
+	}
 
+	private static int extractRowsCount(final Object retValue)
+	{
+		if (retValue instanceof Integer)
+		{
+			// executeUpdate
+			return (Integer)retValue;
+		}
+		else if (retValue instanceof int[])
+		{
+			// executeBatch
+			int rowsCount = 0;
+			for (final int batchRowsCount : (int[])retValue)
+			{
+				if (batchRowsCount < 0)
+				{
+					return IQueryStatisticsCollector.ROWS_COUNT_Unknown;
+				}
+				rowsCount += batchRowsCount;
+			}
+			return rowsCount;
+		}
+		else
+		{
+			return IQueryStatisticsCollector.ROWS_COUNT_Unknown;
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> T countFetchedRows(final T retValue, final String sql, final IQueryStatisticsCollector collector)
+	{
+		// NOTE: RowSets are disconnected and were already fully fetched, so we don't wrap them
+		if (retValue instanceof ResultSet && !(retValue instanceof RowSet))
+		{
+			return (T)RowCountingResultSet.wrap((ResultSet)retValue, rowsCount -> collector.collectFetchedRows(sql, rowsCount));
+		}
 		return retValue;
 	}
 
@@ -205,6 +205,18 @@ public interface AdempiereDatabase
 	 */
 	public Connection getCachedConnection(CConnection connection, boolean autoCommit, int transactionIsolation) throws Exception;
 
+	/**
+	 * Get a read-only, auto commit connection to one of the configured read replicas.
+	 *
+	 * @param connection info
+	 * @return connection or <code>null</code> if no read replica is configured or none is currently usable; in that case the caller shall use the primary database
+	 * @see de.metas.connection.IReadReplicaRoutingService
+	 */
+	default Connection getReadReplicaConnectionOrNull(final CConnection connection)
+	{
+		return null;
+	}
+
 	/**
 	 * Get Driver Connection
 	 *
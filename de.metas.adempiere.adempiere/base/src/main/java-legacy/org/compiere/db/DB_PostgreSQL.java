@@ -43,9 +43,12 @@ import org.slf4j.Logger;
 
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
-import com.mchange.v2.c3p0.ComboPooledDataSource;
 
-import de.metas.connection.impl.DB_PostgreSQL_ConnectionCustomizer;
+import de.metas.connection.DataSourceConfig;
+import de.metas.connection.DataSourcePoolStatus;
+import de.metas.connection.IDataSourceProvider;
+import de.metas.connection.impl.DB_PostgreSQL_ReadReplicas;
+import de.metas.connection.impl.DataSourceProviders;
 import de.metas.logging.LogManager;
 import de.metas.util.Check;
 import de.metas.util.SystemUtils;
@@ -105,9 +108,14 @@ public class DB_PostgreSQL implements AdempiereDatabase
 	/** Default Port */
 	public static final int DEFAULT_PORT = 5432;
 
+	/** Creates and manages the pooled data sources; see {@link DataSourceProviders#SYSTEM_PROPERTY_ConnectionPool} */
+	private final IDataSourceProvider dataSourceProvider;
 	/** Data Source */
-	private transient ComboPooledDataSource _dataSource = null;
+	private transient DataSource _dataSource = null;
 	private transient volatile boolean _dataSourceInitialized = false;
+	/** Read replicas; see {@link #getReadReplicaConnectionOrNull(CConnection)} */
+	private transient DB_PostgreSQL_ReadReplicas _readReplicas = null;
+	private transient volatile boolean _readReplicasInitialized = false;
 	private final Object _dataSourceLock = new Object();
 
 	/** Cached Database Name */
@@ -151,6 +159,7 @@ public class DB_PostgreSQL implements AdempiereDatabase
 			this.m_convertInternal = converter;
 		}
 
+		this.dataSourceProvider = DataSourceProviders.fromSystemProperties();
 	}   // DB_PostgreSQL
 
 	@Override
@@ -323,7 +332,7 @@ public class DB_PostgreSQL implements AdempiereDatabase
 	@Override
 	public String getStatus()
 	{
-		final ComboPooledDataSource m_ds = getDataSourceOrNull();
+		final DataSource m_ds = getDataSourceOrNull();
 		if (m_ds == null)
 		{
 			return "No datasource";
@@ -332,10 +341,12 @@ public class DB_PostgreSQL implements AdempiereDatabase
 		final StringBuilder sb = new StringBuilder();
 		try
 		{
-			sb.append("# Connections: ").append(m_ds.getNumConnections());
-			sb.append(" , # Busy Connections: ").append(m_ds.getNumBusyConnections()).append("/").append(m_maxbusyconnectionsThreshold);
-			sb.append(" , # Idle Connections: ").append(m_ds.getNumIdleConnections());
-			sb.append(" , # Orphaned Connections: ").append(m_ds.getNumUnclosedOrphanedConnections());
+			final DataSourcePoolStatus poolStatus = dataSourceProvider.getPoolStatus(m_ds);
+			sb.append("# Connections: ").append(poolStatus.getTotalConnections());
+			sb.append(" , # Busy Connections: ").append(poolStatus.getBusyConnections()).append("/").append(m_maxbusyconnectionsThreshold);
+			sb.append(" , # Idle Connections: ").append(poolStatus.getIdleConnections());
+			sb.append(" , # Orphaned Connections: ").append(poolStatus.getOrphanedConnections());
+			sb.append(" , # Threads awaiting Connection: ").append(poolStatus.getThreadsAwaitingConnection());
 		}
 		catch (Exception e)
 		{
@@ -439,17 +450,18 @@ public class DB_PostgreSQL implements AdempiereDatabase
 		boolean connOk = false;
 		try
 		{
-			final ComboPooledDataSource m_ds = getDataSource(connection);
+			final DataSource m_ds = getDataSource(connection);
 			if (m_ds == null)
 			{
 				throw new DBNoConnectionException("Data source could not be retrieved for " + connection);
 			}
 
 			conn = m_ds.getConnection();
+			conn = dataSourceProvider.onCheckOut(conn);
 			conn.setAutoCommit(autoCommit);
 			conn.setTransactionIsolation(transactionIsolation);
 
-			final int numConnections = m_ds.getNumBusyConnections();
+			final int numConnections = dataSourceProvider.getBusyConnections(m_ds);
 			if (numConnections >= m_maxbusyconnectionsThreshold && m_maxbusyconnectionsThreshold > 0)
 			{
 				// metas-ts: i think running the finalizer won't be a big help, but anyways, exhausting the connection pool is usally an issue
@@ -476,8 +488,7 @@ public class DB_PostgreSQL implements AdempiereDatabase
 		}
 		catch (final SQLException sqlException)
 		{
-			final Throwable cause = sqlException.getCause();
-			if (cause instanceof com.mchange.v2.resourcepool.TimeoutException)
+			if (dataSourceProvider.isConnectionAcquireTimeout(sqlException))
 			{
 				throw new DBConnectionAcquireTimeoutException(sqlException);
 			}
@@ -493,6 +504,32 @@ public class DB_PostgreSQL implements AdempiereDatabase
 		}
 	}	// getCachedConnection
 
+	@Override
+	public Connection getReadReplicaConnectionOrNull(final CConnection connection)
+	{
+		final DB_PostgreSQL_ReadReplicas readReplicas = getReadReplicasOrNull(connection);
+		return readReplicas != null ? readReplicas.getConnectionOrNull() : null;
+	}
+
+	private DB_PostgreSQL_ReadReplicas getReadReplicasOrNull(final CConnection connection)
+	{
+		if (!_readReplicasInitialized)
+		{
+			synchronized (_dataSourceLock)
+			{
+				if (!_readReplicasInitialized)
+				{
+					_readReplicas = DB_PostgreSQL_ReadReplicas.createFromSystemPropertiesOrNull(dataSourceProvider, replicaHost -> createDataSource(
+							"AdempiereDS-replica-" + replicaHost.getHost() + "-" + replicaHost.getPortOrDefault(DEFAULT_PORT),
+							getConnectionURL(replicaHost.getHost(), replicaHost.getPortOrDefault(DEFAULT_PORT), connection.getDbName(), connection.getDbUid()),
+							connection));
+					_readReplicasInitialized = true;
+				}
+			}
+		}
+		return _readReplicas;
+	}
+
 	/**
 	 * Gets current {@link DataSource}.
 	 *
@@ -500,7 +537,7 @@ public class DB_PostgreSQL implements AdempiereDatabase
 	 *
 	 * @return current data source our null
 	 */
-	private final ComboPooledDataSource getDataSourceOrNull()
+	private final DataSource getDataSourceOrNull()
 	{
 		if (!_dataSourceInitialized)
 		{
@@ -519,7 +556,7 @@ public class DB_PostgreSQL implements AdempiereDatabase
 	 * @return data source or null if database could not be initialized
 	 */
 	@Override
-	public ComboPooledDataSource getDataSource(final CConnection connection)
+	public DataSource getDataSource(final CConnection connection)
 	{
 		if (!_dataSourceInitialized)
 		{
@@ -527,10 +564,10 @@ public class DB_PostgreSQL implements AdempiereDatabase
 			{
 				if (!_dataSourceInitialized)
 				{
-					_dataSource = createDataSource(connection);
+					_dataSource = createDataSource("AdempiereDS", getConnectionURL(connection), connection);
 					if (_dataSource != null)
 					{
-						m_maxbusyconnectionsThreshold = (int)(_dataSource.getMaxPoolSize() * 0.80);
+						m_maxbusyconnectionsThreshold = (int)(dataSourceProvider.getMaxPoolSize(_dataSource) * 0.80);
 						_dataSourceInitialized = true;
 					}
 					else
@@ -547,69 +584,24 @@ public class DB_PostgreSQL implements AdempiereDatabase
 	/**
 	 * Creates {@link DataSource} based on {@link CConnection} properties.
 	 *
-	 * NOTE: this method never throws exception but just logs it.
-	 *
+	 * @param dataSourceName
+	 * @param jdbcUrl
 	 * @param connection
-	 * @return {@link DataSource} or <code>null</code> if it cannot be created
+	 * @return {@link DataSource}
 	 */
-	private ComboPooledDataSource createDataSource(final CConnection connection)
-	{
-		try
-		{
-			System.setProperty("com.mchange.v2.log.MLog", com.mchange.v2.log.slf4j.Slf4jMLog.class.getName());
-			// System.setProperty("com.mchange.v2.log.FallbackMLog.DEFAULT_CUTOFF_LEVEL", "ALL");
-			final ComboPooledDataSource cpds = new ComboPooledDataSource();
-			cpds.setDataSourceName("AdempiereDS");
-			cpds.setDriverClass(DRIVER);
-			// loads the jdbc driver
-			cpds.setJdbcUrl(getConnectionURL(connection));
-			cpds.setUser(connection.getDbUid());
-			cpds.setPassword(connection.getDbPwd());
-			cpds.setPreferredTestQuery(DEFAULT_CONN_TEST_SQL);
-			cpds.setIdleConnectionTestPeriod(1200);
-			// cpds.setTestConnectionOnCheckin(true);
-			// cpds.setTestConnectionOnCheckout(true);
-			cpds.setAcquireRetryAttempts(2);
-
-
-			if (Ini.isSwingClient())
-			{
-				// Set checkout timeout to avoid forever locking when trying to connect to a not existing host.
-				cpds.setCheckoutTimeout(SystemUtils.getSystemProperty(CONFIG_CheckoutTimeout_SwingClient, 20 * 1000));
-
-				cpds.setInitialPoolSize(1);
-				cpds.setMinPoolSize(1);
-				cpds.setMaxPoolSize(20);
-				cpds.setMaxIdleTimeExcessConnections(1200);
-				cpds.setMaxIdleTime(900);
-				m_maxbusyconnectionsThreshold = 15;
-			}
-			else
-			{
-				// these are set in c3p0.properties files
-				//cpds.setInitialPoolSize(10);
-				//cpds.setMinPoolSize(5);
-				//cpds.setMaxPoolSize(150);
-				cpds.setMaxIdleTimeExcessConnections(1200);
-				cpds.setMaxIdleTime(1200);
-				m_maxbusyconnectionsThreshold = 120;
-			}
-
-			// the following sometimes kill active connection!
-			// cpds.setUnreturnedConnectionTimeout(1200);
-			// cpds.setDebugUnreturnedConnectionStackTraces(true);
-
-			// 04006: add a customizer to set the log level for message that are send to the client
-			// background: if there are too many messages sent (e.g. from a verbose and long-running DB function)
-			// then the whole JVM might suffer an OutOfMemoryError
-			cpds.setConnectionCustomizerClassName(DB_PostgreSQL_ConnectionCustomizer.class.getName());
-
-			return cpds;
-		}
-		catch (Exception ex)
-		{
-			throw new DBNoConnectionException("Could not initialise C3P0 Datasource", ex);
-		}
+	private DataSource createDataSource(final String dataSourceName, final String jdbcUrl, final CConnection connection)
+	{
+		final DataSourceConfig config = DataSourceConfig.builder()
+				.dataSourceName(dataSourceName)
+				.driverClassName(DRIVER)
+				.jdbcUrl(jdbcUrl)
+				.username(connection.getDbUid())
+				.password(connection.getDbPwd())
+				.connectionTestQuery(DEFAULT_CONN_TEST_SQL)
+				.swingClient(Ini.isSwingClient())
+				.swingClientCheckoutTimeoutMillis(SystemUtils.getSystemProperty(CONFIG_CheckoutTimeout_SwingClient, 20 * 1000))
+				.build();
+		return dataSourceProvider.createDataSource(config);
 	}
 
 	private final void closeDataSource()
@@ -620,7 +612,7 @@ public class DB_PostgreSQL implements AdempiereDatabase
 			{
 				try
 				{
-					_dataSource.close();
+					dataSourceProvider.closeDataSource(_dataSource);
 					log.info("Datasource closed: {}", _dataSource);
 				}
 				catch (Exception e)
@@ -631,6 +623,14 @@ public class DB_PostgreSQL implements AdempiereDatabase
 				_dataSource = null;
 				_dataSourceInitialized = false;
 			}
+
+			if (_readReplicas != null)
+			{
+				_readReplicas.close();
+				log.info("Read replicas closed: {}", _readReplicas);
+				_readReplicas = null;
+			}
+			_readReplicasInitialized = false;
 		}
 	}
 
@@ -62,6 +62,7 @@ import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.ad.trx.api.ITrxListenerManager.TrxEventTiming;
 import org.adempiere.ad.trx.api.ITrxManager;
 import org.adempiere.ad.trx.api.OnTrxMissingPolicy;
+import org.adempiere.ad.trx.api.impl.BulkSaveContext;
 import org.adempiere.ad.validationRule.IValidationContext;
 import org.adempiere.ad.validationRule.IValidationRuleFactory;
 import org.adempiere.exceptions.AdempiereException;
@@ -3243,8 +3244,14 @@ public abstract class PO
 			//
 			// Execute UPDATE SQL
 			log.trace("Save update: SQL={}", sql);
+			final BulkSaveContext bulkSaveContext = getBulkSaveContextOrNull();
 			final int no;
-			if (isUseTimeoutForUpdate())
+			if (bulkSaveContext != null)
+			{
+				bulkSaveContext.addUpdate(sql.toString());
+				no = 1; // NOTE: the update count will be checked when the buffered updates are written
+			}
+			else if (isUseTimeoutForUpdate())
 				no = DB.executeUpdateEx(sql.toString(), m_trxName, QUERY_TIME_OUT);
 			else
 				no = DB.executeUpdateEx(sql.toString(), m_trxName);
@@ -3274,6 +3281,20 @@ public abstract class PO
 		return saveFinish(false, true);  // newRecord=false, success=true
 	}   // saveUpdate
 
+	/**
+	 * @return the bulk save context of this PO's transaction or <code>null</code>
+	 * @see ITrxManager#startBulkSave(String)
+	 */
+	private BulkSaveContext getBulkSaveContextOrNull()
+	{
+		final ITrxManager trxManager = get_TrxManager();
+		if (trxManager.isNull(m_trxName))
+		{
+			return null;
+		}
+		return BulkSaveContext.getActiveOrNull(trxManager.get(m_trxName, OnTrxMissingPolicy.ReturnTrxNone));
+	}
+
 	private final boolean isUseTimeoutForUpdate()
 	{
 		return "true".equalsIgnoreCase(System.getProperty(USE_TIMEOUT_FOR_UPDATE, "false"))
@@ -3328,7 +3349,16 @@ public abstract class PO
 		if (idNew <= 0
 				&& DB.isUseNativeSequences(getAD_Client_ID(), get_TableName()))
 		{
-			idNew = I_ZERO_NATIVESEQUENCE;
+			// In a bulk save context we take the ID from a prefetched block, so that we don't need a "RETURNING" and the INSERT can be buffered
+			final BulkSaveContext bulkSaveContext = getBulkSaveContextOrNull();
+			if (bulkSaveContext != null)
+			{
+				idNew = bulkSaveContext.nextId(p_info.getTableName());
+			}
+			else
+			{
+				idNew = I_ZERO_NATIVESEQUENCE; // NOTE: keep the instance, it's compared by reference
+			}
 		}
 		else if (idNew <= 0)
 		{
@@ -3618,6 +3648,7 @@ public abstract class PO
 
 		//
 		// Build the final INSERT sql
+		final int sqlInsertColumnsLength = sqlInsert.length();
 		sqlInsert.append(sqlValues)
 				.append(")");
 
@@ -3635,12 +3666,25 @@ public abstract class PO
 
 		//
 		// Execute actual database INSERT
-		final int no = DB.executeUpdate(sqlInsert.toString(),
-				(Object[])null,  // params,
-				OnFail.ThrowException,  // onFail
-				m_trxName,
-				0,  // timeOut,
-				loadAfterInsertProcessor);
+		// or buffer it, if we are in a bulk save context and we don't need anything back from the database
+		final BulkSaveContext bulkSaveContext = loadAfterInsertProcessor == null ? getBulkSaveContextOrNull() : null;
+		final int no;
+		if (bulkSaveContext != null)
+		{
+			final String sqlInsertInto = sqlInsert.substring(0, sqlInsertColumnsLength) + ")";
+			final String sqlInsertValues = "(" + sqlValues.substring(") VALUES (".length()) + ")";
+			bulkSaveContext.addInsert(sqlInsertInto, sqlInsertValues);
+			no = 1;
+		}
+		else
+		{
+			no = DB.executeUpdate(sqlInsert.toString(),
+					(Object[])null,  // params,
+					OnFail.ThrowException,  // onFail
+					m_trxName,
+					0,  // timeOut,
+					loadAfterInsertProcessor);
+		}
 		boolean ok = no == 1;
 
 		//
@@ -76,6 +76,7 @@ import org.slf4j.Logger;
 import com.google.common.collect.ImmutableList;
 
 import de.metas.cache.CacheMgt;
+import de.metas.connection.IReadReplicaRoutingService;
 import de.metas.i18n.ILanguageDAO;
 import de.metas.logging.LogManager;
 import de.metas.logging.MetasfreshLastError;
@@ -396,9 +397,33 @@ public final class DB
 	 */
 	public static Connection getConnectionRO()
 	{
+		if (Services.get(IReadReplicaRoutingService.class).isRoutingToReadReplica())
+		{
+			final Connection replicaConn = getReadReplicaConnectionOrNull();
+			if (replicaConn != null)
+			{
+				return replicaConn;
+			}
+		}
+
 		return createConnection(true, true, Connection.TRANSACTION_READ_COMMITTED);     // see below
 	}	// getConnectionRO
 
+	/**
+	 * @return read-only connection to a read replica or <code>null</code> if there is no usable read replica
+	 * @see IReadReplicaRoutingService
+	 */
+	private static Connection getReadReplicaConnectionOrNull()
+	{
+		final CConnection cc = getCConnection();
+		if (cc == null)
+		{
+			return null;
+		}
+		final AdempiereDatabase database = cc.getDatabase();
+		return database != null ? database.getReadReplicaConnectionOrNull(cc) : null;
+	}
+
 	/**
 	 * Create new Connection. The connection must be closed explicitly by the application
 	 *
@@ -27,6 +27,7 @@ import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.ad.trx.api.ITrxManager;
 import org.adempiere.ad.trx.api.ITrxSavepoint;
 import org.adempiere.ad.trx.api.impl.AbstractTrx;
+import org.adempiere.ad.trx.api.impl.BulkSaveContext;
 import org.adempiere.ad.trx.api.impl.JdbcTrxSavepoint;
 import org.adempiere.exceptions.DBException;
 import org.slf4j.Logger;
@@ -188,6 +189,9 @@ public class Trx extends AbstractTrx implements VetoableChangeListener
 			throw DBException.wrapIfNeeded(e);
 		}
 
+		// Make sure the rows which were saved in bulk are written before the connection is used for anything else
+		BulkSaveContext.flushIfActive(this);
+
 		return m_connection;
 	}	// getConnection
 
@@ -51,8 +51,9 @@ final class CacheInvalidationRemoteHandler implements IEventListener
 
 	private static final Logger logger = LogManager.getLogger(CacheInvalidationRemoteHandler.class);
 
+	public static final String TOPIC_NAME_CacheInvalidation = "de.metas.cache.CacheInvalidationRemoteHandler";
 	private static final Topic TOPIC_CacheInvalidation = Topic.builder()
-			.name("de.metas.cache.CacheInvalidationRemoteHandler")
+			.name(TOPIC_NAME_CacheInvalidation)
 			.type(Type.REMOTE)
 			.build();
 
@@ -0,0 +1,60 @@
+package de.metas.connection;
+
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.ToString;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * What an {@link IDataSourceProvider} needs to know in order to create a pooled data source.
+ */
+@Value
+@Builder
+@ToString(exclude = "password")
+public class DataSourceConfig
+{
+	@NonNull
+	String dataSourceName;
+
+	@NonNull
+	String driverClassName;
+
+	@NonNull
+	String jdbcUrl;
+
+	@NonNull
+	String username;
+
+	String password;
+
+	/** SQL to test connections with, in case the pool can't rely on the JDBC4 {@link java.sql.Connection#isValid(int)} */
+	String connectionTestQuery;
+
+	/** The swing client needs a small pool and shall not wait forever for a connection to a host which is not reachable */
+	boolean swingClient;
+
+	/** Checkout timeout to be used when {@link #isSwingClient()} */
+	int swingClientCheckoutTimeoutMillis;
+}
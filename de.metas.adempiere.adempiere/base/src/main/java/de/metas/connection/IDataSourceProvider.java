@@ -0,0 +1,69 @@
+package de.metas.connection;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Creates and manages the pooled {@link DataSource}s of {@link org.compiere.db.DB_PostgreSQL}.
+ * <p>
+ * The implementation is chosen via {@link de.metas.connection.impl.DataSourceProviders#SYSTEM_PROPERTY_ConnectionPool}.
+ * All methods which get a {@link DataSource} expect one which was created by the same provider.
+ */
+public interface IDataSourceProvider
+{
+	/**
+	 * @return pooled data source; never <code>null</code>
+	 */
+	DataSource createDataSource(DataSourceConfig config);
+
+	int getMaxPoolSize(DataSource dataSource);
+
+	/**
+	 * Same as {@link DataSourcePoolStatus#getBusyConnections()}, but cheap enough to be called on each checkout.
+	 */
+	int getBusyConnections(DataSource dataSource) throws SQLException;
+
+	DataSourcePoolStatus getPoolStatus(DataSource dataSource) throws SQLException;
+
+	/**
+	 * @return <code>true</code> if the given exception was thrown because no connection could be checked out of the pool in time
+	 */
+	boolean isConnectionAcquireTimeout(SQLException ex);
+
+	/**
+	 * Called by the connection's consumer right after it got the connection from the pool.
+	 * Pools which support checkout hooks do this work there and don't need to implement this method.
+	 *
+	 * @return the connection to be used by the consumer instead of the given one; might be a wrapper, e.g. to get notified when the connection is returned to the pool
+	 */
+	default Connection onCheckOut(final Connection conn) throws SQLException
+	{
+		return conn;
+	}
+
+	void closeDataSource(DataSource dataSource) throws Exception;
+}
@@ -0,0 +1,51 @@
+package de.metas.connection;
+
+import org.adempiere.util.lang.IAutoCloseable;
+
+import de.metas.util.ISingletonService;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Decides whether the current thread's read-only statements which are executed out of transaction shall go to a read replica database.
+ * <p>
+ * Read replicas are configured via system properties, see {@link de.metas.connection.impl.DB_PostgreSQL_ReadReplicas}.
+ * If none is configured, or none is healthy and in sync, the statements go to the primary database as usual.
+ */
+public interface IReadReplicaRoutingService extends ISingletonService
+{
+	/**
+	 * Routes the current thread's out of transaction read-only statements to a read replica, until the returned instance is closed.
+	 * <p>
+	 * Only use it for work which really only reads, like reports, and which can tolerate data that is a few seconds old.
+	 * Writing statements would fail on a read replica.
+	 * <p>
+	 * Hint: use it within a <code>try</code>-with-resources statement. Nested calls are fine.
+	 */
+	IAutoCloseable routeToReadReplica();
+
+	/**
+	 * @return <code>true</code> if the current thread is within {@link #routeToReadReplica()}
+	 */
+	boolean isRoutingToReadReplica();
+}
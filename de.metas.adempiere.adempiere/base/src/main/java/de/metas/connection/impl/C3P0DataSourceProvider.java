@@ -0,0 +1,143 @@
+package de.metas.connection.impl;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.adempiere.exceptions.DBNoConnectionException;
+
+import com.mchange.v2.c3p0.ComboPooledDataSource;
+
+import de.metas.connection.DataSourceConfig;
+import de.metas.connection.DataSourcePoolStatus;
+import de.metas.connection.IDataSourceProvider;
+
+/**
+ * c3p0 based data sources. Checkout hooks are done by {@link DB_PostgreSQL_ConnectionCustomizer}.
+ * <p>
+ * On server side, the pool sizes are configured in the <code>c3p0.properties</code> files.
+ */
+public class C3P0DataSourceProvider implements IDataSourceProvider
+{
+	@Override
+	public ComboPooledDataSource createDataSource(final DataSourceConfig config)
+	{
+		try
+		{
+			System.setProperty("com.mchange.v2.log.MLog", com.mchange.v2.log.slf4j.Slf4jMLog.class.getName());
+			// System.setProperty("com.mchange.v2.log.FallbackMLog.DEFAULT_CUTOFF_LEVEL", "ALL");
+			final ComboPooledDataSource cpds = new ComboPooledDataSource();
+			cpds.setDataSourceName(config.getDataSourceName());
+			cpds.setDriverClass(config.getDriverClassName());
+			// loads the jdbc driver
+			cpds.setJdbcUrl(config.getJdbcUrl());
+			cpds.setUser(config.getUsername());
+			cpds.setPassword(config.getPassword());
+			cpds.setPreferredTestQuery(config.getConnectionTestQuery());
+			cpds.setIdleConnectionTestPeriod(1200);
+			// cpds.setTestConnectionOnCheckin(true);
+			// cpds.setTestConnectionOnCheckout(true);
+			cpds.setAcquireRetryAttempts(2);
+
+			if (config.isSwingClient())
+			{
+				// Set checkout timeout to avoid forever locking when trying to connect to a not existing host.
+				cpds.setCheckoutTimeout(config.getSwingClientCheckoutTimeoutMillis());
+
+				cpds.setInitialPoolSize(1);
+				cpds.setMinPoolSize(1);
+				cpds.setMaxPoolSize(20);
+				cpds.setMaxIdleTimeExcessConnections(1200);
+				cpds.setMaxIdleTime(900);
+			}
+			else
+			{
+				// these are set in c3p0.properties files
+				//cpds.setInitialPoolSize(10);
+				//cpds.setMinPoolSize(5);
+				//cpds.setMaxPoolSize(150);
+				cpds.setMaxIdleTimeExcessConnections(1200);
+				cpds.setMaxIdleTime(1200);
+			}
+
+			// the following sometimes kill active connection!
+			// cpds.setUnreturnedConnectionTimeout(1200);
+			// cpds.setDebugUnreturnedConnectionStackTraces(true);
+
+			// 04006: add a customizer to set the log level for message that are send to the client
+			// background: if there are too many messages sent (e.g. from a verbose and long-running DB function)
+			// then the whole JVM might suffer an OutOfMemoryError
+			cpds.setConnectionCustomizerClassName(DB_PostgreSQL_ConnectionCustomizer.class.getName());
+
+			return cpds;
+		}
+		catch (Exception ex)
+		{
+			throw new DBNoConnectionException("Could not initialise C3P0 Datasource", ex);
+		}
+	}
+
+	@Override
+	public int getMaxPoolSize(final DataSource dataSource)
+	{
+		return cast(dataSource).getMaxPoolSize();
+	}
+
+	@Override
+	public int getBusyConnections(final DataSource dataSource) throws SQLException
+	{
+		return cast(dataSource).getNumBusyConnections();
+	}
+
+	@Override
+	public DataSourcePoolStatus getPoolStatus(final DataSource dataSource) throws SQLException
+	{
+		final ComboPooledDataSource cpds = cast(dataSource);
+		return DataSourcePoolStatus.builder()
+				.totalConnections(cpds.getNumConnections())
+				.busyConnections(cpds.getNumBusyConnections())
+				.idleConnections(cpds.getNumIdleConnections())
+				.threadsAwaitingConnection(cpds.getNumThreadsAwaitingCheckoutDefaultUser())
+				.orphanedConnections(cpds.getNumUnclosedOrphanedConnections())
+				.build();
+	}
+
+	@Override
+	public boolean isConnectionAcquireTimeout(final SQLException ex)
+	{
+		return ex.getCause() instanceof com.mchange.v2.resourcepool.TimeoutException;
+	}
+
+	@Override
+	public void closeDataSource(final DataSource dataSource)
+	{
+		cast(dataSource).close();
+	}
+
+	private static ComboPooledDataSource cast(final DataSource dataSource)
+	{
+		return (ComboPooledDataSource)dataSource;
+	}
+}
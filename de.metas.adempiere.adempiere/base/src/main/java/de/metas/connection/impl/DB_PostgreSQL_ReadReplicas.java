@@ -0,0 +1,282 @@
+package de.metas.connection.impl;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import javax.annotation.Nullable;
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.net.HostAndPort;
+
+import de.metas.connection.IDataSourceProvider;
+import de.metas.logging.LogManager;
+import de.metas.util.GuavaCollectors;
+import de.metas.util.SystemUtils;
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * Pool of the read replica databases which are configured via {@value #SYSTEM_PROPERTY_ReadReplicas}.
+ * <p>
+ * Replicas are used round-robin. A replica is skipped while it's failing or while its replication lag exceeds {@value #SYSTEM_PROPERTY_MaxLagSeconds} seconds.
+ * Note that on a primary without any write activity the replay timestamp is not advancing, so the lag looks high and the primary is used, which is the safe choice.
+ *
+ * @see de.metas.connection.IReadReplicaRoutingService
+ */
+@ToString(of = "replicas")
+public final class DB_PostgreSQL_ReadReplicas implements AutoCloseable
+{
+	/** Comma separated list of <code>host:port</code> */
+	public static final String SYSTEM_PROPERTY_ReadReplicas = "metasfresh.db.readReplicas";
+	public static final String SYSTEM_PROPERTY_MaxLagSeconds = "metasfresh.db.readReplicas.maxLagSeconds";
+	public static final String SYSTEM_PROPERTY_LagCheckIntervalSeconds = "metasfresh.db.readReplicas.lagCheckIntervalSeconds";
+
+	/**
+	 * Selects whether the host is a replica at all and its lag in seconds.
+	 * The lag is zero if everything that was received is replayed, because on an idle primary the last replayed transaction gets old although the replica is up to date.
+	 * It is <code>NULL</code> if nothing was replayed yet.
+	 */
+	private static final String SQL_ReplicationLagSeconds = "SELECT pg_is_in_recovery(),"
+			+ " CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0"
+			+ " ELSE EXTRACT(EPOCH FROM (now() - pg_last_xact_replay_timestamp())) END";
+
+	private static final Logger logger = LogManager.getLogger(DB_PostgreSQL_ReadReplicas.class);
+
+	private final IDataSourceProvider dataSourceProvider;
+	private final ImmutableList<ReadReplica> replicas;
+	private final AtomicInteger nextReplicaIndex = new AtomicInteger(0);
+	private final long maxLagSeconds;
+	private final long lagCheckIntervalMillis;
+
+	/**
+	 * @return the configured read replicas or <code>null</code> if there are none configured
+	 */
+	@Nullable
+	public static DB_PostgreSQL_ReadReplicas createFromSystemPropertiesOrNull(
+			@NonNull final IDataSourceProvider dataSourceProvider,
+			@NonNull final Function<HostAndPort, DataSource> dataSourceFactory)
+	{
+		final List<HostAndPort> hosts = parseHosts(System.getProperty(SYSTEM_PROPERTY_ReadReplicas));
+		if (hosts.isEmpty())
+		{
+			return null;
+		}
+
+		return new DB_PostgreSQL_ReadReplicas(
+				dataSourceProvider,
+				hosts,
+				dataSourceFactory,
+				SystemUtils.getSystemProperty(SYSTEM_PROPERTY_MaxLagSeconds, 30),
+				SystemUtils.getSystemProperty(SYSTEM_PROPERTY_LagCheckIntervalSeconds, 10));
+	}
+
+	@VisibleForTesting
+	static List<HostAndPort> parseHosts(@Nullable final String hostsStr)
+	{
+		if (hostsStr == null || hostsStr.trim().isEmpty())
+		{
+			return ImmutableList.of();
+		}
+
+		return Splitter.on(',')
+				.trimResults()
+				.omitEmptyStrings()
+				.splitToList(hostsStr)
+				.stream()
+				.map(HostAndPort::fromString)
+				.collect(GuavaCollectors.toImmutableList());
+	}
+
+	private DB_PostgreSQL_ReadReplicas(
+			@NonNull final IDataSourceProvider dataSourceProvider,
+			@NonNull final List<HostAndPort> hosts,
+			@NonNull final Function<HostAndPort, DataSource> dataSourceFactory,
+			final int maxLagSeconds,
+			final int lagCheckIntervalSeconds)
+	{
+		this.dataSourceProvider = dataSourceProvider;
+		this.replicas = hosts.stream()
+				.map(host -> new ReadReplica(host, dataSourceFactory.apply(host)))
+				.collect(GuavaCollectors.toImmutableList());
+		this.maxLagSeconds = maxLagSeconds;
+		this.lagCheckIntervalMillis = lagCheckIntervalSeconds * 1000L;
+
+		logger.info("Configured read replicas: {} (maxLagSeconds={})", hosts, maxLagSeconds);
+	}
+
+	/**
+	 * @return read-only, auto commit, read committed connection to a usable replica or <code>null</code> if there is none
+	 */
+	@Nullable
+	public Connection getConnectionOrNull()
+	{
+		final int replicasCount = replicas.size();
+		final int startIndex = Math.floorMod(nextReplicaIndex.getAndIncrement(), replicasCount);
+		for (int i = 0; i < replicasCount; i++)
+		{
+			final ReadReplica replica = replicas.get((startIndex + i) % replicasCount);
+			final Connection conn = replica.getConnectionOrNull();
+			if (conn != null)
+			{
+				return conn;
+			}
+		}
+
+		return null;
+	}
+
+	@Override
+	public void close()
+	{
+		replicas.forEach(ReadReplica::close);
+	}
+
+	@ToString(of = { "host", "usable" })
+	private final class ReadReplica
+	{
+		private final HostAndPort host;
+		private final DataSource dataSource;
+
+		private volatile boolean usable = false;
+		private volatile long nextLagCheckMillis = 0;
+
+		private ReadReplica(@NonNull final HostAndPort host, @NonNull final DataSource dataSource)
+		{
+			this.host = host;
+			this.dataSource = dataSource;
+		}
+
+		@Nullable
+		private Connection getConnectionOrNull()
+		{
+			final boolean checkLag = System.currentTimeMillis() >= nextLagCheckMillis;
+			if (!checkLag && !usable)
+			{
+				return null;
+			}
+
+			Connection conn = null;
+			boolean connOk = false;
+			try
+			{
+				conn = dataSource.getConnection();
+				conn = dataSourceProvider.onCheckOut(conn);
+				conn.setAutoCommit(true);
+				conn.setReadOnly(true);
+				conn.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+
+				if (checkLag)
+				{
+					nextLagCheckMillis = System.currentTimeMillis() + lagCheckIntervalMillis;
+					final double lagSeconds = retrieveLagSeconds(conn);
+					usable = lagSeconds <= maxLagSeconds;
+					if (!usable)
+					{
+						logger.info("Not using read replica {} because its replication lag is {}s (max {}s)", host, lagSeconds, maxLagSeconds);
+						return null;
+					}
+				}
+
+				connOk = true;
+				return conn;
+			}
+			catch (final SQLException ex)
+			{
+				usable = false;
+				nextLagCheckMillis = System.currentTimeMillis() + lagCheckIntervalMillis;
+				logger.warn("Not using read replica {} because it failed", host, ex);
+				return null;
+			}
+			finally
+			{
+				if (!connOk)
+				{
+					closeQuietly(conn);
+				}
+			}
+		}
+
+		/**
+		 * @return the replication lag or {@link Double#MAX_VALUE} if it is unknown or if the host is not a replica
+		 */
+		private double retrieveLagSeconds(final Connection conn) throws SQLException
+		{
+			try (final PreparedStatement pstmt = conn.prepareStatement(SQL_ReplicationLagSeconds);
+					final ResultSet rs = pstmt.executeQuery())
+			{
+				if (!rs.next())
+				{
+					return Double.MAX_VALUE;
+				}
+				if (!rs.getBoolean(1))
+				{
+					logger.warn("Read replica {} is not in recovery, i.e. it is not a replica (any more)", host);
+					return Double.MAX_VALUE;
+				}
+
+				final double lagSeconds = rs.getDouble(2);
+				return rs.wasNull() ? Double.MAX_VALUE : lagSeconds;
+			}
+		}
+
+		private void close()
+		{
+			try
+			{
+				dataSourceProvider.closeDataSource(dataSource);
+			}
+			catch (final Exception ex)
+			{
+				logger.warn("Failed closing the datasource of read replica {}", host, ex);
+			}
+		}
+	}
+
+	private static void closeQuietly(@Nullable final Connection conn)
+	{
+		if (conn == null)
+		{
+			return;
+		}
+		try
+		{
+			conn.close();
+		}
+		catch (final SQLException ex)
+		{
+			// nothing to do
+		}
+	}
+}
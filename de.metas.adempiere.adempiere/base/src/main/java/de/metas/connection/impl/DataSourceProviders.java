@@ -0,0 +1,57 @@
+package de.metas.connection.impl;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import org.adempiere.exceptions.AdempiereException;
+
+import de.metas.connection.IDataSourceProvider;
+
+public final class DataSourceProviders
+{
+	/** Which connection pool to use: {@value #C3P0} (default) or {@value #HIKARI} */
+	public static final String SYSTEM_PROPERTY_ConnectionPool = "metasfresh.db.connectionPool";
+
+	public static final String C3P0 = "c3p0";
+	public static final String HIKARI = "hikari";
+
+	private DataSourceProviders()
+	{
+	}
+
+	public static IDataSourceProvider fromSystemProperties()
+	{
+		final String connectionPool = System.getProperty(SYSTEM_PROPERTY_ConnectionPool, C3P0).trim();
+		if (C3P0.equalsIgnoreCase(connectionPool))
+		{
+			return new C3P0DataSourceProvider();
+		}
+		else if (HIKARI.equalsIgnoreCase(connectionPool))
+		{
+			return new HikariDataSourceProvider();
+		}
+		else
+		{
+			throw new AdempiereException("Unknown connection pool '" + connectionPool + "'. Set the system property " + SYSTEM_PROPERTY_ConnectionPool + " to " + C3P0 + " or " + HIKARI + ".");
+		}
+	}
+}
@@ -0,0 +1,238 @@
+package de.metas.connection.impl;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import de.metas.connection.DataSourceConfig;
+import de.metas.connection.DataSourcePoolStatus;
+import de.metas.connection.IConnectionCustomizerService;
+import de.metas.connection.IDataSourceProvider;
+import de.metas.logging.LogManager;
+import de.metas.util.Services;
+import de.metas.util.SystemUtils;
+import lombok.NonNull;
+
+/**
+ * HikariCP based data sources.
+ * <p>
+ * On server side, the pool is configured via the following system properties:
+ * <ul>
+ * <li>{@value #SYSTEM_PROPERTY_MaximumPoolSize} (default {@value #DEFAULT_MaximumPoolSize})
+ * <li>{@value #SYSTEM_PROPERTY_MinimumIdle} (default {@value #DEFAULT_MinimumIdle})
+ * <li>{@value #SYSTEM_PROPERTY_ConnectionTimeoutMillis} (default {@value #DEFAULT_ConnectionTimeoutMillis})
+ * <li>{@value #SYSTEM_PROPERTY_LeakDetectionThresholdMillis} (default 0, i.e. disabled)
+ * </ul>
+ * Besides HikariCP's own MBeans, the pool's metrics are exported via {@link de.metas.connection.jmx.JMXConnectionPool}.
+ */
+public class HikariDataSourceProvider implements IDataSourceProvider
+{
+	private static final transient Logger logger = LogManager.getLogger(HikariDataSourceProvider.class);
+
+	public static final String SYSTEM_PROPERTY_MaximumPoolSize = "metasfresh.db.hikari.maximumPoolSize";
+	public static final String SYSTEM_PROPERTY_MinimumIdle = "metasfresh.db.hikari.minimumIdle";
+	public static final String SYSTEM_PROPERTY_ConnectionTimeoutMillis = "metasfresh.db.hikari.connectionTimeoutMillis";
+	public static final String SYSTEM_PROPERTY_LeakDetectionThresholdMillis = "metasfresh.db.hikari.leakDetectionThresholdMillis";
+
+	private static final int DEFAULT_MaximumPoolSize = 150;
+	private static final int DEFAULT_MinimumIdle = 5;
+	private static final int DEFAULT_ConnectionTimeoutMillis = 30 * 1000;
+
+	private static final String CLIENTINFO_ApplicationName = "ApplicationName";
+	private static final String APPLICATION_NAME_CheckedOut = "metasfresh/checked-out-from-pool";
+	@VisibleForTesting
+	static final String APPLICATION_NAME_ReturnedToPool = "metasfresh/returned-to-pool";
+
+	@Override
+	public HikariDataSource createDataSource(final DataSourceConfig config)
+	{
+		final HikariConfig hikariConfig = new HikariConfig();
+		hikariConfig.setPoolName(config.getDataSourceName());
+		hikariConfig.setDriverClassName(config.getDriverClassName());
+		hikariConfig.setJdbcUrl(config.getJdbcUrl());
+		hikariConfig.setUsername(config.getUsername());
+		hikariConfig.setPassword(config.getPassword());
+		// NOTE: not setting a connection test query because the postgres driver supports Connection.isValid(), which is faster
+
+		// 04006: set the log level for message that are send to the client, see DB_PostgreSQL_ConnectionCustomizer
+		hikariConfig.setConnectionInitSql("SET client_min_messages=WARNING");
+		hikariConfig.addDataSourceProperty(CLIENTINFO_ApplicationName, "metasfresh");
+
+		if (config.isSwingClient())
+		{
+			// Set checkout timeout to avoid forever locking when trying to connect to a not existing host.
+			hikariConfig.setConnectionTimeout(config.getSwingClientCheckoutTimeoutMillis());
+			hikariConfig.setMinimumIdle(1);
+			hikariConfig.setMaximumPoolSize(20);
+			hikariConfig.setIdleTimeout(TimeUnit.SECONDS.toMillis(900));
+		}
+		else
+		{
+			hikariConfig.setConnectionTimeout(SystemUtils.getSystemProperty(SYSTEM_PROPERTY_ConnectionTimeoutMillis, DEFAULT_ConnectionTimeoutMillis));
+			hikariConfig.setMinimumIdle(SystemUtils.getSystemProperty(SYSTEM_PROPERTY_MinimumIdle, DEFAULT_MinimumIdle));
+			hikariConfig.setMaximumPoolSize(SystemUtils.getSystemProperty(SYSTEM_PROPERTY_MaximumPoolSize, DEFAULT_MaximumPoolSize));
+			hikariConfig.setIdleTimeout(TimeUnit.SECONDS.toMillis(1200));
+		}
+
+		hikariConfig.setLeakDetectionThreshold(SystemUtils.getSystemProperty(SYSTEM_PROPERTY_LeakDetectionThresholdMillis, 0));
+
+		// don't fail if the database is not reachable yet; like c3p0, try again when the next connection is requested
+		hikariConfig.setInitializationFailTimeout(-1);
+
+		hikariConfig.setRegisterMbeans(true);
+		final AtomicReference<HikariDataSource> dataSourceRef = new AtomicReference<>();
+		hikariConfig.setMetricsTrackerFactory(HikariPoolMetricsTracker.factory(dataSourceRef::get));
+
+		final HikariDataSource dataSource = new HikariDataSource(hikariConfig);
+		dataSourceRef.set(dataSource);
+		return dataSource;
+	}
+
+	@Override
+	public int getMaxPoolSize(final DataSource dataSource)
+	{
+		return cast(dataSource).getMaximumPoolSize();
+	}
+
+	@Override
+	public int getBusyConnections(final DataSource dataSource)
+	{
+		final HikariPoolMXBean pool = cast(dataSource).getHikariPoolMXBean();
+		return pool != null ? pool.getActiveConnections() : 0;
+	}
+
+	@Override
+	public DataSourcePoolStatus getPoolStatus(final DataSource dataSource)
+	{
+		final HikariPoolMXBean pool = cast(dataSource).getHikariPoolMXBean();
+		if (pool == null)
+		{
+			return DataSourcePoolStatus.builder().build();
+		}
+
+		return DataSourcePoolStatus.builder()
+				.totalConnections(pool.getTotalConnections())
+				.busyConnections(pool.getActiveConnections())
+				.idleConnections(pool.getIdleConnections())
+				.threadsAwaitingConnection(pool.getThreadsAwaitingConnection())
+				.build();
+	}
+
+	@Override
+	public boolean isConnectionAcquireTimeout(final SQLException ex)
+	{
+		return ex instanceof SQLTransientConnectionException;
+	}
+
+	/**
+	 * Does what {@link DB_PostgreSQL_ConnectionCustomizer#onCheckOut(Connection, String)} does for c3p0, because HikariCP has no checkout hooks.
+	 *
+	 * @return a wrapper which does what {@link DB_PostgreSQL_ConnectionCustomizer#onCheckIn(Connection, String)} does when it's closed (i.e. returned to the pool), because HikariCP has no checkin hooks either
+	 */
+	@Override
+	public Connection onCheckOut(final Connection conn) throws SQLException
+	{
+		conn.setClientInfo(CLIENTINFO_ApplicationName, APPLICATION_NAME_CheckedOut); // task 08353
+
+		final IConnectionCustomizerService connectionCustomizerService = Services.get(IConnectionCustomizerService.class);
+		connectionCustomizerService.fireRegisteredCustomizers(conn);
+
+		return resetApplicationNameOnClose(conn);
+	}
+
+	@VisibleForTesting
+	static Connection resetApplicationNameOnClose(@NonNull final Connection conn)
+	{
+		final InvocationHandler invocationHandler = (proxy, method, args) -> {
+			switch (method.getName())
+			{
+				case "equals":
+					return proxy == args[0];
+				case "hashCode":
+					return System.identityHashCode(proxy);
+				case "close":
+					if (!conn.isClosed())
+					{
+						setReturnedToPoolApplicationName(conn);
+					}
+					break;
+				default:
+					break;
+			}
+
+			try
+			{
+				return method.invoke(conn, args);
+			}
+			catch (final InvocationTargetException ex)
+			{
+				throw ex.getCause();
+			}
+		};
+
+		return (Connection)Proxy.newProxyInstance(
+				HikariDataSourceProvider.class.getClassLoader(),
+				new Class<?>[] { Connection.class },
+				invocationHandler);
+	}
+
+	private static void setReturnedToPoolApplicationName(final Connection conn)
+	{
+		try
+		{
+			conn.setClientInfo(CLIENTINFO_ApplicationName, APPLICATION_NAME_ReturnedToPool); // task 08353
+		}
+		catch (final SQLException ex)
+		{
+			// the connection is probably broken; HikariCP will evict it, so there is nothing to reset
+			logger.debug("Failed resetting the {} of {}", CLIENTINFO_ApplicationName, conn, ex);
+		}
+	}
+
+	@Override
+	public void closeDataSource(final DataSource dataSource)
+	{
+		cast(dataSource).close();
+	}
+
+	private static HikariDataSource cast(final DataSource dataSource)
+	{
+		return (HikariDataSource)dataSource;
+	}
+}
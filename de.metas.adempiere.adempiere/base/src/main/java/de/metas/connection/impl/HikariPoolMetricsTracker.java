@@ -0,0 +1,188 @@
+package de.metas.connection.impl;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import javax.management.ObjectName;
+
+import org.adempiere.util.jmx.JMXRegistry;
+import org.adempiere.util.jmx.JMXRegistry.OnJMXAlreadyExistsPolicy;
+
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import de.metas.connection.jmx.JMXConnectionPool;
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * Collects HikariCP's connection acquire and usage times and exports them, together with the pool's connection counts, via {@link JMXConnectionPool}.
+ */
+public final class HikariPoolMetricsTracker implements IMetricsTracker
+{
+	/**
+	 * @param poolConfigSupplier supplies the running pool's config; might return <code>null</code> while the pool is starting
+	 */
+	public static MetricsTrackerFactory factory(@NonNull final Supplier<HikariConfigMXBean> poolConfigSupplier)
+	{
+		return (poolName, poolStats) -> new HikariPoolMetricsTracker(poolName, poolStats, poolConfigSupplier);
+	}
+
+	@Getter
+	private final String poolName;
+	@Getter
+	private final PoolStats poolStats;
+	private final Supplier<HikariConfigMXBean> poolConfigSupplier;
+
+	private final LongAdder acquiredCount = new LongAdder();
+	private final LongAdder acquiredNanosSum = new LongAdder();
+	private final AtomicLong acquiredNanosMax = new AtomicLong();
+	private final LongAdder timeoutCount = new LongAdder();
+	private final LongAdder usageCount = new LongAdder();
+	private final LongAdder usageMillisSum = new LongAdder();
+	private final AtomicLong usageMillisMax = new AtomicLong();
+	private final LongAdder leakSuspectsCount = new LongAdder();
+
+	private final ObjectName jmxObjectName;
+
+	private HikariPoolMetricsTracker(
+			@NonNull final String poolName,
+			@NonNull final PoolStats poolStats,
+			@NonNull final Supplier<HikariConfigMXBean> poolConfigSupplier)
+	{
+		this.poolName = poolName;
+		this.poolStats = poolStats;
+		this.poolConfigSupplier = poolConfigSupplier;
+
+		this.jmxObjectName = JMXRegistry.get().registerJMX(new JMXConnectionPool(this), OnJMXAlreadyExistsPolicy.Replace);
+	}
+
+	@Override
+	public void recordConnectionAcquiredNanos(final long elapsedAcquiredNanos)
+	{
+		acquiredCount.increment();
+		acquiredNanosSum.add(elapsedAcquiredNanos);
+		acquiredNanosMax.accumulateAndGet(elapsedAcquiredNanos, Math::max);
+	}
+
+	@Override
+	public void recordConnectionUsageMillis(final long elapsedBorrowedMillis)
+	{
+		usageCount.increment();
+		usageMillisSum.add(elapsedBorrowedMillis);
+		usageMillisMax.accumulateAndGet(elapsedBorrowedMillis, Math::max);
+
+		final long leakDetectionThresholdMillis = getLeakDetectionThresholdMillis();
+		if (leakDetectionThresholdMillis > 0 && elapsedBorrowedMillis > leakDetectionThresholdMillis)
+		{
+			leakSuspectsCount.increment();
+		}
+	}
+
+	@Override
+	public void recordConnectionTimeout()
+	{
+		timeoutCount.increment();
+	}
+
+	@Override
+	public void close()
+	{
+		JMXRegistry.get().unregisterJMX(jmxObjectName, false);
+	}
+
+	public long getAcquiredCount()
+	{
+		return acquiredCount.sum();
+	}
+
+	public long getAcquiredNanosSum()
+	{
+		return acquiredNanosSum.sum();
+	}
+
+	public long getAcquiredNanosMax()
+	{
+		return acquiredNanosMax.get();
+	}
+
+	public long getTimeoutCount()
+	{
+		return timeoutCount.sum();
+	}
+
+	public long getUsageCount()
+	{
+		return usageCount.sum();
+	}
+
+	public long getUsageMillisSum()
+	{
+		return usageMillisSum.sum();
+	}
+
+	public long getUsageMillisMax()
+	{
+		return usageMillisMax.get();
+	}
+
+	public long getLeakSuspectsCount()
+	{
+		return leakSuspectsCount.sum();
+	}
+
+	public long getLeakDetectionThresholdMillis()
+	{
+		final HikariConfigMXBean poolConfig = poolConfigSupplier.get();
+		return poolConfig != null ? poolConfig.getLeakDetectionThreshold() : 0;
+	}
+
+	/**
+	 * NOTE: the pool picks up the new threshold with its next housekeeping run, i.e. within 30 seconds.
+	 */
+	public void setLeakDetectionThresholdMillis(final long leakDetectionThresholdMillis)
+	{
+		final HikariConfigMXBean poolConfig = poolConfigSupplier.get();
+		if (poolConfig != null)
+		{
+			poolConfig.setLeakDetectionThreshold(leakDetectionThresholdMillis);
+		}
+	}
+
+	public void reset()
+	{
+		acquiredCount.reset();
+		acquiredNanosSum.reset();
+		acquiredNanosMax.set(0);
+		timeoutCount.reset();
+		usageCount.reset();
+		usageMillisSum.reset();
+		usageMillisMax.set(0);
+		leakSuspectsCount.reset();
+	}
+}
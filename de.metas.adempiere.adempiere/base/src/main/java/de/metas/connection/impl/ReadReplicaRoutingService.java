@@ -0,0 +1,62 @@
+package de.metas.connection.impl;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import org.adempiere.util.lang.IAutoCloseable;
+
+import de.metas.connection.IReadReplicaRoutingService;
+
+public class ReadReplicaRoutingService implements IReadReplicaRoutingService
+{
+	/** how many {@link #routeToReadReplica()} scopes are currently open in the current thread */
+	private final ThreadLocal<int[]> routingDepth = ThreadLocal.withInitial(() -> new int[] { 0 });
+
+	@Override
+	public IAutoCloseable routeToReadReplica()
+	{
+		final int[] depth = routingDepth.get();
+		depth[0]++;
+
+		return new IAutoCloseable()
+		{
+			private boolean closed = false;
+
+			@Override
+			public void close()
+			{
+				if (closed)
+				{
+					return;
+				}
+				closed = true;
+				depth[0]--;
+			}
+		};
+	}
+
+	@Override
+	public boolean isRoutingToReadReplica()
+	{
+		return routingDepth.get()[0] > 0;
+	}
+}
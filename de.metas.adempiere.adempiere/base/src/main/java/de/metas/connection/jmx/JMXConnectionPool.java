@@ -0,0 +1,155 @@
+package de.metas.connection.jmx;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.util.concurrent.TimeUnit;
+
+import javax.management.ObjectName;
+
+import org.adempiere.util.jmx.IJMXNameAware;
+
+import de.metas.connection.impl.HikariPoolMetricsTracker;
+import lombok.NonNull;
+
+public class JMXConnectionPool implements JMXConnectionPoolMBean, IJMXNameAware
+{
+	public static final String JMX_BASE_NAME = "de.metas.connection";
+
+	private final String jmxName;
+	private final HikariPoolMetricsTracker metrics;
+
+	public JMXConnectionPool(@NonNull final HikariPoolMetricsTracker metrics)
+	{
+		this.jmxName = JMX_BASE_NAME + ":type=ConnectionPool,name=" + ObjectName.quote(metrics.getPoolName());
+		this.metrics = metrics;
+	}
+
+	@Override
+	public final String getJMXName()
+	{
+		return jmxName;
+	}
+
+	@Override
+	public String getPoolName()
+	{
+		return metrics.getPoolName();
+	}
+
+	@Override
+	public int getActiveConnections()
+	{
+		return metrics.getPoolStats().getActiveConnections();
+	}
+
+	@Override
+	public int getIdleConnections()
+	{
+		return metrics.getPoolStats().getIdleConnections();
+	}
+
+	@Override
+	public int getTotalConnections()
+	{
+		return metrics.getPoolStats().getTotalConnections();
+	}
+
+	@Override
+	public int getMaxConnections()
+	{
+		return metrics.getPoolStats().getMaxConnections();
+	}
+
+	@Override
+	public int getThreadsAwaitingConnection()
+	{
+		return metrics.getPoolStats().getPendingThreads();
+	}
+
+	@Override
+	public long getConnectionsAcquired()
+	{
+		return metrics.getAcquiredCount();
+	}
+
+	@Override
+	public double getAcquireTimeAvgMillis()
+	{
+		final long count = metrics.getAcquiredCount();
+		return count > 0 ? toMillis(metrics.getAcquiredNanosSum()) / count : 0;
+	}
+
+	@Override
+	public double getAcquireTimeMaxMillis()
+	{
+		return toMillis(metrics.getAcquiredNanosMax());
+	}
+
+	@Override
+	public long getConnectionTimeouts()
+	{
+		return metrics.getTimeoutCount();
+	}
+
+	@Override
+	public double getUsageTimeAvgMillis()
+	{
+		final long count = metrics.getUsageCount();
+		return count > 0 ? (double)metrics.getUsageMillisSum() / count : 0;
+	}
+
+	@Override
+	public long getUsageTimeMaxMillis()
+	{
+		return metrics.getUsageMillisMax();
+	}
+
+	@Override
+	public long getLeakSuspects()
+	{
+		return metrics.getLeakSuspectsCount();
+	}
+
+	@Override
+	public long getLeakDetectionThresholdMillis()
+	{
+		return metrics.getLeakDetectionThresholdMillis();
+	}
+
+	@Override
+	public void setLeakDetectionThresholdMillis(final long leakDetectionThresholdMillis)
+	{
+		metrics.setLeakDetectionThresholdMillis(leakDetectionThresholdMillis);
+	}
+
+	@Override
+	public void resetStatistics()
+	{
+		metrics.reset();
+	}
+
+	private static double toMillis(final long nanos)
+	{
+		return (double)nanos / TimeUnit.MILLISECONDS.toNanos(1);
+	}
+}
@@ -0,0 +1,76 @@
+package de.metas.connection.jmx;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Connection pool metrics. Times are measured since the pool was started or since {@link #resetStatistics()}.
+ */
+public interface JMXConnectionPoolMBean
+{
+	String getPoolName();
+
+	int getActiveConnections();
+
+	int getIdleConnections();
+
+	int getTotalConnections();
+
+	int getMaxConnections();
+
+	int getThreadsAwaitingConnection();
+
+	long getConnectionsAcquired();
+
+	/**
+	 * @return average time a thread had to wait until it got a connection from the pool
+	 */
+	double getAcquireTimeAvgMillis();
+
+	double getAcquireTimeMaxMillis();
+
+	/**
+	 * @return how many times a thread did not get a connection within the connection timeout
+	 */
+	long getConnectionTimeouts();
+
+	/**
+	 * @return average time a connection was held before it was returned to the pool
+	 */
+	double getUsageTimeAvgMillis();
+
+	long getUsageTimeMaxMillis();
+
+	/**
+	 * @return how many connections were held longer than {@link #getLeakDetectionThresholdMillis()}; those are also logged by the pool, with the stack trace of the borrower
+	 */
+	long getLeakSuspects();
+
+	/**
+	 * @return leak detection threshold; 0 means the leak detection is disabled
+	 */
+	long getLeakDetectionThresholdMillis();
+
+	void setLeakDetectionThresholdMillis(long leakDetectionThresholdMillis);
+
+	void resetStatistics();
+}
@@ -8,8 +8,6 @@ import static org.adempiere.model.InterfaceWrapperHelper.loadOutOfTrx;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.Date;
-import java.util.List;
-import java.util.Map;
 import java.util.Properties;
 
 import org.adempiere.ad.dao.IQueryBL;
@@ -31,17 +29,22 @@ import org.compiere.model.I_C_Currency;
 import org.compiere.util.Env;
 import org.compiere.util.TimeUtil;
 
+import com.google.common.collect.ImmutableList;
+
 import de.metas.cache.CCache;
 import de.metas.cache.annotation.CacheCtx;
 import de.metas.currency.ConversionType;
 import de.metas.currency.CurrencyConversionContext;
 import de.metas.currency.CurrencyPrecision;
 import de.metas.currency.ICurrencyDAO;
+import de.metas.currency.impl.CurrencyRatesTimeline.CurrencyRateEntry;
 import de.metas.money.CurrencyConversionTypeId;
 import de.metas.money.CurrencyId;
 import de.metas.util.Check;
 import de.metas.util.Services;
+import lombok.Builder;
 import lombok.NonNull;
+import lombok.Value;
 
 /*
  * #%L
@@ -76,6 +79,11 @@ public class CurrencyDAO implements ICurrencyDAO
 			.tableName(I_C_ConversionType.Table_Name)
 			.build();
 
+	private final CCache<CurrencyRatesKey, CurrencyRatesTimeline> ratesTimelines = CCache.<CurrencyRatesKey, CurrencyRatesTimeline> builder()
+			.tableName(I_C_Conversion_Rate.Table_Name)
+			.initialCapacity(50)
+			.build();
+
 	@Override
 	public I_C_Currency getById(@NonNull final CurrencyId currencyId)
 	{
@@ -232,17 +240,61 @@ public class CurrencyDAO implements ICurrencyDAO
 	@Override
 	public BigDecimal retrieveRateOrNull(final CurrencyConversionContext conversionCtx, final int CurFrom_ID, final int CurTo_ID)
 	{
-		final List<Map<String, Object>> result = retrieveRateQuery(conversionCtx, CurFrom_ID, CurTo_ID)
-				.setLimit(1)
+		final CurrencyRatesKey key = CurrencyRatesKey.builder()
+				.currencyFromId(CurrencyId.ofRepoId(CurFrom_ID))
+				.currencyToId(CurrencyId.ofRepoId(CurTo_ID))
+				.conversionTypeId(conversionCtx.getConversionTypeId())
+				.clientId(conversionCtx.getClientId())
+				.build();
+
+		return ratesTimelines.getOrLoad(key, this::retrieveRatesTimeline)
+				.getRateOrNull(conversionCtx.getClientId(), conversionCtx.getOrgId(), conversionCtx.getConversionDate());
+	}
+
+	/**
+	 * @return all rates of the given currency pair and conversion type, for the given client and for system, each org.
+	 */
+	private CurrencyRatesTimeline retrieveRatesTimeline(@NonNull final CurrencyRatesKey key)
+	{
+		final ImmutableList<CurrencyRateEntry> entries = Services.get(IQueryBL.class)
+				.createQueryBuilderOutOfTrx(I_C_Conversion_Rate.class)
+				.addEqualsFilter(I_C_Conversion_Rate.COLUMN_C_Currency_ID, key.getCurrencyFromId())
+				.addEqualsFilter(I_C_Conversion_Rate.COLUMN_C_Currency_ID_To, key.getCurrencyToId())
+				.addEqualsFilter(I_C_Conversion_Rate.COLUMN_C_ConversionType_ID, key.getConversionTypeId())
+				.addInArrayOrAllFilter(I_C_Conversion_Rate.COLUMN_AD_Client_ID, ClientId.SYSTEM, key.getClientId())
+				.addNotEqualsFilter(I_C_Conversion_Rate.COLUMN_ValidFrom, null)
+				.addNotEqualsFilter(I_C_Conversion_Rate.COLUMN_ValidTo, null)
+				.orderBy(I_C_Conversion_Rate.COLUMN_C_Conversion_Rate_ID)
 				.create()
-				.listColumns(I_C_Conversion_Rate.COLUMNNAME_MultiplyRate);
+				.stream(I_C_Conversion_Rate.class)
+				.map(CurrencyDAO::toCurrencyRateEntry)
+				.collect(ImmutableList.toImmutableList());
 
-		if (result.isEmpty())
-		{
-			return null;
-		}
+		return CurrencyRatesTimeline.of(entries);
+	}
 
-		final BigDecimal rate = (BigDecimal)result.get(0).get(I_C_Conversion_Rate.COLUMNNAME_MultiplyRate);
-		return rate;
+	private static CurrencyRateEntry toCurrencyRateEntry(final I_C_Conversion_Rate record)
+	{
+		return CurrencyRateEntry.builder()
+				.clientId(ClientId.ofRepoId(record.getAD_Client_ID()))
+				.orgId(OrgId.ofRepoIdOrAny(record.getAD_Org_ID()))
+				.validFrom(TimeUtil.asLocalDate(record.getValidFrom()))
+				.validTo(TimeUtil.asLocalDate(record.getValidTo()))
+				.multiplyRate(record.getMultiplyRate())
+				.build();
+	}
+
+	@Value
+	@Builder
+	private static class CurrencyRatesKey
+	{
+		@NonNull
+		CurrencyId currencyFromId;
+		@NonNull
+		CurrencyId currencyToId;
+		@NonNull
+		CurrencyConversionTypeId conversionTypeId;
+		@NonNull
+		ClientId clientId;
 	}
 }
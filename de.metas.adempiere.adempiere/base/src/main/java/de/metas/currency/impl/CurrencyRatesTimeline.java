@@ -0,0 +1,165 @@
+package de.metas.currency.impl;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+
+import org.adempiere.service.ClientId;
+import org.adempiere.service.OrgId;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.ToString;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * All conversion rates of one currency pair and conversion type, indexed by client/org and <code>ValidFrom</code>.
+ * <p>
+ * Lookups have the same semantics as {@link CurrencyDAO#retrieveRateQuery(de.metas.currency.CurrencyConversionContext, int, int)}:
+ * rates of the given client win over system rates, rates of the given org win over rates of org <code>*</code>, and the rate with the latest <code>ValidFrom</code> wins.
+ */
+@ToString
+final class CurrencyRatesTimeline
+{
+	public static CurrencyRatesTimeline of(@NonNull final Collection<CurrencyRateEntry> entries)
+	{
+		return new CurrencyRatesTimeline(entries);
+	}
+
+	@Value
+	@Builder
+	static class CurrencyRateEntry
+	{
+		@NonNull
+		ClientId clientId;
+		@NonNull
+		OrgId orgId;
+		@NonNull
+		LocalDate validFrom;
+		/** Rates without ValidTo are never valid, same as in the {@code ValidTo >= ?} SQL filter which was used before */
+		@NonNull
+		LocalDate validTo;
+		@NonNull
+		BigDecimal multiplyRate;
+
+		private boolean isValidOn(final LocalDate date)
+		{
+			return !validFrom.isAfter(date)
+					&& !validTo.isBefore(date);
+		}
+	}
+
+	@Value
+	private static class ClientAndOrg
+	{
+		ClientId clientId;
+		OrgId orgId;
+	}
+
+	private final ImmutableMap<ClientAndOrg, NavigableMap<LocalDate, List<CurrencyRateEntry>>> entriesByClientAndOrg;
+
+	private CurrencyRatesTimeline(final Collection<CurrencyRateEntry> entries)
+	{
+		final Map<ClientAndOrg, NavigableMap<LocalDate, List<CurrencyRateEntry>>> entriesByClientAndOrg = new HashMap<>();
+		for (final CurrencyRateEntry entry : entries)
+		{
+			entriesByClientAndOrg
+					.computeIfAbsent(new ClientAndOrg(entry.getClientId(), entry.getOrgId()), k -> new TreeMap<>())
+					.computeIfAbsent(entry.getValidFrom(), k -> new ArrayList<>())
+					.add(entry);
+		}
+		this.entriesByClientAndOrg = ImmutableMap.copyOf(entriesByClientAndOrg);
+	}
+
+	/**
+	 * @return the multiply rate or {@code null} if there is no rate for the given date
+	 */
+	public BigDecimal getRateOrNull(
+			@NonNull final ClientId clientId,
+			@NonNull final OrgId orgId,
+			@NonNull final LocalDate date)
+	{
+		for (final ClientAndOrg clientAndOrg : getClientAndOrgsByPriority(clientId, orgId))
+		{
+			final CurrencyRateEntry entry = getEntryOrNull(clientAndOrg, date);
+			if (entry != null)
+			{
+				return entry.getMultiplyRate();
+			}
+		}
+
+		return null;
+	}
+
+	private static ImmutableList<ClientAndOrg> getClientAndOrgsByPriority(final ClientId clientId, final OrgId orgId)
+	{
+		final ImmutableList<ClientId> clientIds = clientId.isSystem() ? ImmutableList.of(ClientId.SYSTEM) : ImmutableList.of(clientId, ClientId.SYSTEM);
+		final ImmutableList<OrgId> orgIds = orgId.isAny() ? ImmutableList.of(OrgId.ANY) : ImmutableList.of(orgId, OrgId.ANY);
+
+		final ImmutableList.Builder<ClientAndOrg> result = ImmutableList.builder();
+		for (final ClientId currentClientId : clientIds)
+		{
+			for (final OrgId currentOrgId : orgIds)
+			{
+				result.add(new ClientAndOrg(currentClientId, currentOrgId));
+			}
+		}
+		return result.build();
+	}
+
+	private CurrencyRateEntry getEntryOrNull(final ClientAndOrg clientAndOrg, final LocalDate date)
+	{
+		final NavigableMap<LocalDate, List<CurrencyRateEntry>> entriesByValidFrom = entriesByClientAndOrg.get(clientAndOrg);
+		if (entriesByValidFrom == null)
+		{
+			return null;
+		}
+
+		// Start with the latest ValidFrom which is not after the given date.
+		// Usually that one is also valid on the given date; we only need to look further back if intervals overlap.
+		for (final List<CurrencyRateEntry> candidates : entriesByValidFrom.headMap(date, true).descendingMap().values())
+		{
+			for (final CurrencyRateEntry candidate : candidates)
+			{
+				if (candidate.isValidOn(date))
+				{
+					return candidate;
+				}
+			}
+		}
+
+		return null;
+	}
+}
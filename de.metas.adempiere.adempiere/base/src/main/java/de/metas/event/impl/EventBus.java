@@ -23,7 +23,7 @@ package de.metas.event.impl;
  */
 
 import java.lang.ref.WeakReference;
-import java.util.concurrent.ExecutorService;
+import java.util.Optional;
 import java.util.function.Consumer;
 
 import javax.annotation.Nullable;
@@ -32,7 +32,6 @@ import org.compiere.Adempiere;
 import org.slf4j.Logger;
 
 import com.google.common.base.MoreObjects;
-import com.google.common.eventbus.AsyncEventBus;
 import com.google.common.eventbus.Subscribe;
 import com.google.common.eventbus.SubscriberExceptionContext;
 import com.google.common.eventbus.SubscriberExceptionHandler;
@@ -83,26 +82,21 @@ final class EventBus implements IEventBus
 	@Getter
 	private Type type = Type.LOCAL;
 
-	private final ExecutorService executorOrNull;
+	private final EventBusAsyncExecutor executorOrNull;
 
 	/**
-	 * @param executor if not null, the system creates an {@link AsyncEventBus}; also, it shuts down this executor on {@link #destroy()}
+	 * @param executor if not null, the events are dispatched by this executor; also, it shuts down this executor on {@link #destroy()}
 	 */
 	public EventBus(
 			@NonNull final String topicName,
-			@Nullable final ExecutorService executor)
+			@Nullable final EventBusAsyncExecutor executor)
 	{
 		this.executorOrNull = executor;
 		this.topicName = Check.assumeNotEmpty(topicName, "name not empty");
 
-		if (executor == null)
-		{
-			this.eventBus = new com.google.common.eventbus.EventBus(exceptionHandler);
-		}
-		else
-		{
-			this.eventBus = new com.google.common.eventbus.AsyncEventBus(executor, exceptionHandler);
-		}
+		// Note: we don't use guava's AsyncEventBus, because it hands each subscriber call to the executor separately;
+		// instead, the executor calls this synchronous event bus, so that all subscribers get one event before any of them gets the next one.
+		this.eventBus = new com.google.common.eventbus.EventBus(exceptionHandler);
 	}
 
 	@Override
@@ -190,7 +184,23 @@ final class EventBus implements IEventBus
 		}
 
 		logger.debug("{} - Posting event: {}", this, event);
-		eventBus.post(event);
+		final com.google.common.eventbus.EventBus eventBus = this.eventBus;
+		if (executorOrNull != null)
+		{
+			executorOrNull.execute(event, () -> eventBus.post(event));
+		}
+		else
+		{
+			eventBus.post(event);
+		}
+	}
+
+	/**
+	 * @return statistics of the executor or empty if this event bus is synchronous
+	 */
+	/* package */Optional<EventBusStats> getStats()
+	{
+		return executorOrNull != null ? Optional.of(executorOrNull.getStats()) : Optional.empty();
 	}
 
 	@Override
@@ -0,0 +1,212 @@
+package de.metas.event.impl;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.ad.trx.api.OnTrxMissingPolicy;
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.slf4j.Logger;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.event.Event;
+import de.metas.event.EventBusConstants;
+import de.metas.util.Check;
+import de.metas.util.Services;
+import lombok.Builder;
+import lombok.NonNull;
+
+/**
+ * Executes the dispatching of one topic's events.
+ * <p>
+ * The events are distributed to <code>parallelism</code> worker threads (lanes) by their ordering key, which is the event's {@link Event#getRecord() record}.
+ * Events with the same ordering key are always handled by the same lane, i.e. in the order they were posted.
+ * Events without an ordering key are all handled by the first lane.
+ * That's a limitation: the event bus is per topic and events carry no type, so there is nothing else that tells which events must stay in order,
+ * and spreading them over the lanes would lose the order they had with a single thread.
+ * So a topic whose events mostly have no record won't benefit from a parallelism greater than one.
+ * <p>
+ * Each lane has a bounded queue. What happens if it is full is decided by the {@link QueueFullPolicy}.
+ */
+final class EventBusAsyncExecutor
+{
+	private static final transient Logger logger = EventBusConstants.getLogger(EventBusAsyncExecutor.class);
+
+	/** The lane whose worker is the current thread, if any */
+	private static final ThreadLocal<ThreadPoolExecutor> currentLane = new ThreadLocal<>();
+
+	public enum QueueFullPolicy
+	{
+		/** Wait until there is room in the queue. This is the default. If the event is posted by one of the topic's own lanes, it is dispatched right away by the posting thread instead, because that lane can't make room while waiting. */
+		BLOCK,
+
+		/** Discard the event. Topics have to opt in to it. */
+		DROP,
+
+		/** Like {@link #BLOCK}, but discard the event if the posting thread is running a transaction, because we don't want to stall user transactions. Topics have to opt in to it. */
+		BLOCK_OUTSIDE_TRX
+	}
+
+	private final String topicName;
+	private final QueueFullPolicy queueFullPolicy;
+	private final ImmutableList<ThreadPoolExecutor> lanes;
+
+	private final AtomicLong postedCount = new AtomicLong();
+	private final AtomicLong processedCount = new AtomicLong();
+	private final AtomicLong droppedCount = new AtomicLong();
+
+	@Builder
+	private EventBusAsyncExecutor(
+			@NonNull final String topicName,
+			final int parallelism,
+			final int queueCapacity,
+			@NonNull final QueueFullPolicy queueFullPolicy)
+	{
+		Check.assume(parallelism > 0, "parallelism > 0");
+		Check.assume(queueCapacity > 0, "queueCapacity > 0");
+
+		this.topicName = topicName;
+		this.queueFullPolicy = queueFullPolicy;
+
+		final RejectedExecutionHandler queueFullHandler = this::handleQueueFull;
+		final ImmutableList.Builder<ThreadPoolExecutor> lanes = ImmutableList.builder();
+		for (int i = 0; i < parallelism; i++)
+		{
+			final ThreadPoolExecutor lane = new ThreadPoolExecutor(
+					1, 1,
+					0, TimeUnit.MILLISECONDS,
+					new ArrayBlockingQueue<>(queueCapacity),
+					CustomizableThreadFactory.builder()
+							.setThreadNamePrefix(EventBusFactory.class.getName() + "-" + topicName + "-AsyncExecutor-" + i)
+							.setDaemon(true)
+							.build(),
+					queueFullHandler);
+			lane.prestartAllCoreThreads(); // needed by handleQueueFull, which puts directly into the queue
+			lanes.add(lane);
+		}
+		this.lanes = lanes.build();
+	}
+
+	public void execute(@NonNull final Event event, @NonNull final Runnable dispatcher)
+	{
+		postedCount.incrementAndGet();
+		final ThreadPoolExecutor lane = getLane(event);
+		lane.execute(() -> {
+			final ThreadPoolExecutor previousLane = currentLane.get();
+			currentLane.set(lane);
+			try
+			{
+				dispatcher.run();
+			}
+			finally
+			{
+				currentLane.set(previousLane);
+				processedCount.incrementAndGet();
+			}
+		});
+	}
+
+	private ThreadPoolExecutor getLane(final Event event)
+	{
+		if (lanes.size() == 1)
+		{
+			return lanes.get(0);
+		}
+
+		final Object orderingKey = event.getRecord();
+		if (orderingKey == null)
+		{
+			return lanes.get(0);
+		}
+
+		return lanes.get(Math.floorMod(orderingKey.hashCode(), lanes.size()));
+	}
+
+	private void handleQueueFull(final Runnable task, final ThreadPoolExecutor lane)
+	{
+		if (lane.isShutdown())
+		{
+			throw new RejectedExecutionException("Event bus executor for topic " + topicName + " was shut down");
+		}
+
+		if (queueFullPolicy == QueueFullPolicy.DROP
+				|| (queueFullPolicy == QueueFullPolicy.BLOCK_OUTSIDE_TRX && isRunningInTrx()))
+		{
+			droppedCount.incrementAndGet();
+			logger.warn("Event queue of topic {} is full; dropped event (policy={})", topicName, queueFullPolicy);
+			return;
+		}
+
+		// a listener posted to its own topic; if we waited, we might wait for ourselves (or for another lane which waits for us)
+		if (lanes.contains(currentLane.get()))
+		{
+			logger.debug("Event queue of topic {} is full and the event was posted by one of its lanes; dispatching it in the posting thread", topicName);
+			task.run();
+			return;
+		}
+
+		try
+		{
+			lane.getQueue().put(task);
+		}
+		catch (final InterruptedException ex)
+		{
+			Thread.currentThread().interrupt();
+			droppedCount.incrementAndGet();
+			logger.warn("Interrupted while waiting for room in the event queue of topic {}; dropped event", topicName);
+		}
+	}
+
+	private static boolean isRunningInTrx()
+	{
+		final ITrxManager trxManager = Services.get(ITrxManager.class);
+		final ITrx trx = trxManager.getThreadInheritedTrx(OnTrxMissingPolicy.ReturnTrxNone);
+		return trxManager.isActive(trx);
+	}
+
+	public EventBusStats getStats()
+	{
+		return EventBusStats.builder()
+				.topicName(topicName)
+				.parallelism(lanes.size())
+				.queueFullPolicy(queueFullPolicy.name())
+				.queuedCount(lanes.stream().mapToInt(lane -> lane.getQueue().size()).sum())
+				.postedCount(postedCount.get())
+				.processedCount(processedCount.get())
+				.droppedCount(droppedCount.get())
+				.build();
+	}
+
+	public void shutdown()
+	{
+		lanes.forEach(ThreadPoolExecutor::shutdown);
+	}
+}
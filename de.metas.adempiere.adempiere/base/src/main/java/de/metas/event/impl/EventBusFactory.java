@@ -1,13 +1,13 @@
 package de.metas.event.impl;
 
+import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import org.adempiere.exceptions.AdempiereException;
-import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.adempiere.service.ISysConfigBL;
 import org.adempiere.util.jmx.JMXRegistry;
 import org.adempiere.util.jmx.JMXRegistry.OnJMXAlreadyExistsPolicy;
 import org.slf4j.Logger;
@@ -19,19 +19,24 @@ import com.google.common.cache.LoadingCache;
 import com.google.common.cache.RemovalListener;
 import com.google.common.cache.RemovalNotification;
 import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.SetMultimap;
 
+import de.metas.cache.CacheInvalidationRemoteHandler;
 import de.metas.event.EventBusConstants;
 import de.metas.event.IEventBus;
 import de.metas.event.IEventBusFactory;
 import de.metas.event.IEventListener;
 import de.metas.event.Topic;
 import de.metas.event.Type;
+import de.metas.event.impl.EventBusAsyncExecutor.QueueFullPolicy;
 import de.metas.event.jmx.JMXEventBusManager;
 import de.metas.event.log.EventBus2EventLogHandler;
 import de.metas.event.remote.IEventBusRemoteEndpoint;
 import de.metas.logging.LogManager;
+import de.metas.util.Services;
 import lombok.NonNull;
 
 @Service
@@ -40,6 +45,24 @@ public class EventBusFactory implements IEventBusFactory
 
 	private static final Logger logger = LogManager.getLogger(EventBusFactory.class);
 
+	private static final String SYSCONFIG_PREFIX = "de.metas.event.EventBus.";
+	private static final String SYSCONFIG_SUFFIX_Parallelism = ".Parallelism";
+	private static final String SYSCONFIG_SUFFIX_QueueCapacity = ".QueueCapacity";
+	private static final String SYSCONFIG_SUFFIX_QueueFullPolicy = ".QueueFullPolicy";
+	private static final String TOPIC_NAME_DEFAULT = "Default";
+
+	private static final int DEFAULT_Parallelism = 1;
+	private static final int DEFAULT_QueueCapacity = 10000;
+	private static final QueueFullPolicy DEFAULT_QueueFullPolicy = QueueFullPolicy.BLOCK;
+
+	/**
+	 * Topics whose events are mostly posted by model interceptors, i.e. from within user transactions.
+	 * If their queue is full, we rather drop such an event than stall the user's transaction.
+	 */
+	private static final ImmutableMap<String, QueueFullPolicy> DEFAULT_QueueFullPolicies_ByTopicName = ImmutableMap.of(
+			CacheInvalidationRemoteHandler.TOPIC_NAME_CacheInvalidation, QueueFullPolicy.BLOCK_OUTSIDE_TRX,
+			EventBusConstants.TOPIC_GeneralUserNotifications.getName(), QueueFullPolicy.BLOCK_OUTSIDE_TRX);
+
 	/**
 	 * Map of "topic name" to list of {@link IEventListener}s.
 	 */
@@ -73,7 +96,7 @@ public class EventBusFactory implements IEventBusFactory
 		this.remoteEndpoint = remoteEndpoint;
 		logger.info("Using remote endpoint: {}", remoteEndpoint);
 
-		JMXRegistry.get().registerJMX(new JMXEventBusManager(remoteEndpoint), OnJMXAlreadyExistsPolicy.Replace);
+		JMXRegistry.get().registerJMX(new JMXEventBusManager(remoteEndpoint, this::getAllEventBusStats), OnJMXAlreadyExistsPolicy.Replace);
 
 		// Setup default user notification topics
 		addAvailableUserNotificationsTopic(EventBusConstants.TOPIC_GeneralUserNotifications);
@@ -166,17 +189,73 @@ public class EventBusFactory implements IEventBusFactory
 		return eventBus;
 	}
 
-	private ExecutorService createExecutorOrNull(@NonNull final String eventBusName)
+	private EventBusAsyncExecutor createExecutorOrNull(@NonNull final String eventBusName)
 	{
 		// Setup EventBus executor
-		if (EventBusConstants.isEventBusPostEventsAsync())
+		if (!EventBusConstants.isEventBusPostEventsAsync())
+		{
+			return null;
+		}
+
+		return EventBusAsyncExecutor.builder()
+				.topicName(eventBusName)
+				.parallelism(Math.max(getIntSetting(eventBusName, SYSCONFIG_SUFFIX_Parallelism, DEFAULT_Parallelism), 1))
+				.queueCapacity(Math.max(getIntSetting(eventBusName, SYSCONFIG_SUFFIX_QueueCapacity, DEFAULT_QueueCapacity), 1))
+				.queueFullPolicy(getQueueFullPolicy(eventBusName))
+				.build();
+	}
+
+	/**
+	 * Gets the setting from <code>de.metas.event.EventBus.&lt;topicName&gt;.&lt;setting&gt;</code>,
+	 * falling back to <code>de.metas.event.EventBus.Default.&lt;setting&gt;</code>.
+	 */
+	private static int getIntSetting(final String topicName, final String sysConfigSuffix, final int defaultValue)
+	{
+		try
+		{
+			final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+			final int defaultValueEffective = sysConfigBL.getIntValue(SYSCONFIG_PREFIX + TOPIC_NAME_DEFAULT + sysConfigSuffix, defaultValue);
+			return sysConfigBL.getIntValue(SYSCONFIG_PREFIX + topicName + sysConfigSuffix, defaultValueEffective);
+		}
+		catch (final Exception ex)
 		{
-			return Executors.newSingleThreadExecutor(CustomizableThreadFactory.builder()
-					.setThreadNamePrefix(getClass().getName() + "-" + eventBusName + "-AsyncExecutor")
-					.setDaemon(true)
-					.build());
+			// event busses might be created before the database is available
+			logger.warn("Failed retrieving {} setting for topic {}. Using default {}", sysConfigSuffix, topicName, defaultValue, ex);
+			return defaultValue;
 		}
-		return null;
+	}
+
+	/**
+	 * Gets the policy from <code>de.metas.event.EventBus.&lt;topicName&gt;.QueueFullPolicy</code>.
+	 * <p>
+	 * Unlike the other settings, there is no fallback to a <code>Default</code> key:
+	 * the policies other than {@link QueueFullPolicy#BLOCK} drop events, so each topic whose events may be dropped has to opt in explicitly.
+	 * The only topics which opt in by default are those from {@link #DEFAULT_QueueFullPolicies_ByTopicName}.
+	 */
+	private static QueueFullPolicy getQueueFullPolicy(final String topicName)
+	{
+		final QueueFullPolicy defaultPolicy = DEFAULT_QueueFullPolicies_ByTopicName.getOrDefault(topicName, DEFAULT_QueueFullPolicy);
+		try
+		{
+			final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+			return QueueFullPolicy.valueOf(sysConfigBL.getValue(SYSCONFIG_PREFIX + topicName + SYSCONFIG_SUFFIX_QueueFullPolicy, defaultPolicy.name()));
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed retrieving the queue full policy for topic {}. Using default {}", topicName, defaultPolicy, ex);
+			return defaultPolicy;
+		}
+	}
+
+	private List<EventBusStats> getAllEventBusStats()
+	{
+		return topic2eventBus.asMap()
+				.values()
+				.stream()
+				.map(EventBus::getStats)
+				.filter(Optional::isPresent)
+				.map(Optional::get)
+				.collect(ImmutableList.toImmutableList());
 	}
 
 	private void destroyEventBus(@NonNull final EventBus eventBus)
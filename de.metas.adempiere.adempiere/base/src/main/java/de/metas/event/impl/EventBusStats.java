@@ -0,0 +1,47 @@
+package de.metas.event.impl;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/**
+ * Throughput and lag of one asynchronous event bus.
+ */
+@Value
+@Builder
+public class EventBusStats
+{
+	@NonNull
+	String topicName;
+	int parallelism;
+	@NonNull
+	String queueFullPolicy;
+
+	/** Number of events which were posted but not yet dispatched, i.e. the lag. */
+	int queuedCount;
+	long postedCount;
+	long processedCount;
+	long droppedCount;
+}
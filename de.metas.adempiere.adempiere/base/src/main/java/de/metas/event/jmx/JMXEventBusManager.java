@@ -1,20 +1,28 @@
 package de.metas.event.jmx;
 
+import java.util.List;
+import java.util.function.Supplier;
+
 import org.adempiere.util.jmx.IJMXNameAware;
 
 import de.metas.event.EventBusConstants;
+import de.metas.event.impl.EventBusStats;
 import de.metas.event.remote.IEventBusRemoteEndpoint;
 
 public class JMXEventBusManager implements JMXEventBusManagerMBean, IJMXNameAware
 {
 	private final String jmxName;
 	private final IEventBusRemoteEndpoint remoteEndpoint;
+	private final Supplier<List<EventBusStats>> eventBusStatsSupplier;
 
-	public JMXEventBusManager(final IEventBusRemoteEndpoint remoteEndpoint)
+	public JMXEventBusManager(
+			final IEventBusRemoteEndpoint remoteEndpoint,
+			final Supplier<List<EventBusStats>> eventBusStatsSupplier)
 	{
 		super();
 		this.jmxName = EventBusConstants.JMX_BASE_NAME + ":type=EventBusManager";
 		this.remoteEndpoint = remoteEndpoint;
+		this.eventBusStatsSupplier = eventBusStatsSupplier;
 	}
 
 	@Override
@@ -46,4 +54,14 @@ public class JMXEventBusManager implements JMXEventBusManagerMBean, IJMXNameAwar
 	{
 		return EventBusConstants.getSenderId();
 	}
+
+	@Override
+	public String[] getEventBusStats()
+	{
+		return eventBusStatsSupplier.get()
+				.stream()
+				.map(EventBusStats::toString)
+				.sorted()
+				.toArray(String[]::new);
+	}
 }
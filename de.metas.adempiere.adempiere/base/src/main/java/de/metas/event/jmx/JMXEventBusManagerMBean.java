@@ -40,4 +40,9 @@ public interface JMXEventBusManagerMBean
 	boolean isRemoteEndpointConnected();
 
 	String getSenderId();
+
+	/**
+	 * @return lag (queued events) and throughput (posted, processed and dropped events) of each asynchronous event bus
+	 */
+	String[] getEventBusStats();
 }
@@ -1,12 +1,17 @@
 package de.metas.event.remote;
 
+import javax.annotation.PreDestroy;
+
 import org.springframework.amqp.core.AmqpTemplate;
 import org.springframework.amqp.core.AnonymousQueue;
 import org.springframework.amqp.core.Binding;
 import org.springframework.amqp.core.BindingBuilder;
 import org.springframework.amqp.core.FanoutExchange;
 import org.springframework.amqp.rabbit.annotation.EnableRabbit;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionNameStrategy;
+import org.springframework.amqp.rabbit.core.BatchingRabbitTemplate;
+import org.springframework.amqp.rabbit.core.support.SimpleBatchingStrategy;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -15,6 +20,7 @@ import org.springframework.context.annotation.Profile;
 import org.springframework.messaging.converter.MappingJackson2MessageConverter;
 import org.springframework.messaging.handler.annotation.support.DefaultMessageHandlerMethodFactory;
 import org.springframework.messaging.handler.annotation.support.MessageHandlerMethodFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -54,6 +60,30 @@ public class AMQPEventBusConfiguration
 	@Value("${spring.application.name:spring.application.name-not-set}")
 	private String appName;
 
+	/**
+	 * If true, events are sent in the binary smile format instead of JSON.
+	 * <p>
+	 * Nodes receive smile regardless of this setting, but only since they know smile at all.
+	 * So when upgrading, first upgrade all nodes that share the RabbitMQ exchange and only then set this to true.
+	 */
+	@Value("${metasfresh.events.amqp.smile:false}")
+	private boolean sendEventsAsSmile;
+
+	/** Max number of events to send in one AMQP message. Values <= 1 disable the batching. */
+	@Value("${metasfresh.events.amqp.batch.size:100}")
+	private int eventsBatchSize;
+
+	/** Max number of bytes to send in one AMQP message. */
+	@Value("${metasfresh.events.amqp.batch.bufferLimit:1048576}")
+	private int eventsBatchBufferLimit;
+
+	/** Max number of milliseconds to wait for more events before sending an incomplete batch. */
+	@Value("${metasfresh.events.amqp.batch.timeoutMillis:10}")
+	private long eventsBatchTimeoutMillis;
+
+	private ThreadPoolTaskScheduler eventsBatchScheduler;
+	private BatchingRabbitTemplate eventsBatchingTemplate;
+
 	@Bean
 	public AnonymousQueue.NamingStrategy namingStrategy()
 	{
@@ -83,7 +113,7 @@ public class AMQPEventBusConfiguration
 	@Bean
 	public org.springframework.amqp.support.converter.MessageConverter amqpMessageConverter(final ObjectMapper jsonObjectMapper)
 	{
-		return new Jackson2JsonMessageConverter(jsonObjectMapper);
+		return new EventAMQPMessageConverter(new Jackson2JsonMessageConverter(jsonObjectMapper), sendEventsAsSmile);
 	}
 
 	@Bean
@@ -113,8 +143,43 @@ public class AMQPEventBusConfiguration
 	}
 
 	@Bean
-	public RabbitMQEventBusRemoteEndpoint eventBusRemoteEndpoint(@NonNull final AmqpTemplate amqpTemplate)
+	public RabbitMQEventBusRemoteEndpoint eventBusRemoteEndpoint(
+			@NonNull final AmqpTemplate amqpTemplate,
+			@NonNull final ConnectionFactory connectionFactory,
+			@NonNull final org.springframework.amqp.support.converter.MessageConverter amqpMessageConverter)
+	{
+		if (eventsBatchSize <= 1)
+		{
+			return new RabbitMQEventBusRemoteEndpoint(amqpTemplate);
+		}
+
+		// Note: we don't expose the template and scheduler as beans, because we don't want spring-boot to use them for anything else but our events
+		eventsBatchScheduler = new ThreadPoolTaskScheduler();
+		eventsBatchScheduler.setThreadNamePrefix("metasfresh-events-batch-");
+		eventsBatchScheduler.setDaemon(true);
+		eventsBatchScheduler.initialize();
+
+		// Sends many events in one AMQP message; @RabbitListeners get them one by one again, because the listener container de-batches them.
+		// Batches are sent in the order in which their events were sent, so the events' order is preserved.
+		eventsBatchingTemplate = new BatchingRabbitTemplate(
+				new SimpleBatchingStrategy(eventsBatchSize, eventsBatchBufferLimit, eventsBatchTimeoutMillis),
+				eventsBatchScheduler);
+		eventsBatchingTemplate.setConnectionFactory(connectionFactory);
+		eventsBatchingTemplate.setMessageConverter(amqpMessageConverter);
+
+		return new RabbitMQEventBusRemoteEndpoint(eventsBatchingTemplate);
+	}
+
+	@PreDestroy
+	public void flushAndShutdownEventsBatching()
 	{
-		return new RabbitMQEventBusRemoteEndpoint(amqpTemplate);
+		if (eventsBatchingTemplate != null)
+		{
+			eventsBatchingTemplate.flush();
+		}
+		if (eventsBatchScheduler != null)
+		{
+			eventsBatchScheduler.shutdown();
+		}
 	}
 }
@@ -0,0 +1,92 @@
+package de.metas.event.remote;
+
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import de.metas.event.Event;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Converts {@link Event}s using the {@link SmileEventSerializer} (if sending smile is enabled) and everything else using the given delegate.
+ * <p>
+ * Incoming messages are converted according to their content type, so we can still read JSON events from nodes which don't send smile (yet).
+ */
+public class EventAMQPMessageConverter implements MessageConverter
+{
+	private final MessageConverter delegate;
+	private final IEventBinarySerializer eventSerializer = SmileEventSerializer.instance;
+	private final boolean sendEventsAsSmile;
+
+	public EventAMQPMessageConverter(
+			@NonNull final MessageConverter delegate,
+			final boolean sendEventsAsSmile)
+	{
+		this.delegate = delegate;
+		this.sendEventsAsSmile = sendEventsAsSmile;
+	}
+
+	@Override
+	public Message toMessage(final Object object, final MessageProperties messageProperties) throws MessageConversionException
+	{
+		if (!sendEventsAsSmile || !(object instanceof Event))
+		{
+			return delegate.toMessage(object, messageProperties);
+		}
+
+		final byte[] body;
+		try
+		{
+			body = eventSerializer.toBytes((Event)object);
+		}
+		catch (final Exception ex)
+		{
+			throw new MessageConversionException("Failed converting event to message: " + object, ex);
+		}
+
+		messageProperties.setContentType(eventSerializer.getContentType());
+		messageProperties.setContentLength(body.length);
+		return new Message(body, messageProperties);
+	}
+
+	@Override
+	public Object fromMessage(final Message message) throws MessageConversionException
+	{
+		if (!eventSerializer.getContentType().equals(message.getMessageProperties().getContentType()))
+		{
+			return delegate.fromMessage(message);
+		}
+
+		try
+		{
+			return eventSerializer.fromBytes(message.getBody());
+		}
+		catch (final Exception ex)
+		{
+			throw new MessageConversionException("Failed converting message to event: " + message, ex);
+		}
+	}
+}
@@ -106,7 +106,9 @@ public class RabbitMQEventBusRemoteEndpoint implements IEventBusRemoteEndpoint
 				return;
 			}
 
-			amqpTemplate.convertAndSend(AMQPEventBusConfiguration.EVENTS_EXCHANGE_NAME, "", event, message -> {
+			// the exchange is a fanout exchange, so the routing key is not used for routing;
+			// but a batching template puts only messages with the same routing key into one batch, and all of a batch's events get the headers of its first event
+			amqpTemplate.convertAndSend(AMQPEventBusConfiguration.EVENTS_EXCHANGE_NAME, topicName, event, message -> {
 				final Map<String, Object> headers = message.getMessageProperties().getHeaders();
 				headers.put(HEADER_SenderId, getSenderId());
 				headers.put(HEADER_TopicName, topicName);
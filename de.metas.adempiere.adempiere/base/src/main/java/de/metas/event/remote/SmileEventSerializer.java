@@ -0,0 +1,87 @@
+package de.metas.event.remote;
+
+import java.io.IOException;
+
+import org.adempiere.exceptions.AdempiereException;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import de.metas.event.Event;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Serializes {@link Event}s to Smile, the binary equivalent of the JSON produced by {@link JacksonJsonEventSerializer}.
+ * We use it to send events to remote event buses, because it is considerably smaller and faster to read and write.
+ */
+public class SmileEventSerializer implements IEventBinarySerializer
+{
+	public static final transient SmileEventSerializer instance = new SmileEventSerializer();
+
+	public static final String CONTENT_TYPE = "application/x-jackson-smile";
+
+	private final ObjectMapper smileObjectMapper;
+
+	private SmileEventSerializer()
+	{
+		smileObjectMapper = new ObjectMapper(new SmileFactory());
+		smileObjectMapper.registerModule(new JavaTimeModule());
+		smileObjectMapper.disable(DeserializationFeature.ADJUST_DATES_TO_CONTEXT_TIME_ZONE);
+	}
+
+	@Override
+	public String getContentType()
+	{
+		return CONTENT_TYPE;
+	}
+
+	@Override
+	public byte[] toBytes(@NonNull final Event event)
+	{
+		try
+		{
+			return smileObjectMapper.writeValueAsBytes(event);
+		}
+		catch (final IOException ex)
+		{
+			throw new AdempiereException("Failed converting event to smile: " + event, ex);
+		}
+	}
+
+	@Override
+	public Event fromBytes(@NonNull final byte[] eventBytes)
+	{
+		try
+		{
+			return smileObjectMapper.readValue(eventBytes, Event.class);
+		}
+		catch (final IOException ex)
+		{
+			throw new AdempiereException("Failed converting smile to event; length=" + eventBytes.length, ex);
+		}
+	}
+}
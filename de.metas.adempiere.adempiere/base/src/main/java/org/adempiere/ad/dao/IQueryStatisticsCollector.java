@@ -34,13 +34,38 @@ import com.google.common.base.Stopwatch;
  */
 public interface IQueryStatisticsCollector
 {
+	/**
+	 * Rows count to be used if the number of returned or affected rows is not known.
+	 */
+	int ROWS_COUNT_Unknown = -1;
+
+	/**
+	 * Allows the collector to sample the executed statements, so that it can stay enabled at low overhead.
+	 *
+	 * @return true if the next statement shall be measured and collected
+	 */
+	default boolean isSampleNext()
+	{
+		return true;
+	}
+
 	/**
 	 * Collect given <code>sql</code> query (that will be executed)
 	 *
 	 * @param sql
 	 * @param duration
 	 */
-	void collect(String sql, Stopwatch duration);
+	default void collect(final String sql, final Stopwatch duration)
+	{
+		collect(sql, duration, ROWS_COUNT_Unknown);
+	}
+
+	/**
+	 * Collect given <code>sql</code> query (that was executed)
+	 *
+	 * @param rowsCount number of affected rows or {@link #ROWS_COUNT_Unknown}
+	 */
+	void collect(String sql, Stopwatch duration, int rowsCount);
 
 	/**
 	 * Collect given statement query (that will be executed)
@@ -48,5 +73,21 @@ public interface IQueryStatisticsCollector
 	 * @param vo statement value object
 	 * @param duration
 	 */
-	void collect(CStatementVO vo, Stopwatch duration);
+	default void collect(final CStatementVO vo, final Stopwatch duration)
+	{
+		collect(vo, duration, ROWS_COUNT_Unknown);
+	}
+
+	/**
+	 * Collect given statement query (that was executed)
+	 *
+	 * @param vo statement value object
+	 * @param rowsCount number of affected rows or {@link #ROWS_COUNT_Unknown}
+	 */
+	void collect(CStatementVO vo, Stopwatch duration, int rowsCount);
+
+	/**
+	 * Collect the number of rows which were fetched from the result set of a previously collected <code>sql</code> query.
+	 */
+	void collectFetchedRows(String sql, int rowsCount);
 }
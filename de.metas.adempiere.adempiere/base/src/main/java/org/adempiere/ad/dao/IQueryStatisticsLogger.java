@@ -27,6 +27,8 @@ import java.util.Date;
 /**
  * Query Statistics Logger: build up a list of top used SQL queries
  *
+ * NOTE: the queries are aggregated by their fingerprints, i.e. queries which differ only in their literals and IN-list lengths are considered the same query.
+ *
  * NOTE: it is disabled by default
  *
  * @author tsa
@@ -103,4 +105,19 @@ public interface IQueryStatisticsLogger
 	 * @return
 	 */
 	String[] getTopAverageDurationQueriesAsString();
+
+	/**
+	 * Gets top SQL queries ordered by their 99th percentile execution time (descending)
+	 */
+	String[] getTopP99DurationQueriesAsString();
+
+	/**
+	 * Sets the fraction of executed statements which are collected, e.g. 0.01 to collect one percent of them.
+	 * Lower rates allow to keep the collector enabled in production.
+	 *
+	 * @param sampleRate value between 0 (exclusive) and 1 (inclusive)
+	 */
+	void setSampleRate(double sampleRate);
+
+	double getSampleRate();
 }
@@ -1,13 +1,17 @@
 package org.adempiere.ad.dao.impl;
 
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.adempiere.ad.dao.IQueryStatisticsCollector;
 import org.adempiere.ad.dao.IQueryStatisticsLogger;
@@ -25,6 +29,7 @@ import org.springframework.stereotype.Service;
 import com.google.common.base.Stopwatch;
 
 import de.metas.logging.LogManager;
+import de.metas.monitoring.api.impl.Timer;
 import de.metas.util.Check;
 import de.metas.util.Services;
 import de.metas.util.time.SystemTime;
@@ -38,12 +43,18 @@ public class QueryStatisticsLogger implements IQueryStatisticsLogger, IQueryStat
 	private static final TimeUnit TIMEUNIT_Internal = TimeUnit.NANOSECONDS;
 	private static final TimeUnit TIMEUNIT_Display = TimeUnit.MILLISECONDS;
 
-	private boolean enabled = false;
-	private final ConcurrentHashMap<String, QueryStatistics> sql2statistics = new ConcurrentHashMap<>();
+	/** Max number of distinct SQL fingerprints we collect statistics for, to bound the memory in case something generates unparameterized SQLs */
+	private static final int MAX_FINGERPRINTS = 10_000;
+	/** How many of the slowest executions are retained per fingerprint */
+	private static final int SLOWEST_SAMPLES_COUNT = 5;
+
+	private volatile boolean enabled = false;
+	private volatile double sampleRate = 1.0;
+	private final ConcurrentHashMap<String, QueryStatistics> fingerprint2statistics = new ConcurrentHashMap<>();
 	private Date validFrom = null;
 	private String filterBy = null;
 
-	private boolean traceSqlQueries = false;
+	private volatile boolean traceSqlQueries = false;
 	private static final AtomicInteger traceSqlQueries_Count = new AtomicInteger(0);
 
 	private static final boolean logToSystemError = Boolean.getBoolean(SYSTEM_PROPERTY_LOG_TO_SYSTEM_ERROR);
@@ -65,7 +76,24 @@ public class QueryStatisticsLogger implements IQueryStatisticsLogger, IQueryStat
 	}
 
 	@Override
-	public void collect(final CStatementVO vo, final Stopwatch duration)
+	public boolean isSampleNext()
+	{
+		if (!enabled)
+		{
+			return false;
+		}
+		if (traceSqlQueries)
+		{
+			// when tracing, we want to see all SQLs
+			return true;
+		}
+
+		final double sampleRate = this.sampleRate;
+		return sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+	}
+
+	@Override
+	public void collect(final CStatementVO vo, final Stopwatch duration, final int rowsCount)
 	{
 		if (!enabled)
 		{
@@ -75,11 +103,11 @@ public class QueryStatisticsLogger implements IQueryStatisticsLogger, IQueryStat
 		final String sql = vo == null ? null : vo.getSql();
 		final Map<Integer, Object> sqlParams = vo == null ? null : vo.getDebugSqlParams();
 		final String trxName = vo == null ? "?" : vo.getTrxName();
-		collect(sql, sqlParams, trxName, duration);
+		collect(sql, sqlParams, trxName, duration, rowsCount);
 	}
 
 	@Override
-	public void collect(final String sql, final Stopwatch duration)
+	public void collect(final String sql, final Stopwatch duration, final int rowsCount)
 	{
 		if (!enabled)
 		{
@@ -88,10 +116,10 @@ public class QueryStatisticsLogger implements IQueryStatisticsLogger, IQueryStat
 
 		final Map<Integer, Object> sqlParams = null;
 		final String trxName = "?";
-		collect(sql, sqlParams, trxName, duration);
+		collect(sql, sqlParams, trxName, duration, rowsCount);
 	}
 
-	private void collect(final String sql, final Map<Integer, Object> sqlParams, final String trxName, final Stopwatch durationStopwatch)
+	private void collect(final String sql, final Map<Integer, Object> sqlParams, final String trxName, final Stopwatch durationStopwatch, final int rowsCount)
 	{
 		if (!enabled)
 		{
@@ -108,15 +136,53 @@ public class QueryStatisticsLogger implements IQueryStatisticsLogger, IQueryStat
 			return;
 		}
 
-		final QueryStatistics queryStatistics = sql2statistics.computeIfAbsent(sql, (sqlKey) -> new QueryStatistics(sqlKey));
-		final CountAndDuration duration = queryStatistics.incrementAndGet(durationValue);
+		final QueryStatistics queryStatistics = getOrCreateQueryStatistics(sql);
+		if (queryStatistics != null)
+		{
+			queryStatistics.record(durationValue, rowsCount, sql, sqlParams, trxName);
+		}
 
 		if (traceSqlQueries)
 		{
-			traceSqlQuery(sql, sqlParams, trxName, duration);
+			traceSqlQuery(sql, sqlParams, trxName, durationValue, queryStatistics);
 		}
 	}
 
+	@Override
+	public void collectFetchedRows(final String sql, final int rowsCount)
+	{
+		if (!enabled || !isSqlAccepted(sql))
+		{
+			return;
+		}
+
+		final QueryStatistics queryStatistics = fingerprint2statistics.get(SqlFingerprints.of(sql));
+		if (queryStatistics != null)
+		{
+			queryStatistics.addRows(rowsCount);
+		}
+	}
+
+	/**
+	 * @return statistics for given SQL's fingerprint or <code>null</code> if we already reached {@link #MAX_FINGERPRINTS}
+	 */
+	private QueryStatistics getOrCreateQueryStatistics(final String sql)
+	{
+		final String fingerprint = SqlFingerprints.of(sql);
+		final QueryStatistics queryStatistics = fingerprint2statistics.get(fingerprint);
+		if (queryStatistics != null)
+		{
+			return queryStatistics;
+		}
+
+		if (fingerprint2statistics.size() >= MAX_FINGERPRINTS)
+		{
+			return null;
+		}
+
+		return fingerprint2statistics.computeIfAbsent(fingerprint, QueryStatistics::new);
+	}
+
 	@Override
 	@ManagedOperation(description = "Enables statistics collector")
 	public void enable()
@@ -166,7 +232,7 @@ public class QueryStatisticsLogger implements IQueryStatisticsLogger, IQueryStat
 	@ManagedOperation(description = "Resets currently collected statistics and counters")
 	public void reset()
 	{
-		sql2statistics.clear();
+		fingerprint2statistics.clear();
 		validFrom = SystemTime.asDate();
 	}
 
@@ -200,6 +266,21 @@ public class QueryStatisticsLogger implements IQueryStatisticsLogger, IQueryStat
 		setFilterBy(null);
 	}
 
+	@Override
+	@ManagedOperation(description = "Sets the fraction of executed SQLs which are collected (e.g. 0.01 for one percent). NOTE: this is not affecting the SQL tracing.")
+	public void setSampleRate(final double sampleRate)
+	{
+		Check.assume(sampleRate > 0 && sampleRate <= 1, "sampleRate shall be between 0 (exclusive) and 1 (inclusive) but it was {}", sampleRate);
+		this.sampleRate = sampleRate;
+	}
+
+	@Override
+	@ManagedOperation(description = "Gets the fraction of executed SQLs which are collected")
+	public double getSampleRate()
+	{
+		return sampleRate;
+	}
+
 	private final boolean isSqlAccepted(final String sql)
 	{
 		if (sql == null)
@@ -225,12 +306,13 @@ public class QueryStatisticsLogger implements IQueryStatisticsLogger, IQueryStat
 		return validFrom;
 	}
 
-	private final void traceSqlQuery(final String sql, final Map<Integer, Object> sqlParams, final String trxName, final CountAndDuration duration)
+	private final void traceSqlQuery(final String sql, final Map<Integer, Object> sqlParams, final String trxName, final long duration, final QueryStatistics queryStatistics)
 	{
 		final Thread thread = Thread.currentThread();
 		final String threadName = thread.getName();
 		final StackTraceElement[] stacktrace = thread.getStackTrace();
-		final String durationStr = duration.getLastDurationAsString(TIMEUNIT_Display) + " (Avg. " + duration.getAverageDurationAsString(TIMEUNIT_Display) + ")";
+		final String durationStr = format(duration, TIMEUNIT_Internal, TIMEUNIT_Display)
+				+ (queryStatistics != null ? " (Avg. " + queryStatistics.getAverageDurationAsString() + ")" : "");
 		final String trxNameInfo = extractTrxNameInfo(trxName);
 
 		final int count = traceSqlQueries_Count.incrementAndGet();
@@ -347,7 +429,7 @@ public class QueryStatisticsLogger implements IQueryStatisticsLogger, IQueryStat
 	@ManagedOperation(description = "Gets top SQL queries ordered by their total summed executon time (descending)")
 	public String[] getTopTotalDurationQueriesAsString()
 	{
-		return getTopQueriesAsString(Comparator.comparing(QueryStatistics::getTotalDuration));
+		return getTopQueriesAsString(Comparator.comparing(QueryStatistics::getTotalDurationMillis));
 	}
 
 	@Override
@@ -361,129 +443,171 @@ public class QueryStatisticsLogger implements IQueryStatisticsLogger, IQueryStat
 	@ManagedOperation(description = "Gets top SQL queries ordered by their average execution time (descending)")
 	public String[] getTopAverageDurationQueriesAsString()
 	{
-		return getTopQueriesAsString(Comparator.comparing(QueryStatistics::getAverageDuration));
+		return getTopQueriesAsString(Comparator.comparing(QueryStatistics::getAverageDurationMillis));
+	}
+
+	@Override
+	@ManagedOperation(description = "Gets top SQL queries ordered by their 99th percentile execution time (descending)")
+	public String[] getTopP99DurationQueriesAsString()
+	{
+		return getTopQueriesAsString(Comparator.comparing(QueryStatistics::getP99DurationMillis));
 	}
 
 	private String[] getTopQueriesAsString(final Comparator<QueryStatistics> comparing)
 	{
-		return sql2statistics.values()
+		return fingerprint2statistics.values()
 				.stream()
 				.sorted(comparing.reversed())
 				.map(stat -> stat.toString())
 				.toArray(size -> new String[size]);
 	}
 
-	private static final class CountAndDuration
+	private static final String formatMillis(final double durationMillis)
 	{
-		public static final CountAndDuration ZERO = new CountAndDuration(0, 0, 0);
+		return String.format("%.4g %s", durationMillis, abbreviate(TimeUnit.MILLISECONDS));
+	}
 
-		private final long count;
-		private final long durationTotal;
-		private final long durationLast;
+	/** One execution of a given SQL fingerprint, retained because it was one of the slowest */
+	private static final class QuerySample
+	{
+		private final long duration;
+		private final String sql;
+		private final Map<Integer, Object> sqlParams;
+		private final String trxName;
+		private final Date timestamp;
 
-		private CountAndDuration(final long count, final long durationTotal, final long durationLast)
+		private QuerySample(final long duration, final String sql, final Map<Integer, Object> sqlParams, final String trxName)
 		{
-			this.count = count;
-			this.durationTotal = durationTotal;
-			this.durationLast = durationLast;
+			this.duration = duration;
+			this.sql = sql;
+			this.sqlParams = sqlParams == null || sqlParams.isEmpty() ? null : new TreeMap<>(sqlParams);
+			this.trxName = trxName;
+			this.timestamp = SystemTime.asDate();
 		}
 
 		@Override
 		public String toString()
 		{
-			return getAverageDurationAsString(TIMEUNIT_Display)
-					+ ", Total " + getTotalDurationAsString(TIMEUNIT_Display);
+			return format(duration, TIMEUNIT_Internal, TIMEUNIT_Display)
+					+ " at " + timestamp
+					+ ", trxName=" + trxName
+					+ (sqlParams != null ? ", params=" + sqlParams : "")
+					+ ": " + sql;
 		}
 
-		public String getAverageDurationAsString(final TimeUnit timeUnit)
+		public long getDuration()
 		{
-			return format(getAverageDuration(), TIMEUNIT_Internal, timeUnit) + " / " + count + " executions";
+			return duration;
 		}
+	}
 
-		public String getLastDurationAsString(final TimeUnit timeUnit)
-		{
-			return format(durationLast, TIMEUNIT_Internal, timeUnit);
-		}
+	private static final class QueryStatistics
+	{
+		private final String fingerprint;
+
+		/** Not registered anywhere, we only use it for its lock-free latency histogram */
+		private final Timer timer = new Timer();
+		private final LongAdder rowsTotal = new LongAdder();
+
+		private final List<QuerySample> slowestSamples = new ArrayList<>(SLOWEST_SAMPLES_COUNT + 1);
+		/** Duration of the fastest retained sample, once we have {@link #SLOWEST_SAMPLES_COUNT} of them; allows us to skip the synchronization for most executions */
+		private volatile long slowestSamplesMinDuration = -1;
 
-		public String getTotalDurationAsString(final TimeUnit timeUnit)
+		public QueryStatistics(final String fingerprint)
 		{
-			return format(durationTotal, TIMEUNIT_Internal, timeUnit);
+			this.fingerprint = fingerprint;
 		}
 
-		public CountAndDuration newIncrement(final long durationToAdd)
+		@Override
+		public String toString()
 		{
-			if (durationToAdd == 0)
+			final StringBuilder sb = new StringBuilder()
+					.append("SQL: ").append(fingerprint)
+					.append("\n-- ").append(getCount()).append(" executions")
+					.append(", Avg. ").append(formatMillis(timer.getMeanMillis()))
+					.append(", p50 ").append(formatMillis(timer.getPercentileMillis(50)))
+					.append(", p95 ").append(formatMillis(timer.getPercentileMillis(95)))
+					.append(", p99 ").append(formatMillis(timer.getPercentileMillis(99)))
+					.append(", Max ").append(formatMillis(timer.getMaxMillis()))
+					.append(", Total ").append(formatMillis(timer.getTotalMillis()))
+					.append(", Rows ").append(rowsTotal.sum());
+
+			final List<QuerySample> slowestSamples = getSlowestSamples();
+			for (final QuerySample sample : slowestSamples)
 			{
-				return this;
+				sb.append("\n-- Slow: ").append(sample);
 			}
 
-			return new CountAndDuration(count + 1, durationTotal + durationToAdd, durationToAdd);
+			return sb.toString();
 		}
 
-		public long getCount()
+		public void record(final long duration, final int rowsCount, final String sql, final Map<Integer, Object> sqlParams, final String trxName)
 		{
-			return count;
-		}
+			timer.record(duration, TIMEUNIT_Internal);
+			addRows(rowsCount);
 
-		private double getAverageDuration()
-		{
-			if (count == 0)
+			if (duration > slowestSamplesMinDuration)
 			{
-				return count;
+				addSlowSample(new QuerySample(duration, sql, sqlParams, trxName));
 			}
-
-			return durationTotal / count;
 		}
 
-		private long getTotalDuration()
+		private void addSlowSample(final QuerySample sample)
 		{
-			return durationTotal;
+			synchronized (slowestSamples)
+			{
+				slowestSamples.add(sample);
+				slowestSamples.sort(Comparator.comparing(QuerySample::getDuration).reversed());
+				if (slowestSamples.size() > SLOWEST_SAMPLES_COUNT)
+				{
+					slowestSamples.remove(slowestSamples.size() - 1);
+				}
+				if (slowestSamples.size() >= SLOWEST_SAMPLES_COUNT)
+				{
+					slowestSamplesMinDuration = slowestSamples.get(slowestSamples.size() - 1).getDuration();
+				}
+			}
 		}
-	}
-
-	private static final class QueryStatistics
-	{
-		private final String sql;
-		private final AtomicReference<CountAndDuration> countAndDurationRef;
 
-		public QueryStatistics(final String sql)
+		private List<QuerySample> getSlowestSamples()
 		{
-			super();
-			this.sql = sql;
-			this.countAndDurationRef = new AtomicReference<>(CountAndDuration.ZERO);
+			synchronized (slowestSamples)
+			{
+				return new ArrayList<>(slowestSamples);
+			}
 		}
 
-		@Override
-		public String toString()
+		public void addRows(final int rowsCount)
 		{
-			return "SQL: " + sql
-					+ "\n-- " + countAndDurationRef.get();
+			if (rowsCount > 0)
+			{
+				rowsTotal.add(rowsCount);
+			}
 		}
 
-		public CountAndDuration incrementAndGet(final long duration)
+		public long getCount()
 		{
-			return countAndDurationRef.updateAndGet(countAndDuration -> countAndDuration.newIncrement(duration));
+			return timer.getCount();
 		}
 
-		@SuppressWarnings("unused")
-		public String getSql()
+		public double getTotalDurationMillis()
 		{
-			return sql;
+			return timer.getTotalMillis();
 		}
 
-		public long getCount()
+		public double getAverageDurationMillis()
 		{
-			return countAndDurationRef.get().getCount();
+			return timer.getMeanMillis();
 		}
 
-		public long getTotalDuration()
+		public String getAverageDurationAsString()
 		{
-			return countAndDurationRef.get().getTotalDuration();
+			return formatMillis(getAverageDurationMillis()) + " / " + getCount() + " executions";
 		}
 
-		private double getAverageDuration()
+		public double getP99DurationMillis()
 		{
-			return countAndDurationRef.get().getAverageDuration();
+			return timer.getPercentileMillis(99);
 		}
 	}
 }
@@ -0,0 +1,199 @@
+package org.adempiere.ad.dao.impl;
+
+import java.util.regex.Pattern;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Normalizes SQL statements into fingerprints, so that statements which differ only in their literals end up with the same fingerprint.
+ * <p>
+ * The normalization:
+ * <ul>
+ * <li>replaces string and numeric literals with {@code ?}
+ * <li>removes comments and collapses whitespaces
+ * <li>collapses IN-lists and multi-row VALUES lists of any length into one element
+ * </ul>
+ * Quoted identifiers are preserved.
+ */
+final class SqlFingerprints
+{
+	private static final Pattern PATTERN_InList = Pattern.compile("(?i)\\bIN ?\\( ?\\?(?: ?, ?\\?)* ?\\)");
+	private static final String IN_LIST_Normalized = "IN (?...)";
+
+	private static final Pattern PATTERN_ValuesList = Pattern.compile("(\\( ?\\?(?: ?, ?\\?)* ?\\))(?: ?, ?\\( ?\\?(?: ?, ?\\?)* ?\\))+");
+	private static final String VALUES_LIST_Normalized = "$1, ...";
+
+	private SqlFingerprints()
+	{
+	}
+
+	public static String of(final String sql)
+	{
+		if (sql == null)
+		{
+			return null;
+		}
+
+		final String sqlWithoutLiterals = replaceLiterals(sql);
+		if (sqlWithoutLiterals.indexOf('?') < 0)
+		{
+			return sqlWithoutLiterals;
+		}
+
+		final String sqlWithCollapsedInLists = PATTERN_InList.matcher(sqlWithoutLiterals).replaceAll(IN_LIST_Normalized);
+		return PATTERN_ValuesList.matcher(sqlWithCollapsedInLists).replaceAll(VALUES_LIST_Normalized);
+	}
+
+	private static String replaceLiterals(final String sql)
+	{
+		final int length = sql.length();
+		final StringBuilder fingerprint = new StringBuilder(length);
+
+		int i = 0;
+		while (i < length)
+		{
+			final char ch = sql.charAt(i);
+			if (ch == '\'')
+			{
+				i = skipStringLiteral(sql, i);
+				fingerprint.append('?');
+			}
+			else if (ch == '"')
+			{
+				final int end = skipQuotedIdentifier(sql, i);
+				fingerprint.append(sql, i, end);
+				i = end;
+			}
+			else if (ch == '-' && i + 1 < length && sql.charAt(i + 1) == '-')
+			{
+				i = skipLineComment(sql, i);
+				appendSpace(fingerprint);
+			}
+			else if (ch == '/' && i + 1 < length && sql.charAt(i + 1) == '*')
+			{
+				i = skipBlockComment(sql, i);
+				appendSpace(fingerprint);
+			}
+			else if (Character.isWhitespace(ch))
+			{
+				appendSpace(fingerprint);
+				i++;
+			}
+			else if (Character.isDigit(ch) && !isIdentifierPart(fingerprint))
+			{
+				i = skipNumericLiteral(sql, i);
+				fingerprint.append('?');
+			}
+			else
+			{
+				fingerprint.append(ch);
+				i++;
+			}
+		}
+
+		return fingerprint.toString().trim();
+	}
+
+	private static void appendSpace(final StringBuilder fingerprint)
+	{
+		final int length = fingerprint.length();
+		if (length > 0 && fingerprint.charAt(length - 1) != ' ')
+		{
+			fingerprint.append(' ');
+		}
+	}
+
+	/**
+	 * @return true if the last character of the fingerprint is part of an identifier, i.e. a following digit also belongs to that identifier (e.g. {@code C_Order_ID1})
+	 */
+	private static boolean isIdentifierPart(final StringBuilder fingerprint)
+	{
+		final int length = fingerprint.length();
+		if (length == 0)
+		{
+			return false;
+		}
+
+		final char lastChar = fingerprint.charAt(length - 1);
+		return Character.isLetterOrDigit(lastChar) || lastChar == '_' || lastChar == '$';
+	}
+
+	private static int skipStringLiteral(final String sql, final int start)
+	{
+		int i = start + 1;
+		while (i < sql.length())
+		{
+			if (sql.charAt(i) == '\'')
+			{
+				if (i + 1 < sql.length() && sql.charAt(i + 1) == '\'')
+				{
+					i += 2; // escaped quote
+					continue;
+				}
+				return i + 1;
+			}
+			i++;
+		}
+		return i;
+	}
+
+	private static int skipQuotedIdentifier(final String sql, final int start)
+	{
+		final int end = sql.indexOf('"', start + 1);
+		return end < 0 ? sql.length() : end + 1;
+	}
+
+	private static int skipLineComment(final String sql, final int start)
+	{
+		final int end = sql.indexOf('\n', start);
+		return end < 0 ? sql.length() : end + 1;
+	}
+
+	private static int skipBlockComment(final String sql, final int start)
+	{
+		final int end = sql.indexOf("*/", start + 2);
+		return end < 0 ? sql.length() : end + 2;
+	}
+
+	private static int skipNumericLiteral(final String sql, final int start)
+	{
+		int i = start;
+		while (i < sql.length())
+		{
+			final char ch = sql.charAt(i);
+			if (Character.isDigit(ch) || ch == '.')
+			{
+				i++;
+			}
+			else if ((ch == 'e' || ch == 'E') && i + 1 < sql.length() && (Character.isDigit(sql.charAt(i + 1)) || sql.charAt(i + 1) == '-'))
+			{
+				i += 2; // exponent
+			}
+			else
+			{
+				break;
+			}
+		}
+		return i;
+	}
+}
@@ -0,0 +1,119 @@
+package org.adempiere.ad.persistence;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import javax.annotation.concurrent.Immutable;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.util.Check;
+import lombok.NonNull;
+
+/**
+ * Resolves the column which backs a model interface method and remembers its index,
+ * so that the column name lookup is done only once per {@link IModelInternalAccessor#getColumnIndexesKey() column indexes key} (e.g. once per <code>POInfo</code>),
+ * rather than on each method call.
+ */
+final class ColumnIndexBinding
+{
+	public static ColumnIndexBinding ofCandidateColumnNames(final String... candidateColumnNames)
+	{
+		return new ColumnIndexBinding(ImmutableList.copyOf(candidateColumnNames));
+	}
+
+	@Immutable
+	static final class BoundColumn
+	{
+		private final Object columnIndexesKey;
+		private final String columnName;
+		private final int columnIndex;
+
+		private BoundColumn(final Object columnIndexesKey, final String columnName, final int columnIndex)
+		{
+			this.columnIndexesKey = columnIndexesKey;
+			this.columnName = columnName;
+			this.columnIndex = columnIndex;
+		}
+
+		public boolean isFound()
+		{
+			return columnIndex >= 0;
+		}
+
+		public String getColumnName()
+		{
+			return columnName;
+		}
+
+		public int getColumnIndex()
+		{
+			return columnIndex;
+		}
+	}
+
+	private final ImmutableList<String> candidateColumnNames;
+
+	/** The column which was bound last. Models of different tables might share the same interface, so this can change. */
+	private volatile BoundColumn lastBoundColumn = null;
+
+	private ColumnIndexBinding(final ImmutableList<String> candidateColumnNames)
+	{
+		Check.assumeNotEmpty(candidateColumnNames, "candidateColumnNames is not empty");
+		this.candidateColumnNames = candidateColumnNames;
+	}
+
+	/**
+	 * @return the first of our candidate columns which exists in the given model; if none exists, the result's {@link BoundColumn#isFound()} is <code>false</code>
+	 */
+	public BoundColumn bind(@NonNull final IModelInternalAccessor model)
+	{
+		final Object columnIndexesKey = model.getColumnIndexesKey();
+		if (columnIndexesKey == null)
+		{
+			return resolve(model, null);
+		}
+
+		final BoundColumn lastBoundColumn = this.lastBoundColumn;
+		if (lastBoundColumn != null && lastBoundColumn.columnIndexesKey == columnIndexesKey)
+		{
+			return lastBoundColumn;
+		}
+
+		final BoundColumn boundColumn = resolve(model, columnIndexesKey);
+		this.lastBoundColumn = boundColumn;
+		return boundColumn;
+	}
+
+	private BoundColumn resolve(final IModelInternalAccessor model, final Object columnIndexesKey)
+	{
+		for (final String columnName : candidateColumnNames)
+		{
+			final int columnIndex = model.getColumnIndex(columnName);
+			if (columnIndex >= 0)
+			{
+				return new BoundColumn(columnIndexesKey, columnName, columnIndex);
+			}
+		}
+		return new BoundColumn(columnIndexesKey, candidateColumnNames.get(0), -1);
+	}
+}
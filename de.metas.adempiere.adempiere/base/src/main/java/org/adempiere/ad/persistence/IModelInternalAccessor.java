@@ -40,6 +40,15 @@ public interface IModelInternalAccessor
 
 	int getColumnIndex(String columnName);
 
+	/**
+	 * @return an object whose identity determines the {@link #getColumnIndex(String) column indexes} (e.g. the <code>POInfo</code>),
+	 *         so that callers can cache column indexes as long as it stays the same; <code>null</code> if the indexes shall not be cached.
+	 */
+	default Object getColumnIndexesKey()
+	{
+		return null;
+	}
+
 	boolean isVirtualColumn(String columnName);
 
 	boolean isKeyColumnName(String columnName);
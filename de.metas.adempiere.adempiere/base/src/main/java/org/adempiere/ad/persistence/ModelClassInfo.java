@@ -27,6 +27,7 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReentrantLock;
 
 import org.reflections.ReflectionUtils;
@@ -43,7 +44,7 @@ class ModelClassInfo implements IModelClassInfo
 	private final Class<?> modelClass;
 	private final String tableName;
 
-	private Map<Method, IModelMethodInfo> _modelMethodInfos;
+	private volatile Map<Method, IModelMethodInfo> _modelMethodInfos;
 	private final ReentrantLock modelMethodInfosLock = new ReentrantLock();
 
 	private Set<String> _definedColumnNames = null;
@@ -86,48 +87,61 @@ class ModelClassInfo implements IModelClassInfo
 	@Override
 	public final IModelMethodInfo getMethodInfo(final Method method)
 	{
-		modelMethodInfosLock.lock();
-		try
-		{
-			final Map<Method, IModelMethodInfo> methodInfos = getMethodInfos0();
-
-			IModelMethodInfo methodInfo = methodInfos.get(method);
-
-			//
-			// If methodInfo was not found, try to create it now
-			if (methodInfo == null)
-			{
-				methodInfo = introspector.createModelMethodInfo(method);
-				if (methodInfo == null)
-				{
-					throw new IllegalStateException("No method info was found for " + method + " in " + this);
-				}
-
-				methodInfos.put(method, methodInfo);
-			}
+		// NOTE: this is called on each model interface method invocation, so we don't want to lock here
+		final Map<Method, IModelMethodInfo> methodInfos = getMethodInfos0();
 
+		final IModelMethodInfo methodInfo = methodInfos.get(method);
+		if (methodInfo != null)
+		{
 			return methodInfo;
 		}
-		finally
+
+		//
+		// If methodInfo was not found, try to create it now
+		final IModelMethodInfo methodInfoNew = introspector.createModelMethodInfo(method);
+		if (methodInfoNew == null)
 		{
-			modelMethodInfosLock.unlock();
+			throw new IllegalStateException("No method info was found for " + method + " in " + this);
 		}
+
+		final IModelMethodInfo methodInfoExisting = methodInfos.putIfAbsent(method, methodInfoNew);
+		return methodInfoExisting != null ? methodInfoExisting : methodInfoNew;
 	}
 
 	/**
 	 * Gets the inner map of {@link Method} to {@link IModelMethodInfo}.
 	 * 
-	 * NOTE: this method is not thread safe
-	 * 
-	 * @return
+	 * @return concurrent map
 	 */
 	private final Map<Method, IModelMethodInfo> getMethodInfos0()
 	{
-		if (_modelMethodInfos == null)
+		Map<Method, IModelMethodInfo> modelMethodInfos = _modelMethodInfos;
+		if (modelMethodInfos == null)
 		{
-			_modelMethodInfos = introspector.createModelMethodInfos(getModelClass());
+			modelMethodInfosLock.lock();
+			try
+			{
+				modelMethodInfos = _modelMethodInfos;
+				if (modelMethodInfos == null)
+				{
+					modelMethodInfos = new ConcurrentHashMap<>();
+					for (final Map.Entry<Method, IModelMethodInfo> e : introspector.createModelMethodInfos(getModelClass()).entrySet())
+					{
+						// NOTE: ConcurrentHashMap does not accept null values; such methods will be reported by getMethodInfo()
+						if (e.getValue() != null)
+						{
+							modelMethodInfos.put(e.getKey(), e.getValue());
+						}
+					}
+					_modelMethodInfos = modelMethodInfos;
+				}
+			}
+			finally
+			{
+				modelMethodInfosLock.unlock();
+			}
 		}
-		return _modelMethodInfos;
+		return modelMethodInfos;
 	}
 
 	@Override
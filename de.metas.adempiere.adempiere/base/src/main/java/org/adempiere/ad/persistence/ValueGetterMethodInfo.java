@@ -40,14 +40,14 @@ import org.compiere.model.PO;
 {
 	private static final Object DEFAULTVALUE_NotSupported = new Object();
 
-	private final String propertyName;
+	private final ColumnIndexBinding columnIndexBinding;
 	private final Class<?> returnType;
 	private final Object defaultValue;
 
 	public ValueGetterMethodInfo(final Method interfaceMethod, final String propertyName)
 	{
 		super(interfaceMethod);
-		this.propertyName = propertyName;
+		this.columnIndexBinding = ColumnIndexBinding.ofCandidateColumnNames(propertyName);
 		this.returnType = interfaceMethod.getReturnType();
 
 		//
@@ -75,10 +75,10 @@ import org.compiere.model.PO;
 	public Object invoke(final IModelInternalAccessor model, final Object[] methodArgs) throws Exception
 	{
 		Object value = null;
-		final int idx = model.getColumnIndex(propertyName);
-		if (idx >= 0)
+		final ColumnIndexBinding.BoundColumn column = columnIndexBinding.bind(model);
+		if (column.isFound())
 		{
-			value = model.getValue(propertyName, idx, returnType);
+			value = model.getValue(column.getColumnName(), column.getColumnIndex(), returnType);
 		}
 
 		if (value != null)
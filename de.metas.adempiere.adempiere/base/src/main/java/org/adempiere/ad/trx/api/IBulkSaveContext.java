@@ -0,0 +1,63 @@
+package org.adempiere.ad.trx.api;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * A scope in which the records that are saved within one transaction are not written one by one, but buffered and written in batches
+ * (multi-row <code>INSERT</code>s and JDBC batch <code>UPDATE</code>s).
+ * <p>
+ * Model interceptors are still fired for each record. The buffered rows are written
+ * <ul>
+ * <li>when {@link #flush()} or {@link #close()} is called
+ * <li>before the transaction is committed or a savepoint is created
+ * <li>before any other SQL statement is executed in the transaction, so that everybody (e.g. a model interceptor) sees the rows which were saved so far
+ * </ul>
+ * So the batches get bigger the less SQL is executed between two saves.
+ * <p>
+ * Usage:
+ *
+ * <pre>
+ * try (final IBulkSaveContext bulkSaveContext = Services.get(ITrxManager.class).startBulkSave(trxName))
+ * {
+ * 	// create and save the records
+ * }
+ * </pre>
+ *
+ * NOTE: the transaction shall be used by one thread only, which is how transactions are used anyways.
+ *
+ * @see ITrxManager#startBulkSave(String)
+ */
+public interface IBulkSaveContext extends AutoCloseable
+{
+	/**
+	 * Writes all rows which are buffered so far.
+	 */
+	void flush();
+
+	/**
+	 * Writes all rows which are buffered so far and ends this scope.
+	 * If this scope is nested in another one, the outer scope stays active.
+	 */
+	@Override
+	void close();
+}
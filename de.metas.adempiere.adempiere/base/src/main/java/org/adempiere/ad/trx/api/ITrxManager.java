@@ -581,4 +581,12 @@ public interface ITrxManager extends ISingletonService
 	void setDebugConnectionBackendId(boolean debugConnectionBackendId);
 
 	boolean isDebugConnectionBackendId();
+
+	/**
+	 * Starts buffering the records which are saved in the given transaction and writing them in batches, until the returned context is closed.
+	 *
+	 * @param trxName an existing transaction; the "no transaction" is not allowed because its rows would have to be written right away anyways
+	 * @see IBulkSaveContext
+	 */
+	IBulkSaveContext startBulkSave(String trxName);
 }
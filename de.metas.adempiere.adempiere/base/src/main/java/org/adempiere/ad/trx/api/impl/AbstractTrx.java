@@ -173,6 +173,7 @@ public abstract class AbstractTrx implements ITrx
 		boolean success = false;
 		try
 		{
+			BulkSaveContext.discardIfActive(this);
 			success = rollbackNative(throwException);
 			return success;
 		}
@@ -220,6 +221,8 @@ public abstract class AbstractTrx implements ITrx
 		validateTrxSavepoint(savepoint);
 		try
 		{
+			// NOTE: all pending rows were added after the savepoint, because the pending rows are written when a savepoint is created
+			BulkSaveContext.discardIfActive(this);
 			return rollbackNative(savepoint);
 		}
 		catch (Exception e)
@@ -253,6 +256,9 @@ public abstract class AbstractTrx implements ITrx
 			// Fire before-commit listeners
 			trxListenerManager.fireBeforeCommit(this);
 
+			// Write the rows which were saved in bulk (also the ones saved by the before-commit listeners)
+			BulkSaveContext.flushIfActive(this);
+
 			// Actual native commit
 			success = commitNative(throwException);
 			return success;
@@ -283,6 +289,9 @@ public abstract class AbstractTrx implements ITrx
 	@Override
 	public ITrxSavepoint createTrxSavepoint(String name)
 	{
+		// Write the rows which were saved in bulk, so that a rollback to this savepoint can just discard the rows saved after it
+		BulkSaveContext.flushIfActive(this);
+
 		final ITrxSavepoint savepoint;
 		try
 		{
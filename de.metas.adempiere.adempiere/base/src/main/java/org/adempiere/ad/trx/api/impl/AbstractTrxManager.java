@@ -35,6 +35,7 @@ import java.util.concurrent.locks.ReentrantLock;
 import javax.annotation.Nullable;
 
 import org.adempiere.ad.service.IDeveloperModeBL;
+import org.adempiere.ad.trx.api.IBulkSaveContext;
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.ad.trx.api.ITrxListenerManager;
 import org.adempiere.ad.trx.api.ITrxListenerManager.TrxEventTiming;
@@ -1409,6 +1410,14 @@ public abstract class AbstractTrxManager implements ITrxManager
 		return debugConnectionBackendId;
 	}
 
+	@Override
+	public IBulkSaveContext startBulkSave(final String trxName)
+	{
+		assertTrxNameNotNull(trxName);
+		final ITrx trx = get(trxName, OnTrxMissingPolicy.Fail);
+		return BulkSaveContext.start(trx);
+	}
+
 	@Override
 	public String toString()
 	{
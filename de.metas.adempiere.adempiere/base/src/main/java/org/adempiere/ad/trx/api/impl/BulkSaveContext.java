@@ -0,0 +1,385 @@
+package org.adempiere.ad.trx.api.impl;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.ad.trx.api.IBulkSaveContext;
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.exceptions.DBException;
+import org.compiere.util.DB;
+import org.slf4j.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+
+import de.metas.logging.LogManager;
+import lombok.NonNull;
+
+/**
+ * The rows which were saved in a transaction while an {@link IBulkSaveContext} is active, but not yet written.
+ * <p>
+ * It is kept as a transaction property. <code>PO</code> is adding the rows and the transaction is writing them (see {@link #flushIfActive(ITrx)}) before its connection is used for anything else.
+ */
+public final class BulkSaveContext
+{
+	private static final transient Logger logger = LogManager.getLogger(BulkSaveContext.class);
+
+	private static final String TRX_PROPERTY_BulkSaveContext = BulkSaveContext.class.getName();
+
+	/** Max number of rows which are written by one multi-row INSERT */
+	@VisibleForTesting
+	/* package */ static final int MAX_ROWS_PER_INSERT = 500;
+
+	/** Max number of rows to buffer before they are written anyway, to keep the memory footprint low */
+	private static final int MAX_PENDING_ROWS = 2000;
+
+	/** How many IDs are fetched at once from a table's native DB sequence */
+	private static final int ID_BLOCK_SIZE = 100;
+
+	/**
+	 * Executes the given SQL statements as one batch in the given transaction.
+	 */
+	@FunctionalInterface
+	/* package */ interface StatementsBatchExecutor
+	{
+		/** @return the update count of each statement, see {@link Statement#executeBatch()} */
+		int[] executeBatch(String trxName, List<String> sqls) throws SQLException;
+	}
+
+	/* package */ static IBulkSaveContext start(@NonNull final ITrx trx)
+	{
+		return start(trx, BulkSaveContext::executeBatchViaJDBC);
+	}
+
+	@VisibleForTesting
+	/* package */ static IBulkSaveContext start(@NonNull final ITrx trx, @NonNull final StatementsBatchExecutor statementsBatchExecutor)
+	{
+		final BulkSaveContext bulkSaveContext = trx.getProperty(TRX_PROPERTY_BulkSaveContext, () -> new BulkSaveContext(trx, statementsBatchExecutor));
+		bulkSaveContext.nestingLevel++;
+		return new BulkSaveContextScope(bulkSaveContext);
+	}
+
+	/**
+	 * @return the bulk save context of the given transaction or <code>null</code> if there is none
+	 */
+	@Nullable
+	public static BulkSaveContext getActiveOrNull(@Nullable final ITrx trx)
+	{
+		if (trx == null)
+		{
+			return null;
+		}
+		return trx.getProperty(TRX_PROPERTY_BulkSaveContext);
+	}
+
+	/**
+	 * Writes the pending rows of the given transaction, if any.
+	 */
+	public static void flushIfActive(@Nullable final ITrx trx)
+	{
+		final BulkSaveContext bulkSaveContext = getActiveOrNull(trx);
+		if (bulkSaveContext != null)
+		{
+			bulkSaveContext.flush();
+		}
+	}
+
+	/**
+	 * Forgets the pending rows of the given transaction, if any. To be called when the transaction is rolled back.
+	 */
+	public static void discardIfActive(@Nullable final ITrx trx)
+	{
+		final BulkSaveContext bulkSaveContext = getActiveOrNull(trx);
+		if (bulkSaveContext != null)
+		{
+			bulkSaveContext.discard();
+		}
+	}
+
+	private final ITrx trx;
+	private final StatementsBatchExecutor statementsBatchExecutor;
+	private int nestingLevel = 0;
+
+	private final List<PendingStatement> pendingStatements = new ArrayList<>();
+	private int pendingRowsCount = 0;
+
+	private final Map<String, Deque<Integer>> prefetchedIdsByTableName = new HashMap<>();
+
+	private BulkSaveContext(@NonNull final ITrx trx, @NonNull final StatementsBatchExecutor statementsBatchExecutor)
+	{
+		this.trx = trx;
+		this.statementsBatchExecutor = statementsBatchExecutor;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "BulkSaveContext [trx=" + trx.getTrxName() + ", nestingLevel=" + nestingLevel + ", pendingRowsCount=" + pendingRowsCount + "]";
+	}
+
+	/**
+	 * Buffers one row to be inserted. Consecutive rows of the same table and with the same columns are written with one multi-row INSERT.
+	 *
+	 * @param sqlInsertInto e.g. <code>INSERT INTO TableName (Column1,Column2)</code>
+	 * @param sqlValues the values in parentheses, e.g. <code>(1,'value')</code>
+	 */
+	public void addInsert(@NonNull final String sqlInsertInto, @NonNull final String sqlValues)
+	{
+		final PendingStatement lastStatement = !pendingStatements.isEmpty() ? pendingStatements.get(pendingStatements.size() - 1) : null;
+		if (lastStatement != null
+				&& lastStatement.isInsertInto(sqlInsertInto)
+				&& lastStatement.getRowsCount() < MAX_ROWS_PER_INSERT)
+		{
+			lastStatement.addValues(sqlValues);
+		}
+		else
+		{
+			pendingStatements.add(PendingStatement.insert(sqlInsertInto, sqlValues));
+		}
+
+		pendingRowsCount++;
+		flushIfTooManyPendingRows();
+	}
+
+	/**
+	 * Buffers one UPDATE statement, which shall update exactly one row. The UPDATEs are written as a JDBC batch.
+	 */
+	public void addUpdate(@NonNull final String sqlUpdate)
+	{
+		pendingStatements.add(PendingStatement.update(sqlUpdate));
+
+		pendingRowsCount++;
+		flushIfTooManyPendingRows();
+	}
+
+	private void flushIfTooManyPendingRows()
+	{
+		if (pendingRowsCount >= MAX_PENDING_ROWS)
+		{
+			flush();
+		}
+	}
+
+	/**
+	 * Gets the next ID from the given table's native DB sequence. The IDs are fetched in blocks, so that we don't need a DB round trip for each row.
+	 * <p>
+	 * NOTE: IDs which are not used until the end of the transaction are lost, same as IDs of rolled back inserts.
+	 */
+	public int nextId(@NonNull final String tableName)
+	{
+		final Deque<Integer> prefetchedIds = prefetchedIdsByTableName.computeIfAbsent(tableName, k -> new ArrayDeque<>());
+		if (prefetchedIds.isEmpty())
+		{
+			final String sequenceName = DB.getTableSequenceName(tableName).toLowerCase();
+
+			// NOTE: we are not running this in our transaction, because we don't want to flush the pending rows; sequences are not transactional anyways.
+			final Integer[] ids = DB.getSQLValueArrayEx(
+					ITrx.TRXNAME_None,
+					"SELECT array_agg(nextval(?::regclass)::integer) FROM generate_series(1,?)",
+					sequenceName,
+					ID_BLOCK_SIZE);
+			if (ids == null || ids.length == 0)
+			{
+				throw new DBException("No IDs were fetched from sequence " + sequenceName);
+			}
+			prefetchedIds.addAll(Arrays.asList(ids));
+		}
+
+		return prefetchedIds.removeFirst();
+	}
+
+	/**
+	 * Writes all pending rows, in the order in which they were added.
+	 */
+	public void flush()
+	{
+		if (pendingStatements.isEmpty())
+		{
+			return;
+		}
+
+		// NOTE: we are clearing the pending statements before writing them,
+		// because creating the statement will get the transaction's connection, which will call us again
+		final List<PendingStatement> statements = ImmutableList.copyOf(pendingStatements);
+		final int rowsCount = pendingRowsCount;
+		pendingStatements.clear();
+		pendingRowsCount = 0;
+
+		logger.debug("Writing {} rows using {} statements in {}", rowsCount, statements.size(), trx);
+
+		final List<String> sqls = statements.stream()
+				.map(PendingStatement::toSql)
+				.collect(ImmutableList.toImmutableList());
+
+		final int[] updateCounts;
+		try
+		{
+			updateCounts = statementsBatchExecutor.executeBatch(trx.getTrxName(), sqls);
+		}
+		catch (final SQLException e)
+		{
+			throw DBException.wrapIfNeeded(e);
+		}
+
+		if (updateCounts.length != statements.size())
+		{
+			throw new DBException("Expected " + statements.size() + " update counts but got " + updateCounts.length);
+		}
+		for (int i = 0; i < updateCounts.length; i++)
+		{
+			final PendingStatement statement = statements.get(i);
+			if (updateCounts[i] != Statement.SUCCESS_NO_INFO && updateCounts[i] != statement.getRowsCount())
+			{
+				throw new DBException("Expected " + statement.getRowsCount() + " rows to be written but it were " + updateCounts[i] + ": " + statement.toSql());
+			}
+		}
+	}
+
+	private static int[] executeBatchViaJDBC(final String trxName, final List<String> sqls) throws SQLException
+	{
+		Statement stmt = null;
+		try
+		{
+			stmt = DB.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY, trxName);
+			for (final String sql : sqls)
+			{
+				stmt.addBatch(sql);
+			}
+			return stmt.executeBatch();
+		}
+		finally
+		{
+			DB.close(stmt);
+		}
+	}
+
+	private void discard()
+	{
+		if (pendingRowsCount > 0)
+		{
+			logger.debug("Discarding {} pending rows of {}", pendingRowsCount, trx);
+		}
+		pendingStatements.clear();
+		pendingRowsCount = 0;
+	}
+
+	private void endScope()
+	{
+		flush();
+
+		nestingLevel--;
+		if (nestingLevel <= 0)
+		{
+			trx.setProperty(TRX_PROPERTY_BulkSaveContext, null);
+		}
+	}
+
+	private static final class PendingStatement
+	{
+		public static PendingStatement insert(final String sqlInsertInto, final String sqlValues)
+		{
+			final PendingStatement statement = new PendingStatement(sqlInsertInto, new ArrayList<>());
+			statement.addValues(sqlValues);
+			return statement;
+		}
+
+		public static PendingStatement update(final String sqlUpdate)
+		{
+			return new PendingStatement(sqlUpdate, null);
+		}
+
+		private final String sql;
+		/** values of the rows to insert; <code>null</code> if this is an UPDATE */
+		private final List<String> insertValues;
+
+		private PendingStatement(final String sql, final List<String> insertValues)
+		{
+			this.sql = sql;
+			this.insertValues = insertValues;
+		}
+
+		public boolean isInsertInto(final String sqlInsertInto)
+		{
+			return insertValues != null && sql.equals(sqlInsertInto);
+		}
+
+		public void addValues(final String sqlValues)
+		{
+			insertValues.add(sqlValues);
+		}
+
+		public int getRowsCount()
+		{
+			return insertValues != null ? insertValues.size() : 1;
+		}
+
+		public String toSql()
+		{
+			if (insertValues == null)
+			{
+				return sql;
+			}
+			return sql + " VALUES " + String.join(",", insertValues);
+		}
+	}
+
+	private static final class BulkSaveContextScope implements IBulkSaveContext
+	{
+		private final BulkSaveContext bulkSaveContext;
+		private boolean closed = false;
+
+		private BulkSaveContextScope(final BulkSaveContext bulkSaveContext)
+		{
+			this.bulkSaveContext = bulkSaveContext;
+		}
+
+		@Override
+		public void flush()
+		{
+			bulkSaveContext.flush();
+		}
+
+		@Override
+		public void close()
+		{
+			if (closed)
+			{
+				return;
+			}
+			closed = true;
+			bulkSaveContext.endScope();
+		}
+	}
+}
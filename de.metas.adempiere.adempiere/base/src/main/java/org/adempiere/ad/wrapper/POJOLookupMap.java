@@ -39,6 +39,7 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
 
 import javax.management.InstanceAlreadyExistsException;
 import javax.management.InstanceNotFoundException;
@@ -63,8 +64,10 @@ import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.exceptions.DBMoreThenOneRecordsFoundException;
 import org.adempiere.impexp.IImportInterceptor;
 import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.util.lang.IAutoCloseable;
 import org.adempiere.util.lang.IMutable;
 import org.adempiere.util.lang.Mutable;
+import org.adempiere.util.lang.NullAutoCloseable;
 import org.compiere.model.I_AD_Client;
 import org.compiere.model.I_AD_PInstance;
 import org.compiere.model.ModelValidator;
@@ -190,6 +193,8 @@ public final class POJOLookupMap implements IPOJOLookupMap, IModelValidationEngi
 		// Global instance
 		instance.clear();
 		instance.setCopyOnSave(true);
+		instance.setIndexingEnabled(true);
+		instance.setThreadSafe(false);
 		instance.unregisterAllInterceptors();
 	}
 
@@ -210,6 +215,19 @@ public final class POJOLookupMap implements IPOJOLookupMap, IModelValidationEngi
 
 	private boolean copyOnSave = true;
 
+	/**
+	 * Secondary indexes, used to avoid full table scans when querying by equals/in-array filters.
+	 */
+	private final POJOLookupMapIndexes indexes = new POJOLookupMapIndexes();
+	private boolean indexingEnabled = true;
+
+	/**
+	 * Lock used when this database is {@link #setThreadSafe(boolean) thread safe}.
+	 * It's reentrant, because the model interceptors which are fired on save/delete are usually querying this database too.
+	 */
+	private final ReentrantLock threadSafeLock = new ReentrantLock();
+	private volatile boolean threadSafe = false;
+
 	/**
 	 * Tool used to track how many object instances are released for a given table record.
 	 */
@@ -226,8 +244,11 @@ public final class POJOLookupMap implements IPOJOLookupMap, IModelValidationEngi
 	@Override
 	public int nextId(String tableName)
 	{
-		nextId++;
-		return nextId;
+		try (final IAutoCloseable lock = lock())
+		{
+			nextId++;
+			return nextId;
+		}
 	}
 
 	@Override
@@ -242,7 +263,53 @@ public final class POJOLookupMap implements IPOJOLookupMap, IModelValidationEngi
 	 */
 	public void setCopyOnSave(boolean copyOnSave)
 	{
-		this.copyOnSave = copyOnSave;
+		try (final IAutoCloseable lock = lock())
+		{
+			this.copyOnSave = copyOnSave;
+			indexes.clear();
+		}
+	}
+
+	/**
+	 * @param indexingEnabled true if secondary indexes shall be used when querying. The indexes are used only if {@link #isCopyOnSave()}, because else the records could be changed without saving them.
+	 */
+	public void setIndexingEnabled(final boolean indexingEnabled)
+	{
+		try (final IAutoCloseable lock = lock())
+		{
+			this.indexingEnabled = indexingEnabled;
+			indexes.clear();
+		}
+	}
+
+	public boolean isIndexingEnabled()
+	{
+		return indexingEnabled;
+	}
+
+	/**
+	 * @param threadSafe true if this database is accessed by multiple threads at the same time, e.g. when running tests in parallel against the global instance.
+	 *            In this case all database operations are serialized.
+	 */
+	public void setThreadSafe(final boolean threadSafe)
+	{
+		this.threadSafe = threadSafe;
+	}
+
+	public boolean isThreadSafe()
+	{
+		return threadSafe;
+	}
+
+	private IAutoCloseable lock()
+	{
+		if (!threadSafe)
+		{
+			return NullAutoCloseable.instance;
+		}
+
+		threadSafeLock.lock();
+		return threadSafeLock::unlock;
 	}
 
 	private <T> T copy(final T model)
@@ -272,13 +339,17 @@ public final class POJOLookupMap implements IPOJOLookupMap, IModelValidationEngi
 			return null;
 		}
 
-		final Map<Integer, Object> tableRecords = cachedObjects.get(tableName);
-		if (tableRecords == null || tableRecords.isEmpty())
+		final Object result;
+		try (final IAutoCloseable lock = lock())
 		{
-			throw new RuntimeException("No cached object found for clazz=" + clazz + ", id=" + id);
-		}
+			final Map<Integer, Object> tableRecords = cachedObjects.get(tableName);
+			if (tableRecords == null || tableRecords.isEmpty())
+			{
+				throw new RuntimeException("No cached object found for clazz=" + clazz + ", id=" + id);
+			}
 
-		final Object result = getCopy(tableRecords, id);
+			result = getCopy(tableRecords, id);
+		}
 		if (result == null)
 		{
 			throw new RuntimeException("No cached object found for clazz=" + clazz + ", id=" + id);
@@ -305,15 +376,18 @@ public final class POJOLookupMap implements IPOJOLookupMap, IModelValidationEngi
 
 	public <T> T lookup(final String tableName, final int recordId)
 	{
-		final Map<Integer, Object> tableRecords = cachedObjects.get(tableName);
-		if (tableRecords == null)
+		try (final IAutoCloseable lock = lock())
 		{
-			return null;
-		}
+			final Map<Integer, Object> tableRecords = cachedObjects.get(tableName);
+			if (tableRecords == null)
+			{
+				return null;
+			}
 
-		@SuppressWarnings("unchecked")
-		final T value = (T)getCopy(tableRecords, recordId);
-		return value;
+			@SuppressWarnings("unchecked")
+			final T value = (T)getCopy(tableRecords, recordId);
+			return value;
+		}
 	}
 
 	public <T> T lookup(final int tableId, final int recordId, final Class<T> modelClass)
@@ -359,6 +433,14 @@ public final class POJOLookupMap implements IPOJOLookupMap, IModelValidationEngi
 	 */
 	@Override
 	public void save(final Object model)
+	{
+		try (final IAutoCloseable lock = lock())
+		{
+			save0(model);
+		}
+	}
+
+	private void save0(final Object model)
 	{
 		if (model == null)
 		{
@@ -462,7 +544,9 @@ public final class POJOLookupMap implements IPOJOLookupMap, IModelValidationEngi
 		final int modelCopyId = InterfaceWrapperHelper.getId(modelCopy);
 		Check.errorIf(modelCopyId != id, "Model's ID ({}) does not match expected ID={}", modelCopy, id);
 
+		final String tableName = InterfaceWrapperHelper.getModelTableName(model);
 		final Object modelOld = tableRecords.put(id, modelCopy);
+		indexes.onRecordChanged(tableName, id, modelOld, modelCopy);
 
 		boolean fireModelChangedSucceed = false;
 		try
@@ -475,7 +559,15 @@ public final class POJOLookupMap implements IPOJOLookupMap, IModelValidationEngi
 			if (!fireModelChangedSucceed)
 			{
 				// put back the old model
-				tableRecords.put(id, modelOld);
+				if (modelOld != null)
+				{
+					tableRecords.put(id, modelOld);
+				}
+				else
+				{
+					tableRecords.remove(id);
+				}
+				indexes.onRecordChanged(tableName, id, modelCopy, modelOld);
 			}
 		}
 
@@ -483,10 +575,7 @@ public final class POJOLookupMap implements IPOJOLookupMap, IModelValidationEngi
 		// Reset cache
 		// Note: doesn't matter if the record is new or not, because prior to its creation, there might have been a cached "null" value and we want to get rid of that null, as we now created an actual
 		// record.
-		{
-			final String tableName = InterfaceWrapperHelper.getModelTableName(model);
-			CacheMgt.get().reset(tableName, id);
-		}
+		CacheMgt.get().reset(tableName, id);
 	}
 
 	public <T> List<T> getRecords(final Class<T> clazz)
@@ -515,6 +604,14 @@ public final class POJOLookupMap implements IPOJOLookupMap, IModelValidationEngi
 	}
 
 	public <T> List<T> getRecords(final String tableName, final Class<T> clazz, final IQueryFilter<T> filter, final Comparator<T> orderByComparator, final String trxName)
+	{
+		try (final IAutoCloseable lock = lock())
+		{
+			return getRecords0(tableName, clazz, filter, orderByComparator, trxName);
+		}
+	}
+
+	private <T> List<T> getRecords0(final String tableName, final Class<T> clazz, final IQueryFilter<T> filter, final Comparator<T> orderByComparator, final String trxName)
 	{
 		assertSameTableName(tableName, clazz);
 
@@ -524,8 +621,9 @@ public final class POJOLookupMap implements IPOJOLookupMap, IModelValidationEngi
 			return Collections.emptyList();
 		}
 
-		final List<T> result = filter == null ? new ArrayList<>() : new ArrayList<>(recordsMap.size());
-		for (final Object o : recordsMap.values())
+		final Collection<Object> records = getRecordsToFilter(tableName, recordsMap, filter);
+		final List<T> result = filter == null ? new ArrayList<>() : new ArrayList<>(records.size());
+		for (final Object o : records)
 		{
 			final T record = copy(POJOWrapper.create(o, clazz));
 			if (filter == null // accept everything if filter is null
@@ -546,20 +644,52 @@ public final class POJOLookupMap implements IPOJOLookupMap, IModelValidationEngi
 		return result;
 	}
 
-	public List<Object> getRawRecords(final String tableName)
+	/**
+	 * @return the records which shall be checked against given filter; that's all the records, unless we can narrow them down using our {@link #indexes}
+	 */
+	private Collection<Object> getRecordsToFilter(final String tableName, final Map<Integer, Object> recordsMap, final IQueryFilter<?> filter)
 	{
-		final Map<Integer, Object> recordsMap = cachedObjects.get(tableName);
-		if (recordsMap == null || recordsMap.isEmpty())
+		// NOTE: if the records are not copied on save, they can be changed without us knowing it, so we can't index them
+		if (filter == null || !indexingEnabled || !copyOnSave)
 		{
-			return Collections.emptyList();
+			return recordsMap.values();
 		}
 
-		// NOTE: in case of raw records we are not doing a copy of models
+		final List<Integer> candidateIds = indexes.getCandidateIds(tableName, recordsMap, filter);
+		if (candidateIds == null)
+		{
+			return recordsMap.values();
+		}
 
-		final List<Object> records = new ArrayList<>(recordsMap.values());
+		final List<Object> records = new ArrayList<>(candidateIds.size());
+		for (final Integer id : candidateIds)
+		{
+			final Object record = recordsMap.get(id);
+			if (record != null)
+			{
+				records.add(record);
+			}
+		}
 		return records;
 	}
 
+	public List<Object> getRawRecords(final String tableName)
+	{
+		try (final IAutoCloseable lock = lock())
+		{
+			final Map<Integer, Object> recordsMap = cachedObjects.get(tableName);
+			if (recordsMap == null || recordsMap.isEmpty())
+			{
+				return Collections.emptyList();
+			}
+
+			// NOTE: in case of raw records we are not doing a copy of models
+
+			final List<Object> records = new ArrayList<>(recordsMap.values());
+			return records;
+		}
+	}
+
 	public <T> T getFirstOnly(Class<T> clazz, IQueryFilter<T> filter)
 	{
 		final String tableName = InterfaceWrapperHelper.getTableName(clazz);
@@ -622,18 +752,21 @@ public final class POJOLookupMap implements IPOJOLookupMap, IModelValidationEngi
 
 		final String tableName = InterfaceWrapperHelper.getTableName(clazz);
 
-		final Map<Integer, Object> recordsMap = cachedObjects.get(tableName);
-		if (recordsMap == null || recordsMap.isEmpty())
+		try (final IAutoCloseable lock = lock())
 		{
-			return false;
-		}
+			final Map<Integer, Object> recordsMap = cachedObjects.get(tableName);
+			if (recordsMap == null || recordsMap.isEmpty())
+			{
+				return false;
+			}
 
-		for (final Object o : recordsMap.values())
-		{
-			final T record = copy(POJOWrapper.create(o, clazz));
-			if (filter.accept(record))
+			for (final Object o : getRecordsToFilter(tableName, recordsMap, filter))
 			{
-				return true;
+				final T record = copy(POJOWrapper.create(o, clazz));
+				if (filter.accept(record))
+				{
+					return true;
+				}
 			}
 		}
 
@@ -704,12 +837,37 @@ public final class POJOLookupMap implements IPOJOLookupMap, IModelValidationEngi
 
 	public void clear()
 	{
-		nextId = DEFAULT_FirstId;
-		cachedObjects.clear();
+		try (final IAutoCloseable lock = lock())
+		{
+			nextId = DEFAULT_FirstId;
+			cachedObjects.clear();
+			indexes.clear();
+		}
+	}
+
+	/**
+	 * Replaces the whole database content. Used by {@link POJOLookupMapRestorePoint}.
+	 */
+	/* package */ void restore(final Map<String, Map<Integer, Object>> cachedObjects, final Map<PInstanceId, ImmutableSet<Integer>> selectionId2selection)
+	{
+		try (final IAutoCloseable lock = lock())
+		{
+			this.cachedObjects = cachedObjects;
+			this.selectionId2selection = selectionId2selection;
+			indexes.clear();
+		}
 	}
 
 	@Override
 	public boolean delete(final Object model)
+	{
+		try (final IAutoCloseable lock = lock())
+		{
+			return delete0(model);
+		}
+	}
+
+	private boolean delete0(final Object model)
 	{
 		if (model == null)
 		{
@@ -759,6 +917,7 @@ public final class POJOLookupMap implements IPOJOLookupMap, IModelValidationEngi
 
 				final Object removedObject = tableCachedObjects.remove(id);
 				deleted.setValue(removedObject != null);
+				indexes.onRecordChanged(tableName, id, removedObject, null);
 
 				boolean fireModelChangedSucceed = false;
 				try
@@ -768,9 +927,10 @@ public final class POJOLookupMap implements IPOJOLookupMap, IModelValidationEngi
 				}
 				finally
 				{
-					if (!fireModelChangedSucceed)
+					if (!fireModelChangedSucceed && removedObject != null)
 					{
 						tableCachedObjects.put(id, removedObject);
+						indexes.onRecordChanged(tableName, id, null, removedObject);
 					}
 				}
 
@@ -1077,17 +1237,20 @@ public final class POJOLookupMap implements IPOJOLookupMap, IModelValidationEngi
 	{
 		final ImmutableSet<Integer> selectionSet = selection != null ? ImmutableSet.copyOf(selection) : ImmutableSet.of();
 
-		final ImmutableSet<Integer> existingSelectionSet = this.selectionId2selection.get(selectionId);
-		if (existingSelectionSet == null)
-		{
-			this.selectionId2selection.put(selectionId, selectionSet);
-		}
-		else
+		try (final IAutoCloseable lock = lock())
 		{
-			final ImmutableSet<Integer> combinedSelectionSet = ImmutableSet.<Integer> builder()
-					.addAll(existingSelectionSet)
-					.addAll(selectionSet).build();
-			this.selectionId2selection.put(selectionId, combinedSelectionSet);
+			final ImmutableSet<Integer> existingSelectionSet = this.selectionId2selection.get(selectionId);
+			if (existingSelectionSet == null)
+			{
+				this.selectionId2selection.put(selectionId, selectionSet);
+			}
+			else
+			{
+				final ImmutableSet<Integer> combinedSelectionSet = ImmutableSet.<Integer> builder()
+						.addAll(existingSelectionSet)
+						.addAll(selectionSet).build();
+				this.selectionId2selection.put(selectionId, combinedSelectionSet);
+			}
 		}
 	}
 
@@ -1146,8 +1309,11 @@ public final class POJOLookupMap implements IPOJOLookupMap, IModelValidationEngi
 
 	public Set<Integer> getSelectionIds(final PInstanceId selectionId)
 	{
-		final Set<Integer> selection = selectionId2selection.get(selectionId);
-		return selection != null ? selection : ImmutableSet.of();
+		try (final IAutoCloseable lock = lock())
+		{
+			final Set<Integer> selection = selectionId2selection.get(selectionId);
+			return selection != null ? selection : ImmutableSet.of();
+		}
 	}
 
 	/**
@@ -0,0 +1,398 @@
+package org.adempiere.ad.wrapper;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.ad.dao.ICompositeQueryFilter;
+import org.adempiere.ad.dao.IQueryFilter;
+import org.adempiere.ad.dao.impl.CompareQueryFilter;
+import org.adempiere.ad.dao.impl.CompareQueryFilter.Operator;
+import org.adempiere.ad.dao.impl.InArrayQueryFilter;
+import org.adempiere.ad.dao.impl.ModelColumnNameValue;
+import org.adempiere.ad.dao.impl.NullQueryFilterModifier;
+
+import de.metas.util.lang.ReferenceListAwareEnum;
+import de.metas.util.lang.RepoIdAware;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Secondary indexes of {@link POJOLookupMap}'s records.
+ * <p>
+ * An index is created lazily for a table column the first time an {@link CompareQueryFilter equals} or {@link InArrayQueryFilter in-array} filter on that column is seen.
+ * The indexes are only used to narrow down the records which are then checked by the actual filter, so they never change a query's result.
+ * <p>
+ * This class is not thread safe; {@link POJOLookupMap} takes care of that.
+ */
+final class POJOLookupMapIndexes
+{
+	private final Map<String, TableIndexes> tableName2indexes = new HashMap<>();
+
+	public void clear()
+	{
+		tableName2indexes.clear();
+	}
+
+	/**
+	 * @return the IDs of the records which might be accepted by given filter, in the iteration order of <code>tableRecords</code>,
+	 *         or <code>null</code> if the filter can't be evaluated using indexes
+	 */
+	@Nullable
+	public List<Integer> getCandidateIds(
+			@NonNull final String tableName,
+			@NonNull final Map<Integer, Object> tableRecords,
+			@NonNull final IQueryFilter<?> filter)
+	{
+		final List<IndexLookup> lookups = new ArrayList<>();
+		collectIndexLookups(filter, lookups);
+		if (lookups.isEmpty())
+		{
+			return null;
+		}
+
+		final TableIndexes tableIndexes = tableName2indexes.computeIfAbsent(tableName, k -> new TableIndexes(tableRecords));
+
+		Set<Integer> candidateIds = null;
+		for (final IndexLookup lookup : lookups)
+		{
+			final ColumnIndex columnIndex = tableIndexes.getOrCreateColumnIndex(lookup.getColumnName(), tableRecords);
+			final Set<Integer> lookupIds = columnIndex.getCandidateIds(lookup.getKeys());
+			if (candidateIds == null)
+			{
+				candidateIds = lookupIds;
+			}
+			else
+			{
+				candidateIds.retainAll(lookupIds);
+			}
+
+			if (candidateIds.isEmpty())
+			{
+				break;
+			}
+		}
+
+		return tableIndexes.sortByPosition(candidateIds);
+	}
+
+	/**
+	 * Updates the indexes after a record was inserted, updated or deleted.
+	 *
+	 * @param recordOld the previously stored record or <code>null</code> if the record is new
+	 * @param recordNew the newly stored record or <code>null</code> if the record was deleted
+	 */
+	public void onRecordChanged(
+			@NonNull final String tableName,
+			final int id,
+			@Nullable final Object recordOld,
+			@Nullable final Object recordNew)
+	{
+		final TableIndexes tableIndexes = tableName2indexes.get(tableName);
+		if (tableIndexes == null)
+		{
+			return;
+		}
+
+		tableIndexes.onRecordChanged(id, recordOld, recordNew);
+	}
+
+	private static void collectIndexLookups(final IQueryFilter<?> filter, final List<IndexLookup> lookups)
+	{
+		if (filter instanceof ICompositeQueryFilter)
+		{
+			final ICompositeQueryFilter<?> compositeFilter = (ICompositeQueryFilter<?>)filter;
+			if (!compositeFilter.isJoinAnd())
+			{
+				return;
+			}
+
+			for (final IQueryFilter<?> childFilter : compositeFilter.getFilters())
+			{
+				collectIndexLookups(childFilter, lookups);
+			}
+		}
+		else if (filter instanceof CompareQueryFilter)
+		{
+			final IndexLookup lookup = toIndexLookupOrNull((CompareQueryFilter<?>)filter);
+			if (lookup != null)
+			{
+				lookups.add(lookup);
+			}
+		}
+		else if (filter instanceof InArrayQueryFilter)
+		{
+			final IndexLookup lookup = toIndexLookupOrNull((InArrayQueryFilter<?>)filter);
+			if (lookup != null)
+			{
+				lookups.add(lookup);
+			}
+		}
+	}
+
+	private static IndexLookup toIndexLookupOrNull(final CompareQueryFilter<?> filter)
+	{
+		if (filter.getOperator() != Operator.EQUAL
+				|| !NullQueryFilterModifier.isNull(filter.getOperand1Modifier())
+				|| !NullQueryFilterModifier.isNull(filter.getOperand2Modifier())
+				|| filter.getOperand2() instanceof ModelColumnNameValue)
+		{
+			return null;
+		}
+
+		// NOTE: we don't index null values, because the filter's notion of "null" also covers invalid IDs
+		final Object key = toIndexKeyOrNull(filter.getOperand2());
+		if (key == null)
+		{
+			return null;
+		}
+
+		return new IndexLookup(filter.getColumnName(), key);
+	}
+
+	private static IndexLookup toIndexLookupOrNull(final InArrayQueryFilter<?> filter)
+	{
+		final List<Object> values = filter.getValuesOrNull();
+		if (values == null)
+		{
+			return null;
+		}
+
+		final Set<Object> keys = new HashSet<>(values.size());
+		for (final Object value : values)
+		{
+			final Object key = toIndexKeyOrNull(value);
+			if (key == null)
+			{
+				return null;
+			}
+			keys.add(key);
+		}
+
+		return new IndexLookup(filter.getColumnName(), keys);
+	}
+
+	/**
+	 * @return the value normalized the same way the query filters are doing it, or <code>null</code> if the value can't be used as an index key
+	 */
+	private static Object toIndexKeyOrNull(final Object value)
+	{
+		final Object valueNorm;
+		if (value instanceof RepoIdAware)
+		{
+			valueNorm = ((RepoIdAware)value).getRepoId();
+		}
+		else if (value instanceof ReferenceListAwareEnum)
+		{
+			valueNorm = ((ReferenceListAwareEnum)value).getCode();
+		}
+		else
+		{
+			valueNorm = value;
+		}
+
+		// For these types "equals" is the same as "compareTo() == 0", which is what the filters are using
+		if (valueNorm instanceof Integer || valueNorm instanceof String || valueNorm instanceof Boolean)
+		{
+			return valueNorm;
+		}
+		return null;
+	}
+
+	private static final class IndexLookup
+	{
+		private final String columnName;
+		private final Collection<Object> keys;
+
+		private IndexLookup(final String columnName, final Object key)
+		{
+			this(columnName, Collections.singleton(key));
+		}
+
+		private IndexLookup(final String columnName, final Collection<Object> keys)
+		{
+			this.columnName = columnName;
+			this.keys = keys;
+		}
+
+		public String getColumnName()
+		{
+			return columnName;
+		}
+
+		public Collection<Object> getKeys()
+		{
+			return keys;
+		}
+	}
+
+	private static final class TableIndexes
+	{
+		/** Record ID to its position in the table's records map; needed to return the candidates in the same order as a full scan would */
+		private final Map<Integer, Long> id2position = new HashMap<>();
+		private long nextPosition = 0;
+
+		private final Map<String, ColumnIndex> columnName2index = new HashMap<>();
+
+		private TableIndexes(final Map<Integer, Object> tableRecords)
+		{
+			for (final Integer id : tableRecords.keySet())
+			{
+				id2position.put(id, nextPosition++);
+			}
+		}
+
+		public ColumnIndex getOrCreateColumnIndex(final String columnName, final Map<Integer, Object> tableRecords)
+		{
+			return columnName2index.computeIfAbsent(columnName, k -> new ColumnIndex(columnName, tableRecords));
+		}
+
+		public void onRecordChanged(final int id, final Object recordOld, final Object recordNew)
+		{
+			if (recordOld == null && recordNew != null)
+			{
+				id2position.put(id, nextPosition++);
+			}
+			else if (recordOld != null && recordNew == null)
+			{
+				id2position.remove(id);
+			}
+
+			for (final ColumnIndex columnIndex : columnName2index.values())
+			{
+				columnIndex.remove(id, recordOld);
+				columnIndex.add(id, recordNew);
+			}
+		}
+
+		public List<Integer> sortByPosition(final Set<Integer> ids)
+		{
+			final List<Integer> idsSorted = new ArrayList<>(ids);
+			idsSorted.sort(Comparator.comparing(id -> id2position.getOrDefault(id, Long.MAX_VALUE)));
+			return idsSorted;
+		}
+	}
+
+	private static final class ColumnIndex
+	{
+		private final String columnName;
+		private final Map<Object, Set<Integer>> key2ids = new HashMap<>();
+		/** Records whose value can't be indexed. They are always candidates, so the actual filter decides */
+		private final Set<Integer> notIndexableIds = new HashSet<>();
+
+		private ColumnIndex(final String columnName, final Map<Integer, Object> tableRecords)
+		{
+			this.columnName = columnName;
+
+			for (final Map.Entry<Integer, Object> e : tableRecords.entrySet())
+			{
+				add(e.getKey(), e.getValue());
+			}
+		}
+
+		public Set<Integer> getCandidateIds(final Collection<Object> keys)
+		{
+			final Set<Integer> candidateIds = new HashSet<>(notIndexableIds);
+			for (final Object key : keys)
+			{
+				final Set<Integer> ids = key2ids.get(key);
+				if (ids != null)
+				{
+					candidateIds.addAll(ids);
+				}
+			}
+			return candidateIds;
+		}
+
+		public void add(final int id, final Object record)
+		{
+			if (record == null)
+			{
+				return;
+			}
+
+			final POJOWrapper wrapper = POJOWrapper.getWrapper(record);
+			final Map<String, Object> values = wrapper.getValuesMapRO();
+			final Object value = values.get(columnName);
+			if (value == null)
+			{
+				if (!values.containsKey(columnName) && !wrapper.hasColumnName(columnName))
+				{
+					// let the filter decide (i.e. fail) for records without that column
+					notIndexableIds.add(id);
+				}
+				// null values are never candidates, see toIndexLookupOrNull
+				return;
+			}
+
+			final Object key = toIndexKeyOrNull(value);
+			if (key == null)
+			{
+				notIndexableIds.add(id);
+			}
+			else
+			{
+				key2ids.computeIfAbsent(key, k -> new HashSet<>()).add(id);
+			}
+		}
+
+		public void remove(final int id, final Object record)
+		{
+			if (record == null)
+			{
+				return;
+			}
+
+			if (notIndexableIds.remove(id))
+			{
+				return;
+			}
+
+			final Object value = POJOWrapper.getWrapper(record).getValuesMapRO().get(columnName);
+			final Object key = toIndexKeyOrNull(value);
+			if (key == null)
+			{
+				return;
+			}
+
+			final Set<Integer> ids = key2ids.get(key);
+			if (ids != null)
+			{
+				ids.remove(id);
+				if (ids.isEmpty())
+				{
+					key2ids.remove(key);
+				}
+			}
+		}
+	}
+}
@@ -24,6 +24,7 @@ package org.adempiere.ad.wrapper;
 
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import com.google.common.collect.ImmutableSet;
@@ -58,7 +59,8 @@ public class POJOLookupMapRestorePoint
 		for (Map.Entry<String, Map<Integer, Object>> e : cachedObjectsCopy.entrySet())
 		{
 			final Map<Integer, Object> value = e.getValue();
-			e.setValue(value == null ? null : new HashMap<>(value));
+			// LinkedHashMap, like in POJOLookupMap, to preserve the order in which the objects were saved
+			e.setValue(value == null ? null : new LinkedHashMap<>(value));
 		}
 		return cachedObjectsCopy;
 	}
@@ -73,7 +75,6 @@ public class POJOLookupMapRestorePoint
 	 */
 	public void restore()
 	{
-		this.db.cachedObjects = copyCachedObjects(this.cachedObjects);
-		this.db.selectionId2selection = copySelection(this.selectionId2selection);
+		this.db.restore(copyCachedObjects(this.cachedObjects), copySelection(this.selectionId2selection));
 	}
 }
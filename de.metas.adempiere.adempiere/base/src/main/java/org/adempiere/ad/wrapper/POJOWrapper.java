@@ -1234,6 +1234,14 @@ public class POJOWrapper implements InvocationHandler, IInterfaceWrapper
 		return copyValues();
 	}
 
+	/**
+	 * Same as {@link #getValuesMap()} but without copying the values. To be used by {@link POJOLookupMapIndexes} only.
+	 */
+	/* package */ Map<String, Object> getValuesMapRO()
+	{
+		return getInnerValues();
+	}
+
 	/**
 	 *
 	 * @return inner {@link #valuesRO} map (readonly!) which contains column values, dynamic attributes and cached models.
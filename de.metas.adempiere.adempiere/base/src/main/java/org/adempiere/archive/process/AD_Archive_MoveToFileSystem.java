@@ -0,0 +1,122 @@
+package org.adempiere.archive.process;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.Properties;
+
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.ad.dao.impl.CompareQueryFilter.Operator;
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.archive.api.IArchiveStorageFactory;
+import org.adempiere.archive.spi.IArchiveStorage;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.compiere.model.I_AD_Archive;
+import org.compiere.util.Env;
+
+import de.metas.process.JavaProcess;
+import de.metas.process.Param;
+import de.metas.process.RunOutOfTrx;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Moves the data of the current client's database-stored archives to the file system storage.
+ * <p>
+ * The archives are processed in batches, one transaction per batch, so the process can be interrupted and restarted at any time.
+ * Each archive's data is streamed from the DB storage into the file system storage.
+ */
+public class AD_Archive_MoveToFileSystem extends JavaProcess
+{
+	private static final int DEFAULT_BatchSize = 500;
+
+	@Param(parameterName = "BatchSize")
+	private int p_batchSize;
+
+	private final IQueryBL queryBL = Services.get(IQueryBL.class);
+	private final ITrxManager trxManager = Services.get(ITrxManager.class);
+	private final IArchiveStorageFactory archiveStorageFactory = Services.get(IArchiveStorageFactory.class);
+
+	@Override
+	@RunOutOfTrx
+	protected String doIt() throws Exception
+	{
+		final int batchSize = p_batchSize > 0 ? p_batchSize : DEFAULT_BatchSize;
+
+		final Properties ctx = getCtx();
+		final IArchiveStorage dbStorage = archiveStorageFactory.getArchiveStorage(ctx, IArchiveStorageFactory.STORAGETYPE_Database);
+		final IArchiveStorage fsStorage = archiveStorageFactory.getArchiveStorage(ctx, IArchiveStorageFactory.STORAGETYPE_Filesystem);
+
+		int lastArchiveId = 0;
+		int countMoved = 0;
+		while (true)
+		{
+			final List<I_AD_Archive> archives = retrieveNextBatch(lastArchiveId, batchSize);
+			if (archives.isEmpty())
+			{
+				break;
+			}
+
+			trxManager.runInNewTrx(localTrxName -> {
+				for (final I_AD_Archive archive : archives)
+				{
+					InterfaceWrapperHelper.setTrxName(archive, localTrxName);
+					moveToFileSystem(archive, dbStorage, fsStorage);
+				}
+			});
+
+			countMoved += archives.size();
+			lastArchiveId = archives.get(archives.size() - 1).getAD_Archive_ID();
+			addLog("Moved {} archives so far (last AD_Archive_ID={})", countMoved, lastArchiveId);
+		}
+
+		return "@Updated@ #" + countMoved;
+	}
+
+	private List<I_AD_Archive> retrieveNextBatch(final int lastArchiveId, final int batchSize)
+	{
+		return queryBL.createQueryBuilder(I_AD_Archive.class, getCtx(), ITrx.TRXNAME_ThreadInherited)
+				.addEqualsFilter(I_AD_Archive.COLUMN_AD_Client_ID, Env.getAD_Client_ID(getCtx()))
+				.addEqualsFilter(I_AD_Archive.COLUMN_IsFileSystem, false)
+				.addCompareFilter(I_AD_Archive.COLUMN_AD_Archive_ID, Operator.GREATER, lastArchiveId)
+				.orderBy(I_AD_Archive.COLUMN_AD_Archive_ID)
+				.setLimit(batchSize)
+				.create()
+				.list(I_AD_Archive.class);
+	}
+
+	private static void moveToFileSystem(final I_AD_Archive archive, final IArchiveStorage dbStorage, final IArchiveStorage fsStorage) throws Exception
+	{
+		try (final InputStream data = dbStorage.getBinaryDataAsStream(archive))
+		{
+			if (data == null)
+			{
+				// nothing to move
+				return;
+			}
+			fsStorage.setBinaryDataFromStream(archive, data);
+		}
+		InterfaceWrapperHelper.save(archive);
+	}
+}
@@ -59,4 +59,16 @@ public interface IArchiveStorage
 	InputStream getBinaryDataAsStream(I_AD_Archive archive);
 
 	void setBinaryData(I_AD_Archive archive, byte[] data);
+
+	/**
+	 * Set the archive's data by consuming the given stream.
+	 * 
+	 * Storages which support it shall write the data without buffering it completely in memory.
+	 * 
+	 * NOTE: the stream is consumed but not closed; closing it is the caller's responsibility.
+	 * 
+	 * @param archive
+	 * @param data
+	 */
+	void setBinaryDataFromStream(I_AD_Archive archive, InputStream data);
 }
@@ -23,11 +23,25 @@ package org.adempiere.archive.spi.impl;
  */
 
 
+import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
 import java.util.Properties;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
 import org.slf4j.Logger;
 import de.metas.logging.LogManager;
 import de.metas.util.Check;
@@ -38,14 +52,27 @@ import org.adempiere.archive.api.IArchiveBL;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.model.InterfaceWrapperHelper;
 import org.adempiere.service.IClientDAO;
+import org.adempiere.service.ISysConfigBL;
 import org.compiere.model.I_AD_Archive;
 import org.compiere.model.I_AD_Client;
 import org.compiere.util.Ini;
 import org.compiere.util.MimeType;
-import org.compiere.util.Util;
+
+import com.google.common.io.BaseEncoding;
+import com.google.common.io.ByteStreams;
 
 /**
- * File system archive storage
+ * File system archive storage.
+ * <p>
+ * Depending on {@link #SYSCONFIG_ContentAddressed}, new data is either
+ * <ul>
+ * <li>stored content-addressed: the data is compressed and written to <code>store/&lt;hh&gt;/&lt;sha256&gt;.gz</code> below the archive root, so identical documents share one file
+ * <li>or stored by archive: the data is written uncompressed to a file named after the AD_Archive_ID, in a folder derived from client, org, process, table and record.
+ * </ul>
+ * Both layouts can always be read, no matter what the current setting is.
+ * <p>
+ * NOTE: a content-addressed file might be shared by many archives, so it must not be deleted together with one of them.
+ * Because there is no reference counting, this storage never deletes any archive files.
  * 
  * @author tsa
  * 
@@ -62,7 +89,21 @@ public class FilesystemArchiveStorage extends AbstractArchiveStorage
 	 */
 	private static final String ARCHIVE_FOLDER_PLACEHOLDER = "%ARCHIVE_FOLDER%";
 
+	/**
+	 * If <code>true</code>, new data is stored content-addressed and compressed. Default is <code>false</code>, so the layout of existing installations does not change.
+	 * <p>
+	 * Note that existing data is not migrated when this setting is changed.
+	 */
+	public static final String SYSCONFIG_ContentAddressed = "org.adempiere.archive.spi.impl.FilesystemArchiveStorage.ContentAddressed";
+
+	/** Folder (relative to archive root) of the content-addressed files */
+	private static final String CONTENT_STORE_FOLDER = "store";
+	private static final String CONTENT_FILE_EXTENSION = ".gz";
+	private static final String CONTENT_DIGEST_ALGORITHM = "SHA-256";
+	private static final int BUFFER_SIZE = 64 * 1024;
+
 	private String archivePathRoot;
+	private boolean contentAddressed;
 
 	public FilesystemArchiveStorage()
 	{
@@ -74,7 +115,8 @@ public class FilesystemArchiveStorage extends AbstractArchiveStorage
 	{
 		final I_AD_Client client = Services.get(IClientDAO.class).retriveClient(ctx, adClientId);
 		this.archivePathRoot = getArchivePath(client);
-		logger.info("Archive Path: {}, Config={}", new Object[] { archivePathRoot, client });
+		this.contentAddressed = Services.get(ISysConfigBL.class).getBooleanValue(SYSCONFIG_ContentAddressed, false, adClientId);
+		logger.info("Archive Path: {}, ContentAddressed={}, Config={}", new Object[] { archivePathRoot, contentAddressed, client });
 	}
 	
 	private final void checkContext()
@@ -138,12 +180,30 @@ public class FilesystemArchiveStorage extends AbstractArchiveStorage
 	 */
 	@Override
 	public byte[] getBinaryData(final I_AD_Archive archive)
+	{
+		try (final InputStream in = getBinaryDataAsStream(archive))
+		{
+			if (in == null)
+			{
+				return null;
+			}
+			return ByteStreams.toByteArray(in);
+		}
+		catch (final IOException ioe)
+		{
+			throw new AdempiereException(ioe.getLocalizedMessage(), ioe);
+		}
+	}
+
+	/**
+	 * @return stream which reads (and if needed decompresses) the data directly from the file system; the data is never completely loaded into memory
+	 */
+	@Override
+	public InputStream getBinaryDataAsStream(final I_AD_Archive archive)
 	{
 		checkContext();
-		
-		byte[] data = archive.getBinaryData();
-		// m_deflated = null;
-		// m_inflated = null;
+
+		final byte[] data = archive.getBinaryData();
 		if (data == null)
 		{
 			return null;
@@ -152,39 +212,50 @@ public class FilesystemArchiveStorage extends AbstractArchiveStorage
 		try
 		{
 			// 04692: metas-ts removed xml processing because totally don't need it and it's prone to "content-is-not-allowed-in-prolog" errors
-			String filePath = new String(data, UTF_8);
-			if (Check.isEmpty(filePath, true))
+			final String archiveInfo = new String(data, UTF_8);
+			if (Check.isEmpty(archiveInfo, true))
 			{
 				throw new AdempiereException("No File Path was found in attached XML message for " + archive);
 			}
 
-			filePath = filePath.replaceFirst(ARCHIVE_FOLDER_PLACEHOLDER, archivePathRoot.replaceAll("\\\\", "\\\\\\\\"));
-			// just to be shure...
-			String replaceSeparator = File.separator;
-			if (!replaceSeparator.equals("/"))
-			{
-				replaceSeparator = "\\\\";
-			}
-			filePath = filePath.replaceAll("/", replaceSeparator);
-			filePath = filePath.replaceAll("\\\\", replaceSeparator);
-			logger.debug("FilePath: " + filePath);
-
-			final File file = new File(filePath);
+			final File file = getFile(archiveInfo);
 			if (!file.exists())
 			{
 				throw new AdempiereException("File not found: " + file.getAbsolutePath());
 			}
 
-			final byte[] dataEntry = Util.readBytes(file);
-			return dataEntry;
+			final InputStream in = new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE);
+			if (isContentAddressed(archiveInfo))
+			{
+				return new GZIPInputStream(in, BUFFER_SIZE);
+			}
+			return in;
 		}
 		catch (IOException ioe)
 		{
-			// I/O error
-			// logger.error(ioe.getLocalizedMessage(), ioe);
 			throw new AdempiereException(ioe.getLocalizedMessage(), ioe);
 		}
-		// return null;
+	}
+
+	private File getFile(final String archiveInfo)
+	{
+		String filePath = archiveInfo.replaceFirst(ARCHIVE_FOLDER_PLACEHOLDER, archivePathRoot.replaceAll("\\\\", "\\\\\\\\"));
+		// just to be shure...
+		String replaceSeparator = File.separator;
+		if (!replaceSeparator.equals("/"))
+		{
+			replaceSeparator = "\\\\";
+		}
+		filePath = filePath.replaceAll("/", replaceSeparator);
+		filePath = filePath.replaceAll("\\\\", replaceSeparator);
+		logger.debug("FilePath: " + filePath);
+
+		return new File(filePath);
+	}
+
+	private static boolean isContentAddressed(final String archiveInfo)
+	{
+		return archiveInfo.startsWith(ARCHIVE_FOLDER_PLACEHOLDER + CONTENT_STORE_FOLDER + "/");
 	}
 
 	/**
@@ -202,6 +273,12 @@ public class FilesystemArchiveStorage extends AbstractArchiveStorage
 			throw new IllegalArgumentException("InflatedData is NULL");
 		}
 
+		if (contentAddressed)
+		{
+			setBinaryDataFromStream(archive, new ByteArrayInputStream(inflatedData));
+			return;
+		}
+
 		if (archive.getAD_Archive_ID() <= 0)
 		{
 			// set binary data otherwise save will fail
@@ -260,6 +337,87 @@ public class FilesystemArchiveStorage extends AbstractArchiveStorage
 
 	}
 
+	/**
+	 * Streams the given data to the content-addressed store. If a file with the same content already exists, it is reused.
+	 * <p>
+	 * Unlike {@link #setBinaryData(I_AD_Archive, byte[])} in the by-archive layout, this method does not need to save the archive first.
+	 */
+	@Override
+	public void setBinaryDataFromStream(final I_AD_Archive archive, final InputStream data)
+	{
+		checkContext();
+		Check.assumeNotNull(data, "data not null");
+
+		if (!contentAddressed)
+		{
+			super.setBinaryDataFromStream(archive, data);
+			return;
+		}
+
+		File tempFile = null;
+		try
+		{
+			final File storeFolder = new File(archivePathRoot + CONTENT_STORE_FOLDER);
+			if (!storeFolder.exists() && !storeFolder.mkdirs())
+			{
+				logger.warn("Unable to create folder: " + storeFolder.getPath());
+			}
+
+			// write to a temporary file first, because we know the hash only after we saw all the data
+			tempFile = File.createTempFile("archive", ".tmp", storeFolder);
+			final MessageDigest digest = MessageDigest.getInstance(CONTENT_DIGEST_ALGORITHM);
+			final long size;
+			try (final OutputStream out = new FastGZIPOutputStream(new FileOutputStream(tempFile)))
+			{
+				size = ByteStreams.copy(new DigestInputStream(data, digest), out);
+			}
+			if (size <= 0)
+			{
+				throw new IllegalArgumentException("InflatedData is NULL");
+			}
+
+			final String contentHash = BaseEncoding.base16().lowerCase().encode(digest.digest());
+			final String archivePathSnippet = CONTENT_STORE_FOLDER + "/" + contentHash.substring(0, 2) + "/" + contentHash + CONTENT_FILE_EXTENSION;
+			final File destFile = getFile(ARCHIVE_FOLDER_PLACEHOLDER + archivePathSnippet);
+			if (destFile.exists())
+			{
+				logger.debug("Reusing existing file {} for {}", destFile, archive);
+			}
+			else
+			{
+				final File destFolder = destFile.getParentFile();
+				if (!destFolder.exists() && !destFolder.mkdirs())
+				{
+					logger.warn("Unable to create folder: " + destFolder.getPath());
+				}
+				try
+				{
+					Files.move(tempFile.toPath(), destFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+				}
+				catch (final FileAlreadyExistsException e)
+				{
+					// the same content was stored concurrently; that's fine
+					logger.debug("File {} was created concurrently; reusing it for {}", destFile, archive);
+				}
+			}
+
+			archive.setBinaryData((ARCHIVE_FOLDER_PLACEHOLDER + archivePathSnippet).getBytes(UTF_8));
+			archive.setIsFileSystem(true);
+		}
+		catch (final Exception e)
+		{
+			archive.setBinaryData(null);
+			throw new AdempiereException("Error saving data to filesystem (archive=" + archive + ")", e);
+		}
+		finally
+		{
+			if (tempFile != null && tempFile.exists() && !tempFile.delete())
+			{
+				logger.warn("Unable to delete temporary file: " + tempFile.getPath());
+			}
+		}
+	}
+
 	/**
 	 * Returns the archive path (snippet), containing client, org and archive id. The process, table and record id are only included when they are not null.
 	 * 
@@ -295,6 +453,18 @@ public class FilesystemArchiveStorage extends AbstractArchiveStorage
 	@Override
 	public String toString()
 	{
-		return "FilesystemArchiveStorage [RootPath=" + archivePathRoot + "]";
+		return "FilesystemArchiveStorage [RootPath=" + archivePathRoot + ", ContentAddressed=" + contentAddressed + "]";
+	}
+
+	/**
+	 * Archives are mostly PDFs which don't compress a lot, so we favor speed over compression ratio.
+	 */
+	private static final class FastGZIPOutputStream extends GZIPOutputStream
+	{
+		public FastGZIPOutputStream(final OutputStream out) throws IOException
+		{
+			super(new BufferedOutputStream(out, BUFFER_SIZE), BUFFER_SIZE);
+			def.setLevel(Deflater.BEST_SPEED);
+		}
 	}
 }
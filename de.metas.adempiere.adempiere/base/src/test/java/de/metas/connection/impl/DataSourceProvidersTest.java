@@ -0,0 +1,58 @@
+package de.metas.connection.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.adempiere.exceptions.AdempiereException;
+import org.junit.After;
+import org.junit.Test;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class DataSourceProvidersTest
+{
+	@After
+	public void clearSystemProperty()
+	{
+		System.clearProperty(DataSourceProviders.SYSTEM_PROPERTY_ConnectionPool);
+	}
+
+	@Test
+	public void defaultIsC3P0()
+	{
+		assertThat(DataSourceProviders.fromSystemProperties()).isInstanceOf(C3P0DataSourceProvider.class);
+	}
+
+	@Test
+	public void hikari()
+	{
+		System.setProperty(DataSourceProviders.SYSTEM_PROPERTY_ConnectionPool, " Hikari");
+		assertThat(DataSourceProviders.fromSystemProperties()).isInstanceOf(HikariDataSourceProvider.class);
+	}
+
+	@Test(expected = AdempiereException.class)
+	public void unknown()
+	{
+		System.setProperty(DataSourceProviders.SYSTEM_PROPERTY_ConnectionPool, "dbcp");
+		DataSourceProviders.fromSystemProperties();
+	}
+}
@@ -0,0 +1,145 @@
+package de.metas.connection.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLClientInfoException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class HikariDataSourceProviderTest
+{
+	/** The calls made on the pooled connection, e.g. <code>setClientInfo(ApplicationName=metasfresh/returned-to-pool)</code> */
+	private List<String> calls;
+
+	private boolean closed;
+	private boolean failOnSetClientInfo;
+
+	@Before
+	public void init()
+	{
+		calls = new ArrayList<>();
+		closed = false;
+		failOnSetClientInfo = false;
+	}
+
+	/** @return a fake of the connection we get from HikariCP, which records the calls made on it */
+	private Connection pooledConnection()
+	{
+		return (Connection)Proxy.newProxyInstance(
+				getClass().getClassLoader(),
+				new Class<?>[] { Connection.class },
+				(proxy, method, args) -> {
+					switch (method.getName())
+					{
+						case "isClosed":
+							return closed;
+						case "setClientInfo":
+							calls.add("setClientInfo(" + args[0] + "=" + args[1] + ")");
+							if (failOnSetClientInfo)
+							{
+								throw new SQLClientInfoException();
+							}
+							return null;
+						case "close":
+							calls.add("close");
+							closed = true;
+							return null;
+						case "commit":
+							throw new SQLException("commit failed");
+						default:
+							calls.add(method.getName());
+							return null;
+					}
+				});
+	}
+
+	@Test
+	public void close_resetsApplicationNameBeforeReturningToPool() throws Exception
+	{
+		final Connection conn = HikariDataSourceProvider.resetApplicationNameOnClose(pooledConnection());
+
+		conn.setAutoCommit(true);
+		conn.close();
+
+		assertThat(calls).containsExactly(
+				"setAutoCommit",
+				"setClientInfo(ApplicationName=" + HikariDataSourceProvider.APPLICATION_NAME_ReturnedToPool + ")",
+				"close");
+	}
+
+	@Test
+	public void close_alreadyClosed() throws Exception
+	{
+		final Connection conn = HikariDataSourceProvider.resetApplicationNameOnClose(pooledConnection());
+
+		conn.close();
+		conn.close();
+
+		assertThat(calls).containsExactly(
+				"setClientInfo(ApplicationName=" + HikariDataSourceProvider.APPLICATION_NAME_ReturnedToPool + ")",
+				"close",
+				"close");
+	}
+
+	@Test
+	public void close_failingReset_stillReturnsToPool() throws Exception
+	{
+		failOnSetClientInfo = true;
+		final Connection conn = HikariDataSourceProvider.resetApplicationNameOnClose(pooledConnection());
+
+		conn.close();
+
+		assertThat(calls).endsWith("close");
+		assertThat(closed).isTrue();
+	}
+
+	@Test
+	public void exceptionsOfThePooledConnection_arePropagated()
+	{
+		final Connection conn = HikariDataSourceProvider.resetApplicationNameOnClose(pooledConnection());
+
+		assertThatThrownBy(conn::commit)
+				.isInstanceOf(SQLException.class)
+				.hasMessage("commit failed");
+	}
+
+	@Test
+	public void equalsAndHashCode_ofTheWrapper()
+	{
+		final Connection pooledConnection = pooledConnection();
+		final Connection conn = HikariDataSourceProvider.resetApplicationNameOnClose(pooledConnection);
+
+		assertThat(conn).isEqualTo(conn);
+		assertThat(conn.equals(pooledConnection)).isFalse();
+		assertThat(conn.hashCode()).isEqualTo(System.identityHashCode(conn));
+	}
+}
@@ -0,0 +1,63 @@
+package de.metas.connection.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.adempiere.util.lang.IAutoCloseable;
+import org.junit.Test;
+
+import com.google.common.net.HostAndPort;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ReadReplicaRoutingServiceTest
+{
+	@Test
+	public void routeToReadReplica_nested()
+	{
+		final ReadReplicaRoutingService routingService = new ReadReplicaRoutingService();
+		assertThat(routingService.isRoutingToReadReplica()).isFalse();
+
+		try (final IAutoCloseable outer = routingService.routeToReadReplica())
+		{
+			try (final IAutoCloseable inner = routingService.routeToReadReplica())
+			{
+				assertThat(routingService.isRoutingToReadReplica()).isTrue();
+			}
+			assertThat(routingService.isRoutingToReadReplica()).isTrue();
+
+			outer.close();
+			outer.close(); // closing twice shall not mess up the other scopes
+			assertThat(routingService.isRoutingToReadReplica()).isFalse();
+		}
+		assertThat(routingService.isRoutingToReadReplica()).isFalse();
+	}
+
+	@Test
+	public void parseHosts()
+	{
+		assertThat(DB_PostgreSQL_ReadReplicas.parseHosts(null)).isEmpty();
+		assertThat(DB_PostgreSQL_ReadReplicas.parseHosts(" ")).isEmpty();
+		assertThat(DB_PostgreSQL_ReadReplicas.parseHosts("replica1:5433, replica2,"))
+				.containsExactly(HostAndPort.fromParts("replica1", 5433), HostAndPort.fromString("replica2"));
+	}
+}
@@ -1,5 +1,7 @@
 package de.metas.currency.impl;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.Date;
 import java.util.Properties;
 
@@ -7,10 +9,14 @@ import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.service.ClientId;
+import org.adempiere.service.OrgId;
 import org.adempiere.test.AdempiereTestHelper;
 import org.adempiere.test.AdempiereTestWatcher;
 import org.compiere.model.I_C_ConversionType;
 import org.compiere.model.I_C_ConversionType_Default;
+import org.compiere.model.I_C_Conversion_Rate;
+import org.compiere.model.I_C_Currency;
 import org.compiere.util.Env;
 import org.compiere.util.TimeUtil;
 import org.junit.Assert;
@@ -19,8 +25,10 @@ import org.junit.Rule;
 import org.junit.Test;
 
 import de.metas.currency.ConversionType;
+import de.metas.currency.CurrencyConversionContext;
 import de.metas.currency.ICurrencyDAO;
 import de.metas.money.CurrencyConversionTypeId;
+import de.metas.money.CurrencyId;
 import de.metas.util.Services;
 
 /*
@@ -95,6 +103,78 @@ public class CurrencyDAOTest
 		assertDefaultConversionType(conversionTypeId_PeriodEnd, TimeUtil.getDay(2020, 1, 1));
 	}
 
+	@Test
+	public void retrieveRateOrNull()
+	{
+		final CurrencyId currencyFromId = createCurrency("EUR");
+		final CurrencyId currencyToId = createCurrency("CHF");
+		createConversionRate(currencyFromId, currencyToId, LocalDate.of(2018, 1, 1), LocalDate.of(2018, 12, 31), "1.1");
+		createConversionRate(currencyFromId, currencyToId, LocalDate.of(2019, 1, 1), LocalDate.of(2019, 12, 31), "1.2");
+
+		assertRate(null, currencyFromId, currencyToId, LocalDate.of(2017, 12, 31));
+		assertRate("1.1", currencyFromId, currencyToId, LocalDate.of(2018, 1, 1));
+		assertRate("1.1", currencyFromId, currencyToId, LocalDate.of(2018, 12, 31));
+		assertRate("1.2", currencyFromId, currencyToId, LocalDate.of(2019, 6, 1));
+		assertRate(null, currencyFromId, currencyToId, LocalDate.of(2020, 1, 1));
+		assertRate(null, currencyToId, currencyFromId, LocalDate.of(2019, 6, 1));
+
+		// the cached rates shall be invalidated when a new rate is saved
+		createConversionRate(currencyFromId, currencyToId, LocalDate.of(2020, 1, 1), LocalDate.of(2020, 12, 31), "1.3");
+		assertRate("1.3", currencyFromId, currencyToId, LocalDate.of(2020, 1, 1));
+	}
+
+	/**
+	 * Rates without ValidTo were never found by the SQL query ({@code ValidTo >= ?}), so they shall not be found when looking up in the cached rates either.
+	 */
+	@Test
+	public void retrieveRateOrNull_rateWithoutValidToIsIgnored()
+	{
+		final CurrencyId currencyFromId = createCurrency("EUR");
+		final CurrencyId currencyToId = createCurrency("CHF");
+		createConversionRate(currencyFromId, currencyToId, LocalDate.of(2018, 1, 1), LocalDate.of(2018, 12, 31), "1.1");
+		createConversionRate(currencyFromId, currencyToId, LocalDate.of(2019, 1, 1), null, "1.2");
+
+		assertRate("1.1", currencyFromId, currencyToId, LocalDate.of(2018, 6, 1));
+		assertRate(null, currencyFromId, currencyToId, LocalDate.of(2019, 6, 1));
+	}
+
+	private CurrencyId createCurrency(final String isoCode)
+	{
+		final I_C_Currency currency = InterfaceWrapperHelper.create(ctx, I_C_Currency.class, ITrx.TRXNAME_None);
+		currency.setISO_Code(isoCode);
+		currency.setStdPrecision(2);
+		InterfaceWrapperHelper.save(currency);
+		return CurrencyId.ofRepoId(currency.getC_Currency_ID());
+	}
+
+	private void createConversionRate(final CurrencyId currencyFromId, final CurrencyId currencyToId, final LocalDate validFrom, final LocalDate validTo, final String rate)
+	{
+		final I_C_Conversion_Rate conversionRate = InterfaceWrapperHelper.create(ctx, I_C_Conversion_Rate.class, ITrx.TRXNAME_None);
+		conversionRate.setAD_Org_ID(OrgId.ANY.getRepoId());
+		conversionRate.setC_ConversionType_ID(conversionTypeId_Spot.getRepoId());
+		conversionRate.setC_Currency_ID(currencyFromId.getRepoId());
+		conversionRate.setC_Currency_ID_To(currencyToId.getRepoId());
+		conversionRate.setValidFrom(TimeUtil.asTimestamp(validFrom));
+		conversionRate.setValidTo(TimeUtil.asTimestamp(validTo));
+		conversionRate.setMultiplyRate(new BigDecimal(rate));
+		InterfaceWrapperHelper.save(conversionRate);
+	}
+
+	private void assertRate(final String expectedRate, final CurrencyId currencyFromId, final CurrencyId currencyToId, final LocalDate date)
+	{
+		final CurrencyConversionContext conversionCtx = CurrencyConversionContext.builder()
+				.clientId(ClientId.ofRepoId(Env.getAD_Client_ID(ctx)))
+				.orgId(OrgId.ofRepoIdOrAny(Env.getAD_Org_ID(ctx)))
+				.conversionTypeId(conversionTypeId_Spot)
+				.conversionDate(date)
+				.build();
+
+		final BigDecimal actualRate = currencyDAO.retrieveRateOrNull(conversionCtx, currencyFromId.getRepoId(), currencyToId.getRepoId());
+
+		final BigDecimal expectedRateBD = expectedRate != null ? new BigDecimal(expectedRate) : null;
+		Assert.assertEquals("Invalid rate for date=" + date, expectedRateBD, actualRate);
+	}
+
 	private final void clearConversionTypeDefaults()
 	{
 		Services.get(IQueryBL.class)
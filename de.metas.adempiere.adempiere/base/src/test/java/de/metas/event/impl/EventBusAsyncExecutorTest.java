@@ -0,0 +1,196 @@
+package de.metas.event.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.metas.event.Event;
+import de.metas.event.impl.EventBusAsyncExecutor.QueueFullPolicy;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class EventBusAsyncExecutorTest
+{
+	@Before
+	public void init()
+	{
+		AdempiereTestHelper.get().init(); // needed for ITableRecordReference
+	}
+
+	@Test
+	public void sameRecord_isDispatchedInPostingOrder() throws Exception
+	{
+		final EventBusAsyncExecutor executor = EventBusAsyncExecutor.builder()
+				.topicName("test")
+				.parallelism(4)
+				.queueCapacity(100)
+				.queueFullPolicy(QueueFullPolicy.BLOCK)
+				.build();
+
+		final List<Integer> dispatched = new CopyOnWriteArrayList<>();
+		final CountDownLatch allDispatched = new CountDownLatch(20);
+		for (int i = 0; i < 20; i++)
+		{
+			final int seqNo = i;
+			executor.execute(eventForRecord(123), () -> {
+				dispatched.add(seqNo);
+				allDispatched.countDown();
+			});
+		}
+
+		assertThat(allDispatched.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(dispatched).isSorted().hasSize(20);
+		executor.shutdown();
+	}
+
+	@Test
+	public void queueFull_dropPolicy() throws Exception
+	{
+		final EventBusAsyncExecutor executor = EventBusAsyncExecutor.builder()
+				.topicName("test")
+				.parallelism(1)
+				.queueCapacity(1)
+				.queueFullPolicy(QueueFullPolicy.DROP)
+				.build();
+
+		final CountDownLatch firstStarted = new CountDownLatch(1);
+		final CountDownLatch releaseFirst = new CountDownLatch(1);
+		executor.execute(eventForRecord(1), () -> {
+			firstStarted.countDown();
+			awaitUninterruptibly(releaseFirst);
+		});
+		assertThat(firstStarted.await(10, TimeUnit.SECONDS)).isTrue();
+
+		final CountDownLatch secondDispatched = new CountDownLatch(1);
+		executor.execute(eventForRecord(2), secondDispatched::countDown); // queued
+		executor.execute(eventForRecord(3), () -> {}); // dropped
+
+		assertThat(executor.getStats().getQueuedCount()).isEqualTo(1);
+		assertThat(executor.getStats().getDroppedCount()).isEqualTo(1);
+
+		releaseFirst.countDown();
+		assertThat(secondDispatched.await(10, TimeUnit.SECONDS)).isTrue();
+
+		final EventBusStats stats = executor.getStats();
+		assertThat(stats.getPostedCount()).isEqualTo(3);
+		assertThat(stats.getDroppedCount()).isEqualTo(1);
+		executor.shutdown();
+	}
+
+	@Test
+	public void queueFull_blockPolicy_waitsForRoom() throws Exception
+	{
+		final EventBusAsyncExecutor executor = EventBusAsyncExecutor.builder()
+				.topicName("test")
+				.parallelism(1)
+				.queueCapacity(1)
+				.queueFullPolicy(QueueFullPolicy.BLOCK)
+				.build();
+
+		final CountDownLatch firstStarted = new CountDownLatch(1);
+		final CountDownLatch releaseFirst = new CountDownLatch(1);
+		executor.execute(eventForRecord(1), () -> {
+			firstStarted.countDown();
+			awaitUninterruptibly(releaseFirst);
+		});
+		assertThat(firstStarted.await(10, TimeUnit.SECONDS)).isTrue();
+		executor.execute(eventForRecord(2), () -> {}); // queued
+
+		final CountDownLatch thirdDispatched = new CountDownLatch(1);
+		final Thread poster = new Thread(() -> executor.execute(eventForRecord(3), thirdDispatched::countDown));
+		poster.start();
+
+		// the poster waits for room in the queue instead of dropping the event
+		assertThat(thirdDispatched.await(200, TimeUnit.MILLISECONDS)).isFalse();
+		assertThat(poster.isAlive()).isTrue();
+
+		releaseFirst.countDown();
+		assertThat(thirdDispatched.await(10, TimeUnit.SECONDS)).isTrue();
+		poster.join(10_000);
+
+		final EventBusStats stats = executor.getStats();
+		assertThat(stats.getPostedCount()).isEqualTo(3);
+		assertThat(stats.getDroppedCount()).isEqualTo(0);
+		executor.shutdown();
+	}
+
+	@Test
+	public void queueFull_blockPolicy_postedByOwnLane_isDispatchedInline() throws Exception
+	{
+		final EventBusAsyncExecutor executor = EventBusAsyncExecutor.builder()
+				.topicName("test")
+				.parallelism(1)
+				.queueCapacity(1)
+				.queueFullPolicy(QueueFullPolicy.BLOCK)
+				.build();
+
+		final List<String> dispatchedBy = new CopyOnWriteArrayList<>();
+		final CountDownLatch allDispatched = new CountDownLatch(3);
+		executor.execute(eventForRecord(1), () -> {
+			final String laneThreadName = Thread.currentThread().getName();
+			executor.execute(eventForRecord(2), allDispatched::countDown); // queued
+			executor.execute(eventForRecord(3), () -> { // queue is full; waiting would be a deadlock
+				dispatchedBy.add(Thread.currentThread().getName());
+				allDispatched.countDown();
+			});
+			dispatchedBy.add(laneThreadName);
+			allDispatched.countDown();
+		});
+
+		assertThat(allDispatched.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(dispatchedBy).hasSize(2);
+		assertThat(dispatchedBy.get(0)).isEqualTo(dispatchedBy.get(1));
+
+		final EventBusStats stats = executor.getStats();
+		assertThat(stats.getPostedCount()).isEqualTo(3);
+		assertThat(stats.getDroppedCount()).isEqualTo(0);
+		executor.shutdown();
+	}
+
+	private static Event eventForRecord(final int recordId)
+	{
+		return Event.builder()
+				.setRecord(TableRecordReference.of("C_Order", recordId))
+				.build();
+	}
+
+	private static void awaitUninterruptibly(final CountDownLatch latch)
+	{
+		try
+		{
+			latch.await();
+		}
+		catch (final InterruptedException ex)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+}
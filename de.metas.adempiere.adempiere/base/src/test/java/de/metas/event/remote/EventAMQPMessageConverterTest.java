@@ -0,0 +1,100 @@
+package de.metas.event.remote;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.compiere.model.I_C_Invoice;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.SimpleMessageConverter;
+
+import de.metas.event.Event;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class EventAMQPMessageConverterTest
+{
+	@Before
+	public void init()
+	{
+		AdempiereTestHelper.get().init(); // needed for ITableRecordReference
+	}
+
+	@Test
+	public void event_isSentAsSmile()
+	{
+		final EventAMQPMessageConverter converter = new EventAMQPMessageConverter(new SimpleMessageConverter(), true);
+		final Event event = Event.builder()
+				.setSummary("Summary1")
+				.setUUID(UUID.randomUUID())
+				.setWhen(Instant.now())
+				.addRecipient_User_ID(10)
+				.putProperty("Prop_BD", new BigDecimal("3.1415"))
+				.putProperty("Prop_Str", "string1")
+				.putProperty("Prop_Ref", TableRecordReference.of(I_C_Invoice.Table_Name, 123456))
+				.build();
+
+		final Message message = converter.toMessage(event, new MessageProperties());
+		assertThat(message.getMessageProperties().getContentType()).isEqualTo(SmileEventSerializer.CONTENT_TYPE);
+
+		final Object eventRestored = converter.fromMessage(message);
+		assertThat(eventRestored).isEqualTo(event);
+	}
+
+	@Test
+	public void smileDisabled_eventIsSentByDelegate_butSmileIsStillReceived()
+	{
+		final EventAMQPMessageConverter converter = new EventAMQPMessageConverter(new SimpleMessageConverter(), false);
+		final Event event = Event.builder()
+				.setSummary("Summary1")
+				.setUUID(UUID.randomUUID())
+				.setWhen(Instant.now())
+				.build();
+
+		final Message message = converter.toMessage(event, new MessageProperties());
+		assertThat(message.getMessageProperties().getContentType()).isNotEqualTo(SmileEventSerializer.CONTENT_TYPE);
+
+		// e.g. from a node which already sends smile
+		final MessageProperties smileMessageProperties = new MessageProperties();
+		smileMessageProperties.setContentType(SmileEventSerializer.CONTENT_TYPE);
+		final Message smileMessage = new Message(SmileEventSerializer.instance.toBytes(event), smileMessageProperties);
+		assertThat(converter.fromMessage(smileMessage)).isEqualTo(event);
+	}
+
+	@Test
+	public void otherObjects_areConvertedByDelegate()
+	{
+		final EventAMQPMessageConverter converter = new EventAMQPMessageConverter(new SimpleMessageConverter(), true);
+
+		final Message message = converter.toMessage("some string", new MessageProperties());
+		assertThat(message.getMessageProperties().getContentType()).isEqualTo(MessageProperties.CONTENT_TYPE_TEXT_PLAIN);
+		assertThat(converter.fromMessage(message)).isEqualTo("some string");
+	}
+}
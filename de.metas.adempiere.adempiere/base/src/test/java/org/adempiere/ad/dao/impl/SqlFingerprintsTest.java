@@ -0,0 +1,73 @@
+package org.adempiere.ad.dao.impl;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class SqlFingerprintsTest
+{
+	@Test
+	public void literals()
+	{
+		final String expected = "SELECT * FROM C_Order WHERE C_Order_ID=? AND DocumentNo=?";
+		assertThat(SqlFingerprints.of("SELECT * FROM C_Order WHERE C_Order_ID=1000123 AND DocumentNo='4711'"), equalTo(expected));
+		assertThat(SqlFingerprints.of("SELECT * FROM C_Order WHERE C_Order_ID=42 AND DocumentNo='it''s'"), equalTo(expected));
+	}
+
+	@Test
+	public void digitsInIdentifiers_areKept()
+	{
+		assertThat(SqlFingerprints.of("SELECT Col1 FROM T_Table2 WHERE x=5.5"), equalTo("SELECT Col1 FROM T_Table2 WHERE x=?"));
+	}
+
+	@Test
+	public void quotedIdentifiers_areKept()
+	{
+		assertThat(SqlFingerprints.of("SELECT \"Col1\" FROM \"Table 2\" WHERE x=1"), equalTo("SELECT \"Col1\" FROM \"Table 2\" WHERE x=?"));
+	}
+
+	@Test
+	public void inList()
+	{
+		final String expected = "SELECT * FROM M_Product WHERE M_Product_ID IN (?...)";
+		assertThat(SqlFingerprints.of("SELECT * FROM M_Product WHERE M_Product_ID IN (1,2,3)"), equalTo(expected));
+		assertThat(SqlFingerprints.of("SELECT * FROM M_Product WHERE M_Product_ID IN (?)"), equalTo(expected));
+	}
+
+	@Test
+	public void valuesList()
+	{
+		final String expected = "INSERT INTO T_Lock (a,b) VALUES (?,?), ...";
+		assertThat(SqlFingerprints.of("INSERT INTO T_Lock (a,b) VALUES (1,'x'), (2,'y'), (3,'z')"), equalTo(expected));
+		assertThat(SqlFingerprints.of("INSERT INTO T_Lock (a,b) VALUES (?,?),(?,?)"), equalTo(expected));
+	}
+
+	@Test
+	public void commentsAndWhitespaces()
+	{
+		assertThat(SqlFingerprints.of("SELECT  a /* comment */ FROM t -- trailing\nWHERE b = 1"), equalTo("SELECT a FROM t WHERE b = ?"));
+	}
+}
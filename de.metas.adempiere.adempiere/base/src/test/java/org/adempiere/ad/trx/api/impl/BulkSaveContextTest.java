@@ -0,0 +1,216 @@
+package org.adempiere.ad.trx.api.impl;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.adempiere.ad.trx.api.IBulkSaveContext;
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.ad.trx.api.ITrxSavepoint;
+import org.adempiere.ad.trx.api.OnTrxMissingPolicy;
+import org.adempiere.exceptions.DBException;
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.util.Services;
+
+public class BulkSaveContextTest
+{
+	private static final String INSERT_INTO_T_AB = "INSERT INTO T (A,B)";
+	private static final String INSERT_INTO_T_A = "INSERT INTO T (A)";
+
+	private MockedTrxManager trxManager;
+	private ITrx trx;
+
+	/** The batches which were written, each being the list of SQL statements */
+	private List<List<String>> executedBatches;
+
+	/** Computes the update counts to be returned for an executed batch; by default each statement reports the rows it is expected to write */
+	private Function<List<String>, int[]> updateCountsProvider;
+
+	@Before
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+
+		trxManager = new MockedTrxManager();
+		Services.registerService(ITrxManager.class, trxManager);
+
+		trx = trxManager.get("Test", OnTrxMissingPolicy.CreateNew);
+		trx.start();
+
+		executedBatches = new ArrayList<>();
+		updateCountsProvider = sqls -> sqls.stream().mapToInt(BulkSaveContextTest::countRows).toArray();
+	}
+
+	private IBulkSaveContext startBulkSave()
+	{
+		return BulkSaveContext.start(trx, (trxName, sqls) -> {
+			assertThat(trxName).isEqualTo(trx.getTrxName());
+			executedBatches.add(ImmutableList.copyOf(sqls));
+			return updateCountsProvider.apply(sqls);
+		});
+	}
+
+	private BulkSaveContext getBulkSaveContext()
+	{
+		final BulkSaveContext bulkSaveContext = BulkSaveContext.getActiveOrNull(trx);
+		assertThat(bulkSaveContext).isNotNull();
+		return bulkSaveContext;
+	}
+
+	/** @return how many rows the given INSERT or UPDATE statement is expected to write */
+	private static int countRows(final String sql)
+	{
+		return sql.startsWith("INSERT") ? sql.split("\\),\\(", -1).length : 1;
+	}
+
+	@Test
+	public void insertsIntoTheSameTableWithTheSameColumns_areMerged()
+	{
+		try (final IBulkSaveContext bulkSave = startBulkSave())
+		{
+			final BulkSaveContext bulkSaveContext = getBulkSaveContext();
+			bulkSaveContext.addInsert(INSERT_INTO_T_AB, "(1,'a')");
+			bulkSaveContext.addInsert(INSERT_INTO_T_AB, "(2,'b')");
+			bulkSaveContext.addInsert(INSERT_INTO_T_A, "(3)"); // other columns
+			bulkSaveContext.addUpdate("UPDATE T SET B='c' WHERE A=1");
+			bulkSaveContext.addInsert(INSERT_INTO_T_AB, "(4,'d')"); // not consecutive to the other inserts into the same columns
+
+			assertThat(executedBatches).isEmpty();
+		}
+
+		// the rows are written when the context is closed, in the order they were added
+		assertThat(executedBatches).containsExactly(ImmutableList.of(
+				"INSERT INTO T (A,B) VALUES (1,'a'),(2,'b')",
+				"INSERT INTO T (A) VALUES (3)",
+				"UPDATE T SET B='c' WHERE A=1",
+				"INSERT INTO T (A,B) VALUES (4,'d')"));
+		assertThat(BulkSaveContext.getActiveOrNull(trx)).isNull();
+	}
+
+	@Test
+	public void insertsAreSplitAfterMaxRowsPerInsert()
+	{
+		try (final IBulkSaveContext bulkSave = startBulkSave())
+		{
+			final BulkSaveContext bulkSaveContext = getBulkSaveContext();
+			for (int i = 1; i <= BulkSaveContext.MAX_ROWS_PER_INSERT + 1; i++)
+			{
+				bulkSaveContext.addInsert(INSERT_INTO_T_A, "(" + i + ")");
+			}
+		}
+
+		assertThat(executedBatches).hasSize(1);
+		final List<String> sqls = executedBatches.get(0);
+		assertThat(sqls).hasSize(2);
+		assertThat(countRows(sqls.get(0))).isEqualTo(BulkSaveContext.MAX_ROWS_PER_INSERT);
+		assertThat(sqls.get(1)).isEqualTo("INSERT INTO T (A) VALUES (" + (BulkSaveContext.MAX_ROWS_PER_INSERT + 1) + ")");
+	}
+
+	@Test
+	public void unexpectedUpdateCount_fails()
+	{
+		updateCountsProvider = sqls -> new int[] { 2, 0 };
+
+		final IBulkSaveContext bulkSave = startBulkSave();
+		final BulkSaveContext bulkSaveContext = getBulkSaveContext();
+		bulkSaveContext.addInsert(INSERT_INTO_T_A, "(1)");
+		bulkSaveContext.addInsert(INSERT_INTO_T_A, "(2)");
+		bulkSaveContext.addUpdate("UPDATE T SET A=3 WHERE A=4");
+
+		assertThatThrownBy(bulkSave::flush)
+				.isInstanceOf(DBException.class)
+				.hasMessageContaining("Expected 1 rows to be written but it were 0")
+				.hasMessageContaining("UPDATE T SET A=3 WHERE A=4");
+	}
+
+	@Test
+	public void successNoInfoUpdateCount_isAccepted()
+	{
+		updateCountsProvider = sqls -> new int[] { Statement.SUCCESS_NO_INFO, Statement.SUCCESS_NO_INFO };
+
+		final IBulkSaveContext bulkSave = startBulkSave();
+		final BulkSaveContext bulkSaveContext = getBulkSaveContext();
+		bulkSaveContext.addInsert(INSERT_INTO_T_A, "(1)");
+		bulkSaveContext.addUpdate("UPDATE T SET A=3 WHERE A=4");
+
+		bulkSave.flush();
+		assertThat(executedBatches).hasSize(1);
+	}
+
+	@Test
+	public void commit_writesPendingRows()
+	{
+		startBulkSave();
+		getBulkSaveContext().addInsert(INSERT_INTO_T_A, "(1)");
+
+		assertThat(trx.commit()).isTrue();
+
+		assertThat(executedBatches).containsExactly(ImmutableList.of("INSERT INTO T (A) VALUES (1)"));
+	}
+
+	@Test
+	public void rollback_discardsPendingRows()
+	{
+		final IBulkSaveContext bulkSave = startBulkSave();
+		getBulkSaveContext().addInsert(INSERT_INTO_T_A, "(1)");
+
+		assertThat(trx.rollback()).isTrue();
+		bulkSave.close();
+
+		assertThat(executedBatches).isEmpty();
+	}
+
+	@Test
+	public void rollbackToSavepoint_discardsTheRowsSavedAfterTheSavepoint()
+	{
+		final IBulkSaveContext bulkSave = startBulkSave();
+		final BulkSaveContext bulkSaveContext = getBulkSaveContext();
+		bulkSaveContext.addInsert(INSERT_INTO_T_A, "(1)");
+
+		// the rows saved so far are written when the savepoint is created
+		final ITrxSavepoint savepoint = trx.createTrxSavepoint("Test");
+		assertThat(executedBatches).containsExactly(ImmutableList.of("INSERT INTO T (A) VALUES (1)"));
+
+		bulkSaveContext.addInsert(INSERT_INTO_T_A, "(2)");
+		trx.rollback(savepoint);
+
+		bulkSaveContext.addInsert(INSERT_INTO_T_A, "(3)");
+		bulkSave.close();
+
+		assertThat(executedBatches).containsExactly(
+				ImmutableList.of("INSERT INTO T (A) VALUES (1)"),
+				ImmutableList.of("INSERT INTO T (A) VALUES (3)"));
+	}
+}
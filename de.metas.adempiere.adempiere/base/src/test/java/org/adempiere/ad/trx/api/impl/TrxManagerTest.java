@@ -24,6 +24,7 @@ package org.adempiere.ad.trx.api.impl;
 
 import java.util.Collections;
 
+import org.adempiere.ad.trx.api.IBulkSaveContext;
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.ad.trx.api.ITrxManager;
 import org.adempiere.ad.trx.api.ITrxRunConfig;
@@ -679,4 +680,28 @@ public class TrxManagerTest
 		trxManager.assertThreadInheritedTrxNotExists();
 	}
 
+	@Test
+	public void test_startBulkSave_nested()
+	{
+		final ITrx trx = trxManager.get("Test", OnTrxMissingPolicy.CreateNew);
+
+		final IBulkSaveContext outerScope = trxManager.startBulkSave(trx.getTrxName());
+		final BulkSaveContext bulkSaveContext = BulkSaveContext.getActiveOrNull(trx);
+		Assert.assertNotNull("bulk save context shall be active", bulkSaveContext);
+
+		final IBulkSaveContext innerScope = trxManager.startBulkSave(trx.getTrxName());
+		Assert.assertSame("nested scopes shall share the bulk save context", bulkSaveContext, BulkSaveContext.getActiveOrNull(trx));
+
+		innerScope.close();
+		Assert.assertSame("bulk save context shall still be active", bulkSaveContext, BulkSaveContext.getActiveOrNull(trx));
+
+		outerScope.close();
+		Assert.assertNull("bulk save context shall not be active anymore", BulkSaveContext.getActiveOrNull(trx));
+	}
+
+	@Test(expected = RuntimeException.class)
+	public void test_startBulkSave_noTrx()
+	{
+		trxManager.startBulkSave(ITrx.TRXNAME_None);
+	}
 }
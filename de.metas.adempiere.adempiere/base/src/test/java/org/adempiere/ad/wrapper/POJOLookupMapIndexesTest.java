@@ -0,0 +1,150 @@
+package org.adempiere.ad.wrapper;
+
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.model.I_C_BPartner;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class POJOLookupMapIndexesTest
+{
+	private IQueryBL queryBL;
+
+	@Before
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+		queryBL = Services.get(IQueryBL.class);
+	}
+
+	private I_C_BPartner createBPartner(final String name, final int bpGroupId)
+	{
+		final I_C_BPartner bpartner = newInstance(I_C_BPartner.class);
+		bpartner.setName(name);
+		bpartner.setC_BP_Group_ID(bpGroupId);
+		saveRecord(bpartner);
+		return bpartner;
+	}
+
+	private List<String> retrieveNamesByGroupId(final int bpGroupId)
+	{
+		return queryBL.createQueryBuilder(I_C_BPartner.class)
+				.addEqualsFilter(I_C_BPartner.COLUMNNAME_C_BP_Group_ID, bpGroupId)
+				.create()
+				.list()
+				.stream()
+				.map(I_C_BPartner::getName)
+				.collect(Collectors.toList());
+	}
+
+	private List<String> retrieveNamesByGroupIds(final Integer... bpGroupIds)
+	{
+		return queryBL.createQueryBuilder(I_C_BPartner.class)
+				.addInArrayFilter(I_C_BPartner.COLUMNNAME_C_BP_Group_ID, bpGroupIds)
+				.create()
+				.list()
+				.stream()
+				.map(I_C_BPartner::getName)
+				.collect(Collectors.toList());
+	}
+
+	@Test
+	public void equalsFilter_keepsSaveOrder()
+	{
+		createBPartner("bp1", 10);
+		createBPartner("bp2", 20);
+		createBPartner("bp3", 10);
+
+		assertThat(retrieveNamesByGroupId(10)).containsExactly("bp1", "bp3");
+		assertThat(retrieveNamesByGroupId(20)).containsExactly("bp2");
+		assertThat(retrieveNamesByGroupId(30)).isEmpty();
+	}
+
+	@Test
+	public void inArrayFilter()
+	{
+		createBPartner("bp1", 10);
+		createBPartner("bp2", 20);
+		createBPartner("bp3", 30);
+
+		assertThat(retrieveNamesByGroupIds(30, 10)).containsExactly("bp1", "bp3");
+	}
+
+	@Test
+	public void indexIsMaintainedOnSaveAndDelete()
+	{
+		final I_C_BPartner bp1 = createBPartner("bp1", 10);
+		final I_C_BPartner bp2 = createBPartner("bp2", 10);
+		assertThat(retrieveNamesByGroupId(10)).containsExactly("bp1", "bp2"); // builds the index
+
+		bp1.setC_BP_Group_ID(20);
+		saveRecord(bp1);
+		createBPartner("bp3", 10);
+		InterfaceWrapperHelper.delete(bp2);
+
+		assertThat(retrieveNamesByGroupId(10)).containsExactly("bp3");
+		assertThat(retrieveNamesByGroupId(20)).containsExactly("bp1");
+	}
+
+	@Test
+	public void sameResultsWithoutIndexing()
+	{
+		createBPartner("bp1", 10);
+		createBPartner("bp2", 20);
+		createBPartner("bp3", 10);
+		final List<String> namesIndexed = retrieveNamesByGroupId(10);
+
+		POJOLookupMap.get().setIndexingEnabled(false);
+		assertThat(retrieveNamesByGroupId(10)).isEqualTo(namesIndexed);
+	}
+
+	@Test
+	public void queryAfterRestore_keepsSaveOrder()
+	{
+		createBPartner("bp1", 10);
+		createBPartner("bp2", 10);
+		createBPartner("bp3", 10);
+		createBPartner("bp4", 20);
+		final POJOLookupMapRestorePoint restorePoint = POJOLookupMap.get().createRestorePoint();
+		assertThat(retrieveNamesByGroupId(10)).containsExactly("bp1", "bp2", "bp3"); // builds the index
+
+		createBPartner("bp5", 10);
+		assertThat(retrieveNamesByGroupId(10)).containsExactly("bp1", "bp2", "bp3", "bp5");
+
+		restorePoint.restore();
+		assertThat(retrieveNamesByGroupId(10)).containsExactly("bp1", "bp2", "bp3");
+		assertThat(retrieveNamesByGroupIds(20, 10)).containsExactly("bp1", "bp2", "bp3", "bp4");
+	}
+}
@@ -23,11 +23,15 @@ package org.adempiere.archive.spi.impl;
  */
 
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Properties;
 import java.util.Random;
 
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.service.ISysConfigBL;
 import org.adempiere.test.AdempiereTestHelper;
 import org.compiere.model.I_AD_Archive;
 import org.compiere.model.I_AD_Client;
@@ -40,6 +44,10 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
+import com.google.common.io.ByteStreams;
+
+import de.metas.util.Services;
+
 public class FilesystemArchiveStorageTest
 {
 	@BeforeClass
@@ -50,6 +58,7 @@ public class FilesystemArchiveStorageTest
 
 	@Rule
 	public TemporaryFolder storageFolder = new TemporaryFolder();
+	private I_AD_Client client;
 	private FilesystemArchiveStorage storage;
 
 	@Before
@@ -58,7 +67,7 @@ public class FilesystemArchiveStorageTest
 		AdempiereTestHelper.get().init();
 
 		final Properties ctx = Env.getCtx();
-		final I_AD_Client client = InterfaceWrapperHelper.create(ctx, I_AD_Client.class, ITrx.TRXNAME_None);
+		client = InterfaceWrapperHelper.create(ctx, I_AD_Client.class, ITrx.TRXNAME_None);
 		client.setWindowsArchivePath(storageFolder.getRoot().getAbsolutePath());
 		client.setUnixArchivePath(client.getWindowsArchivePath());
 		client.setStoreArchiveOnFileSystem(true);
@@ -66,15 +75,22 @@ public class FilesystemArchiveStorageTest
 
 		Env.setContext(ctx, "#AD_Client_ID", client.getAD_Client_ID());
 
-		storage = new FilesystemArchiveStorage();
-		storage.init(ctx, client.getAD_Client_ID());
+		// the file system storage can only be accessed in server mode (see FilesystemArchiveStorage.checkContext())
+		Ini.setClient(false);
+
+		storage = createStorage();
+	}
+
+	private FilesystemArchiveStorage createStorage()
+	{
+		final FilesystemArchiveStorage storage = new FilesystemArchiveStorage();
+		storage.init(Env.getCtx(), client.getAD_Client_ID());
+		return storage;
 	}
 
 	@Test
 	public void test_set_getBinaryData()
 	{
-		Ini.setClient(false);
-		
 		final I_AD_Archive archive = InterfaceWrapperHelper.create(Env.getCtx(), I_AD_Archive.class, ITrx.TRXNAME_None);
 		archive.setAD_Org_ID(0);
 		archive.setAD_Process_ID(0);
@@ -90,6 +106,82 @@ public class FilesystemArchiveStorageTest
 		Assert.assertArrayEquals("Invalid data", data, dataActual);
 	}
 
+	@Test
+	public void test_set_getBinaryData_ContentAddressed()
+	{
+		enableContentAddressed();
+
+		final I_AD_Archive archive = createArchive();
+		final byte[] data = createTestDataBytes();
+		storage.setBinaryData(archive, data);
+		InterfaceWrapperHelper.save(archive);
+
+		Assert.assertEquals("Invalid IsFileSystem flag", true, archive.isFileSystem());
+		Assert.assertArrayEquals("Invalid data", data, storage.getBinaryData(archive));
+	}
+
+	@Test
+	public void test_setBinaryData_SameContentIsStoredOnce()
+	{
+		enableContentAddressed();
+		final byte[] data = createTestDataBytes();
+
+		final I_AD_Archive archive1 = createArchive();
+		storage.setBinaryData(archive1, data);
+		InterfaceWrapperHelper.save(archive1);
+
+		final I_AD_Archive archive2 = createArchive();
+		storage.setBinaryData(archive2, data);
+		InterfaceWrapperHelper.save(archive2);
+
+		Assert.assertArrayEquals("Both archives shall point to the same file", archive1.getBinaryData(), archive2.getBinaryData());
+		Assert.assertArrayEquals("Invalid data", data, storage.getBinaryData(archive1));
+		Assert.assertArrayEquals("Invalid data", data, storage.getBinaryData(archive2));
+	}
+
+	@Test
+	public void test_setBinaryDataFromStream_getBinaryDataAsStream() throws IOException
+	{
+		enableContentAddressed();
+		final I_AD_Archive archive = createArchive();
+		final byte[] data = createTestDataBytes();
+		storage.setBinaryDataFromStream(archive, new ByteArrayInputStream(data));
+		InterfaceWrapperHelper.save(archive);
+
+		try (final InputStream in = storage.getBinaryDataAsStream(archive))
+		{
+			Assert.assertArrayEquals("Invalid data", data, ByteStreams.toByteArray(in));
+		}
+	}
+
+	@Test
+	public void test_getBinaryData_NotContentAddressedDataStillReadableWhenContentAddressed()
+	{
+		final I_AD_Archive archive = createArchive();
+		final byte[] data = createTestDataBytes();
+		storage.setBinaryData(archive, data);
+		InterfaceWrapperHelper.save(archive);
+
+		enableContentAddressed();
+		Assert.assertArrayEquals("Invalid data", data, storage.getBinaryData(archive));
+	}
+
+	private void enableContentAddressed()
+	{
+		Services.get(ISysConfigBL.class).setValue(FilesystemArchiveStorage.SYSCONFIG_ContentAddressed, true, 0);
+		storage = createStorage();
+	}
+
+	private I_AD_Archive createArchive()
+	{
+		final I_AD_Archive archive = InterfaceWrapperHelper.create(Env.getCtx(), I_AD_Archive.class, ITrx.TRXNAME_None);
+		archive.setAD_Org_ID(0);
+		archive.setAD_Process_ID(0);
+		archive.setAD_Table_ID(0);
+		archive.setRecord_ID(0);
+		return archive;
+	}
+
 	private final Random random = new Random();
 
 	private byte[] createTestDataBytes()
@@ -0,0 +1,142 @@
+package de.metas.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.adempiere.exceptions.AdempiereException;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableMap;
+
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.benchmarks
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Compares a JMH JSON result file with a baseline result file and fails if any benchmark got slower than the given tolerance.
+ * <p>
+ * Benchmarks which are not contained in the baseline are ignored, so new benchmarks can be added before the baseline is updated.
+ * A missing baseline file fails the gate, because otherwise the gate would silently never check anything.
+ * <p>
+ * To record or update the baseline, run the benchmarks on the reference machine with the <code>benchmark-update-baseline</code> profile
+ * (which calls this class with <code>updateBaseline=true</code>, i.e. copies the result file over the baseline file) and commit the baseline file.
+ */
+public final class BenchmarkRegressionGate
+{
+	public static void main(final String[] args) throws IOException
+	{
+		if (args.length != 3 && args.length != 4)
+		{
+			throw new AdempiereException("Usage: BenchmarkRegressionGate <resultFile> <baselineFile> <maxRegressionPercent> [<updateBaseline>]");
+		}
+
+		final File resultFile = new File(args[0]);
+		final File baselineFile = new File(args[1]);
+		final BigDecimal maxRegressionPercent = new BigDecimal(args[2]);
+		final boolean updateBaseline = args.length == 4 && Boolean.parseBoolean(args[3]);
+
+		if (!resultFile.exists())
+		{
+			throw new AdempiereException("No benchmark result found at " + resultFile + ". Run the benchmarks first, using the benchmark profile.");
+		}
+
+		if (updateBaseline)
+		{
+			Files.copy(resultFile.toPath(), baselineFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			System.out.println("Updated the benchmark baseline " + baselineFile + " from " + resultFile + "; please commit it");
+			return;
+		}
+
+		if (!baselineFile.exists())
+		{
+			throw new AdempiereException("No benchmark baseline found at " + baselineFile
+					+ ". Record one on the reference machine using the benchmark and benchmark-update-baseline profiles and commit it.");
+		}
+
+		final Map<String, JsonNode> resultsByKey = readResults(resultFile);
+		final Map<String, JsonNode> baselinesByKey = readResults(baselineFile);
+
+		final List<String> regressions = new ArrayList<>();
+		for (final Map.Entry<String, JsonNode> entry : resultsByKey.entrySet())
+		{
+			final JsonNode baseline = baselinesByKey.get(entry.getKey());
+			if (baseline == null)
+			{
+				continue;
+			}
+
+			final BigDecimal regressionPercent = computeRegressionPercent(entry.getValue(), baseline);
+			System.out.println(entry.getKey() + ": " + regressionPercent.toPlainString() + "% compared to baseline");
+			if (regressionPercent.compareTo(maxRegressionPercent) > 0)
+			{
+				regressions.add(entry.getKey() + " (" + regressionPercent.toPlainString() + "%)");
+			}
+		}
+
+		if (!regressions.isEmpty())
+		{
+			throw new AdempiereException("Benchmarks regressed by more than " + maxRegressionPercent + "%: " + regressions);
+		}
+	}
+
+	/**
+	 * @return by how many percent the given result is worse than the baseline; negative if it's better.
+	 */
+	private static BigDecimal computeRegressionPercent(@NonNull final JsonNode result, @NonNull final JsonNode baseline)
+	{
+		final double score = result.get("primaryMetric").get("score").asDouble();
+		final double baselineScore = baseline.get("primaryMetric").get("score").asDouble();
+
+		// for throughput, higher scores are better; for all other modes (average time, sample time etc), lower scores are better
+		final boolean higherIsBetter = "thrpt".equals(result.get("mode").asText());
+		final double regression = higherIsBetter
+				? (baselineScore - score) / baselineScore
+				: (score - baselineScore) / baselineScore;
+
+		return BigDecimal.valueOf(regression * 100).setScale(2, RoundingMode.HALF_UP);
+	}
+
+	/**
+	 * @return JMH results, indexed by benchmark name, mode and params
+	 */
+	private static Map<String, JsonNode> readResults(@NonNull final File file) throws IOException
+	{
+		final ImmutableMap.Builder<String, JsonNode> resultsByKey = ImmutableMap.builder();
+		for (final JsonNode result : new ObjectMapper().readTree(file))
+		{
+			final String key = result.get("benchmark").asText()
+					+ " [" + result.get("mode").asText() + "]"
+					+ (result.has("params") ? " " + result.get("params") : "");
+			resultsByKey.put(key, result);
+		}
+		return resultsByKey.build();
+	}
+}
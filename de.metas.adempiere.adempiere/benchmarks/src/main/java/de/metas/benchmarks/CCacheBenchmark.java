@@ -0,0 +1,88 @@
+package de.metas.benchmarks;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.metas.cache.CCache;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.benchmarks
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class CCacheBenchmark
+{
+	private static final int KEYS_COUNT = 10_000;
+
+	private CCache<Integer, String> cache;
+
+	@Setup(Level.Trial)
+	public void setUp(final PojoBackendState pojoBackend)
+	{
+		cache = new CCache<>("CCacheBenchmark", KEYS_COUNT);
+		for (int key = 0; key < KEYS_COUNT; key++)
+		{
+			cache.put(key, load(key));
+		}
+	}
+
+	@Benchmark
+	public String get_hit()
+	{
+		return cache.get(ThreadLocalRandom.current().nextInt(KEYS_COUNT));
+	}
+
+	@Benchmark
+	public String get_miss()
+	{
+		return cache.get(KEYS_COUNT + ThreadLocalRandom.current().nextInt(KEYS_COUNT));
+	}
+
+	@Benchmark
+	public String getOrLoad_hit()
+	{
+		return cache.getOrLoad(ThreadLocalRandom.current().nextInt(KEYS_COUNT), CCacheBenchmark::load);
+	}
+
+	private static String load(final Integer key)
+	{
+		return "value-" + key;
+	}
+}
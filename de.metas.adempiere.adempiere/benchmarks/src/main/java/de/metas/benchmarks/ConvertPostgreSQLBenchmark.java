@@ -0,0 +1,62 @@
+package de.metas.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.compiere.dbPort.Convert_PostgreSQL;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.benchmarks
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ConvertPostgreSQLBenchmark
+{
+	@Param({
+			"SELECT C_BPartner_ID, Value, Name FROM C_BPartner WHERE AD_Client_ID=? AND IsActive='Y' ORDER BY Value",
+			"SELECT o.DocumentNo, NVL(o.GrandTotal,0), SYSDATE FROM C_Order o INNER JOIN C_BPartner bp ON (bp.C_BPartner_ID=o.C_BPartner_ID) WHERE o.DocStatus IN ('CO','CL') AND o.DateOrdered > SYSDATE-30",
+			"UPDATE M_Product SET Updated=now(), Description='It''s a test' WHERE M_Product_ID IN (SELECT M_Product_ID FROM M_Product_Category WHERE IsActive='Y')"
+	})
+	private String sql;
+
+	private final Convert_PostgreSQL converter = new Convert_PostgreSQL();
+
+	@Benchmark
+	public List<String> convert()
+	{
+		return converter.convert(sql);
+	}
+}
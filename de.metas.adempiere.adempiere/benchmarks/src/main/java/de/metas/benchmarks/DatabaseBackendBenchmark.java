@@ -0,0 +1,140 @@
+package de.metas.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.ad.dao.impl.TypedSqlQuery;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.compiere.model.I_AD_Note;
+import org.compiere.model.I_C_BPartner;
+import org.compiere.model.ModelValidationEngine;
+import org.compiere.model.ModelValidator;
+import org.compiere.model.PO;
+import org.compiere.model.POInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.benchmarks
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Benchmarks the SQL persistence layer. Needs a database, see {@link DatabaseBackendState}.
+ * <p>
+ * None of these benchmarks actually executes a statement, so they measure our own overhead and not the database's.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DatabaseBackendBenchmark
+{
+	private TypedSqlQuery<I_C_BPartner> query;
+	private PO note;
+	private I_C_BPartner bpartner;
+	private PO bpartnerPO;
+	private int bpartnerNameColumnIndex;
+
+	@Setup(Level.Trial)
+	public void setUp(final DatabaseBackendState databaseBackend)
+	{
+		query = createQuery();
+		note = InterfaceWrapperHelper.getPO(InterfaceWrapperHelper.newInstance(I_AD_Note.class));
+
+		bpartner = InterfaceWrapperHelper.newInstance(I_C_BPartner.class);
+		bpartner.setName("benchmark");
+		bpartnerPO = InterfaceWrapperHelper.getPO(bpartner);
+		bpartnerNameColumnIndex = bpartnerPO.get_ColumnIndex(I_C_BPartner.COLUMNNAME_Name);
+	}
+
+	@Benchmark
+	public TypedSqlQuery<I_C_BPartner> typedSqlQuery_create()
+	{
+		return createQuery();
+	}
+
+	@Benchmark
+	public String typedSqlQuery_buildSQL()
+	{
+		return query.buildSQL(null, null, true);
+	}
+
+	@Benchmark
+	public int poInfo_getColumnIndex()
+	{
+		return POInfo.getPOInfo(I_C_BPartner.Table_Name).getColumnIndex(I_C_BPartner.COLUMNNAME_Name);
+	}
+
+	/** Getter invoked through the model interface proxy; compare with {@link #po_getValueByIndex()}. */
+	@Benchmark
+	public String modelInterface_getter()
+	{
+		return bpartner.getName();
+	}
+
+	/** Boolean getter invoked through the model interface proxy; these have to try multiple column names. */
+	@Benchmark
+	public boolean modelInterface_booleanGetter()
+	{
+		return bpartner.isCustomer();
+	}
+
+	/** Baseline for {@link #modelInterface_getter()}: the PO access which the proxy ends up doing. */
+	@Benchmark
+	public Object po_getValueByIndex()
+	{
+		return bpartnerPO.get_Value(bpartnerNameColumnIndex);
+	}
+
+	@Benchmark
+	public PO modelValidationEngine_fireModelChange()
+	{
+		ModelValidationEngine.get().fireModelChange(note, ModelValidator.TYPE_BEFORE_NEW);
+		return note;
+	}
+
+	private static TypedSqlQuery<I_C_BPartner> createQuery()
+	{
+		return (TypedSqlQuery<I_C_BPartner>)Services.get(IQueryBL.class)
+				.createQueryBuilder(I_C_BPartner.class)
+				.addOnlyActiveRecordsFilter()
+				.addOnlyContextClient()
+				.addEqualsFilter(I_C_BPartner.COLUMNNAME_IsCustomer, true)
+				.addInArrayFilter(I_C_BPartner.COLUMNNAME_C_BP_Group_ID, ImmutableList.of(1000000, 1000001, 1000002))
+				.orderBy(I_C_BPartner.COLUMNNAME_Value)
+				.create();
+	}
+}
@@ -0,0 +1,50 @@
+package de.metas.benchmarks;
+
+import org.adempiere.exceptions.AdempiereException;
+import org.compiere.Adempiere;
+import org.compiere.Adempiere.RunMode;
+import org.compiere.util.DB;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.benchmarks
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Starts up the backend against the PostgreSQL database which is configured in the {@code metasfresh.properties} of {@code METASFRESH_HOME},
+ * e.g. a local metasfresh-db docker container.
+ */
+@State(Scope.Benchmark)
+public class DatabaseBackendState
+{
+	@Setup(Level.Trial)
+	public void setUp()
+	{
+		Adempiere.instance.startup(RunMode.BACKEND);
+		if (!DB.isConnected())
+		{
+			throw new AdempiereException("No database connection. Please check the metasfresh.properties in your METASFRESH_HOME");
+		}
+	}
+}
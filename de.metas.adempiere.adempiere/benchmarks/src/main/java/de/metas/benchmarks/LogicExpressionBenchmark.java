@@ -0,0 +1,88 @@
+package de.metas.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.adempiere.ad.expression.api.IExpressionEvaluator.OnVariableNotFound;
+import org.adempiere.ad.expression.api.ILogicExpression;
+import org.adempiere.ad.expression.api.impl.LogicExpressionCompiler;
+import org.compiere.util.Evaluatee;
+import org.compiere.util.Evaluatees;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.benchmarks
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LogicExpressionBenchmark
+{
+	/** Typical display and read-only logics, as we find them in AD_Field and AD_Column */
+	@Param({
+			"@IsSOTrx@=Y",
+			"@Processed@=Y | @DocStatus@=CO | @DocStatus@=CL",
+			"@IsSOTrx@=Y & @AD_Org_ID@>0 & (@C_BPartner_ID@>0 | @DocStatus@!DR) & @Processed@=N"
+	})
+	private String expressionString;
+
+	private ILogicExpression expression;
+	private Evaluatee ctx;
+
+	@Setup(Level.Trial)
+	public void setUp(final PojoBackendState pojoBackend)
+	{
+		expression = LogicExpressionCompiler.instance.compile(expressionString);
+		ctx = Evaluatees.mapBuilder()
+				.put("IsSOTrx", "Y")
+				.put("Processed", "N")
+				.put("DocStatus", "IP")
+				.put("AD_Org_ID", 1000000)
+				.put("C_BPartner_ID", 2156423)
+				.build();
+	}
+
+	@Benchmark
+	public ILogicExpression compile()
+	{
+		return LogicExpressionCompiler.instance.compile(expressionString);
+	}
+
+	@Benchmark
+	public Boolean evaluate()
+	{
+		return expression.evaluate(ctx, OnVariableNotFound.Fail);
+	}
+}
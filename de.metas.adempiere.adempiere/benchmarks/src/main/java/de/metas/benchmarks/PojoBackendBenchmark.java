@@ -0,0 +1,128 @@
+package de.metas.benchmarks;
+
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.save;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.ad.wrapper.POJOLookupMap;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.compiere.model.I_C_BPartner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.benchmarks
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Benchmarks the model wrapper and query infrastructure on top of the in-memory POJO backend.
+ * Note that saving a record also fires the model interceptors that are registered with {@link POJOLookupMap}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PojoBackendBenchmark
+{
+	private static final int BPARTNERS_COUNT = 1_000;
+
+	private List<I_C_BPartner> bpartners;
+
+	@Setup(Level.Iteration)
+	public void setUp(final PojoBackendState pojoBackend)
+	{
+		// start each iteration with the same amount of data
+		POJOLookupMap.get().clear();
+
+		for (int i = 0; i < BPARTNERS_COUNT; i++)
+		{
+			final I_C_BPartner bpartner = newInstance(I_C_BPartner.class);
+			bpartner.setValue("BP" + i);
+			bpartner.setName("Business partner " + i);
+			bpartner.setIsCustomer(i % 2 == 0);
+			save(bpartner);
+		}
+
+		bpartners = Services.get(IQueryBL.class)
+				.createQueryBuilder(I_C_BPartner.class)
+				.create()
+				.list();
+	}
+
+	@Benchmark
+	public I_C_BPartner newInstance_setValues()
+	{
+		final I_C_BPartner bpartner = newInstance(I_C_BPartner.class);
+		bpartner.setValue("BP");
+		bpartner.setName("Business partner");
+		bpartner.setIsCustomer(true);
+		return bpartner;
+	}
+
+	@Benchmark
+	public de.metas.interfaces.I_C_BPartner create()
+	{
+		return InterfaceWrapperHelper.create(randomBPartner(), de.metas.interfaces.I_C_BPartner.class);
+	}
+
+	@Benchmark
+	public I_C_BPartner save_existing()
+	{
+		final I_C_BPartner bpartner = randomBPartner();
+		bpartner.setDescription("Updated");
+		save(bpartner);
+		return bpartner;
+	}
+
+	@Benchmark
+	public List<I_C_BPartner> query_list()
+	{
+		return Services.get(IQueryBL.class)
+				.createQueryBuilder(I_C_BPartner.class)
+				.addOnlyActiveRecordsFilter()
+				.addEqualsFilter(I_C_BPartner.COLUMNNAME_IsCustomer, true)
+				.orderBy(I_C_BPartner.COLUMNNAME_Value)
+				.create()
+				.list();
+	}
+
+	private I_C_BPartner randomBPartner()
+	{
+		return bpartners.get(ThreadLocalRandom.current().nextInt(bpartners.size()));
+	}
+}
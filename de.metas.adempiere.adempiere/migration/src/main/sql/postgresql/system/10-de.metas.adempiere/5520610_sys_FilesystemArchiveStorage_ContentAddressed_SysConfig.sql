@@ -0,0 +1,6 @@
+-- 2019-04-26T10:05:00.000
+-- I forgot to set the DICTIONARY_ID_COMMENTS System Configurator
+INSERT INTO AD_SysConfig (AD_Client_ID,AD_Org_ID,AD_SysConfig_ID,ConfigurationLevel,Created,CreatedBy,Description,EntityType,IsActive,Name,Updated,UpdatedBy,Value) VALUES (0,0,541276,'C',TO_TIMESTAMP('2019-04-26 10:05:00','YYYY-MM-DD HH24:MI:SS'),100,'If Y, new archive data which is stored on the file system is stored compressed and content-addressed below <archive root>/store, so identical documents share one file.
+If N, new archive data is stored uncompressed in one file per archive, like before.
+Archives that were stored in either way can always be read.','D','Y','org.adempiere.archive.spi.impl.FilesystemArchiveStorage.ContentAddressed',TO_TIMESTAMP('2019-04-26 10:05:00','YYYY-MM-DD HH24:MI:SS'),100,'N')
+;
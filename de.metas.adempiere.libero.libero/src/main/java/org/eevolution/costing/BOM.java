@@ -3,6 +3,7 @@ package org.eevolution.costing;
 import java.math.BigDecimal;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
 import javax.annotation.Nullable;
@@ -50,7 +51,7 @@ import lombok.Value;
  */
 
 /** BOM from costing point of view */
-@Builder
+@Builder(toBuilder = true)
 @Value
 public final class BOM
 {
@@ -93,6 +94,27 @@ public final class BOM
 		}
 	}
 
+	/**
+	 * @param costPriceProvider provides the cost price to be used for a component, or {@code null} to keep the current one
+	 * @return a BOM whose (not co-product) lines use the cost prices from the given provider
+	 */
+	BOM withComponentCostPrices(@NonNull final Function<ProductId, BOMCostPrice> costPriceProvider)
+	{
+		final ImmutableList<BOMLine> newLines = getLines()
+				.stream()
+				.map(bomLine -> {
+					if (bomLine.isCoProduct())
+					{
+						return bomLine; // co-product cost prices are computed by this BOM
+					}
+					final BOMCostPrice costPrice = costPriceProvider.apply(bomLine.getComponentId());
+					return costPrice != null ? bomLine.withCostPrice(costPrice) : bomLine;
+				})
+				.collect(ImmutableList.toImmutableList());
+
+		return toBuilder().clearLines().lines(newLines).build();
+	}
+
 	public void clearBOMOwnCostPrice(@NonNull final CostElementId costElementId)
 	{
 		getCostPrice().clearOwnCostPrice(costElementId);
@@ -145,6 +167,18 @@ public final class BOM
 		return Stream.concat(Stream.of(getCostPrice()), linesCostPrices);
 	}
 
+	/**
+	 * @return the cost prices of the products this BOM produces, i.e. the BOM's product and its co-products
+	 */
+	Stream<BOMCostPrice> streamProducedCostPrices()
+	{
+		final Stream<BOMCostPrice> coProductsCostPrices = getLines()
+				.stream()
+				.filter(BOMLine::isCoProduct)
+				.map(BOMLine::getCostPrice);
+		return Stream.concat(Stream.of(getCostPrice()), coProductsCostPrices);
+	}
+
 	private ImmutableSet<CostElementId> getCostElementIds()
 	{
 		return streamCostPrices()
@@ -153,9 +187,9 @@ public final class BOM
 				.collect(ImmutableSet.toImmutableSet());
 	}
 
-	<T extends RepoIdAware> Set<T> getCostIds(@NonNull final Class<T> idType)
+	<T extends RepoIdAware> Set<T> getProducedCostIds(@NonNull final Class<T> idType)
 	{
-		return streamCostPrices()
+		return streamProducedCostPrices()
 				.flatMap(bomCostPrice -> bomCostPrice.streamIds(idType))
 				.filter(Predicates.notNull())
 				.collect(ImmutableSet.toImmutableSet());
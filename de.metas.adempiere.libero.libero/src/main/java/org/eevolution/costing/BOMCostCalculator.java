@@ -1,5 +1,9 @@
 package org.eevolution.costing;
 
+import java.util.Collection;
+
+import javax.annotation.Nullable;
+
 import de.metas.product.ProductId;
 import lombok.Builder;
 import lombok.NonNull;
@@ -31,10 +35,16 @@ public class BOMCostCalculator
 	// services
 	private final BOMCostCalculatorRepository repository;
 
+	// parameters
+	private final int parallelism;
+
 	@Builder
-	private BOMCostCalculator(@NonNull final BOMCostCalculatorRepository repository)
+	private BOMCostCalculator(
+			@NonNull final BOMCostCalculatorRepository repository,
+			@Nullable final Integer parallelism)
 	{
 		this.repository = repository;
+		this.parallelism = parallelism != null && parallelism > 0 ? parallelism : 1;
 	}
 
 	public void rollup(final ProductId productId)
@@ -51,4 +61,15 @@ public class BOMCostCalculator
 			repository.resetComponentsCostPrices(productId);
 		}
 	}
+
+	/**
+	 * Rolls up the costs of all given products, bottom-up, so that each BOM is rolled up just once and after the BOMs of its components.
+	 * The BOMs of the same level are rolled up in parallel, each batch of them in its own transaction.
+	 *
+	 * @see BOMCostRollup
+	 */
+	public void rollup(@NonNull final Collection<ProductId> productIds)
+	{
+		new BOMCostRollup(repository, parallelism).rollup(productIds);
+	}
 }
@@ -51,6 +51,15 @@ public class BOMCostElementPrice
 	@NonNull
 	private CostPrice costPrice;
 
+	public BOMCostElementPrice copy()
+	{
+		return builder()
+				.id(id)
+				.costElementId(costElementId)
+				.costPrice(costPrice)
+				.build();
+	}
+
 	public void clearOwnCostPrice()
 	{
 		setCostPrice(getCostPrice().withZeroOwnCostPrice());
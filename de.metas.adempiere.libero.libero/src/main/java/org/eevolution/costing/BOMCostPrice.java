@@ -5,6 +5,7 @@ import java.util.HashMap;
 import java.util.stream.Stream;
 
 import com.google.common.base.Predicates;
+import com.google.common.collect.ImmutableList;
 
 import de.metas.costing.CostAmount;
 import de.metas.costing.CostElementId;
@@ -62,6 +63,20 @@ public class BOMCostPrice
 				.collect(GuavaCollectors.toHashMapByKey(BOMCostElementPrice::getCostElementId));
 	}
 
+	/**
+	 * @return a copy which can be changed without affecting this instance
+	 */
+	public BOMCostPrice copy()
+	{
+		return builder()
+				.productId(productId)
+				.costElementPrices(pricesByElementId.values()
+						.stream()
+						.map(BOMCostElementPrice::copy)
+						.collect(ImmutableList.toImmutableList()))
+				.build();
+	}
+
 	public Stream<CostElementId> streamCostElementIds()
 	{
 		return pricesByElementId.keySet().stream();
@@ -96,6 +111,11 @@ public class BOMCostPrice
 		}
 	}
 
+	void clearComponentsCostPrice()
+	{
+		pricesByElementId.values().forEach(BOMCostElementPrice::clearComponentsCostPrice);
+	}
+
 	Collection<BOMCostElementPrice> getElementPrices()
 	{
 		return pricesByElementId.values();
@@ -0,0 +1,426 @@
+package org.eevolution.costing;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.util.lang.IAutoCloseable;
+import org.slf4j.Logger;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.ListMultimap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import ch.qos.logback.classic.Level;
+import de.metas.logging.LogManager;
+import de.metas.product.ProductId;
+import de.metas.util.ILoggable;
+import de.metas.util.Loggables;
+import de.metas.util.Services;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.adempiere.libero.libero
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Rolls up the costs of many products at once, see {@link BOMCostCalculator#rollup(Collection)}.
+ * <p>
+ * All BOMs are loaded once and ordered bottom-up by the product they "produce" (the BOM's product and its co-products).
+ * The BOMs of one level are rolled up in parallel; the cost prices they compute are kept in memory and used by the BOMs of the next levels,
+ * so we don't need to reload them.
+ * BOMs which write the same products are rolled up by the same worker, one after the other.
+ * <p>
+ * BOMs within loops can't be ordered; they are rolled up at the end, one after the other, and we log a warning for them.
+ */
+final class BOMCostRollup
+{
+	private static final Logger logger = LogManager.getLogger(BOMCostRollup.class);
+
+	/** Max number of BOMs which are rolled up and saved in one transaction */
+	private static final int TRX_BATCH_SIZE = 100;
+
+	// services
+	private final ITrxManager trxManager = Services.get(ITrxManager.class);
+	private final BOMCostCalculatorRepository repository;
+
+	// parameters
+	private final int parallelism;
+
+	// state
+	/** the caller's loggable, shared by the workers */
+	private final ILoggable loggable;
+	/** the latest cost prices, by product; updated while rolling up */
+	private final ConcurrentHashMap<ProductId, BOMCostPrice> costPricesByProductId = new ConcurrentHashMap<>();
+
+	BOMCostRollup(
+			@NonNull final BOMCostCalculatorRepository repository,
+			final int parallelism)
+	{
+		this.repository = repository;
+		this.parallelism = parallelism > 0 ? parallelism : 1;
+		this.loggable = Loggables.synchronizedLoggable(Loggables.get());
+	}
+
+	public void rollup(@NonNull final Collection<ProductId> productIds)
+	{
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+
+		final ExecutorService executor = Executors.newFixedThreadPool(
+				parallelism,
+				new ThreadFactoryBuilder().setNameFormat("bom-cost-rollup-%d").setDaemon(true).build());
+		try
+		{
+			final List<BOM> boms = loadBOMs(ImmutableSet.copyOf(productIds), executor);
+
+			final BOMLevels levels = BOMLevels.of(boms);
+			for (final List<BOM> levelBOMs : levels.getLevels())
+			{
+				rollupInParallel(levelBOMs, executor);
+			}
+
+			final List<BOM> bomsInLoops = levels.getBOMsInLoops();
+			if (!bomsInLoops.isEmpty())
+			{
+				Loggables.get().withLogger(logger, Level.WARN).addLog("WARNING: Loop detected for products {}. Rolling them up in no particular order.",
+						bomsInLoops.stream().map(BOM::getProductId).collect(ImmutableList.toImmutableList()));
+				for (final List<BOM> batch : Iterables.partition(bomsInLoops, TRX_BATCH_SIZE))
+				{
+					trxManager.runInNewTrx(() -> batch.forEach(this::rollupAndSave));
+				}
+			}
+
+			Loggables.get().withLogger(logger, Level.INFO).addLog("Rolled up {} BOMs in {} levels in {}", boms.size(), levels.getLevels().size(), stopwatch);
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+	}
+
+	private List<BOM> loadBOMs(final Set<ProductId> productIds, final ExecutorService executor)
+	{
+		final List<Callable<List<BOM>>> tasks = new ArrayList<>();
+		for (final List<ProductId> productIdsBatch : Iterables.partition(productIds, TRX_BATCH_SIZE))
+		{
+			tasks.add(() -> productIdsBatch.stream()
+					.map(repository::getBOM)
+					.filter(Optional::isPresent)
+					.map(Optional::get)
+					.collect(ImmutableList.toImmutableList()));
+		}
+
+		final List<BOM> boms = new ArrayList<>(productIds.size());
+		invokeAll(tasks, executor).forEach(boms::addAll);
+
+		//
+		// Products without BOM
+		final Set<ProductId> productIdsWithBOM = boms.stream().map(BOM::getProductId).collect(ImmutableSet.toImmutableSet());
+		final Set<ProductId> productIdsWithoutBOM = productIds.stream().filter(productId -> !productIdsWithBOM.contains(productId)).collect(ImmutableSet.toImmutableSet());
+		if (!productIdsWithoutBOM.isEmpty())
+		{
+			trxManager.runInNewTrx(() -> productIdsWithoutBOM.forEach(repository::resetComponentsCostPrices));
+
+			// the BOMs using them were loaded before the reset
+			for (final BOM bom : boms)
+			{
+				bom.getLines()
+						.stream()
+						.filter(bomLine -> productIdsWithoutBOM.contains(bomLine.getComponentId()))
+						.forEach(bomLine -> bomLine.getCostPrice().clearComponentsCostPrice());
+			}
+		}
+
+		return boms;
+	}
+
+	private void rollupInParallel(final List<BOM> boms, final ExecutorService executor)
+	{
+		final List<Callable<Void>> tasks = new ArrayList<>();
+		for (final List<BOM> batch : createBatches(boms))
+		{
+			tasks.add(() -> {
+				trxManager.runInNewTrx(() -> batch.forEach(this::rollupAndSave));
+				return null;
+			});
+		}
+
+		invokeAll(tasks, executor);
+	}
+
+	/**
+	 * Splits the given BOMs into batches of about {@link #TRX_BATCH_SIZE}, making sure that BOMs which write the same products end up in the same batch.
+	 */
+	private static List<List<BOM>> createBatches(final List<BOM> boms)
+	{
+		// Group the BOMs by the products they write (union-find)
+		final Map<ProductId, ProductId> parentsByProductId = new HashMap<>();
+		for (final BOM bom : boms)
+		{
+			final ProductId bomRoot = findRoot(parentsByProductId, bom.getProductId());
+			for (final ProductId productId : getProducedProductIds(bom))
+			{
+				final ProductId root = findRoot(parentsByProductId, productId);
+				if (!root.equals(bomRoot))
+				{
+					parentsByProductId.put(root, bomRoot);
+				}
+			}
+		}
+
+		final Map<ProductId, List<BOM>> groups = new LinkedHashMap<>();
+		for (final BOM bom : boms)
+		{
+			groups.computeIfAbsent(findRoot(parentsByProductId, bom.getProductId()), k -> new ArrayList<>()).add(bom);
+		}
+
+		// Pack the groups into batches
+		final List<List<BOM>> batches = new ArrayList<>();
+		List<BOM> currentBatch = new ArrayList<>();
+		for (final List<BOM> group : groups.values())
+		{
+			if (!currentBatch.isEmpty() && currentBatch.size() + group.size() > TRX_BATCH_SIZE)
+			{
+				batches.add(currentBatch);
+				currentBatch = new ArrayList<>();
+			}
+			currentBatch.addAll(group);
+		}
+		if (!currentBatch.isEmpty())
+		{
+			batches.add(currentBatch);
+		}
+
+		return batches;
+	}
+
+	private static ProductId findRoot(final Map<ProductId, ProductId> parentsByProductId, final ProductId productId)
+	{
+		ProductId root = productId;
+		for (ProductId parent = parentsByProductId.get(root); parent != null; parent = parentsByProductId.get(root))
+		{
+			root = parent;
+		}
+		return root;
+	}
+
+	private void rollupAndSave(final BOM loadedBOM)
+	{
+		// BOMs of other batches might use the same component cost prices concurrently, so each BOM gets its own copies
+		final BOM bom = loadedBOM.withComponentCostPrices(this::getRolledUpCostPriceCopyOrNull);
+
+		bom.rollupCosts();
+		repository.save(bom);
+
+		bom.streamProducedCostPrices()
+				.forEach(costPrice -> costPricesByProductId.put(costPrice.getProductId(), costPrice.copy()));
+	}
+
+	private BOMCostPrice getRolledUpCostPriceCopyOrNull(@NonNull final ProductId productId)
+	{
+		final BOMCostPrice costPrice = costPricesByProductId.get(productId);
+		return costPrice != null ? costPrice.copy() : null;
+	}
+
+	/**
+	 * Runs the given tasks and waits for all of them. If one task fails, the tasks which did not start yet are skipped and the first error is thrown.
+	 */
+	private <T> List<T> invokeAll(final List<Callable<T>> tasks, final ExecutorService executor)
+	{
+		final AtomicBoolean failed = new AtomicBoolean(false);
+		final List<Future<T>> futures = new ArrayList<>(tasks.size());
+		for (final Callable<T> task : tasks)
+		{
+			futures.add(executor.submit(() -> {
+				if (failed.get())
+				{
+					return null;
+				}
+				try (final IAutoCloseable loggableRestorer = Loggables.temporarySetLoggable(loggable))
+				{
+					return task.call();
+				}
+				catch (final Exception ex)
+				{
+					failed.set(true);
+					throw ex;
+				}
+			}));
+		}
+
+		final List<T> results = new ArrayList<>(futures.size());
+		RuntimeException firstError = null;
+		for (final Future<T> future : futures)
+		{
+			try
+			{
+				results.add(future.get());
+			}
+			catch (final InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				throw AdempiereException.wrapIfNeeded(e);
+			}
+			catch (final ExecutionException e)
+			{
+				if (firstError == null)
+				{
+					firstError = AdempiereException.wrapIfNeeded(e.getCause());
+				}
+			}
+		}
+
+		if (firstError != null)
+		{
+			throw firstError;
+		}
+		return results;
+	}
+
+	/**
+	 * @return the products whose cost prices are written when the given BOM is rolled up, i.e. the BOM's product and its co-products
+	 */
+	private static Set<ProductId> getProducedProductIds(final BOM bom)
+	{
+		final ImmutableSet.Builder<ProductId> productIds = ImmutableSet.builder();
+		productIds.add(bom.getProductId());
+		bom.getLines()
+				.stream()
+				.filter(BOMLine::isCoProduct)
+				.forEach(bomLine -> productIds.add(bomLine.getComponentId()));
+		return productIds.build();
+	}
+
+	/**
+	 * The given BOMs, ordered bottom-up: a BOM comes after the BOMs which produce its components.
+	 */
+	static final class BOMLevels
+	{
+		private final ImmutableList<ImmutableList<BOM>> levels;
+		private final ImmutableList<BOM> bomsInLoops;
+
+		private BOMLevels(final ImmutableList<ImmutableList<BOM>> levels, final ImmutableList<BOM> bomsInLoops)
+		{
+			this.levels = levels;
+			this.bomsInLoops = bomsInLoops;
+		}
+
+		static BOMLevels of(final Collection<BOM> boms)
+		{
+			// product => BOMs producing it
+			final ListMultimap<ProductId, BOM> producersByProductId = ArrayListMultimap.create();
+			for (final BOM bom : boms)
+			{
+				for (final ProductId productId : getProducedProductIds(bom))
+				{
+					producersByProductId.put(productId, bom);
+				}
+			}
+
+			// BOM => BOMs which need its results; BOM => number of BOMs it needs
+			// (BOMs are identified by their product)
+			final ListMultimap<ProductId, BOM> dependentsByBOMProductId = ArrayListMultimap.create();
+			final Map<ProductId, BOM> pendingBOMsByProductId = new LinkedHashMap<>();
+			final Map<ProductId, Integer> dependenciesCountByBOMProductId = new HashMap<>();
+			for (final BOM bom : boms)
+			{
+				final Set<ProductId> producerBOMProductIds = new HashSet<>();
+				for (final BOMLine bomLine : bom.getLines())
+				{
+					if (!bomLine.isCoProduct())
+					{
+						producersByProductId.get(bomLine.getComponentId()).forEach(producer -> producerBOMProductIds.add(producer.getProductId()));
+					}
+				}
+
+				pendingBOMsByProductId.put(bom.getProductId(), bom);
+				dependenciesCountByBOMProductId.put(bom.getProductId(), producerBOMProductIds.size());
+				producerBOMProductIds.forEach(producerBOMProductId -> dependentsByBOMProductId.put(producerBOMProductId, bom));
+			}
+
+			// Kahn's algorithm, level by level
+			final Comparator<BOM> byProductId = Comparator.comparing(bom -> bom.getProductId().getRepoId());
+			final ImmutableList.Builder<ImmutableList<BOM>> levels = ImmutableList.builder();
+			ImmutableList<BOM> currentLevel = pendingBOMsByProductId.values()
+					.stream()
+					.filter(bom -> dependenciesCountByBOMProductId.get(bom.getProductId()) == 0)
+					.sorted(byProductId)
+					.collect(ImmutableList.toImmutableList());
+			while (!currentLevel.isEmpty())
+			{
+				levels.add(currentLevel);
+
+				final List<BOM> nextLevel = new ArrayList<>();
+				for (final BOM bom : currentLevel)
+				{
+					pendingBOMsByProductId.remove(bom.getProductId());
+					for (final BOM dependent : dependentsByBOMProductId.get(bom.getProductId()))
+					{
+						final int count = dependenciesCountByBOMProductId.merge(dependent.getProductId(), -1, Integer::sum);
+						if (count == 0)
+						{
+							nextLevel.add(dependent);
+						}
+					}
+				}
+				currentLevel = nextLevel.stream().sorted(byProductId).collect(ImmutableList.toImmutableList());
+			}
+
+			// what remains is within a loop or depends on a loop
+			final ImmutableList<BOM> bomsInLoops = pendingBOMsByProductId.values()
+					.stream()
+					.sorted(byProductId)
+					.collect(ImmutableList.toImmutableList());
+
+			return new BOMLevels(levels.build(), bomsInLoops);
+		}
+
+		public ImmutableList<ImmutableList<BOM>> getLevels()
+		{
+			return levels;
+		}
+
+		public ImmutableList<BOM> getBOMsInLoops()
+		{
+			return bomsInLoops;
+		}
+	}
+}
@@ -57,7 +57,7 @@ public final class BOMLine
 	final BOMCostPrice costPrice;
 	final Percent coProductCostDistributionPercent;
 
-	@Builder
+	@Builder(toBuilder = true)
 	private BOMLine(
 			@NonNull final BOMComponentType componentType,
 			@NonNull final ProductId componentId,
@@ -138,6 +138,15 @@ public final class BOMLine
 		return componentCostAmount;
 	}
 
+	BOMLine withCostPrice(@NonNull final BOMCostPrice costPrice)
+	{
+		if (this.costPrice == costPrice)
+		{
+			return this;
+		}
+		return toBuilder().costPrice(costPrice).build();
+	}
+
 	void setComponentsCostPrice(@NonNull final CostAmount elementCostPrice, @NonNull final CostElementId costElementId)
 	{
 		getCostPrice().setComponentsCostPrice(elementCostPrice, costElementId);
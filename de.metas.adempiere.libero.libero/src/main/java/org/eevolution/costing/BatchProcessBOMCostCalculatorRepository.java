@@ -122,7 +122,7 @@ public class BatchProcessBOMCostCalculatorRepository implements BOMCostCalculato
 		if (productBOMId <= 0)
 		{
 			createNotice(productId, "@NotFound@ @PP_Product_BOM_ID@");
-			return null;
+			return Optional.empty();
 		}
 
 		final I_PP_Product_BOM bomRecord = productBOMsRepo.getById(productBOMId);
@@ -219,13 +219,14 @@ public class BatchProcessBOMCostCalculatorRepository implements BOMCostCalculato
 	@Override
 	public void save(final BOM bom)
 	{
-		final Set<CurrentCostId> costIds = bom.getCostIds(CurrentCostId.class);
+		final Set<CurrentCostId> costIds = bom.getProducedCostIds(CurrentCostId.class);
 
 		final Map<CurrentCostId, CurrentCost> existingCostsById = currentCostsRepo.getByIds(costIds)
 				.stream()
 				.collect(GuavaCollectors.toImmutableMapByKey(CurrentCost::getId));
 
-		bom.streamCostPrices()
+		// the components' cost prices are saved by the components' own BOMs (if any)
+		bom.streamProducedCostPrices()
 				.forEach(bomCostPrice -> save(bomCostPrice, existingCostsById));
 	}
 
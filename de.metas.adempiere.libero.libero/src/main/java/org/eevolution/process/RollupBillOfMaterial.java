@@ -22,6 +22,7 @@ import java.util.Set;
 import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.ad.dao.IQueryBuilder;
 import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
 import org.adempiere.service.OrgId;
 import org.compiere.model.I_M_Cost;
 import org.compiere.model.I_M_CostElement;
@@ -36,6 +37,7 @@ import de.metas.costing.CostTypeId;
 import de.metas.costing.CostingMethod;
 import de.metas.process.JavaProcess;
 import de.metas.process.ProcessInfoParameter;
+import de.metas.process.RunOutOfTrx;
 import de.metas.product.ProductCategoryId;
 import de.metas.product.ProductId;
 import de.metas.util.Services;
@@ -45,6 +47,8 @@ import de.metas.util.Services;
  */
 public class RollupBillOfMaterial extends JavaProcess
 {
+	private static final String SYSCONFIG_Parallelism = "org.eevolution.process.RollupBillOfMaterial.Parallelism";
+
 	// services
 	private final IQueryBL queryBL = Services.get(IQueryBL.class);
 
@@ -108,6 +112,7 @@ public class RollupBillOfMaterial extends JavaProcess
 	}	// prepare
 
 	@Override
+	@RunOutOfTrx // the BOMs are rolled up and saved in batches, each batch in its own transaction
 	protected String doIt()
 	{
 		final BatchProcessBOMCostCalculatorRepository bomCostCalculatorRepo = BatchProcessBOMCostCalculatorRepository.builder()
@@ -120,32 +125,18 @@ public class RollupBillOfMaterial extends JavaProcess
 
 		final BOMCostCalculator calculator = BOMCostCalculator.builder()
 				.repository(bomCostCalculatorRepo)
+				.parallelism(Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_Parallelism, 1))
 				.build();
 
-		final int maxLowLevel = getMaxLowLevel();
-		for (int lowLevel = maxLowLevel; lowLevel >= 0; lowLevel--)
-		{
-			for (final ProductId productId : getProductIdsByLowLevel(lowLevel))
-			{
-				calculator.rollup(productId);
-			}
-		}
+		// NOTE: the calculator orders the products by their BOMs, so we don't need to rely on M_Product.LowLevel
+		calculator.rollup(getProductIds());
 
 		return MSG_OK;
 	}
 
-	private int getMaxLowLevel()
-	{
-		return createProductsQuery()
-				.addNotNull(I_M_Product.COLUMNNAME_LowLevel)
-				.create()
-				.maxInt(I_M_Product.COLUMNNAME_LowLevel);
-	}
-
-	private Set<ProductId> getProductIdsByLowLevel(final int lowLevel)
+	private Set<ProductId> getProductIds()
 	{
 		return createProductsQuery()
-				.addEqualsFilter(I_M_Product.COLUMN_LowLevel, lowLevel)
 				.create()
 				.listIds(ProductId::ofRepoId);
 	}
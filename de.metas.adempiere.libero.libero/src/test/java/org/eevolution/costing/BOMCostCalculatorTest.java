@@ -0,0 +1,210 @@
+package org.eevolution.costing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.eevolution.costing.BOMAssertUtils.assertComponentsCostPrice;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.model.I_C_UOM;
+import org.eevolution.api.BOMComponentType;
+import org.eevolution.costing.BOMCostRollup.BOMLevels;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.costing.CostAmount;
+import de.metas.costing.CostElementId;
+import de.metas.costing.CostPrice;
+import de.metas.money.CurrencyId;
+import de.metas.product.ProductId;
+import de.metas.quantity.Quantity;
+import de.metas.uom.impl.UOMTestHelper;
+
+/*
+ * #%L
+ * de.metas.adempiere.libero.libero
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class BOMCostCalculatorTest
+{
+	private final ProductId topProductId = ProductId.ofRepoId(100);
+	private final ProductId subAssemblyId = ProductId.ofRepoId(110);
+	private final ProductId rawMaterialId = ProductId.ofRepoId(120);
+
+	private final CostElementId costElementId = CostElementId.ofRepoId(1);
+	private final CurrencyId currencyId = CurrencyId.ofRepoId(1);
+
+	private I_C_UOM uom_Each;
+
+	@Before
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+
+		final UOMTestHelper uomHelper = new UOMTestHelper();
+		uom_Each = uomHelper.createUOM("Each", 1);
+	}
+
+	@Test
+	public void rollup_multipleProducts_usesRolledUpSubAssemblyCosts()
+	{
+		final BOM topBOM = bom(topProductId, componentLine(subAssemblyId, 3, costPrice(subAssemblyId, 0, 0)));
+		final BOM subAssemblyBOM = bom(subAssemblyId, componentLine(rawMaterialId, 2, costPrice(rawMaterialId, 5, 0)));
+
+		final InMemoryBOMCostCalculatorRepository repository = new InMemoryBOMCostCalculatorRepository(topBOM, subAssemblyBOM);
+		BOMCostCalculator.builder()
+				.repository(repository)
+				.parallelism(2)
+				.build()
+				.rollup(ImmutableList.of(topProductId, subAssemblyId));
+
+		assertComponentsCostPrice(repository.getSavedBOM(subAssemblyId), costElementId, 2 * 5);
+		// the top BOM was loaded with a zero cost price for the sub-assembly, but it shall use the one that was just rolled up
+		assertComponentsCostPrice(repository.getSavedBOM(topProductId), costElementId, 3 * 2 * 5);
+
+		// the sub-assembly was saved first
+		assertThat(repository.getSavedProductIds()).containsExactly(subAssemblyId, topProductId);
+	}
+
+	@Test
+	public void rollup_multipleProducts_eachBOMGetsItsOwnComponentCostPrices()
+	{
+		final BOM topBOM1 = bom(topProductId, componentLine(subAssemblyId, 1, costPrice(subAssemblyId, 0, 0)));
+		final ProductId topProductId2 = ProductId.ofRepoId(101);
+		final BOM topBOM2 = bom(topProductId2, componentLine(subAssemblyId, 1, costPrice(subAssemblyId, 0, 0)));
+		final BOM subAssemblyBOM = bom(subAssemblyId, componentLine(rawMaterialId, 2, costPrice(rawMaterialId, 5, 0)));
+
+		final InMemoryBOMCostCalculatorRepository repository = new InMemoryBOMCostCalculatorRepository(topBOM1, topBOM2, subAssemblyBOM);
+		BOMCostCalculator.builder()
+				.repository(repository)
+				.parallelism(2)
+				.build()
+				.rollup(ImmutableList.of(topProductId, topProductId2, subAssemblyId));
+
+		final BOMCostPrice subAssemblyCostPrice = repository.getSavedBOM(subAssemblyId).getCostPrice();
+		final BOMCostPrice subAssemblyCostPriceInTopBOM1 = repository.getSavedBOM(topProductId).getLines().get(0).getCostPrice();
+		final BOMCostPrice subAssemblyCostPriceInTopBOM2 = repository.getSavedBOM(topProductId2).getLines().get(0).getCostPrice();
+
+		assertThat(subAssemblyCostPriceInTopBOM1).isNotSameAs(subAssemblyCostPrice).isNotSameAs(subAssemblyCostPriceInTopBOM2);
+		assertThat(subAssemblyCostPriceInTopBOM1.getCostElementPriceOrNull(costElementId))
+				.isNotSameAs(subAssemblyCostPriceInTopBOM2.getCostElementPriceOrNull(costElementId))
+				.isEqualTo(subAssemblyCostPrice.getCostElementPriceOrNull(costElementId));
+
+		assertComponentsCostPrice(repository.getSavedBOM(topProductId), costElementId, 2 * 5);
+		assertComponentsCostPrice(repository.getSavedBOM(topProductId2), costElementId, 2 * 5);
+	}
+
+	@Test
+	public void levels_loop()
+	{
+		final BOM bom1 = bom(topProductId, componentLine(subAssemblyId, 1, costPrice(subAssemblyId, 0, 0)));
+		final BOM bom2 = bom(subAssemblyId, componentLine(topProductId, 1, costPrice(topProductId, 0, 0)));
+		final BOM bom3 = bom(rawMaterialId);
+
+		final BOMLevels levels = BOMLevels.of(ImmutableList.of(bom1, bom2, bom3));
+
+		assertThat(levels.getLevels()).hasSize(1);
+		assertThat(levels.getLevels().get(0)).containsExactly(bom3);
+		assertThat(levels.getBOMsInLoops()).containsExactly(bom1, bom2);
+	}
+
+	private BOM bom(final ProductId productId, final BOMLine... lines)
+	{
+		return BOM.builder()
+				.productId(productId)
+				.costPrice(BOMCostPrice.empty(productId))
+				.lines(ImmutableList.copyOf(lines))
+				.build();
+	}
+
+	private BOMLine componentLine(final ProductId componentId, final int qty, final BOMCostPrice costPrice)
+	{
+		return BOMLine.builder()
+				.componentId(componentId)
+				.componentType(BOMComponentType.Component)
+				.qty(Quantity.of(qty, uom_Each))
+				.costPrice(costPrice)
+				.build();
+	}
+
+	private BOMCostPrice costPrice(final ProductId productId, final int ownCostPrice, final int componentsCostPrice)
+	{
+		return BOMCostPrice.builder()
+				.productId(productId)
+				.costElementPrice(BOMCostElementPrice.builder()
+						.costElementId(costElementId)
+						.costPrice(CostPrice.builder()
+								.ownCostPrice(CostAmount.of(ownCostPrice, currencyId))
+								.componentsCostPrice(CostAmount.of(componentsCostPrice, currencyId))
+								.build())
+						.build())
+				.build();
+	}
+
+	private static class InMemoryBOMCostCalculatorRepository implements BOMCostCalculatorRepository
+	{
+		private final Map<ProductId, BOM> bomsByProductId = new HashMap<>();
+		private final Map<ProductId, BOM> savedBOMsByProductId = new HashMap<>();
+		private final List<ProductId> savedProductIds = new ArrayList<>();
+
+		public InMemoryBOMCostCalculatorRepository(final BOM... boms)
+		{
+			for (final BOM bom : boms)
+			{
+				bomsByProductId.put(bom.getProductId(), bom);
+			}
+		}
+
+		@Override
+		public Optional<BOM> getBOM(final ProductId productId)
+		{
+			return Optional.ofNullable(bomsByProductId.get(productId));
+		}
+
+		@Override
+		public synchronized void save(final BOM bom)
+		{
+			savedBOMsByProductId.put(bom.getProductId(), bom);
+			savedProductIds.add(bom.getProductId());
+		}
+
+		@Override
+		public void resetComponentsCostPrices(final ProductId productId)
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		public synchronized BOM getSavedBOM(final ProductId productId)
+		{
+			return savedBOMsByProductId.get(productId);
+		}
+
+		public synchronized List<ProductId> getSavedProductIds()
+		{
+			return ImmutableList.copyOf(savedProductIds);
+		}
+	}
+}
@@ -23,6 +23,7 @@ package de.metas.lock.api.impl;
  */
 
 import java.util.Iterator;
+import java.util.List;
 
 import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.ad.dao.IQueryBuilder;
@@ -33,6 +34,8 @@ import org.adempiere.util.lang.impl.TableRecordReference;
 import org.compiere.model.IQuery;
 import org.slf4j.Logger;
 
+import com.google.common.collect.Iterators;
+
 import de.metas.lock.api.ILock;
 import de.metas.lock.api.ILockCommand;
 import de.metas.lock.api.ILockCommand.AllowAdditionalLocks;
@@ -55,6 +58,9 @@ public abstract class AbstractLockDatabase implements ILockDatabase
 {
 	protected final transient Logger logger = LogManager.getLogger(getClass());
 
+	/** How many records are passed to {@link #lockRecords(ILockCommand, List)} and {@link #unlockRecords(IUnlockCommand, List)} at once */
+	private static final int RECORDS_BATCH_SIZE = 500;
+
 	/** Asserts given lock owner is a valid owner to be used on for Locks */
 	protected static final void assertValidLockOwner(final LockOwner lockOwner)
 	{
@@ -145,24 +151,65 @@ public abstract class AbstractLockDatabase implements ILockDatabase
 		final Iterator<ITableRecordReference> records = lockCommand.getRecordsToLockIterator();
 		Check.assumeNotNull(records, "records not null");
 
-		final boolean failIfAlreadyLocked = lockCommand.isFailIfAlreadyLocked();
 		final boolean changeLock = lockCommand.getParentLock() != null;
 		int countLocked = 0;
-		while (records.hasNext())
+		if (changeLock)
 		{
-			final ITableRecordReference record = records.next();
-
-			//
-			// Acquire/Change the lock
-			final boolean locked;
-			if (changeLock)
+			final boolean failIfAlreadyLocked = lockCommand.isFailIfAlreadyLocked();
+			while (records.hasNext())
 			{
-				locked = changeLockRecord(lockCommand, record);
+				final ITableRecordReference record = records.next();
+
+				//
+				// Change the lock
+				final boolean locked = changeLockRecord(lockCommand, record);
+
+				// Increment the locked counter
+				if (locked)
+				{
+					countLocked++;
+				}
+
+				//
+				// If lock could not be changed and we were asked to fail, do so
+				if (failIfAlreadyLocked && !locked)
+				{
+					throw new LockFailedException("Record was already locked: " + record)
+							.setLockCommand(lockCommand)
+							.setRecordToLock(record);
+				}
 			}
-			else
+		}
+		else
+		{
+			final Iterator<List<ITableRecordReference>> batches = Iterators.partition(records, RECORDS_BATCH_SIZE);
+			while (batches.hasNext())
 			{
-				locked = lockRecord(lockCommand, record);
+				countLocked += lockRecords(lockCommand, batches.next());
 			}
+		}
+
+		return countLocked;
+	}
+
+	/**
+	 * Locks the given records.
+	 * <p>
+	 * This implementation locks them one by one, using {@link #lockRecord(ILockCommand, ITableRecordReference)}.
+	 * Lock databases which are able to lock many records at once shall override it.
+	 *
+	 * @return how many records were locked
+	 * @throws LockFailedException if a record could not be locked and {@link ILockCommand#isFailIfAlreadyLocked()}
+	 */
+	protected int lockRecords(final ILockCommand lockCommand, final List<ITableRecordReference> records)
+	{
+		final boolean failIfAlreadyLocked = lockCommand.isFailIfAlreadyLocked();
+		int countLocked = 0;
+		for (final ITableRecordReference record : records)
+		{
+			//
+			// Acquire the lock
+			final boolean locked = lockRecord(lockCommand, record);
 
 			// Increment the locked counter
 			if (locked)
@@ -171,7 +218,7 @@ public abstract class AbstractLockDatabase implements ILockDatabase
 			}
 
 			//
-			// If lock could not be acquired/changed and we were asked to fail, do so
+			// If lock could not be acquired and we were asked to fail, do so
 			if (failIfAlreadyLocked && !locked)
 			{
 				// NOTE: we are checking this just to me sure, but basically, the "lockRecord" method is already throwing an exception in this case
@@ -251,9 +298,28 @@ public abstract class AbstractLockDatabase implements ILockDatabase
 		Check.assumeNotNull(records, "records not null");
 
 		int countUnlocked = 0;
-		while (records.hasNext())
+		final Iterator<List<ITableRecordReference>> batches = Iterators.partition(records, RECORDS_BATCH_SIZE);
+		while (batches.hasNext())
+		{
+			countUnlocked += unlockRecords(unlockCommand, batches.next());
+		}
+
+		return countUnlocked;
+	}
+
+	/**
+	 * Unlocks the given records.
+	 * <p>
+	 * This implementation unlocks them one by one, using {@link #unlockRecord(IUnlockCommand, ITableRecordReference)}.
+	 * Lock databases which are able to unlock many records at once shall override it.
+	 *
+	 * @return how many records were unlocked
+	 */
+	protected int unlockRecords(final IUnlockCommand unlockCommand, final List<ITableRecordReference> records)
+	{
+		int countUnlocked = 0;
+		for (final ITableRecordReference record : records)
 		{
-			final ITableRecordReference record = records.next();
 			final boolean unlocked = unlockRecord(unlockCommand, record);
 			if (unlocked)
 			{
@@ -5,7 +5,9 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import org.adempiere.ad.dao.IQueryFilter;
 import org.adempiere.ad.dao.ISqlQueryFilter;
@@ -13,6 +15,7 @@ import org.adempiere.ad.dao.impl.TypedSqlQuery;
 import org.adempiere.ad.dao.impl.TypedSqlQueryFilter;
 import org.adempiere.ad.table.api.IADTableDAO;
 import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.exceptions.DBException;
 import org.adempiere.exceptions.DBUniqueConstraintException;
 import org.adempiere.model.InterfaceWrapperHelper;
 import org.adempiere.util.lang.ITableRecordReference;
@@ -20,6 +23,11 @@ import org.compiere.model.IQuery;
 import org.compiere.util.DB;
 import org.compiere.util.DisplayType;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableSetMultimap;
+import com.google.common.collect.SetMultimap;
+
 import de.metas.lock.api.ILock;
 import de.metas.lock.api.ILockCommand;
 import de.metas.lock.api.IUnlockCommand;
@@ -52,7 +60,7 @@ public class SqlLockDatabase extends AbstractLockDatabase
 	 * @param sql
 	 * @param sqlParams sql parameters list or null
 	 */
-	private final void appendLockOwnerWhereClause(final LockOwner lockOwner, final StringBuilder sql, final List<Object> sqlParams)
+	private static final void appendLockOwnerWhereClause(final LockOwner lockOwner, final StringBuilder sql, final List<Object> sqlParams)
 	{
 		Check.assumeNotNull(lockOwner, "lockOwner not null");
 		if (lockOwner.isAnyOwner())
@@ -307,6 +315,160 @@ public class SqlLockDatabase extends AbstractLockDatabase
 		}
 	}
 
+	/**
+	 * Locks all given records using one multi-row INSERT.
+	 * <p>
+	 * If {@link ILockCommand#isFailIfAlreadyLocked()} is <code>false</code>, the records which are already locked are skipped using <code>ON CONFLICT DO NOTHING</code>.
+	 * Else, if any of the records is already locked, none of them is locked and the exception tells which record was already locked.
+	 */
+	@Override
+	protected int lockRecords(final ILockCommand lockCommand, final List<ITableRecordReference> records)
+	{
+		final List<Object> sqlParams = new ArrayList<>();
+		final String sql = buildSqlLockRecords(lockCommand, records, sqlParams);
+		if (sql == null)
+		{
+			return 0;
+		}
+
+		try
+		{
+			return DB.executeUpdateEx(sql, sqlParams.toArray(), ITrx.TRXNAME_None);
+		}
+		catch (final DBUniqueConstraintException e)
+		{
+			final ITableRecordReference alreadyLockedRecord = retrieveFirstLockedRecord(records);
+			final String message = alreadyLockedRecord != null
+					? "Record was already locked: " + alreadyLockedRecord
+					: "Some of the records were already locked";
+			throw new LockFailedException(message, e)
+					.setLockCommand(lockCommand)
+					.setSql(sql, sqlParams.toArray())
+					.setRecordToLock(alreadyLockedRecord);
+		}
+		catch (final Exception e)
+		{
+			throw LockFailedException.wrapIfNeeded(e)
+					.setLockCommand(lockCommand)
+					.setSql(sql, sqlParams.toArray());
+		}
+	}
+
+	/**
+	 * @return the multi-row INSERT which locks the given records, or <code>null</code> if there is nothing to lock
+	 */
+	@VisibleForTesting
+	static String buildSqlLockRecords(
+			@NonNull final ILockCommand lockCommand,
+			@NonNull final List<ITableRecordReference> records,
+			@NonNull final List<Object> sqlParams)
+	{
+		final LockOwner lockOwner = lockCommand.getOwner();
+		assertValidLockOwner(lockOwner);
+
+		final String ownerName = lockOwner.getOwnerName();
+		final boolean autoCleanup = lockCommand.isAutoCleanup();
+		final boolean allowMultipleOwners = isAllowMultipleOwners(lockCommand.getAllowAdditionalLocks());
+
+		final StringBuilder sqlValues = new StringBuilder();
+		for (final ITableRecordReference record : records)
+		{
+			Check.assumeNotNull(record, "record not null");
+
+			final int adTableId = record.getAD_Table_ID();
+			Check.assume(adTableId > 0, "adTableId > 0");
+
+			final int recordId = record.getRecord_ID();
+			if (recordId < 0)
+			{
+				continue;
+			}
+
+			if (sqlValues.length() > 0)
+			{
+				sqlValues.append(", ");
+			}
+			sqlValues.append("(")
+					.append(toSqlParam(adTableId, sqlParams))
+					.append(", ").append(toSqlParam(recordId, sqlParams))
+					.append(", ").append(toSqlParam(ownerName, sqlParams))
+					.append(", ").append(toSqlParam(autoCleanup, sqlParams))
+					.append(", ").append(toSqlParam(allowMultipleOwners, sqlParams))
+					.append(")");
+		}
+
+		if (sqlValues.length() <= 0)
+		{
+			return null;
+		}
+
+		final StringBuilder sql = new StringBuilder("INSERT INTO " + I_T_Lock.Table_Name + " ("
+				+ I_T_Lock.COLUMNNAME_AD_Table_ID
+				+ ", " + I_T_Lock.COLUMNNAME_Record_ID
+				+ ", " + I_T_Lock.COLUMNNAME_Owner
+				+ ", " + I_T_Lock.COLUMNNAME_IsAutoCleanup
+				+ ", " + I_T_Lock.COLUMNNAME_IsAllowMultipleOwners
+				+ ") VALUES ")
+						.append(sqlValues);
+		if (!lockCommand.isFailIfAlreadyLocked())
+		{
+			sql.append(" ON CONFLICT DO NOTHING");
+		}
+
+		return sql.toString();
+	}
+
+	/**
+	 * @return the first of the given records which is locked by any owner, or <code>null</code> if none of them is locked (anymore)
+	 */
+	private static ITableRecordReference retrieveFirstLockedRecord(final List<ITableRecordReference> records)
+	{
+		final List<Object> sqlParams = new ArrayList<>();
+		final StringBuilder sqlRecordIds = new StringBuilder();
+		for (final ITableRecordReference record : records)
+		{
+			if (sqlRecordIds.length() > 0)
+			{
+				sqlRecordIds.append(", ");
+			}
+			sqlRecordIds.append("(")
+					.append(toSqlParam(record.getAD_Table_ID(), sqlParams))
+					.append(", ").append(toSqlParam(record.getRecord_ID(), sqlParams))
+					.append(")");
+		}
+
+		final String sql = "SELECT " + I_T_Lock.COLUMNNAME_AD_Table_ID + ", " + I_T_Lock.COLUMNNAME_Record_ID
+				+ " FROM " + I_T_Lock.Table_Name
+				+ " WHERE (" + I_T_Lock.COLUMNNAME_AD_Table_ID + ", " + I_T_Lock.COLUMNNAME_Record_ID + ") IN (" + sqlRecordIds + ")";
+
+		final SetMultimap<Integer, Integer> lockedRecordIdsByTableId = HashMultimap.create();
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		try
+		{
+			pstmt = DB.prepareStatement(sql, ITrx.TRXNAME_None);
+			DB.setParameters(pstmt, sqlParams);
+			rs = pstmt.executeQuery();
+			while (rs.next())
+			{
+				lockedRecordIdsByTableId.put(rs.getInt(I_T_Lock.COLUMNNAME_AD_Table_ID), rs.getInt(I_T_Lock.COLUMNNAME_Record_ID));
+			}
+		}
+		catch (final SQLException e)
+		{
+			throw new DBException(e, sql, sqlParams);
+		}
+		finally
+		{
+			DB.close(rs, pstmt);
+		}
+
+		return records.stream()
+				.filter(record -> lockedRecordIdsByTableId.containsEntry(record.getAD_Table_ID(), record.getRecord_ID()))
+				.findFirst()
+				.orElse(null);
+	}
+
 	@Override
 	protected boolean changeLockRecord(final ILockCommand lockCommand, final ITableRecordReference record)
 	{
@@ -412,6 +574,62 @@ public class SqlLockDatabase extends AbstractLockDatabase
 		}
 	}
 
+	/**
+	 * Unlocks all given records using one DELETE per table.
+	 */
+	@Override
+	protected int unlockRecords(final IUnlockCommand unlockCommand, final List<ITableRecordReference> records)
+	{
+		final ImmutableSetMultimap<Integer, Integer> recordIdsByTableId = records.stream()
+				.collect(ImmutableSetMultimap.toImmutableSetMultimap(ITableRecordReference::getAD_Table_ID, ITableRecordReference::getRecord_ID));
+
+		int countUnlocked = 0;
+		for (final Map.Entry<Integer, Collection<Integer>> e : recordIdsByTableId.asMap().entrySet())
+		{
+			countUnlocked += unlockRecords(unlockCommand, e.getKey(), e.getValue());
+		}
+		return countUnlocked;
+	}
+
+	private int unlockRecords(final IUnlockCommand unlockCommand, final int adTableId, final Collection<Integer> recordIds)
+	{
+		final List<Object> sqlParams = new ArrayList<>();
+		final String sql = buildSqlUnlockRecords(unlockCommand.getOwner(), adTableId, recordIds, sqlParams);
+
+		try
+		{
+			return DB.executeUpdateEx(sql, sqlParams.toArray(), ITrx.TRXNAME_None);
+		}
+		catch (final Exception e)
+		{
+			throw new UnlockFailedException("Failed unlocking records of AD_Table_ID=" + adTableId, e)
+					.setUnlockCommand(unlockCommand)
+					.setSql(sql, sqlParams.toArray());
+		}
+	}
+
+	/**
+	 * @return the DELETE which removes the given owner's locks on the given records of one table
+	 */
+	@VisibleForTesting
+	static String buildSqlUnlockRecords(
+			@NonNull final LockOwner lockOwner,
+			final int adTableId,
+			@NonNull final Collection<Integer> recordIds,
+			@NonNull final List<Object> sqlParams)
+	{
+		final StringBuilder sql = new StringBuilder(SQL_DeleteLock);
+
+		// For AD_Table_ID/Record_IDs
+		sql.append(" AND ").append(I_T_Lock.COLUMNNAME_AD_Table_ID).append("=").append(toSqlParam(adTableId, sqlParams));
+		sql.append(" AND ").append(I_T_Lock.COLUMNNAME_Record_ID).append(" IN ").append(DB.buildSqlList(recordIds, sqlParams));
+
+		// For Owner
+		appendLockOwnerWhereClause(lockOwner, sql, sqlParams);
+
+		return sql.toString();
+	}
+
 	@Override
 	protected int unlockByOwner(final IUnlockCommand unlockCommand)
 	{
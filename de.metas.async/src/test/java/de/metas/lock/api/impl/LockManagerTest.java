@@ -0,0 +1,160 @@
+package de.metas.lock.api.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.test.AdempiereTestHelper;
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.metas.async.model.I_C_Queue_WorkPackage;
+import de.metas.lock.api.ILock;
+import de.metas.lock.api.ILockCommand.AllowAdditionalLocks;
+import de.metas.lock.api.ILockManager;
+import de.metas.lock.api.LockOwner;
+import de.metas.lock.exceptions.LockFailedException;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Tests locking and unlocking a list of records, which the lock database gets in batches.
+ */
+public class LockManagerTest
+{
+	/** More than one batch, see {@link AbstractLockDatabase} */
+	private static final int COUNT_RECORDS = 600;
+
+	private ILockManager lockManager;
+	private List<I_C_Queue_WorkPackage> records;
+
+	@Before
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+		lockManager = Services.get(ILockManager.class);
+
+		records = new ArrayList<>();
+		for (int i = 0; i < COUNT_RECORDS; i++)
+		{
+			final I_C_Queue_WorkPackage record = InterfaceWrapperHelper.newInstance(I_C_Queue_WorkPackage.class);
+			InterfaceWrapperHelper.save(record);
+			records.add(record);
+		}
+	}
+
+	private boolean isLocked(final I_C_Queue_WorkPackage record, final LockOwner owner)
+	{
+		return lockManager.isLocked(I_C_Queue_WorkPackage.class, record.getC_Queue_WorkPackage_ID(), owner);
+	}
+
+	@Test
+	public void partialConflict_alreadyLockedRecordsAreSkipped()
+	{
+		final LockOwner owner = LockOwner.newOwner("owner");
+		lockManager.lock()
+				.setOwner(owner)
+				.addRecordByModel(records.get(1))
+				.addRecordByModel(records.get(550))
+				.acquire();
+
+		final ILock lock = lockManager.lock()
+				.setOwner(owner)
+				.setFailIfAlreadyLocked(false)
+				.addRecordsByModel(records)
+				.acquire();
+
+		assertThat(lock.getCountLocked()).isEqualTo(COUNT_RECORDS - 2);
+		for (final I_C_Queue_WorkPackage record : records)
+		{
+			assertThat(isLocked(record, owner)).isTrue();
+		}
+	}
+
+	@Test
+	public void partialConflict_failIfAlreadyLocked_reportsTheConflictingRecord()
+	{
+		final LockOwner owner = LockOwner.newOwner("owner");
+		lockManager.lock()
+				.setOwner(owner)
+				.addRecordByModel(records.get(550))
+				.acquire();
+
+		assertThatThrownBy(() -> lockManager.lock()
+				.setOwner(owner)
+				.setFailIfAlreadyLocked(true)
+				.addRecordsByModel(records)
+				.acquire())
+						.isInstanceOf(LockFailedException.class)
+						.hasMessageContaining("Record was already locked: " + TableRecordReference.of(records.get(550)));
+	}
+
+	@Test
+	public void unlockRecordsByOwner_keepsTheLocksOfOtherOwners()
+	{
+		final LockOwner owner1 = LockOwner.newOwner("owner1");
+		final LockOwner owner2 = LockOwner.newOwner("owner2");
+		for (final LockOwner owner : new LockOwner[] { owner1, owner2 })
+		{
+			lockManager.lock()
+					.setOwner(owner)
+					.setAllowAdditionalLocks(AllowAdditionalLocks.FOR_DIFFERENT_OWNERS)
+					.addRecordsByModel(records)
+					.acquire();
+		}
+
+		final int countUnlocked = lockManager.unlock()
+				.setOwner(owner1)
+				.setRecordsByModels(records)
+				.release();
+
+		assertThat(countUnlocked).isEqualTo(COUNT_RECORDS);
+		for (final I_C_Queue_WorkPackage record : records)
+		{
+			assertThat(isLocked(record, owner1)).isFalse();
+			assertThat(isLocked(record, owner2)).isTrue();
+		}
+	}
+
+	@Test
+	public void unlockByOwner()
+	{
+		final LockOwner owner1 = LockOwner.newOwner("owner1");
+		final LockOwner owner2 = LockOwner.newOwner("owner2");
+		lockManager.lock().setOwner(owner1).addRecordsByModel(records.subList(0, 10)).acquire();
+		lockManager.lock().setOwner(owner2).addRecordsByModel(records.subList(10, 20)).acquire();
+
+		final int countUnlocked = lockManager.unlock()
+				.setOwner(owner1)
+				.release();
+
+		assertThat(countUnlocked).isEqualTo(10);
+		assertThat(isLocked(records.get(0), null)).isFalse();
+		assertThat(isLocked(records.get(10), owner2)).isTrue();
+	}
+}
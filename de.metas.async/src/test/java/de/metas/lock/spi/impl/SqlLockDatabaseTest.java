@@ -0,0 +1,132 @@
+package de.metas.lock.spi.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.test.AdempiereTestHelper;
+import org.adempiere.util.lang.ITableRecordReference;
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.async.model.I_C_Queue_WorkPackage;
+import de.metas.lock.api.ILockCommand;
+import de.metas.lock.api.ILockCommand.AllowAdditionalLocks;
+import de.metas.lock.api.ILockManager;
+import de.metas.lock.api.LockOwner;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Tests the statements of the batched lock/unlock; running them needs a database.
+ */
+public class SqlLockDatabaseTest
+{
+	private final LockOwner owner = LockOwner.forOwnerName("owner");
+
+	private List<ITableRecordReference> records;
+
+	@Before
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+
+		records = new ArrayList<>();
+		for (int i = 0; i < 3; i++)
+		{
+			final I_C_Queue_WorkPackage record = InterfaceWrapperHelper.newInstance(I_C_Queue_WorkPackage.class);
+			InterfaceWrapperHelper.save(record);
+			records.add(TableRecordReference.of(record));
+		}
+	}
+
+	private ILockCommand newLockCommand()
+	{
+		return Services.get(ILockManager.class).lock()
+				.setOwner(owner)
+				.setAutoCleanup(false)
+				.setAllowAdditionalLocks(AllowAdditionalLocks.NEVER);
+	}
+
+	@Test
+	public void lockRecords_skipsAlreadyLockedRecords()
+	{
+		final List<Object> sqlParams = new ArrayList<>();
+		final String sql = SqlLockDatabase.buildSqlLockRecords(newLockCommand().setFailIfAlreadyLocked(false), records, sqlParams);
+
+		assertThat(sql).startsWith("INSERT INTO T_Lock (AD_Table_ID, Record_ID, Owner, IsAutoCleanup, IsAllowMultipleOwners) VALUES (?, ?, ?, ?, ?), (?, ?, ?, ?, ?), (?, ?, ?, ?, ?)");
+		assertThat(sql).endsWith(" ON CONFLICT DO NOTHING");
+
+		assertThat(sqlParams).hasSize(15);
+		assertThat(sqlParams.subList(0, 5)).containsExactly(records.get(0).getAD_Table_ID(), records.get(0).getRecord_ID(), "owner", false, false);
+	}
+
+	@Test
+	public void lockRecords_failIfAlreadyLocked()
+	{
+		final List<Object> sqlParams = new ArrayList<>();
+		final String sql = SqlLockDatabase.buildSqlLockRecords(newLockCommand().setFailIfAlreadyLocked(true), records, sqlParams);
+
+		// all or nothing: the unique constraint violation makes the whole INSERT fail
+		assertThat(sql).doesNotContain("ON CONFLICT");
+		assertThat(sqlParams).hasSize(15);
+	}
+
+	@Test
+	public void lockRecords_nothingToLock()
+	{
+		final List<Object> sqlParams = new ArrayList<>();
+		final String sql = SqlLockDatabase.buildSqlLockRecords(newLockCommand(), ImmutableList.of(), sqlParams);
+
+		assertThat(sql).isNull();
+		assertThat(sqlParams).isEmpty();
+	}
+
+	@Test
+	public void unlockRecords_byOwner()
+	{
+		final int adTableId = records.get(0).getAD_Table_ID();
+		final List<Object> sqlParams = new ArrayList<>();
+		final String sql = SqlLockDatabase.buildSqlUnlockRecords(owner, adTableId, ImmutableList.of(1, 2, 3), sqlParams);
+
+		assertThat(sql).isEqualTo("DELETE FROM T_Lock WHERE 1=1  AND AD_Table_ID=? AND Record_ID IN (?,?,?) AND Owner=?");
+		assertThat(sqlParams).containsExactly(adTableId, 1, 2, 3, "owner");
+	}
+
+	@Test
+	public void unlockRecords_anyOwner()
+	{
+		final int adTableId = records.get(0).getAD_Table_ID();
+		final List<Object> sqlParams = new ArrayList<>();
+		final String sql = SqlLockDatabase.buildSqlUnlockRecords(LockOwner.ANY, adTableId, ImmutableList.of(1, 2, 3), sqlParams);
+
+		assertThat(sql).isEqualTo("DELETE FROM T_Lock WHERE 1=1  AND AD_Table_ID=? AND Record_ID IN (?,?,?)");
+		assertThat(sqlParams).containsExactly(adTableId, 1, 2, 3);
+	}
+}
@@ -8,14 +8,20 @@ import java.time.temporal.TemporalAccessor;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 import org.adempiere.exceptions.AdempiereException;
 import org.compiere.util.TimeUtil;
 
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+
 import de.metas.data.export.api.IExportDataDestination;
 import de.metas.data.export.api.IExportDataSource;
 import de.metas.data.export.api.impl.AbstractExporter;
 import de.metas.data.export.api.impl.CSVWriter;
+import de.metas.util.Loggables;
 import de.metas.util.ThreadLocalDecimalFormatter;
 import lombok.Builder;
 import lombok.NonNull;
@@ -42,21 +48,39 @@ import lombok.NonNull;
  * #L%
  */
 
+/**
+ * Exports DATEV lines to CSV.
+ * <p>
+ * The cell formatters are resolved once per {@link DATEVExportFormat}.
+ * Rows are collected in chunks; each chunk is formatted and then written in the original order.
+ * The formatting is done on the calling thread, because the export runs inside a server process which shall not occupy the shared common pool.
+ */
 public class DATEVCsvExporter extends AbstractExporter
 {
+	private static final int DEFAULT_ChunkSize = 5000;
+	private static final int PROGRESS_LOG_EVERY_ROWS = 100_000;
+
 	private final DATEVExportFormat exportFormat;
+	private final ImmutableList<Function<Object, Object>> cellFormatters;
+	private final int chunkSize;
 
 	@Builder
 	private DATEVCsvExporter(
 			@NonNull final DATEVExportFormat exportFormat,
-			@NonNull final IExportDataSource dataSource)
+			@NonNull final IExportDataSource dataSource,
+			final int chunkSize)
 	{
 		this.exportFormat = exportFormat;
+		this.cellFormatters = exportFormat.getColumns()
+				.stream()
+				.map(DATEVCsvExporter::createCellFormatter)
+				.collect(ImmutableList.toImmutableList());
+		this.chunkSize = chunkSize > 0 ? chunkSize : DEFAULT_ChunkSize;
 		setDataSource(dataSource);
 	}
 
 	@Override
-	protected CSVWriter createDataDestination(final OutputStream out) throws UnsupportedEncodingException
+	protected IExportDataDestination createDataDestination(final OutputStream out) throws UnsupportedEncodingException
 	{
 		final Properties config = new Properties(getConfig());
 		config.setProperty(CSVWriter.CONFIG_Encoding, exportFormat.getCsvEncoding());
@@ -65,51 +89,44 @@ public class DATEVCsvExporter extends AbstractExporter
 
 		final CSVWriter csvWriter = new CSVWriter(out, config);
 		csvWriter.setHeader(getDataSource().getFieldNames());
-		return csvWriter;
+		return new ChunkedFormattingDestination(csvWriter);
 	}
 
 	@Override
 	protected void appendRow(final IExportDataDestination dataDestination, final List<Object> row) throws IOException
 	{
-		final CSVWriter csvWriter = CSVWriter.cast(dataDestination);
-		final List<Object> rowFormatted = formatRow(row);
-		csvWriter.appendLine(rowFormatted);
+		dataDestination.appendLine(row);
 	}
 
 	private List<Object> formatRow(final List<Object> row)
 	{
-		final List<DATEVExportFormatColumn> formatColumns = exportFormat.getColumns();
 		final int rowSize = row.size();
 		final List<Object> rowFormatted = new ArrayList<>(rowSize);
 		for (int i = 0; i < rowSize; i++)
 		{
 			final Object cell = row.get(i);
-			final DATEVExportFormatColumn columnFormat = formatColumns.get(i);
-			final Object cellFormated = formatCell(cell, columnFormat);
+			final Object cellFormated = cell != null ? cellFormatters.get(i).apply(cell) : null;
 			rowFormatted.add(cellFormated);
 		}
 
 		return rowFormatted;
 	}
 
-	private Object formatCell(final Object value, final DATEVExportFormatColumn columnFormat)
+	private static Function<Object, Object> createCellFormatter(final DATEVExportFormatColumn columnFormat)
 	{
-		if (value == null)
-		{
-			return null;
-		}
-
-		if (columnFormat.getDateFormatter() != null)
+		final DateTimeFormatter dateFormatter = columnFormat.getDateFormatter();
+		final ThreadLocalDecimalFormatter numberFormatter = columnFormat.getNumberFormatter();
+		if (dateFormatter != null)
 		{
-			return formatDateCell(value, columnFormat.getDateFormatter());
+			return value -> formatDateCell(value, dateFormatter);
 		}
-		else if (columnFormat.getNumberFormatter() != null)
+		else if (numberFormatter != null)
 		{
-			return formatNumberCell(value, columnFormat.getNumberFormatter());
+			return numberFormatter::format;
 		}
 		else
 		{
-			return value;
+			return Function.identity();
 		}
 	}
 
@@ -135,14 +152,82 @@ public class DATEVCsvExporter extends AbstractExporter
 		}
 	}
 
-	private static String formatNumberCell(final Object value, final ThreadLocalDecimalFormatter numberFormatter)
+	/**
+	 * Buffers the raw rows and, once a chunk is full, formats it and writes it to the underlying {@link CSVWriter}.
+	 * The last chunk is written on {@link #flush()}.
+	 */
+	private final class ChunkedFormattingDestination implements IExportDataDestination
 	{
-		if (value == null)
+		private final CSVWriter csvWriter;
+		private final List<List<Object>> chunk = new ArrayList<>(chunkSize);
+
+		private final Stopwatch stopwatch = Stopwatch.createStarted();
+		private int rowsWritten = 0;
+		private int rowsWrittenOnLastProgressLog = 0;
+
+		private ChunkedFormattingDestination(@NonNull final CSVWriter csvWriter)
 		{
-			return null;
+			this.csvWriter = csvWriter;
 		}
 
-		return numberFormatter.format(value);
-	}
+		@Override
+		public void appendLine(final List<Object> row) throws IOException
+		{
+			chunk.add(row);
+			if (chunk.size() >= chunkSize)
+			{
+				flushChunk();
+			}
+		}
+
+		private void flushChunk() throws IOException
+		{
+			if (chunk.isEmpty())
+			{
+				return;
+			}
+
+			final List<List<Object>> rowsFormatted = chunk.stream()
+					.map(DATEVCsvExporter.this::formatRow)
+					.collect(ImmutableList.toImmutableList());
+			chunk.clear();
+
+			for (final List<Object> rowFormatted : rowsFormatted)
+			{
+				csvWriter.appendLine(rowFormatted);
+			}
+
+			rowsWritten += rowsFormatted.size();
+			if (rowsWritten - rowsWrittenOnLastProgressLog >= PROGRESS_LOG_EVERY_ROWS)
+			{
+				logProgress();
+			}
+		}
+
+		private void logProgress()
+		{
+			final long elapsedMillis = Math.max(stopwatch.elapsed(TimeUnit.MILLISECONDS), 1);
+			final long rowsPerSecond = rowsWritten * 1000L / elapsedMillis;
+			Loggables.get().addLog("Exported {} rows in {} ({} rows/sec)", rowsWritten, stopwatch, rowsPerSecond);
+			rowsWrittenOnLastProgressLog = rowsWritten;
+		}
 
+		@Override
+		public void flush() throws IOException
+		{
+			flushChunk();
+			csvWriter.flush();
+			logProgress();
+		}
+
+		/**
+		 * NOTE: rows which were not flushed yet are discarded, because we are also closed if the export failed.
+		 */
+		@Override
+		public void close() throws IOException
+		{
+			chunk.clear();
+			csvWriter.close();
+		}
+	}
 }
@@ -1,6 +1,9 @@
 package de.metas.datev.process;
 
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.Timestamp;
 import java.time.format.DateTimeFormatter;
 
@@ -84,17 +87,28 @@ public class DATEV_ExportFile extends JavaProcess implements IProcessPreconditio
 
 		final IExportDataSource dataSource = createDataSource(exportFormat, datevExport.getDATEV_Export_ID());
 
-		final ByteArrayOutputStream out = new ByteArrayOutputStream();
-		DATEVCsvExporter.builder()
-				.exportFormat(exportFormat)
-				.dataSource(dataSource)
-				.build()
-				.export(out);
-
-		getResult().setReportData(
-				out.toByteArray(), // data
-				buildFilename(datevExport), // filename
-				"text/csv"); // content type
+		// stream the rows to a temporary file instead of growing an in-memory buffer
+		final Path tempFile = Files.createTempFile("datev", ".csv");
+		try
+		{
+			try (final OutputStream out = new BufferedOutputStream(Files.newOutputStream(tempFile), 64 * 1024))
+			{
+				DATEVCsvExporter.builder()
+						.exportFormat(exportFormat)
+						.dataSource(dataSource)
+						.build()
+						.export(out);
+			}
+
+			getResult().setReportData(
+					Files.readAllBytes(tempFile), // data
+					buildFilename(datevExport), // filename
+					"text/csv"); // content type
+		}
+		finally
+		{
+			Files.deleteIfExists(tempFile);
+		}
 
 		return MSG_OK;
 	}
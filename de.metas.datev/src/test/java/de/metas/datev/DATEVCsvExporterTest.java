@@ -0,0 +1,224 @@
+package de.metas.datev;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.text.DecimalFormatSymbols;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.data.export.api.IExportDataSource;
+import de.metas.util.ThreadLocalDecimalFormatter;
+
+/*
+ * #%L
+ * metasfresh-datev
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class DATEVCsvExporterTest
+{
+	private DATEVExportFormat exportFormat;
+
+	@Before
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+
+		exportFormat = DATEVExportFormat.builder()
+				.name("test")
+				.csvEncoding("UTF-8")
+				.csvFieldDelimiter(";")
+				.csvFieldQuote("")
+				.column(DATEVExportFormatColumn.builder()
+						.columnName("DocumentNo")
+						.csvHeaderName("DocumentNo")
+						.build())
+				.column(DATEVExportFormatColumn.builder()
+						.columnName("DateAcct")
+						.csvHeaderName("DateAcct")
+						.dateFormatter(DateTimeFormatter.ofPattern("ddMM"))
+						.build())
+				.column(DATEVExportFormatColumn.builder()
+						.columnName("Amt")
+						.csvHeaderName("Amt")
+						.numberFormatter(ThreadLocalDecimalFormatter.ofPattern("0.00", DecimalFormatSymbols.getInstance(Locale.GERMAN)))
+						.build())
+				.build();
+	}
+
+	@Test
+	public void export_lastChunkIsWrittenAndOrderIsPreserved()
+	{
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		DATEVCsvExporter.builder()
+				.exportFormat(exportFormat)
+				.dataSource(dataSource(
+						row("doc1", LocalDate.of(2019, 1, 31), new BigDecimal("1")),
+						row("doc2", LocalDate.of(2019, 2, 1), new BigDecimal("2.5")),
+						row("doc3", LocalDate.of(2019, 3, 2), new BigDecimal("-3.456")),
+						row("doc4", null, null),
+						row("doc5", java.sql.Timestamp.valueOf("2019-12-24 10:00:00"), new BigDecimal("1234.5"))))
+				.chunkSize(2) // => chunks of 2, 2 and 1 rows
+				.build()
+				.export(out);
+
+		assertThat(new String(out.toByteArray(), StandardCharsets.UTF_8)).isEqualTo(
+				"DocumentNo;DateAcct;Amt\n"
+						+ "doc1;3101;1,00\n"
+						+ "doc2;0102;2,50\n"
+						+ "doc3;0203;-3,46\n"
+						+ "doc4;;\n"
+						+ "doc5;2412;1234,50\n");
+	}
+
+	@Test
+	public void export_chunkSizeLargerThanRowCount()
+	{
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		DATEVCsvExporter.builder()
+				.exportFormat(exportFormat)
+				.dataSource(dataSource(
+						row("doc1", LocalDate.of(2019, 1, 31), new BigDecimal("1"))))
+				.build()
+				.export(out);
+
+		assertThat(new String(out.toByteArray(), StandardCharsets.UTF_8)).isEqualTo(
+				"DocumentNo;DateAcct;Amt\n"
+						+ "doc1;3101;1,00\n");
+	}
+
+	@Test
+	public void export_failureWhileWritingLastChunkFailsTheExport()
+	{
+		final DATEVCsvExporter exporter = DATEVCsvExporter.builder()
+				.exportFormat(exportFormat)
+				.dataSource(dataSource(
+						row("doc1", LocalDate.of(2019, 1, 31), new BigDecimal("1"))))
+				.build();
+
+		assertThatThrownBy(() -> exporter.export(new FailingOutputStream()))
+				.isInstanceOf(AdempiereException.class)
+				.hasRootCauseInstanceOf(IOException.class);
+		assertThat(exporter.getError()).isNotNull();
+	}
+
+	private static List<Object> row(final Object... values)
+	{
+		return new ArrayList<>(Arrays.asList(values));
+	}
+
+	@SafeVarargs
+	private final IExportDataSource dataSource(final List<Object>... rows)
+	{
+		final ImmutableList<String> fieldNames = exportFormat.getColumns()
+				.stream()
+				.map(DATEVExportFormatColumn::getCsvHeaderName)
+				.collect(ImmutableList.toImmutableList());
+		return new InMemoryExportDataSource(fieldNames, Arrays.asList(rows));
+	}
+
+	private static final class InMemoryExportDataSource implements IExportDataSource
+	{
+		private final List<String> fieldNames;
+		private final int size;
+		private final Iterator<List<Object>> rows;
+
+		private InMemoryExportDataSource(final List<String> fieldNames, final List<List<Object>> rows)
+		{
+			this.fieldNames = fieldNames;
+			this.size = rows.size();
+			this.rows = rows.iterator();
+		}
+
+		@Override
+		public List<String> getFieldNames()
+		{
+			return fieldNames;
+		}
+
+		@Override
+		public void prepare()
+		{
+		}
+
+		@Override
+		public boolean hasNext()
+		{
+			return rows.hasNext();
+		}
+
+		@Override
+		public List<Object> next()
+		{
+			return rows.next();
+		}
+
+		@Override
+		public void remove()
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void close()
+		{
+		}
+
+		@Override
+		public int size()
+		{
+			return size;
+		}
+	}
+
+	private static final class FailingOutputStream extends OutputStream
+	{
+		@Override
+		public void write(final int b) throws IOException
+		{
+			throw new IOException("disk full");
+		}
+
+		@Override
+		public void write(final byte[] b, final int off, final int len) throws IOException
+		{
+			throw new IOException("disk full");
+		}
+	}
+}
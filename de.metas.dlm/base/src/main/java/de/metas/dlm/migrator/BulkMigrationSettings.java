@@ -0,0 +1,70 @@
+package de.metas.dlm.migrator;
+
+import de.metas.util.Check;
+import lombok.Builder;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-dlm
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Settings for {@link IMigratorService#migratePartitionsInBulk(java.util.List, BulkMigrationSettings)}.
+ */
+@Value
+public class BulkMigrationSettings
+{
+	public static final BulkMigrationSettings DEFAULT = builder().build();
+
+	/**
+	 * Max number of records of one table that are updated in one transaction.
+	 */
+	int chunkSize;
+
+	/**
+	 * Max number of tables that are updated at the same time.
+	 */
+	int parallelism;
+
+	/**
+	 * Max number of updated records per second, over all tables. Less or equal to zero means "no limit".
+	 */
+	int maxRowsPerSecond;
+
+	@Builder
+	private BulkMigrationSettings(
+			final Integer chunkSize,
+			final Integer parallelism,
+			final Integer maxRowsPerSecond)
+	{
+		this.chunkSize = chunkSize != null ? chunkSize : 10000;
+		this.parallelism = parallelism != null ? parallelism : 1;
+		this.maxRowsPerSecond = maxRowsPerSecond != null ? maxRowsPerSecond : 0;
+
+		Check.assume(this.chunkSize > 0, "chunkSize={} shall be > 0", this.chunkSize);
+		Check.assume(this.parallelism > 0, "parallelism={} shall be > 0", this.parallelism);
+	}
+
+	public boolean isThrottled()
+	{
+		return maxRowsPerSecond > 0;
+	}
+}
@@ -1,5 +1,7 @@
 package de.metas.dlm.migrator;
 
+import java.util.List;
+
 import de.metas.dlm.IDLMService;
 import de.metas.dlm.Partition;
 import de.metas.dlm.model.IDLMAware;
@@ -80,4 +82,14 @@ public interface IMigratorService extends ISingletonService
 	 * @see IDLMService#directUpdateDLMColumn(org.adempiere.model.IContextAware, int, String, int)
 	 */
 	Partition migratePartition(Partition partition);
+
+	/**
+	 * Like {@link #migratePartition(Partition)}, but for many partitions at once.
+	 * Instead of updating partition by partition, the records of all given partitions are updated table by table, with chunked set-based updates.
+	 * Tables that don't reference each other are updated in parallel.
+	 *
+	 * @param partitions the partitions to migrate; partitions which are already at their target level are ignored.
+	 * @return partition instances whose {@link Partition#getCurrentDLMLevel()} reflects the migration that was performed.
+	 */
+	List<Partition> migratePartitionsInBulk(List<Partition> partitions, BulkMigrationSettings settings);
 }
@@ -0,0 +1,401 @@
+package de.metas.dlm.migrator.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.model.PlainContextAware;
+import org.adempiere.util.lang.IAutoCloseable;
+import org.compiere.util.DB;
+import org.compiere.util.Env;
+import org.slf4j.Logger;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.util.concurrent.RateLimiter;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import ch.qos.logback.classic.Level;
+import de.metas.dlm.Partition;
+import de.metas.dlm.migrator.BulkMigrationSettings;
+import de.metas.dlm.migrator.IMigratorService;
+import de.metas.dlm.model.IDLMAware;
+import de.metas.dlm.model.I_AD_Table;
+import de.metas.dlm.partitioner.config.PartitionConfig;
+import de.metas.dlm.partitioner.config.PartitionerConfigLine;
+import de.metas.dlm.partitioner.config.PartitionerConfigReference;
+import de.metas.logging.LogManager;
+import de.metas.util.ILoggable;
+import de.metas.util.Loggables;
+import de.metas.util.Services;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-dlm
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Migrates many partitions at once, see {@link IMigratorService#migratePartitionsInBulk(List, BulkMigrationSettings)}.
+ * <p>
+ * The DLM triggers are deferred and only complain if a record's <code>DLM_Level</code> is increased while there are still referencing records with a lower level.
+ * So when we commit table by table, we need to update the referencing tables before the tables they reference.
+ * To get that order, we use the references of the partitions' configs and split the DLM tables into stages:
+ * the tables of one stage don't reference each other and are updated in parallel; the next stage starts after the previous one is done.
+ * Tables with self references or within reference cycles can't be updated chunk by chunk, so we update them (and the tables they reference) at the end, all within one transaction.
+ */
+final class BulkMigrator
+{
+	private static final transient Logger logger = LogManager.getLogger(BulkMigrator.class);
+
+	/** Max number of partition IDs in the <code>IN (...)</code> list of one update */
+	private static final int PARTITION_IDS_BATCH_SIZE = 1000;
+
+	private final ITrxManager trxManager = Services.get(ITrxManager.class);
+	private final IQueryBL queryBL = Services.get(IQueryBL.class);
+
+	private final BulkMigrationSettings settings;
+	private final RateLimiter rateLimiter;
+	private final AtomicLong updatedCount = new AtomicLong(0);
+
+	BulkMigrator(@NonNull final BulkMigrationSettings settings)
+	{
+		this.settings = settings;
+		this.rateLimiter = settings.isThrottled() ? RateLimiter.create(settings.getMaxRowsPerSecond()) : null;
+	}
+
+	public List<Partition> migrate(@NonNull final List<Partition> partitions)
+	{
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+
+		final Map<Integer, List<Partition>> targetLevel2partitions = new TreeMap<>();
+		for (final Partition partition : partitions)
+		{
+			if (partition.getDLM_Partition_ID() <= 0 || partition.getTargetDLMLevel() == partition.getCurrentDLMLevel())
+			{
+				continue;
+			}
+			targetLevel2partitions.computeIfAbsent(partition.getTargetDLMLevel(), k -> new ArrayList<>()).add(partition);
+		}
+		if (targetLevel2partitions.isEmpty())
+		{
+			return ImmutableList.of();
+		}
+
+		final ExecutorService executor = Executors.newFixedThreadPool(
+				settings.getParallelism(),
+				new ThreadFactoryBuilder().setNameFormat("dlm-bulk-migrator-%d").setDaemon(true).build());
+		try
+		{
+			final ImmutableList.Builder<Partition> migratedPartitions = ImmutableList.builder();
+			for (final Map.Entry<Integer, List<Partition>> e : targetLevel2partitions.entrySet())
+			{
+				final int targetLevel = e.getKey();
+				final List<Partition> levelPartitions = e.getValue();
+
+				final MigrationStages stages = MigrationStages.of(retrieveDLMTableNames(), extractConfigs(levelPartitions));
+				for (final List<Partition> partitionsBatch : Iterables.partition(levelPartitions, PARTITION_IDS_BATCH_SIZE))
+				{
+					final Set<Integer> partitionIds = partitionsBatch.stream()
+							.map(Partition::getDLM_Partition_ID)
+							.collect(ImmutableSet.toImmutableSet());
+					migrate(executor, stages, partitionIds, targetLevel);
+
+					partitionsBatch.forEach(partition -> migratedPartitions.add(partition.withCurrentDLMLevel(targetLevel)));
+				}
+			}
+
+			Loggables.get().withLogger(logger, Level.INFO).addLog("Migrated {} partitions; updated {} records in {}", partitions.size(), updatedCount.get(), stopwatch);
+			return migratedPartitions.build();
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+	}
+
+	private void migrate(
+			final ExecutorService executor,
+			final MigrationStages stages,
+			final Set<Integer> partitionIds,
+			final int targetLevel)
+	{
+		final ILoggable loggable = Loggables.synchronizedLoggable(Loggables.get()); // the workers shall log to our caller's loggable, but concurrently
+		for (final List<String> stageTableNames : stages.getChunkedStages())
+		{
+			final AtomicBoolean failed = new AtomicBoolean(false);
+			final List<Future<?>> futures = new ArrayList<>(stageTableNames.size());
+			for (final String tableName : stageTableNames)
+			{
+				futures.add(executor.submit(() -> {
+					if (failed.get())
+					{
+						return;
+					}
+					try (final IAutoCloseable loggableRestorer = Loggables.temporarySetLoggable(loggable))
+					{
+						updateTableInChunks(tableName, partitionIds, targetLevel);
+					}
+					catch (final RuntimeException ex)
+					{
+						failed.set(true);
+						throw ex;
+					}
+				}));
+			}
+			waitForAll(futures);
+		}
+
+		if (!stages.getUnchunkedTableNames().isEmpty())
+		{
+			// the triggers are deferred, so within one transaction the order of these tables does not matter
+			trxManager.runInNewTrx(() -> stages.getUnchunkedTableNames().forEach(tableName -> updateTableUnchunked(tableName, partitionIds, targetLevel)));
+		}
+	}
+
+	private void updateTableInChunks(final String tableName, final Set<Integer> partitionIds, final int targetLevel)
+	{
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+
+		final List<Object> sqlParams = new ArrayList<>();
+		sqlParams.add(targetLevel);
+		final String sqlPartitionIds = DB.buildSqlList(partitionIds, sqlParams);
+		sqlParams.add(targetLevel);
+		sqlParams.add(settings.getChunkSize());
+
+		final String keyColumnName = InterfaceWrapperHelper.getKeyColumnName(tableName);
+		final String sql = "UPDATE " + tableName + " SET " + IDLMAware.COLUMNNAME_DLM_Level + "=?"
+				+ " WHERE " + keyColumnName + " IN ("
+				+ "SELECT " + keyColumnName + " FROM " + tableName
+				+ " WHERE " + IDLMAware.COLUMNNAME_DLM_Partition_ID + " IN " + sqlPartitionIds
+				+ " AND COALESCE(" + IDLMAware.COLUMNNAME_DLM_Level + ", " + IMigratorService.DLM_Level_NOT_SET + ")<>?"
+				+ " LIMIT ?)";
+		final Object[] sqlParamsArr = sqlParams.toArray();
+
+		int tableUpdatedCount = 0;
+		int chunkUpdatedCount;
+		do
+		{
+			if (rateLimiter != null)
+			{
+				rateLimiter.acquire(settings.getChunkSize());
+			}
+
+			chunkUpdatedCount = trxManager.call(ITrx.TRXNAME_None, () -> DB.executeUpdateEx(sql, sqlParamsArr, ITrx.TRXNAME_ThreadInherited));
+			tableUpdatedCount += chunkUpdatedCount;
+		}
+		while (chunkUpdatedCount >= settings.getChunkSize());
+
+		onTableUpdated(tableName, tableUpdatedCount, targetLevel, stopwatch);
+	}
+
+	private void updateTableUnchunked(final String tableName, final Set<Integer> partitionIds, final int targetLevel)
+	{
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+
+		final List<Object> sqlParams = new ArrayList<>();
+		sqlParams.add(targetLevel);
+		final String sqlPartitionIds = DB.buildSqlList(partitionIds, sqlParams);
+		sqlParams.add(targetLevel);
+
+		final String sql = "UPDATE " + tableName + " SET " + IDLMAware.COLUMNNAME_DLM_Level + "=?"
+				+ " WHERE " + IDLMAware.COLUMNNAME_DLM_Partition_ID + " IN " + sqlPartitionIds
+				+ " AND COALESCE(" + IDLMAware.COLUMNNAME_DLM_Level + ", " + IMigratorService.DLM_Level_NOT_SET + ")<>?";
+		final Object[] sqlParamsArr = sqlParams.toArray();
+
+		final int tableUpdatedCount = DB.executeUpdateEx(sql, sqlParamsArr, ITrx.TRXNAME_ThreadInherited);
+		if (rateLimiter != null && tableUpdatedCount > 0)
+		{
+			rateLimiter.acquire(tableUpdatedCount); // can't throttle this one, but make the next ones wait
+		}
+
+		onTableUpdated(tableName, tableUpdatedCount, targetLevel, stopwatch);
+	}
+
+	private void onTableUpdated(final String tableName, final int tableUpdatedCount, final int targetLevel, final Stopwatch stopwatch)
+	{
+		final long updatedCountTotal = updatedCount.addAndGet(tableUpdatedCount);
+		if (tableUpdatedCount > 0)
+		{
+			Loggables.get().withLogger(logger, Level.INFO).addLog("Table {}: updated {} records to {}={} in {}; {} records updated so far",
+					tableName, tableUpdatedCount, IDLMAware.COLUMNNAME_DLM_Level, targetLevel, stopwatch, updatedCountTotal);
+		}
+	}
+
+	private static void waitForAll(final List<Future<?>> futures)
+	{
+		RuntimeException firstError = null;
+		for (final Future<?> future : futures)
+		{
+			try
+			{
+				future.get();
+			}
+			catch (final InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				throw AdempiereException.wrapIfNeeded(e);
+			}
+			catch (final ExecutionException e)
+			{
+				if (firstError == null)
+				{
+					firstError = AdempiereException.wrapIfNeeded(e.getCause());
+				}
+			}
+		}
+
+		if (firstError != null)
+		{
+			throw firstError;
+		}
+	}
+
+	private List<String> retrieveDLMTableNames()
+	{
+		return queryBL.createQueryBuilder(I_AD_Table.class, PlainContextAware.newOutOfTrx(Env.getCtx()))
+				.addOnlyActiveRecordsFilter()
+				.addEqualsFilter(I_AD_Table.COLUMNNAME_IsDLM, true)
+				.orderBy().addColumn(I_AD_Table.COLUMNNAME_AD_Table_ID).endOrderBy()
+				.create()
+				.listDistinct(I_AD_Table.COLUMNNAME_TableName, String.class);
+	}
+
+	private static Collection<PartitionConfig> extractConfigs(final Collection<Partition> partitions)
+	{
+		// many partitions share the same config, but each has its own instance
+		final Map<Integer, PartitionConfig> configId2config = new HashMap<>();
+		for (final Partition partition : partitions)
+		{
+			final PartitionConfig config = partition.getConfig();
+			if (config != null)
+			{
+				configId2config.putIfAbsent(config.getDLM_Partition_Config_ID(), config);
+			}
+		}
+		return configId2config.values();
+	}
+
+	/**
+	 * The order in which the DLM tables are updated.
+	 */
+	static final class MigrationStages
+	{
+		private final ImmutableList<ImmutableList<String>> chunkedStages;
+		private final ImmutableList<String> unchunkedTableNames;
+
+		private MigrationStages(final ImmutableList<ImmutableList<String>> chunkedStages, final ImmutableList<String> unchunkedTableNames)
+		{
+			this.chunkedStages = chunkedStages;
+			this.unchunkedTableNames = unchunkedTableNames;
+		}
+
+		/**
+		 * @param tableNames the tables to update
+		 * @param configs the configs whose (not-boundary) references tell which tables reference which other tables
+		 */
+		static MigrationStages of(final Collection<String> tableNames, final Collection<PartitionConfig> configs)
+		{
+			// referenced table name => names of the tables which reference it
+			final Map<String, Set<String>> referencedTableName2referencingTableNames = new HashMap<>();
+			final Set<String> selfReferencingTableNames = new HashSet<>();
+			for (final PartitionConfig config : configs)
+			{
+				for (final PartitionerConfigLine line : config.getLines())
+				{
+					for (final PartitionerConfigReference ref : line.getReferences())
+					{
+						if (ref.isPartitionBoundary())
+						{
+							continue;
+						}
+						final String referencingTableName = line.getTableName();
+						final String referencedTableName = ref.getReferencedTableName();
+						if (referencingTableName.equals(referencedTableName))
+						{
+							selfReferencingTableNames.add(referencingTableName);
+						}
+						else
+						{
+							referencedTableName2referencingTableNames.computeIfAbsent(referencedTableName, k -> new HashSet<>()).add(referencingTableName);
+						}
+					}
+				}
+			}
+
+			final Set<String> pendingTableNames = new LinkedHashSet<>(tableNames);
+			final ImmutableList.Builder<ImmutableList<String>> chunkedStages = ImmutableList.builder();
+			while (true)
+			{
+				// a table can be updated once all the (pending) tables that reference it were updated
+				final ImmutableList<String> stage = pendingTableNames.stream()
+						.filter(tableName -> !selfReferencingTableNames.contains(tableName))
+						.filter(tableName -> referencedTableName2referencingTableNames
+								.getOrDefault(tableName, Collections.emptySet())
+								.stream()
+								.noneMatch(pendingTableNames::contains))
+						.collect(ImmutableList.toImmutableList());
+				if (stage.isEmpty())
+				{
+					break;
+				}
+
+				chunkedStages.add(stage);
+				pendingTableNames.removeAll(stage);
+			}
+
+			// what remains are self referencing tables, tables within a reference cycle and tables which are referenced by them
+			return new MigrationStages(chunkedStages.build(), ImmutableList.copyOf(pendingTableNames));
+		}
+
+		public ImmutableList<ImmutableList<String>> getChunkedStages()
+		{
+			return chunkedStages;
+		}
+
+		/**
+		 * @return the tables which shall be updated after the {@link #getChunkedStages()}, all in one transaction.
+		 */
+		public ImmutableList<String> getUnchunkedTableNames()
+		{
+			return unchunkedTableNames;
+		}
+	}
+}
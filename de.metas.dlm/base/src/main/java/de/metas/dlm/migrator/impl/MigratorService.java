@@ -1,6 +1,7 @@
 package de.metas.dlm.migrator.impl;
 
 import java.sql.SQLException;
+import java.util.List;
 
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.ad.trx.api.ITrxManager;
@@ -14,6 +15,7 @@ import org.slf4j.Logger;
 import ch.qos.logback.classic.Level;
 import de.metas.dlm.IDLMService;
 import de.metas.dlm.Partition;
+import de.metas.dlm.migrator.BulkMigrationSettings;
 import de.metas.dlm.migrator.IMigratorService;
 import de.metas.dlm.model.IDLMAware;
 import de.metas.logging.LogManager;
@@ -96,6 +98,12 @@ public class MigratorService implements IMigratorService
 		return updateDLMLevel0(partition, targetDlmLevel, PlainContextAware.newWithThreadInheritedTrx(Env.getCtx()));
 	}
 
+	@Override
+	public List<Partition> migratePartitionsInBulk(final List<Partition> partitions, final BulkMigrationSettings settings)
+	{
+		return new BulkMigrator(settings).migrate(partitions);
+	}
+
 	private Partition updateDLMLevel0(final Partition partition, final int targetDlmLevel, final IContextAware ctxAware)
 	{
 		// wed need to partition-ID, otherwise we can't identifiey the DB-records to update
@@ -1,6 +1,8 @@
 package de.metas.dlm.migrator.process;
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 
 import org.adempiere.ad.dao.ConstantQueryFilter;
 import org.adempiere.ad.dao.IQueryBL;
@@ -9,10 +11,14 @@ import org.adempiere.ad.dao.impl.ModelColumnNameValue;
 import org.adempiere.ad.trx.processor.api.ITrxItemProcessorExecutorService;
 import org.adempiere.ad.trx.processor.api.LoggableTrxItemExceptionHandler;
 import org.adempiere.ad.trx.processor.spi.TrxItemProcessorAdapter;
+import org.adempiere.service.ISysConfigBL;
 import org.compiere.model.IQuery;
 
+import com.google.common.collect.Iterators;
+
 import de.metas.dlm.IDLMService;
 import de.metas.dlm.Partition;
+import de.metas.dlm.migrator.BulkMigrationSettings;
 import de.metas.dlm.migrator.IMigratorService;
 import de.metas.dlm.model.I_DLM_Partition;
 import de.metas.process.JavaProcess;
@@ -44,6 +50,16 @@ import de.metas.util.Services;
 
 public class DLM_Partition_Migrate extends JavaProcess
 {
+	/**
+	 * If <code>true</code>, then the partitions are not migrated one by one, but all at once, see {@link IMigratorService#migratePartitionsInBulk(List, BulkMigrationSettings)}.
+	 */
+	private static final String SYSCONFIG_BULK_ENABLED = "de.metas.dlm.PartitionMigrate.Bulk.enabled";
+	private static final String SYSCONFIG_BULK_CHUNK_SIZE = "de.metas.dlm.PartitionMigrate.Bulk.ChunkSize";
+	private static final String SYSCONFIG_BULK_PARALLELISM = "de.metas.dlm.PartitionMigrate.Bulk.Parallelism";
+	private static final String SYSCONFIG_BULK_MAX_ROWS_PER_SECOND = "de.metas.dlm.PartitionMigrate.Bulk.MaxRowsPerSecond";
+	/** How many partitions are loaded and migrated at once */
+	private static final String SYSCONFIG_BULK_PAGE_SIZE = "de.metas.dlm.PartitionMigrate.Bulk.PageSize";
+	private static final int DEFAULT_BULK_PAGE_SIZE = 10000;
 
 	@Param(mandatory = true, parameterName = "IsTest")
 	private boolean testMigrate;
@@ -75,6 +91,13 @@ public class DLM_Partition_Migrate extends JavaProcess
 				.setOption(IQuery.OPTION_IteratorBufferSize, 500)
 				.iterate(I_DLM_Partition.class);
 
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		if (!testMigrate && sysConfigBL.getBooleanValue(SYSCONFIG_BULK_ENABLED, false))
+		{
+			migrateInBulk(partitionsToMigrate);
+			return MSG_OK;
+		}
+
 		trxItemProcessorExecutorService.<I_DLM_Partition, Void> createExecutor()
 				.setContext(getCtx(), getTrxName())
 				.setProcessor(new TrxItemProcessorAdapter<I_DLM_Partition, Void>()
@@ -107,4 +130,33 @@ public class DLM_Partition_Migrate extends JavaProcess
 		dlmService.storePartition(migratedPartition, false);
 	}
 
+	private void migrateInBulk(final Iterator<I_DLM_Partition> partitionsToMigrate)
+	{
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		final BulkMigrationSettings defaults = BulkMigrationSettings.DEFAULT;
+		final BulkMigrationSettings settings = BulkMigrationSettings.builder()
+				.chunkSize(sysConfigBL.getIntValue(SYSCONFIG_BULK_CHUNK_SIZE, defaults.getChunkSize()))
+				.parallelism(sysConfigBL.getIntValue(SYSCONFIG_BULK_PARALLELISM, defaults.getParallelism()))
+				.maxRowsPerSecond(sysConfigBL.getIntValue(SYSCONFIG_BULK_MAX_ROWS_PER_SECOND, defaults.getMaxRowsPerSecond()))
+				.build();
+		final int pageSize = Math.max(sysConfigBL.getIntValue(SYSCONFIG_BULK_PAGE_SIZE, DEFAULT_BULK_PAGE_SIZE), 1);
+
+		// gh #1955: don't load all partitions at once, but page by page
+		int migratedCount = 0;
+		final Iterator<List<I_DLM_Partition>> pages = Iterators.partition(partitionsToMigrate, pageSize);
+		while (pages.hasNext())
+		{
+			final List<Partition> partitions = new ArrayList<>();
+			pages.next().forEach(partitionDB -> partitions.add(dlmService.loadPartition(partitionDB)));
+
+			final List<Partition> migratedPartitions = migratorService.migratePartitionsInBulk(partitions, settings);
+			for (final Partition migratedPartition : migratedPartitions)
+			{
+				dlmService.storePartition(migratedPartition, true);
+			}
+			migratedCount += migratedPartitions.size();
+		}
+		addLog("Migrated {} partitions with settings={}, pageSize={}", migratedCount, settings, pageSize);
+	}
+
 }
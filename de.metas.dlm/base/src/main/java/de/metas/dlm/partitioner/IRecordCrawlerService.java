@@ -49,4 +49,14 @@ public interface IRecordCrawlerService extends ISingletonService
 			PartitionConfig config,
 			IContextAware ctxAware,
 			IIterateResult result);
+
+	/**
+	 * Same contract as {@link #crawl(PartitionConfig, IContextAware, IIterateResult)}, but follows the references of many records at once,
+	 * with one query per reference and batch of records, instead of one query per reference and record.
+	 * Intended for large partitioning runs; progress is reported via {@link de.metas.util.Loggables}.
+	 */
+	IIterateResult crawlBatched(
+			PartitionConfig config,
+			IContextAware ctxAware,
+			IIterateResult result);
 }
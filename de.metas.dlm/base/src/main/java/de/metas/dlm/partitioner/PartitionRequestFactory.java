@@ -92,6 +92,7 @@ public class PartitionRequestFactory
 		private OnNotDLMTable onNotDLMTable = OnNotDLMTable.FAIL;
 		private ITableRecordReference recordToAttach;
 		private I_DLM_Partition partitionToComplete;
+		private boolean batchedCrawler = false;
 
 		private PartitionerRequestBuilder(final CreatePartitionRequest template)
 		{
@@ -101,12 +102,13 @@ public class PartitionRequestFactory
 				config = template.getConfig();
 				oldestFirst = template.isOldestFirst();
 				recordToAttach = template.getRecordToAttach();
+				batchedCrawler = template.isBatchedCrawler();
 			}
 		}
 
 		public CreatePartitionRequest build()
 		{
-			return new CreatePartitionRequest(config, oldestFirst, recordToAttach, partitionToComplete, onNotDLMTable);
+			return new CreatePartitionRequest(config, oldestFirst, recordToAttach, partitionToComplete, onNotDLMTable, batchedCrawler);
 		}
 
 		public T setConfig(final PartitionConfig config)
@@ -160,6 +162,19 @@ public class PartitionRequestFactory
 			this.onNotDLMTable = onNotDLMTable;
 			return (T)this;
 		}
+
+		/**
+		 * If <code>true</code>, then the partitioner uses {@link IRecordCrawlerService#crawlBatched(PartitionConfig, org.adempiere.util.lang.IContextAware, IIterateResult)}
+		 * which follows the references of many records at once. If omitted, then the default is <code>false</code>.
+		 *
+		 * @param batchedCrawler
+		 * @return
+		 */
+		public T setBatchedCrawler(final boolean batchedCrawler)
+		{
+			this.batchedCrawler = batchedCrawler;
+			return (T)this;
+		}
 	}
 
 	public static class AsyncPartitionerRequestBuilder extends PartitionerRequestBuilder<AsyncPartitionerRequestBuilder>
@@ -254,12 +269,15 @@ public class PartitionRequestFactory
 
 		private final I_DLM_Partition partitionToComplete;
 
+		private final boolean batchedCrawler;
+
 		private CreatePartitionRequest(
 				final PartitionConfig config,
 				final boolean oldestFirst,
 				final ITableRecordReference recordToAttach,
 				final I_DLM_Partition partitionToComplete,
-				final OnNotDLMTable onNotDLMTable)
+				final OnNotDLMTable onNotDLMTable,
+				final boolean batchedCrawler)
 		{
 			Check.assumeNotNull(config, "Param 'config' is not null");
 
@@ -268,6 +286,7 @@ public class PartitionRequestFactory
 			this.recordToAttach = recordToAttach;
 			this.partitionToComplete = partitionToComplete;
 			this.onNotDLMTable = onNotDLMTable;
+			this.batchedCrawler = batchedCrawler;
 		}
 
 		public PartitionConfig getConfig()
@@ -300,10 +319,20 @@ public class PartitionRequestFactory
 			return partitionToComplete;
 		}
 
+		/**
+		 * See {@link PartitionerRequestBuilder#setBatchedCrawler(boolean)}
+		 *
+		 * @return
+		 */
+		public boolean isBatchedCrawler()
+		{
+			return batchedCrawler;
+		}
+
 		@Override
 		public String toString()
 		{
-			return "CreatePartitionRequest [onNotDLMTable=" + onNotDLMTable + ", oldestFirst=" + oldestFirst + ", partitionToComplete=" + partitionToComplete + ", recordToAttach=" + recordToAttach + ", config=" + config + "]";
+			return "CreatePartitionRequest [onNotDLMTable=" + onNotDLMTable + ", oldestFirst=" + oldestFirst + ", partitionToComplete=" + partitionToComplete + ", recordToAttach=" + recordToAttach + ", batchedCrawler=" + batchedCrawler + ", config=" + config + "]";
 		}
 	}
 
@@ -332,7 +361,8 @@ public class PartitionRequestFactory
 					partitionRequest.isOldestFirst(),
 					partitionRequest.getRecordToAttach(),
 					partitionRequest.getPartitionToComplete(),
-					partitionRequest.getOnNotDLMTable());
+					partitionRequest.getOnNotDLMTable(),
+					partitionRequest.isBatchedCrawler());
 
 			this.partitionRequest = partitionRequest; // we use it for the toString() method
 			this.count = count;
@@ -141,11 +141,13 @@ public class DLMPartitionerWorkpackageProcessor extends WorkpackageProcessorAdap
 		}
 
 		// note that the partitioner itself only cares about "sync" requests.
+		// the async runs are the large ones, so we use the batched crawler
 		final CreatePartitionRequest request = PartitionRequestFactory.builder()
 				.setConfig(config)
 				.setOldestFirst(oldestFirst)
 				.setRecordToAttach(tableRefToAttach)
 				.setOnNotDLMTable(OnNotDLMTable.FAIL)
+				.setBatchedCrawler(true)
 				.build();
 
 		loggable.addLog("Going to invoke the partitioner with CreatePartitionRequest={}", request);
@@ -0,0 +1,424 @@
+package de.metas.dlm.partitioner.impl;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.ad.dao.IQueryBuilder;
+import org.adempiere.ad.table.api.IADTableDAO;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.util.lang.IContextAware;
+import org.adempiere.util.lang.ITableRecordReference;
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.slf4j.Logger;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableListMultimap;
+
+import ch.qos.logback.classic.Level;
+import de.metas.adempiere.service.IColumnBL;
+import de.metas.dlm.model.IDLMAware;
+import de.metas.dlm.partitioner.IIterateResult;
+import de.metas.dlm.partitioner.IIterateResultHandler.AddResult;
+import de.metas.dlm.partitioner.config.PartitionConfig;
+import de.metas.dlm.partitioner.config.PartitionerConfigLine;
+import de.metas.dlm.partitioner.config.PartitionerConfigReference;
+import de.metas.logging.LogManager;
+import de.metas.util.Check;
+import de.metas.util.Loggables;
+import de.metas.util.Services;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-dlm
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Set based implementation of {@link de.metas.dlm.partitioner.IRecordCrawlerService#crawlBatched(PartitionConfig, IContextAware, IIterateResult)}.
+ * <p>
+ * The given config's references are compiled once into forward and backward edges per table name.
+ * Then the result's queue is processed breadth-first in batches of up to {@link #BATCH_SIZE} records.
+ * For each table within a batch, we run one query to get the batch records' referencing column values,
+ * one query per forward edge to get the referenced records and one query per backward edge to get the referencing records.
+ * No models are loaded; we only select the columns we need.
+ * <p>
+ * Instances are not thread safe and shall be used for one crawl only.
+ */
+final class BatchedRecordCrawler
+{
+	private static final transient Logger logger = LogManager.getLogger(BatchedRecordCrawler.class);
+
+	/** Max number of records whose references are followed at once; also the max size of the <code>IN (...)</code> lists */
+	private static final int BATCH_SIZE = 1000;
+
+	private static final long PROGRESS_LOG_INTERVAL_SECONDS = 60;
+
+	private final IQueryBL queryBL = Services.get(IQueryBL.class);
+
+	private final RecordCrawlerService recordCrawlerService;
+	private final PartitionConfig config;
+	private final IContextAware ctxAware;
+	private final IIterateResult result;
+
+	private final ImmutableListMultimap<String, Edge> tableName2forwardEdges;
+	private final ImmutableListMultimap<String, Edge> tableName2backwardEdges;
+
+	/** IDs of the records whose references were already followed, per table name. BitSets are compact, because record IDs are mostly dense */
+	private final Map<String, BitSet> tableName2crawledIds = new HashMap<>();
+
+	private final Stopwatch stopwatch = Stopwatch.createUnstarted();
+	private long crawledCount = 0;
+	private long lastProgressLogSeconds = 0;
+
+	BatchedRecordCrawler(
+			@NonNull final RecordCrawlerService recordCrawlerService,
+			@NonNull final PartitionConfig config,
+			@NonNull final IContextAware ctxAware,
+			@NonNull final IIterateResult result)
+	{
+		this.recordCrawlerService = recordCrawlerService;
+		this.config = config;
+		this.ctxAware = ctxAware;
+		this.result = result;
+
+		final List<Edge> edges = compileEdges(config);
+		tableName2forwardEdges = edges.stream()
+				.filter(Edge::isForward)
+				.collect(ImmutableListMultimap.toImmutableListMultimap(Edge::getReferencingTableName, edge -> edge));
+		tableName2backwardEdges = edges.stream()
+				.collect(ImmutableListMultimap.toImmutableListMultimap(Edge::getReferencedTableName, edge -> edge));
+	}
+
+	/**
+	 * One not-boundary {@link PartitionerConfigReference}, with everything we need to query along it.
+	 */
+	@Value
+	private static class Edge
+	{
+		String referencingTableName;
+		String referencingKeyColumnName;
+		String referencingColumnName;
+
+		/** The referencing table's <code>AD_Table_ID</code> column, if {@link #referencingColumnName} is a <code>Record_ID</code> column; <code>null</code> otherwise */
+		String tableIdColumnName;
+
+		String referencedTableName;
+		String referencedKeyColumnName;
+		int referencedTableId;
+
+		/**
+		 * Like {@link RecordCrawlerService}, we only follow references forward if the referencing table's line is the first one for that table.
+		 */
+		boolean forward;
+	}
+
+	private static List<Edge> compileEdges(final PartitionConfig config)
+	{
+		final IColumnBL columnBL = Services.get(IColumnBL.class);
+		final IADTableDAO adTableDAO = Services.get(IADTableDAO.class);
+
+		final List<Edge> edges = new ArrayList<>();
+		for (final PartitionerConfigLine line : config.getLines())
+		{
+			final String referencingTableName = line.getTableName();
+			final Optional<PartitionerConfigLine> firstLine = config.getLine(referencingTableName);
+			final boolean forward = firstLine.isPresent() && firstLine.get() == line;
+
+			for (final PartitionerConfigReference ref : line.getReferences())
+			{
+				if (ref.isPartitionBoundary())
+				{
+					continue; // don't follow it
+				}
+
+				final String referencingColumnName = ref.getReferencingColumnName();
+				final String tableIdColumnName;
+				if (columnBL.isRecordIdColumnName(referencingColumnName))
+				{
+					tableIdColumnName = columnBL.getTableIdColumnName(referencingTableName, referencingColumnName)
+							.orElseThrow(Check.supplyEx("Table={} has no table column name for recordColumnName={}", referencingTableName, referencingColumnName));
+				}
+				else
+				{
+					tableIdColumnName = null;
+				}
+
+				final String referencedTableName = ref.getReferencedTableName();
+				edges.add(new Edge(
+						referencingTableName,
+						InterfaceWrapperHelper.getKeyColumnName(referencingTableName),
+						referencingColumnName,
+						tableIdColumnName,
+						referencedTableName,
+						InterfaceWrapperHelper.getKeyColumnName(referencedTableName),
+						adTableDAO.retrieveTableId(referencedTableName),
+						forward));
+			}
+		}
+		return edges;
+	}
+
+	public IIterateResult crawl()
+	{
+		stopwatch.start();
+
+		mainLoop: while (!result.isQueueEmpty())
+		{
+			final Map<String, Map<Integer, ITableRecordReference>> batch = nextBatchFromQueue();
+			for (final Map.Entry<String, Map<Integer, ITableRecordReference>> tableBatch : batch.entrySet())
+			{
+				final String tableName = tableBatch.getKey();
+				final Map<Integer, ITableRecordReference> id2reference = tableBatch.getValue();
+
+				if (!crawlForward(tableName, id2reference)
+						|| !crawlBackward(tableName, id2reference))
+				{
+					break mainLoop;
+				}
+
+				crawledCount += id2reference.size();
+			}
+
+			if (recordCrawlerService.shallStoreResult(result))
+			{
+				recordCrawlerService.storeIterateResult(config, result, ctxAware);
+			}
+			logProgressIfNeeded(false);
+		}
+
+		logProgressIfNeeded(true);
+		return result;
+	}
+
+	/**
+	 * @return the next up to {@link #BATCH_SIZE} records from the queue which were not yet crawled, grouped by table name
+	 */
+	private Map<String, Map<Integer, ITableRecordReference>> nextBatchFromQueue()
+	{
+		final Map<String, Map<Integer, ITableRecordReference>> batch = new LinkedHashMap<>();
+		int batchSize = 0;
+		while (batchSize < BATCH_SIZE && !result.isQueueEmpty())
+		{
+			final ITableRecordReference reference = result.nextFromQueue();
+			final String tableName = reference.getTableName();
+			final int recordId = reference.getRecord_ID();
+
+			final BitSet crawledIds = tableName2crawledIds.computeIfAbsent(tableName, k -> new BitSet());
+			if (recordId <= 0 || crawledIds.get(recordId))
+			{
+				continue;
+			}
+			crawledIds.set(recordId);
+
+			batch.computeIfAbsent(tableName, k -> new LinkedHashMap<>()).put(recordId, reference);
+			batchSize++;
+		}
+		return batch;
+	}
+
+	/**
+	 * Adds the records which are referenced by the given records.
+	 *
+	 * @return <code>false</code> if the result signaled us to stop
+	 */
+	private boolean crawlForward(final String tableName, final Map<Integer, ITableRecordReference> id2reference)
+	{
+		final List<Edge> forwardEdges = tableName2forwardEdges.get(tableName);
+		if (forwardEdges.isEmpty())
+		{
+			return true;
+		}
+
+		// load the referencing columns of all the batch's records with one query
+		final String keyColumnName = forwardEdges.get(0).getReferencingKeyColumnName();
+		final List<String> columnNames = new ArrayList<>();
+		columnNames.add(keyColumnName);
+		for (final Edge edge : forwardEdges)
+		{
+			addIfAbsent(columnNames, edge.getReferencingColumnName());
+			addIfAbsent(columnNames, edge.getTableIdColumnName());
+		}
+		final List<Map<String, Object>> rows = queryBL.createQueryBuilder(IDLMAware.class, tableName, ctxAware)
+				.addInArrayFilter(keyColumnName, id2reference.keySet())
+				.create()
+				.listColumns(columnNames.toArray(new String[0]));
+
+		for (final Edge edge : forwardEdges)
+		{
+			// referenced ID => ID of the first batch record which references it
+			final Map<Integer, Integer> forwardId2referencingId = new LinkedHashMap<>();
+			for (final Map<String, Object> row : rows)
+			{
+				if (edge.getTableIdColumnName() != null && toId(row.get(edge.getTableIdColumnName())) != edge.getReferencedTableId())
+				{
+					continue; // the Record_ID column points to a record of some other table
+				}
+
+				final int forwardId = toId(row.get(edge.getReferencingColumnName()));
+				if (forwardId <= 0 || result.contains(TableRecordReference.of(edge.getReferencedTableName(), forwardId)))
+				{
+					continue; // references nothing or was already added in a previous iteration
+				}
+				forwardId2referencingId.putIfAbsent(forwardId, toId(row.get(keyColumnName)));
+			}
+			if (forwardId2referencingId.isEmpty())
+			{
+				continue;
+			}
+
+			final Map<Integer, Integer> forwardId2partitionId = retrievePartitionIds(
+					edge.getReferencedTableName(),
+					edge.getReferencedKeyColumnName(),
+					forwardId2referencingId.keySet());
+
+			int missingCount = 0;
+			for (final Map.Entry<Integer, Integer> e : forwardId2referencingId.entrySet())
+			{
+				final int forwardId = e.getKey();
+				final Integer forwardPartitionId = forwardId2partitionId.get(forwardId);
+				if (forwardPartitionId == null)
+				{
+					missingCount++; // this happens with our "minidump" where we left out the HUs
+					continue;
+				}
+
+				final ITableRecordReference currentReference = id2reference.get(e.getValue());
+				final TableRecordReference forwardReference = TableRecordReference.of(edge.getReferencedTableName(), forwardId);
+				final AddResult addResult = result.addReferencedRecord(currentReference, forwardReference, forwardPartitionId);
+				if (AddResult.STOP.equals(addResult))
+				{
+					Loggables.get().withLogger(logger, Level.WARN)
+							.addLog("The crawler was signaled to stop when it added ReferencedRecord={} to the result. Stopping now", forwardReference);
+					return false;
+				}
+			}
+
+			if (missingCount > 0)
+			{
+				Loggables.get().withLogger(logger, Level.WARN).addLog(
+						"{} forward: {} records from table={} which we attempted to load via {}.{} are missing",
+						tableName, missingCount, edge.getReferencedTableName(), tableName, edge.getReferencingColumnName());
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Adds the records which reference the given records.
+	 *
+	 * @return <code>false</code> if the result signaled us to stop
+	 */
+	private boolean crawlBackward(final String tableName, final Map<Integer, ITableRecordReference> id2reference)
+	{
+		for (final Edge edge : tableName2backwardEdges.get(tableName))
+		{
+			// don't excluded records with DLM_Partition_ID>0 becase we might need to merge them into the partition we are currently building
+			final IQueryBuilder<IDLMAware> queryBuilder = queryBL.createQueryBuilder(IDLMAware.class, edge.getReferencingTableName(), ctxAware)
+					.addInArrayFilter(edge.getReferencingColumnName(), id2reference.keySet());
+			if (edge.getTableIdColumnName() != null)
+			{
+				queryBuilder.addEqualsFilter(edge.getTableIdColumnName(), edge.getReferencedTableId());
+			}
+
+			final List<Map<String, Object>> rows = queryBuilder
+					.create()
+					.listColumns(edge.getReferencingKeyColumnName(), edge.getReferencingColumnName(), IDLMAware.COLUMNNAME_DLM_Partition_ID);
+
+			for (final Map<String, Object> row : rows)
+			{
+				final ITableRecordReference currentReference = id2reference.get(toId(row.get(edge.getReferencingColumnName())));
+				final TableRecordReference backwardReference = TableRecordReference.of(edge.getReferencingTableName(), toId(row.get(edge.getReferencingKeyColumnName())));
+				final int backwardPartitionId = toId(row.get(IDLMAware.COLUMNNAME_DLM_Partition_ID));
+
+				final AddResult addResult = result.addReferencingRecord(backwardReference, currentReference, backwardPartitionId);
+				if (AddResult.STOP.equals(addResult))
+				{
+					Loggables.get().addLog("The crawler was signaled to stop when it added ReferencingRecord={} the result. Stopping now", backwardReference);
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return record ID to <code>DLM_Partition_ID</code> of those of the given records which exist
+	 */
+	private Map<Integer, Integer> retrievePartitionIds(
+			final String tableName,
+			final String keyColumnName,
+			final Collection<Integer> recordIds)
+	{
+		final List<Map<String, Object>> rows = queryBL.createQueryBuilder(IDLMAware.class, tableName, ctxAware)
+				.addInArrayFilter(keyColumnName, recordIds)
+				.create()
+				.listColumns(keyColumnName, IDLMAware.COLUMNNAME_DLM_Partition_ID);
+
+		final Map<Integer, Integer> recordId2partitionId = new HashMap<>(rows.size());
+		for (final Map<String, Object> row : rows)
+		{
+			recordId2partitionId.put(toId(row.get(keyColumnName)), toId(row.get(IDLMAware.COLUMNNAME_DLM_Partition_ID)));
+		}
+		return recordId2partitionId;
+	}
+
+	private void logProgressIfNeeded(final boolean done)
+	{
+		final long elapsedSeconds = stopwatch.elapsed(TimeUnit.SECONDS);
+		if (!done && elapsedSeconds - lastProgressLogSeconds < PROGRESS_LOG_INTERVAL_SECONDS)
+		{
+			return;
+		}
+		lastProgressLogSeconds = elapsedSeconds;
+
+		final long recordsPerSecond = crawledCount * 1000 / Math.max(1, stopwatch.elapsed(TimeUnit.MILLISECONDS));
+		Loggables.get().withLogger(logger, Level.INFO).addLog(
+				"{} references of {} records in {} ({} records/s); the current result has {} records; config.name={}",
+				done ? "Crawled" : "Crawling", crawledCount, stopwatch, recordsPerSecond, result.size(), config.getName());
+	}
+
+	private static void addIfAbsent(final List<String> columnNames, final String columnName)
+	{
+		if (columnName != null && !columnNames.contains(columnName))
+		{
+			columnNames.add(columnName);
+		}
+	}
+
+	private static int toId(final Object value)
+	{
+		return value instanceof Number ? ((Number)value).intValue() : 0;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "BatchedRecordCrawler [config=" + config.getName() + ", forwardEdges=" + tableName2forwardEdges.size() + ", backwardEdges=" + tableName2backwardEdges.size() + ", crawledCount=" + crawledCount + "]";
+	}
+}
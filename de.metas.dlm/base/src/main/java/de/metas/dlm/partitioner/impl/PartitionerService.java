@@ -268,7 +268,7 @@ public class PartitionerService implements IPartitionerService
 	{
 		final PartitionConfig config = request.getConfig();
 
-		final CreatePartitionIterateResult result = attachToPartition(initialResult, config);
+		final CreatePartitionIterateResult result = attachToPartition(initialResult, config, request.isBatchedCrawler());
 		final Partition partition = result.getPartition();
 
 		if (result.isHandlerSignaledToStop())
@@ -517,15 +517,30 @@ public class PartitionerService implements IPartitionerService
 	/* package */ CreatePartitionIterateResult attachToPartition(
 			final CreatePartitionIterateResult initialResult,
 			final PartitionConfig config)
+	{
+		final boolean batchedCrawler = false;
+		return attachToPartition(initialResult, config, batchedCrawler);
+	}
+
+	@VisibleForTesting
+	/* package */ CreatePartitionIterateResult attachToPartition(
+			final CreatePartitionIterateResult initialResult,
+			final PartitionConfig config,
+			final boolean batchedCrawler)
 	{
 		final PlainContextAware ctxAware = PlainContextAware.newWithThreadInheritedTrx(Env.getCtx());
 
 		final IRecordCrawlerService recordCrawlerService = Services.get(IRecordCrawlerService.class);
 
-		final IIterateResult result = recordCrawlerService.crawl(
-				config,
-				ctxAware,
-				initialResult);
+		final IIterateResult result;
+		if (batchedCrawler)
+		{
+			result = recordCrawlerService.crawlBatched(config, ctxAware, initialResult);
+		}
+		else
+		{
+			result = recordCrawlerService.crawl(config, ctxAware, initialResult);
+		}
 
 		return (CreatePartitionIterateResult)result;
 	}
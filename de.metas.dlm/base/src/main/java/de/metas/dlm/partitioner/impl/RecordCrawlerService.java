@@ -293,14 +293,30 @@ public class RecordCrawlerService implements IRecordCrawlerService
 		return result;
 	}
 
-	private boolean shallStoreResult(final IIterateResult result)
+	@Override
+	public IIterateResult crawlBatched(
+			final PartitionConfig config,
+			final IContextAware ctxAware,
+			final IIterateResult result)
+	{
+		// see the comment in crawl()
+		storeIterateResult(config, result, ctxAware);
+
+		new BatchedRecordCrawler(this, config, ctxAware, result).crawl();
+
+		logger.info("Found {} records via config.name={}", result.size(), config.getName());
+		storeIterateResult(config, result, ctxAware);
+		return result;
+	}
+
+	/* package */ boolean shallStoreResult(final IIterateResult result)
 	{
 		// return true;
 		final int maxSize = 100000;
 		return result.size() > maxSize;
 	}
 
-	private void storeIterateResult(final PartitionConfig config,
+	/* package */ void storeIterateResult(final PartitionConfig config,
 			final IIterateResult result,
 			final IContextAware ctxAware)
 	{
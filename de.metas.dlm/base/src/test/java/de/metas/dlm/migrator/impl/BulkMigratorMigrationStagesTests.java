@@ -0,0 +1,92 @@
+package de.metas.dlm.migrator.impl;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.dlm.migrator.impl.BulkMigrator.MigrationStages;
+import de.metas.dlm.partitioner.config.PartitionConfig;
+
+/*
+ * #%L
+ * metasfresh-dlm
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class BulkMigratorMigrationStagesTests
+{
+	/**
+	 * Verifies that referencing tables come before the tables they reference and that partition boundaries are ignored.
+	 */
+	@Test
+	public void testReferencingBeforeReferenced()
+	{
+		final PartitionConfig config = PartitionConfig.builder().setDLM_Partition_Config_ID(1)
+				.line("M_InOutLine")
+				.ref().setReferencedTableName("C_OrderLine").setReferencingColumnName("C_OrderLine_ID").endRef()
+				.line("C_OrderLine")
+				.ref().setReferencedTableName("C_Order").setReferencingColumnName("C_Order_ID").endRef()
+				.line("C_Order")
+				.ref().setReferencedTableName("C_BPartner").setReferencingColumnName("C_BPartner_ID").setIsPartitionBoundary(true).endRef()
+				.line("C_BPartner")
+				.endLine()
+				.build();
+
+		final MigrationStages stages = MigrationStages.of(
+				ImmutableList.of("C_Order", "C_OrderLine", "C_BPartner", "M_InOutLine"),
+				ImmutableList.of(config));
+
+		assertThat(stages.getChunkedStages(), hasSize(3));
+		assertThat(stages.getChunkedStages().get(0), containsInAnyOrder("C_BPartner", "M_InOutLine"));
+		assertThat(stages.getChunkedStages().get(1), contains("C_OrderLine"));
+		assertThat(stages.getChunkedStages().get(2), contains("C_Order"));
+		assertThat(stages.getUnchunkedTableNames(), empty());
+	}
+
+	/**
+	 * Verifies that self referencing tables and the tables they reference are not chunked.
+	 */
+	@Test
+	public void testSelfReference()
+	{
+		final PartitionConfig config = PartitionConfig.builder().setDLM_Partition_Config_ID(1)
+				.line("C_Invoice")
+				.ref().setReferencedTableName("C_Invoice").setReferencingColumnName("Ref_Invoice_ID").endRef()
+				.ref().setReferencedTableName("C_Order").setReferencingColumnName("C_Order_ID").endRef()
+				.line("C_InvoiceLine")
+				.ref().setReferencedTableName("C_Invoice").setReferencingColumnName("C_Invoice_ID").endRef()
+				.line("C_Order")
+				.endLine()
+				.build();
+
+		final MigrationStages stages = MigrationStages.of(
+				ImmutableList.of("C_Order", "C_Invoice", "C_InvoiceLine"),
+				ImmutableList.of(config));
+
+		assertThat(stages.getChunkedStages(), hasSize(1));
+		assertThat(stages.getChunkedStages().get(0), contains("C_InvoiceLine"));
+		assertThat(stages.getUnchunkedTableNames(), contains("C_Order", "C_Invoice"));
+	}
+}
@@ -184,6 +184,51 @@ public class PartitionerServiceAttachToPartitionTests
 		assertThat(result.getDLM_Partition_ID(), is(partitionDB.getDLM_Partition_ID()));
 	}
 
+	@Test
+	public void testNoPartitionedRecords_batchedCrawler()
+	{
+		final IDLMAware workpackageDLMAware = InterfaceWrapperHelper.create(workpackage, IDLMAware.class);
+
+		final Partition result = new PartitionerService()
+				.attachToPartition(mkMethodParam(workpackageDLMAware), config, true)
+				.getPartition();
+
+		assertThat(result.getRecordsFlat().size(), is(4));
+	}
+
+	@Test
+	public void testAdjacentBlockPartitioned_batchedCrawler()
+	{
+		addToPartition(block, partitionDB);
+
+		final IDLMAware workpackageDLMAware = InterfaceWrapperHelper.create(workpackage, IDLMAware.class);
+
+		final Partition result = new PartitionerService()
+				.attachToPartition(mkMethodParam(workpackageDLMAware), config, true)
+				.getPartition();
+
+		// same as with the record-by-record crawler: the pinstance is not included, because after having found the partitioned block, the system shall not search further
+		assertThat(result.getRecordsFlat().size(), is(3));
+		assertThat(result.getRecordsFlat().stream().anyMatch(r -> InterfaceWrapperHelper.getModelTableName(r).equals(I_AD_PInstance.Table_Name)), is(false));
+		assertThat(result.getDLM_Partition_ID(), is(partitionDB.getDLM_Partition_ID()));
+	}
+
+	@Test
+	public void testTwoAdjacentrecordsPartitioned_batchedCrawler()
+	{
+		addToPartition(element, partitionDB);
+		addToPartition(pinstance, partitionDB2);
+
+		final IDLMAware workpackageDLMAware = InterfaceWrapperHelper.create(workpackage, IDLMAware.class);
+
+		final Partition result = new PartitionerService()
+				.attachToPartition(mkMethodParam(workpackageDLMAware), config, true)
+				.getPartition();
+
+		assertThat(result.getRecordsFlat().size(), is(4));
+		assertThat(result.getDLM_Partition_ID(), is(partitionDB.getDLM_Partition_ID()));
+	}
+
 	private void addToPartition(final Object record, final I_DLM_Partition partitionDB)
 	{
 		final IDLMAware recordDLMAware = InterfaceWrapperHelper.create(record, IDLMAware.class);
@@ -93,8 +93,7 @@ public class PPOrderCreatedOrAdvisedEventHandler implements MaterialEventHandler
 			requests.add(request);
 		}
 
-		requests.build()
-				.forEach(request -> dataUpdateRequestHandler.handleDataUpdateRequest(request));
+		dataUpdateRequestHandler.handleDataUpdateRequests(requests.build());
 	}
 
 }
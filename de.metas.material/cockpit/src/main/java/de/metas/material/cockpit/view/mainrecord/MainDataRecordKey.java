@@ -0,0 +1,65 @@
+package de.metas.material.cockpit.view.mainrecord;
+
+import java.time.Instant;
+import java.util.Comparator;
+
+import de.metas.material.cockpit.view.MainDataRecordIdentifier;
+import de.metas.material.event.commons.ProductDescriptor;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-material-cockpit
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Identifies one {@code MD_Cockpit} row the way the {@code md_cockpit_uc} unique index does.
+ */
+@Value
+class MainDataRecordKey implements Comparable<MainDataRecordKey>
+{
+	private static final Comparator<MainDataRecordKey> COMPARATOR = Comparator
+			.comparing(MainDataRecordKey::getProductId)
+			.thenComparing(MainDataRecordKey::getAttributesKey)
+			.thenComparing(MainDataRecordKey::getDate)
+			.thenComparing(MainDataRecordKey::getPlantId);
+
+	public static MainDataRecordKey of(@NonNull final MainDataRecordIdentifier identifier)
+	{
+		final ProductDescriptor productDescriptor = identifier.getProductDescriptor();
+		return new MainDataRecordKey(
+				productDescriptor.getProductId(),
+				productDescriptor.getStorageAttributesKey().getAsString(),
+				identifier.getDate(),
+				identifier.getPlantId() > 0 ? identifier.getPlantId() : 0);
+	}
+
+	int productId;
+	String attributesKey;
+	Instant date;
+	int plantId;
+
+	@Override
+	public int compareTo(@NonNull final MainDataRecordKey other)
+	{
+		return COMPARATOR.compare(this, other);
+	}
+}
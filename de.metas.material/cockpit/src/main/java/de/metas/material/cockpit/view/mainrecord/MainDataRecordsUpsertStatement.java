@@ -0,0 +1,177 @@
+package de.metas.material.cockpit.view.mainrecord;
+
+import static de.metas.util.NumberUtils.stripTrailingDecimalZeros;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.compiere.util.TimeUtil;
+
+import de.metas.material.cockpit.model.I_MD_Cockpit;
+import de.metas.util.Check;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Singular;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-material-cockpit
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * One {@code INSERT .. ON CONFLICT DO UPDATE} statement which adds the given requests' quantities to their {@code MD_Cockpit} rows,
+ * inserting the rows that don't exist yet.
+ * <p>
+ * The two estimate columns are recomputed in the same statement, like {@link MainDataRequestHandler} does for the records it updates via PO.
+ * The statement returns the {@code MD_Cockpit_ID}s of the inserted and updated rows.
+ */
+@Value
+class MainDataRecordsUpsertStatement
+{
+	/** Same expressions as the {@code md_cockpit_uc} unique index */
+	static final String CONFLICT_TARGET = I_MD_Cockpit.COLUMNNAME_DateGeneral
+			+ ", " + I_MD_Cockpit.COLUMNNAME_M_Product_ID
+			+ ", " + I_MD_Cockpit.COLUMNNAME_AttributesKey
+			+ ", COALESCE(" + I_MD_Cockpit.COLUMNNAME_PP_Plant_ID + ", 0)";
+
+	String sql;
+
+	/** Might contain {@code null}s, e.g. for rows without a plant */
+	List<Object> sqlParams;
+
+	@Builder
+	private MainDataRecordsUpsertStatement(
+			final int adClientId,
+			final int adOrgId,
+			final int adUserId,
+			@NonNull final String sequenceName,
+			@NonNull @Singular final List<UpdateMainDataRequest> requests)
+	{
+		Check.assumeNotEmpty(requests, "requests is not empty");
+
+		final List<Object> sqlParams = new ArrayList<>();
+		final StringBuilder sqlValues = new StringBuilder();
+		for (final UpdateMainDataRequest request : requests)
+		{
+			final MainDataRecordKey key = MainDataRecordKey.of(request.getIdentifier());
+
+			if (sqlValues.length() > 0)
+			{
+				sqlValues.append(", ");
+			}
+			sqlValues.append("(nextval('").append(sequenceName).append("'), ?, ?, 'Y', now(), ?, now(), ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+			sqlParams.add(adClientId);
+			sqlParams.add(adOrgId);
+			sqlParams.add(adUserId);
+			sqlParams.add(adUserId);
+			sqlParams.add(key.getProductId());
+			sqlParams.add(key.getAttributesKey());
+			sqlParams.add(TimeUtil.asTimestamp(key.getDate()));
+			sqlParams.add(key.getPlantId() > 0 ? key.getPlantId() : null);
+			sqlParams.add(stripTrailingDecimalZeros(request.getDirectMovementQty()));
+			sqlParams.add(stripTrailingDecimalZeros(request.getCountedQty()));
+			sqlParams.add(stripTrailingDecimalZeros(request.getOfferedQty()));
+			sqlParams.add(stripTrailingDecimalZeros(request.getOnHandQtyChange()));
+			sqlParams.add(stripTrailingDecimalZeros(request.getReservedPurchaseQty()));
+			sqlParams.add(stripTrailingDecimalZeros(request.getReservedSalesQty()));
+			sqlParams.add(stripTrailingDecimalZeros(request.getRequiredForProductionQty()));
+			sqlParams.add(stripTrailingDecimalZeros(computeQtyOnHandEstimateChange(request)));
+			sqlParams.add(stripTrailingDecimalZeros(computeQtyAvailableToPromiseEstimateChange(request)));
+		}
+
+		this.sql = "INSERT INTO " + I_MD_Cockpit.Table_Name + " ("
+				+ I_MD_Cockpit.COLUMNNAME_MD_Cockpit_ID
+				+ ", " + I_MD_Cockpit.COLUMNNAME_AD_Client_ID
+				+ ", " + I_MD_Cockpit.COLUMNNAME_AD_Org_ID
+				+ ", " + I_MD_Cockpit.COLUMNNAME_IsActive
+				+ ", " + I_MD_Cockpit.COLUMNNAME_Created
+				+ ", " + I_MD_Cockpit.COLUMNNAME_CreatedBy
+				+ ", " + I_MD_Cockpit.COLUMNNAME_Updated
+				+ ", " + I_MD_Cockpit.COLUMNNAME_UpdatedBy
+				+ ", " + I_MD_Cockpit.COLUMNNAME_M_Product_ID
+				+ ", " + I_MD_Cockpit.COLUMNNAME_AttributesKey
+				+ ", " + I_MD_Cockpit.COLUMNNAME_DateGeneral
+				+ ", " + I_MD_Cockpit.COLUMNNAME_PP_Plant_ID
+				+ ", " + I_MD_Cockpit.COLUMNNAME_QtyMaterialentnahme
+				+ ", " + I_MD_Cockpit.COLUMNNAME_QtyOnHandCount
+				+ ", " + I_MD_Cockpit.COLUMNNAME_PMM_QtyPromised_OnDate
+				+ ", " + I_MD_Cockpit.COLUMNNAME_QtyStockChange
+				+ ", " + I_MD_Cockpit.COLUMNNAME_QtyReserved_Purchase
+				+ ", " + I_MD_Cockpit.COLUMNNAME_QtyReserved_Sale
+				+ ", " + I_MD_Cockpit.COLUMNNAME_QtyRequiredForProduction
+				+ ", " + I_MD_Cockpit.COLUMNNAME_QtyOnHandEstimate
+				+ ", " + I_MD_Cockpit.COLUMNNAME_QtyAvailableToPromiseEstimate
+				+ ") VALUES " + sqlValues
+				+ " ON CONFLICT (" + CONFLICT_TARGET + ") DO UPDATE SET "
+				+ sqlIncrement(I_MD_Cockpit.COLUMNNAME_QtyMaterialentnahme)
+				+ ", " + sqlIncrement(I_MD_Cockpit.COLUMNNAME_QtyOnHandCount)
+				+ ", " + sqlIncrement(I_MD_Cockpit.COLUMNNAME_PMM_QtyPromised_OnDate)
+				+ ", " + sqlIncrement(I_MD_Cockpit.COLUMNNAME_QtyStockChange)
+				+ ", " + sqlIncrement(I_MD_Cockpit.COLUMNNAME_QtyReserved_Purchase)
+				+ ", " + sqlIncrement(I_MD_Cockpit.COLUMNNAME_QtyReserved_Sale)
+				+ ", " + sqlIncrement(I_MD_Cockpit.COLUMNNAME_QtyRequiredForProduction)
+				// the right hand side expressions see the old row, so we add the excluded row's estimates that were computed from the deltas
+				+ ", " + I_MD_Cockpit.COLUMNNAME_QtyOnHandEstimate + " = " + sqlOldQtyOnHandEstimate()
+				+ " + EXCLUDED." + I_MD_Cockpit.COLUMNNAME_QtyOnHandEstimate
+				+ ", " + I_MD_Cockpit.COLUMNNAME_QtyAvailableToPromiseEstimate + " = " + sqlOldQtyOnHandEstimate()
+				+ " + " + I_MD_Cockpit.Table_Name + "." + I_MD_Cockpit.COLUMNNAME_QtyReserved_Purchase
+				+ " - " + I_MD_Cockpit.Table_Name + "." + I_MD_Cockpit.COLUMNNAME_QtyReserved_Sale
+				+ " + EXCLUDED." + I_MD_Cockpit.COLUMNNAME_QtyAvailableToPromiseEstimate
+				+ ", " + I_MD_Cockpit.COLUMNNAME_Updated + " = EXCLUDED." + I_MD_Cockpit.COLUMNNAME_Updated
+				+ ", " + I_MD_Cockpit.COLUMNNAME_UpdatedBy + " = EXCLUDED." + I_MD_Cockpit.COLUMNNAME_UpdatedBy
+				+ " RETURNING " + I_MD_Cockpit.COLUMNNAME_MD_Cockpit_ID;
+		this.sqlParams = Collections.unmodifiableList(sqlParams);
+	}
+
+	/**
+	 * @return the change of {@code QtyOnHandEstimate} (i.e. {@code QtyOnHandCount + QtyStockChange - QtyMaterialentnahme}) caused by the given request
+	 */
+	static BigDecimal computeQtyOnHandEstimateChange(@NonNull final UpdateMainDataRequest request)
+	{
+		return request.getCountedQty()
+				.add(request.getOnHandQtyChange())
+				.subtract(request.getDirectMovementQty());
+	}
+
+	/**
+	 * @return the change of {@code QtyAvailableToPromiseEstimate} (i.e. {@code QtyOnHandEstimate + QtyReserved_Purchase - QtyReserved_Sale}) caused by the given request
+	 */
+	static BigDecimal computeQtyAvailableToPromiseEstimateChange(@NonNull final UpdateMainDataRequest request)
+	{
+		return computeQtyOnHandEstimateChange(request)
+				.add(request.getReservedPurchaseQty())
+				.subtract(request.getReservedSalesQty());
+	}
+
+	private static String sqlIncrement(final String columnName)
+	{
+		return columnName + " = " + I_MD_Cockpit.Table_Name + "." + columnName + " + EXCLUDED." + columnName;
+	}
+
+	private static String sqlOldQtyOnHandEstimate()
+	{
+		return I_MD_Cockpit.Table_Name + "." + I_MD_Cockpit.COLUMNNAME_QtyOnHandCount
+				+ " + " + I_MD_Cockpit.Table_Name + "." + I_MD_Cockpit.COLUMNNAME_QtyStockChange
+				+ " - " + I_MD_Cockpit.Table_Name + "." + I_MD_Cockpit.COLUMNNAME_QtyMaterialentnahme;
+	}
+}
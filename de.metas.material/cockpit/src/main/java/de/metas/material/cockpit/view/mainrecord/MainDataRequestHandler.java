@@ -4,14 +4,32 @@ import static de.metas.util.NumberUtils.stripTrailingDecimalZeros;
 import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
 import static org.adempiere.model.InterfaceWrapperHelper.save;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.exceptions.DBException;
+import org.compiere.Adempiere;
 import org.compiere.model.IQuery;
+import org.compiere.util.DB;
+import org.compiere.util.Env;
 import org.compiere.util.TimeUtil;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
 
 import de.metas.Profiles;
+import de.metas.cache.CacheMgt;
+import de.metas.cache.model.CacheInvalidateMultiRequest;
+import de.metas.cache.model.CacheInvalidateRequest;
 import de.metas.material.cockpit.model.I_MD_Cockpit;
 import de.metas.material.cockpit.view.MainDataRecordIdentifier;
 import lombok.NonNull;
@@ -42,14 +60,124 @@ import lombok.NonNull;
 @Profile(Profiles.PROFILE_App) // the event handler is also just on this profile
 public class MainDataRequestHandler
 {
+	private static final int UPSERT_BATCH_SIZE = 500;
+
 	public void handleDataUpdateRequest(@NonNull final UpdateMainDataRequest dataUpdateRequest)
 	{
-		synchronized (MainDataRequestHandler.class)
+		handleDataUpdateRequests(ImmutableList.of(dataUpdateRequest));
+	}
+
+	/**
+	 * Sums up the given requests' quantities per {@code MD_Cockpit} row and applies them.
+	 * <p>
+	 * Outside of unit test mode, the sums are added to the rows (or new rows are inserted) using one {@code INSERT .. ON CONFLICT DO UPDATE} per batch,
+	 * so there is no read-modify-write and concurrent updates (from this or other JVMs) are safe without further locking.
+	 */
+	public void handleDataUpdateRequests(@NonNull final Collection<UpdateMainDataRequest> dataUpdateRequests)
+	{
+		final Map<MainDataRecordKey, UpdateMainDataRequest> requestsByKey = coalesce(dataUpdateRequests);
+		if (requestsByKey.isEmpty())
+		{
+			return;
+		}
+
+		if (Adempiere.isUnitTestMode())
+		{
+			// the read-modify-write of the PO based update is not safe against concurrent updates of the same record
+			synchronized (MainDataRequestHandler.class)
+			{
+				requestsByKey.values().forEach(MainDataRequestHandler::retrieveAndUpdateDataRecord);
+			}
+		}
+		else
+		{
+			// the requests are ordered by key, so the DB rows are locked in a stable order and concurrent upserts can't deadlock each other
+			for (final List<UpdateMainDataRequest> batch : Iterables.partition(requestsByKey.values(), UPSERT_BATCH_SIZE))
+			{
+				upsertDataRecords(batch);
+			}
+		}
+	}
+
+	private static Map<MainDataRecordKey, UpdateMainDataRequest> coalesce(final Collection<UpdateMainDataRequest> dataUpdateRequests)
+	{
+		final Map<MainDataRecordKey, UpdateMainDataRequest> requestsByKey = new TreeMap<>();
+		for (final UpdateMainDataRequest dataUpdateRequest : dataUpdateRequests)
+		{
+			requestsByKey.merge(
+					MainDataRecordKey.of(dataUpdateRequest.getIdentifier()),
+					dataUpdateRequest,
+					MainDataRequestHandler::sumQtys);
+		}
+		return requestsByKey;
+	}
+
+	private static UpdateMainDataRequest sumQtys(final UpdateMainDataRequest request1, final UpdateMainDataRequest request2)
+	{
+		return UpdateMainDataRequest.builder()
+				.identifier(request1.getIdentifier())
+				.countedQty(request1.getCountedQty().add(request2.getCountedQty()))
+				.onHandQtyChange(request1.getOnHandQtyChange().add(request2.getOnHandQtyChange()))
+				.directMovementQty(request1.getDirectMovementQty().add(request2.getDirectMovementQty()))
+				.orderedSalesQty(request1.getOrderedSalesQty().add(request2.getOrderedSalesQty()))
+				.reservedSalesQty(request1.getReservedSalesQty().add(request2.getReservedSalesQty()))
+				.orderedPurchaseQty(request1.getOrderedPurchaseQty().add(request2.getOrderedPurchaseQty()))
+				.reservedPurchaseQty(request1.getReservedPurchaseQty().add(request2.getReservedPurchaseQty()))
+				.offeredQty(request1.getOfferedQty().add(request2.getOfferedQty()))
+				.requiredForProductionQty(request1.getRequiredForProductionQty().add(request2.getRequiredForProductionQty()))
+				.build();
+	}
+
+	private static void retrieveAndUpdateDataRecord(@NonNull final UpdateMainDataRequest dataUpdateRequest)
+	{
+		final I_MD_Cockpit dataRecord = retrieveOrCreateDataRecord(dataUpdateRequest.getIdentifier());
+		updateDataRecordWithRequestQtys(dataRecord, dataUpdateRequest);
+		save(dataRecord);
+	}
+
+	/**
+	 * Adds the given requests' quantities to their {@code MD_Cockpit} rows, inserting the rows that don't exist yet.
+	 *
+	 * @see MainDataRecordsUpsertStatement
+	 */
+	private static void upsertDataRecords(@NonNull final List<UpdateMainDataRequest> dataUpdateRequests)
+	{
+		final MainDataRecordsUpsertStatement upsertStatement = MainDataRecordsUpsertStatement.builder()
+				.adClientId(Env.getAD_Client_ID(Env.getCtx()))
+				.adOrgId(Env.getAD_Org_ID(Env.getCtx()))
+				.adUserId(Env.getAD_User_ID(Env.getCtx()))
+				.sequenceName(DB.getTableSequenceName(I_MD_Cockpit.Table_Name))
+				.requests(dataUpdateRequests)
+				.build();
+		final String sql = upsertStatement.getSql();
+		final List<Object> sqlParams = upsertStatement.getSqlParams();
+
+		final ImmutableSet.Builder<CacheInvalidateRequest> cacheInvalidateRequests = ImmutableSet.builder();
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		try
+		{
+			pstmt = DB.prepareStatement(sql, ITrx.TRXNAME_ThreadInherited);
+			DB.setParameters(pstmt, sqlParams);
+			rs = pstmt.executeQuery();
+			while (rs.next())
+			{
+				cacheInvalidateRequests.add(CacheInvalidateRequest.rootRecord(I_MD_Cockpit.Table_Name, rs.getInt(1)));
+			}
+		}
+		catch (final Exception e)
 		{
-			final I_MD_Cockpit dataRecord = retrieveOrCreateDataRecord(dataUpdateRequest.getIdentifier());
-			updateDataRecordWithRequestQtys(dataRecord, dataUpdateRequest);
-			save(dataRecord);
+			throw new DBException(e, sql, sqlParams);
 		}
+		finally
+		{
+			DB.close(rs, pstmt);
+		}
+
+		// we bypassed the PO, so we need to take care of the cache invalidation ourselves (the material cockpit view relies on it)
+		CacheMgt.get().resetLocalNowAndBroadcastOnTrxCommit(
+				ITrx.TRXNAME_ThreadInherited,
+				CacheInvalidateMultiRequest.of(cacheInvalidateRequests.build()));
 	}
 
 	@VisibleForTesting
@@ -0,0 +1,137 @@
+package de.metas.material.cockpit.view.mainrecord;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.metas.material.cockpit.view.MainDataRecordIdentifier;
+import de.metas.material.event.commons.ProductDescriptor;
+
+/*
+ * #%L
+ * metasfresh-material-cockpit
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class MainDataRecordsUpsertStatementTest
+{
+	/** The expressions of the md_cockpit_uc unique index, see 5483140_sys_fix_MD_Cockpit_UC_index.sql */
+	private static final String MD_COCKPIT_UC_EXPRESSIONS = "dategeneral, m_product_id, attributeskey, coalesce(pp_plant_id, 0)";
+
+	private static final int PARAMS_PER_ROW = 17;
+	private static final int PARAM_IDX_PP_Plant_ID = 7;
+	private static final int PARAM_IDX_QtyOnHandEstimate = 15;
+	private static final int PARAM_IDX_QtyAvailableToPromiseEstimate = 16;
+
+	private static final Instant NOW = Instant.now();
+
+	@Before
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+	}
+
+	private static UpdateMainDataRequest.UpdateMainDataRequestBuilder request(final int productId, final int plantId)
+	{
+		return UpdateMainDataRequest.builder()
+				.identifier(MainDataRecordIdentifier.builder()
+						.date(NOW)
+						.productDescriptor(ProductDescriptor.completeForProductIdAndEmptyAttribute(productId))
+						.plantId(plantId)
+						.build());
+	}
+
+	private static MainDataRecordsUpsertStatement.MainDataRecordsUpsertStatementBuilder statement()
+	{
+		return MainDataRecordsUpsertStatement.builder()
+				.adClientId(1)
+				.adOrgId(2)
+				.adUserId(3)
+				.sequenceName("md_cockpit_seq");
+	}
+
+	@Test
+	public void conflictTargetMatchesUniqueIndex()
+	{
+		assertThat(MainDataRecordsUpsertStatement.CONFLICT_TARGET.toLowerCase()).isEqualTo(MD_COCKPIT_UC_EXPRESSIONS);
+
+		final String sql = statement().request(request(30, 0).build()).build().getSql();
+		assertThat(sql.toLowerCase()).contains(" on conflict (" + MD_COCKPIT_UC_EXPRESSIONS + ") do update set ");
+	}
+
+	@Test
+	public void estimateChanges()
+	{
+		final UpdateMainDataRequest request = request(30, 0)
+				.countedQty(new BigDecimal("10"))
+				.onHandQtyChange(new BigDecimal("5"))
+				.directMovementQty(new BigDecimal("2"))
+				.reservedPurchaseQty(new BigDecimal("7"))
+				.reservedSalesQty(new BigDecimal("4"))
+				.orderedSalesQty(new BigDecimal("100")) // not part of any estimate
+				.build();
+
+		assertThat(MainDataRecordsUpsertStatement.computeQtyOnHandEstimateChange(request)).isEqualByComparingTo("13"); // 10 + 5 - 2
+		assertThat(MainDataRecordsUpsertStatement.computeQtyAvailableToPromiseEstimateChange(request)).isEqualByComparingTo("16"); // 13 + 7 - 4
+
+		final List<Object> sqlParams = statement().request(request).build().getSqlParams();
+		assertThat((BigDecimal)sqlParams.get(PARAM_IDX_QtyOnHandEstimate)).isEqualByComparingTo("13");
+		assertThat((BigDecimal)sqlParams.get(PARAM_IDX_QtyAvailableToPromiseEstimate)).isEqualByComparingTo("16");
+	}
+
+	@Test
+	public void estimatesOnConflictAreComputedFromTheOldRowPlusTheChanges()
+	{
+		final String sql = statement().request(request(30, 0).build()).build().getSql();
+
+		assertThat(sql).contains("QtyOnHandEstimate = MD_Cockpit.QtyOnHandCount + MD_Cockpit.QtyStockChange - MD_Cockpit.QtyMaterialentnahme"
+				+ " + EXCLUDED.QtyOnHandEstimate");
+		assertThat(sql).contains("QtyAvailableToPromiseEstimate = MD_Cockpit.QtyOnHandCount + MD_Cockpit.QtyStockChange - MD_Cockpit.QtyMaterialentnahme"
+				+ " + MD_Cockpit.QtyReserved_Purchase - MD_Cockpit.QtyReserved_Sale"
+				+ " + EXCLUDED.QtyAvailableToPromiseEstimate");
+	}
+
+	@Test
+	public void oneValuesRowPerRequest()
+	{
+		final MainDataRecordsUpsertStatement statement = statement()
+				.request(request(30, 0).build())
+				.request(request(31, 5).build())
+				.build();
+
+		assertThat(statement.getSql()).containsOnlyOnce("INSERT INTO MD_Cockpit");
+		assertThat(statement.getSql().split("nextval\\('md_cockpit_seq'\\)", -1)).hasSize(3);
+
+		final List<Object> sqlParams = statement.getSqlParams();
+		assertThat(sqlParams).hasSize(2 * PARAMS_PER_ROW);
+		assertThat(sqlParams.get(PARAMS_PER_ROW + 4)).isEqualTo(31);
+		assertThat(sqlParams.get(PARAMS_PER_ROW + 6)).isEqualTo(Timestamp.from(NOW));
+
+		// the index coalesces PP_Plant_ID to 0, but the column itself stays null
+		assertThat(sqlParams.get(PARAM_IDX_PP_Plant_ID)).isNull();
+		assertThat(sqlParams.get(PARAMS_PER_ROW + PARAM_IDX_PP_Plant_ID)).isEqualTo(5);
+	}
+}
@@ -4,15 +4,21 @@ import static org.adempiere.model.InterfaceWrapperHelper.isNew;
 import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.List;
 
+import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.test.AdempiereTestHelper;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.google.common.collect.ImmutableList;
+
 import de.metas.material.cockpit.model.I_MD_Cockpit;
 import de.metas.material.cockpit.view.MainDataRecordIdentifier;
 import de.metas.material.event.commons.ProductDescriptor;
+import de.metas.util.Services;
 
 /*
  * #%L
@@ -63,4 +69,30 @@ public class MainDataRequestHandlerTest
 		assertThat(isNew(result2)).isFalse();
 		assertThat(result2.getMD_Cockpit_ID()).isEqualTo(result.getMD_Cockpit_ID());
 	}
+
+	@Test
+	public void handleDataUpdateRequests_coalescesRequestsForTheSameRecord()
+	{
+		final MainDataRecordIdentifier identifier = MainDataRecordIdentifier.builder()
+				.date(NOW)
+				.productDescriptor(ProductDescriptor.completeForProductIdAndEmptyAttribute(30)).build();
+
+		final UpdateMainDataRequest request1 = UpdateMainDataRequest.builder()
+				.identifier(identifier)
+				.reservedSalesQty(BigDecimal.TEN)
+				.countedQty(BigDecimal.ONE)
+				.build();
+		final UpdateMainDataRequest request2 = UpdateMainDataRequest.builder()
+				.identifier(identifier)
+				.reservedSalesQty(BigDecimal.ONE)
+				.build();
+
+		new MainDataRequestHandler().handleDataUpdateRequests(ImmutableList.of(request1, request2));
+
+		final List<I_MD_Cockpit> records = Services.get(IQueryBL.class).createQueryBuilder(I_MD_Cockpit.class).create().list();
+		assertThat(records).hasSize(1);
+		assertThat(records.get(0).getQtyReserved_Sale()).isEqualByComparingTo("11");
+		assertThat(records.get(0).getQtyOnHandEstimate()).isEqualByComparingTo("1");
+		assertThat(records.get(0).getQtyAvailableToPromiseEstimate()).isEqualByComparingTo("-10");
+	}
 }
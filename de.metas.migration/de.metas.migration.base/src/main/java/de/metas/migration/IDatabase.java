@@ -46,4 +46,11 @@ public interface IDatabase
 	Connection getConnection();
 
 	IScriptsRegistry getScriptsRegistry();
+
+	/**
+	 * Closes the connections held by this database. It's still possible to get a new connection afterwards.
+	 */
+	default void close()
+	{
+	}
 }
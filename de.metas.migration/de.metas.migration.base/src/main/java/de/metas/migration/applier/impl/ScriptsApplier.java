@@ -22,7 +22,16 @@ package de.metas.migration.applier.impl;
  * #L%
  */
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -52,6 +61,16 @@ public class ScriptsApplier implements IScriptsApplier
 	private IScriptsApplierListener listener = NullScriptsApplierListener.instance;
 	private IScriptExecutorFactory scriptExecutorFactory = new DefaultScriptExecutorFactory();
 
+	/**
+	 * How many scripts may be applied at the same time. If greater than one, the scripts are grouped by {@link IScript#getProjectName()}
+	 * and each group is applied sequentially, in the given order, while the groups are applied in parallel.
+	 * So only use it if the scripts of different projects don't depend on each other.
+	 */
+	private int parallelism = 1;
+
+	/** Guards the listener, the scripts registry and the counters when applying scripts in parallel */
+	private final Object applyLock = new Object();
+
 	private int countAll = 0;
 	private int countApplied = 0;
 	private int countIgnored = 0;
@@ -96,6 +115,20 @@ public class ScriptsApplier implements IScriptsApplier
 		this.scriptExecutorFactory = scriptExecutorFactory;
 	}
 
+	public void setParallelism(final int parallelism)
+	{
+		if (parallelism < 1)
+		{
+			throw new IllegalArgumentException("parallelism shall be at least 1 but it was " + parallelism);
+		}
+		this.parallelism = parallelism;
+	}
+
+	public int getParallelism()
+	{
+		return parallelism;
+	}
+
 	@Override
 	public void apply(final IScriptsProvider scriptsProvider)
 	{
@@ -106,6 +139,30 @@ public class ScriptsApplier implements IScriptsApplier
 
 		logger.info("Migrating {} using {}", targetDatabase, scriptsProvider);
 
+		if (parallelism > 1)
+		{
+			applyInParallel(scriptsProvider);
+		}
+		else
+		{
+			applySequentially(scriptsProvider);
+		}
+
+		//
+		// Execute after migration scripts
+		if (skipExecutingAfterScripts)
+		{
+			logger.info("Skip executing after migration scripts");
+		}
+		else
+		{
+			logger.info("Executing after migration scripts...");
+			getSqlExecutor().executeAfterScripts();
+		}
+	}
+
+	private void applySequentially(final IScriptsProvider scriptsProvider)
+	{
 		final IScriptsRegistry scriptsRegistry = getScriptsRegistry();
 
 		final Iterator<IScript> scripts = scriptsProvider.getScripts();
@@ -130,40 +187,151 @@ public class ScriptsApplier implements IScriptsApplier
 			}
 			countSkippedFromLastAction = 0;
 			
-			final ScriptApplyResult result = apply(script);
-			if (result == ScriptApplyResult.Applied)
+			applyAndRegister(script);
+		}
+
+		//
+		if(countSkippedFromLastAction > 0)
+		{
+			logger.info("Skipped {} scripts that were already applied", countSkippedFromLastAction);
+		}
+		countSkippedFromLastAction = 0;
+	}
+
+	private void applyInParallel(final IScriptsProvider scriptsProvider)
+	{
+		final IScriptsRegistry scriptsRegistry = getScriptsRegistry();
+
+		final Map<String, List<IScript>> scriptsByProjectName = new LinkedHashMap<>();
+		int countSkipped = 0;
+		final Iterator<IScript> scripts = scriptsProvider.getScripts();
+		while (scripts.hasNext())
+		{
+			countAll++;
+
+			final IScript script = scripts.next();
+			if (scriptsRegistry.isApplied(script))
 			{
-				countApplied++;
-				scriptsRegistry.markApplied(script);
+				logger.debug("Script already applied: {}", script);
+				countSkipped++;
+				continue;
 			}
-			else if (result == ScriptApplyResult.Ignored)
+
+			scriptsByProjectName.computeIfAbsent(script.getProjectName(), k -> new ArrayList<>()).add(script);
+		}
+
+		if (countSkipped > 0)
+		{
+			logger.info("Skipped {} scripts that were already applied", countSkipped);
+		}
+		if (scriptsByProjectName.isEmpty())
+		{
+			return;
+		}
+
+		final int threadsCount = Math.min(parallelism, scriptsByProjectName.size());
+		logger.info("Applying scripts of {} projects using {} threads", scriptsByProjectName.size(), threadsCount);
+
+		final AtomicBoolean failed = new AtomicBoolean(false);
+		final ExecutorService executorService = Executors.newFixedThreadPool(threadsCount);
+		try
+		{
+			final List<Future<?>> futures = new ArrayList<>();
+			for (final List<IScript> projectScripts : scriptsByProjectName.values())
 			{
-				countIgnored++;
-				scriptsRegistry.markIgnored(script);
+				futures.add(executorService.submit(() -> applyAndRegisterUntilFailed(projectScripts, failed)));
 			}
-			else
+
+			// NOTE: wait for all projects, also after a failure, so that no script is still running when we return
+			RuntimeException firstError = null;
+			for (final Future<?> future : futures)
 			{
-				throw new ScriptExecutionException("Invalid ScriptApplyResult: " + result);
+				final RuntimeException error = waitForCompletion(future);
+				if (firstError == null)
+				{
+					firstError = error;
+				}
+			}
+
+			if (firstError != null)
+			{
+				throw firstError;
 			}
 		}
+		finally
+		{
+			executorService.shutdown();
+		}
+	}
 
-		//
-		if(countSkippedFromLastAction > 0)
+	private void applyAndRegisterUntilFailed(final List<IScript> scripts, final AtomicBoolean failed)
+	{
+		for (final IScript script : scripts)
 		{
-			logger.info("Skipped {} scripts that were already applied", countSkippedFromLastAction);
+			if (failed.get())
+			{
+				return;
+			}
+
+			try
+			{
+				applyAndRegister(script);
+			}
+			catch (final RuntimeException e)
+			{
+				failed.set(true);
+				throw e;
+			}
 		}
-		countSkippedFromLastAction = 0;
+	}
 
-		//
-		// Execute after migration scripts
-		if (skipExecutingAfterScripts)
+	/**
+	 * @return the error which made the given future fail or <code>null</code>
+	 */
+	private static RuntimeException waitForCompletion(final Future<?> future)
+	{
+		try
 		{
-			logger.info("Skip executing after migration scripts");
+			future.get();
+			return null;
 		}
-		else
+		catch (final InterruptedException e)
 		{
-			logger.info("Executing after migration scripts...");
-			getSqlExecutor().executeAfterScripts();
+			Thread.currentThread().interrupt();
+			return new ScriptExecutionException("Interrupted while applying scripts", e);
+		}
+		catch (final ExecutionException e)
+		{
+			final Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException)
+			{
+				return (RuntimeException)cause;
+			}
+			return new ScriptExecutionException("Error applying scripts", cause);
+		}
+	}
+
+	private void applyAndRegister(final IScript script)
+	{
+		final ScriptApplyResult result = apply(script);
+
+		synchronized (applyLock)
+		{
+			final IScriptsRegistry scriptsRegistry = getScriptsRegistry();
+			if (result == ScriptApplyResult.Applied)
+			{
+				countApplied++;
+				scriptsRegistry.markApplied(script);
+			}
+			else if (result == ScriptApplyResult.Ignored)
+			{
+				countIgnored++;
+				scriptsRegistry.markIgnored(script);
+			}
+			else
+			{
+				throw new ScriptExecutionException("Invalid ScriptApplyResult: " + result);
+			}
 		}
 	}
 
@@ -208,12 +376,20 @@ public class ScriptsApplier implements IScriptsApplier
 				{
 					logger.info("... Applied in {}ms", durationMillis);
 					script.setLastDurationMillis(durationMillis);
-					listener.onScriptApplied(script);
+					synchronized (applyLock)
+					{
+						listener.onScriptApplied(script);
+					}
 					return ScriptApplyResult.Applied;
 				}
 				else
 				{
-					final ScriptFailedResolution scriptFailedResolution = listener.onScriptFailed(script, error);
+					final ScriptFailedResolution scriptFailedResolution;
+					synchronized (applyLock)
+					{
+						// NOTE: the listener might be interactive (i.e. ask the user), so make sure it's asked about one failed script at a time
+						scriptFailedResolution = listener.onScriptFailed(script, error);
+					}
 					if (scriptFailedResolution == ScriptFailedResolution.Fail)
 					{
 						throw error;
@@ -263,12 +439,18 @@ public class ScriptsApplier implements IScriptsApplier
 	@Override
 	public int getCountApplied()
 	{
-		return countApplied;
+		synchronized (applyLock)
+		{
+			return countApplied;
+		}
 	}
 
 	@Override
 	public int getCountIgnored()
 	{
-		return countIgnored;
+		synchronized (applyLock)
+		{
+			return countIgnored;
+		}
 	}
 }
@@ -0,0 +1,256 @@
+package de.metas.migration.executor.impl;
+
+/*
+ * #%L
+ * de.metas.migration.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.migration.IDatabase;
+import de.metas.migration.IScript;
+import de.metas.migration.exception.ScriptExecutionException;
+import de.metas.migration.executor.IScriptExecutor;
+import de.metas.migration.impl.SQLDatabase;
+import de.metas.migration.impl.SQLHelper;
+import de.metas.migration.sql.postgresql.PsqlScriptParser;
+import de.metas.migration.sql.postgresql.PsqlScriptParser.PsqlStatement;
+import de.metas.migration.sql.postgresql.PsqlScriptParser.UnsupportedPsqlFeatureException;
+import lombok.NonNull;
+
+/**
+ * Executes SQL scripts over JDBC, without starting a <code>psql</code> process for each script.
+ * <p>
+ * It behaves like {@link PostgresqlNativeExecutor}, i.e. like <code>psql --single-transaction --set ON_ERROR_STOP=1</code>:
+ * the script is split into statements like psql does it, all statements are executed in one transaction and the first failing statement rolls back the whole script.
+ * <p>
+ * Scripts which use psql-only features (e.g. meta-commands) are delegated to {@link PostgresqlNativeExecutor}.
+ */
+public class PostgresqlJdbcExecutor implements IScriptExecutor
+{
+	private static final transient Logger logger = LoggerFactory.getLogger(PostgresqlJdbcExecutor.class);
+
+	private static final String AFTER_MIGRATION_FUNC_PATTERN = "after_migration%";
+	private static final int LOG_TAIL_SIZE = 100;
+
+	private final SQLDatabase database;
+	private final SQLHelper sqlHelper;
+
+	public PostgresqlJdbcExecutor(@NonNull final IDatabase database)
+	{
+		this.database = SQLDatabase.cast(database);
+		this.sqlHelper = new SQLHelper(this.database);
+	}
+
+	@Override
+	public String toString()
+	{
+		return getClass().getSimpleName() + " [database=" + database + "]";
+	}
+
+	@Override
+	public void execute(final IScript script)
+	{
+		final String scriptContent = readScriptContent(script);
+
+		final ImmutableList<PsqlStatement> statements;
+		try
+		{
+			statements = PsqlScriptParser.parse(scriptContent);
+		}
+		catch (final UnsupportedPsqlFeatureException e)
+		{
+			logger.info("Executing {} using psql because {}", script, e.getMessage());
+			new PostgresqlNativeExecutor(database).execute(script);
+			return;
+		}
+
+		executeInTransaction(script, statements, LOG_TAIL_SIZE);
+	}
+
+	private String readScriptContent(final IScript script)
+	{
+		try
+		{
+			return new String(Files.readAllBytes(script.getLocalFile().toPath()), StandardCharsets.UTF_8);
+		}
+		catch (final IOException e)
+		{
+			throw new ScriptExecutionException("Error reading script file", e)
+					.setDatabase(database)
+					.setScript(script)
+					.setExecutor(this);
+		}
+	}
+
+	/**
+	 * @return the server messages (e.g. <code>RAISE NOTICE</code>), like psql would print them
+	 */
+	private List<String> executeInTransaction(final IScript script, final List<PsqlStatement> statements, final int logTailSize)
+	{
+		final List<String> log = new ArrayList<>();
+
+		final Connection conn = database.acquireScriptsConnection();
+		boolean connectionReusable = true;
+		PsqlStatement currentStatement = null;
+		try (final Statement stmt = conn.createStatement())
+		{
+			conn.setAutoCommit(false);
+
+			for (final PsqlStatement statement : statements)
+			{
+				currentStatement = statement;
+				stmt.execute(statement.getSql());
+				collectWarnings(stmt.getWarnings(), log, logTailSize);
+				stmt.clearWarnings();
+			}
+
+			conn.commit();
+			conn.setAutoCommit(true);
+			return log;
+		}
+		catch (final SQLException e)
+		{
+			log.add("ERROR: " + e.getMessage());
+			connectionReusable = rollback(conn);
+
+			final ScriptExecutionException ex = new ScriptExecutionException("Script execution failed", e)
+					.setDatabase(database)
+					.setScript(script)
+					.setExecutor(this)
+					.setLog(truncateLog(log, logTailSize));
+			if (currentStatement != null)
+			{
+				ex.addParameter("LineNo", currentStatement.getLineNo());
+				ex.addParameter("Statement", currentStatement.getSql());
+			}
+			throw ex;
+		}
+		finally
+		{
+			if (connectionReusable)
+			{
+				database.releaseScriptsConnection(conn);
+			}
+			else
+			{
+				closeQuietly(conn);
+			}
+		}
+	}
+
+	/**
+	 * @return true if the connection can be reused
+	 */
+	private boolean rollback(final Connection conn)
+	{
+		try
+		{
+			conn.rollback();
+			conn.setAutoCommit(true);
+			return true;
+		}
+		catch (final SQLException e)
+		{
+			logger.warn("Failed rolling back. Discarding the connection.", e);
+			return false;
+		}
+	}
+
+	private static void closeQuietly(final Connection conn)
+	{
+		try
+		{
+			conn.close();
+		}
+		catch (final SQLException e)
+		{
+			logger.debug("Failed closing {}", conn, e);
+		}
+	}
+
+	private static void collectWarnings(final SQLWarning firstWarning, final List<String> log, final int logTailSize)
+	{
+		for (SQLWarning warning = firstWarning; warning != null; warning = warning.getNextWarning())
+		{
+			log.add(warning.getMessage());
+			if (logTailSize > 0 && log.size() > logTailSize)
+			{
+				log.remove(0);
+			}
+		}
+	}
+
+	private static ImmutableList<String> truncateLog(final List<String> log, final int logTailSize)
+	{
+		if (logTailSize <= 0 || log.size() <= logTailSize)
+		{
+			return ImmutableList.copyOf(log);
+		}
+		return ImmutableList.copyOf(log.subList(log.size() - logTailSize, log.size()));
+	}
+
+	@Override
+	public void executeAfterScripts()
+	{
+		final Set<String> functionNames = sqlHelper.getDBFunctionsMatchingPattern(AFTER_MIGRATION_FUNC_PATTERN)
+				.stream()
+				.sorted()
+				.collect(ImmutableSet.toImmutableSet());
+
+		if (functionNames.isEmpty())
+		{
+			logger.warn("Skip executing after migration scripts because no function matching pattern '{}' was found in {}", AFTER_MIGRATION_FUNC_PATTERN, database);
+			return;
+		}
+
+		final ImmutableList<PsqlStatement> statements = functionNames.stream()
+				.map(functionName -> new PsqlStatement("select " + functionName + "()", 1))
+				.collect(ImmutableList.toImmutableList());
+
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		final IScript script = null; // N/A
+		final int logTailSize = -1; // full log
+		final List<String> log = executeInTransaction(script, statements, logTailSize);
+		stopwatch.stop();
+
+		logger.info("Executed {} in {}ms and got following result:\n{}",
+				functionNames,
+				stopwatch,
+				Joiner.on("\n").join(log));
+	}
+}
@@ -118,6 +118,8 @@ public abstract class AbstractScriptsApplierTemplate implements Runnable
 		}
 		finally
 		{
+			database.close();
+
 			logger.info("Evaluated " + scriptsApplier.getCountAll() + " scripts");
 			logger.info("Applied " + scriptsApplier.getCountApplied() + " scripts");
 			logger.info("Ignored " + scriptsApplier.getCountIgnored() + " scripts");
@@ -26,6 +26,12 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import de.metas.migration.IDatabase;
 import de.metas.migration.IScriptsRegistry;
@@ -34,6 +40,8 @@ import de.metas.migration.sql.SQLDatabaseDriverFactory;
 
 public class SQLDatabase implements IDatabase
 {
+	private static final transient Logger logger = LoggerFactory.getLogger(SQLDatabase.class);
+
 	public static SQLDatabase cast(final IDatabase database)
 	{
 		return (SQLDatabase)database;
@@ -50,6 +58,9 @@ public class SQLDatabase implements IDatabase
 
 	private Connection conn;
 
+	/** Idle connections used to execute scripts, see {@link #acquireScriptsConnection()} */
+	private final Deque<Connection> scriptsConnectionsIdle = new ConcurrentLinkedDeque<>();
+
 	public SQLDatabase(final String dbType, final String dbHostname, final String dbPort, final String dbName, final String dbUser, final String dbPassword)
 	{
 		this.dbType = dbType;
@@ -183,4 +194,110 @@ public class SQLDatabase implements IDatabase
 
 		return conn;
 	}
+
+	/**
+	 * Gets a connection dedicated to executing scripts. Unlike {@link #getConnection()}, the connection is not shared with other threads until it's given back by {@link #releaseScriptsConnection(Connection)}.
+	 * Connections are reused, so executing many scripts doesn't need to connect to the database for each of them.
+	 */
+	public Connection acquireScriptsConnection()
+	{
+		Connection conn;
+		while ((conn = scriptsConnectionsIdle.pollFirst()) != null)
+		{
+			if (isOpen(conn))
+			{
+				return conn;
+			}
+		}
+
+		try
+		{
+			final ISQLDatabaseDriver dbDriver = SQLDatabaseDriverFactory.get().getSQLDatabaseDriver(dbType);
+			if (dbDriver == null)
+			{
+				throw new IllegalStateException("No driver found for database type: " + dbType);
+			}
+			return dbDriver.getConnection(dbHostname, dbPort, dbName, dbUser, dbPassword);
+		}
+		catch (final SQLException e)
+		{
+			throw new RuntimeException("Failed to get a JDBC connection. Please check your config for : " + this, e);
+		}
+	}
+
+	/**
+	 * Gives back a connection which was acquired by {@link #acquireScriptsConnection()}. The connection shall not be in a transaction anymore.
+	 * <p>
+	 * The connection's session is reset, so that e.g. a <code>SET search_path</code> or a temporary table of one script does not leak into the next one.
+	 * If that fails, the connection is closed instead of being reused.
+	 */
+	public void releaseScriptsConnection(final Connection conn)
+	{
+		if (isOpen(conn) && resetSession(conn))
+		{
+			scriptsConnectionsIdle.addFirst(conn);
+		}
+		else
+		{
+			closeQuietly(conn);
+		}
+	}
+
+	private static boolean resetSession(final Connection conn)
+	{
+		// NOTE: DISCARD ALL resets everything (settings, temporary tables, prepared statements, advisory locks etc); it can't be executed in a transaction
+		try (final Statement stmt = conn.createStatement())
+		{
+			stmt.execute("DISCARD ALL");
+			return true;
+		}
+		catch (final SQLException e)
+		{
+			logger.warn("Failed resetting the session of {}. Discarding the connection.", conn, e);
+			return false;
+		}
+	}
+
+	/**
+	 * Closes the idle connections used to execute scripts and the connection returned by {@link #getConnection()}.
+	 */
+	@Override
+	public void close()
+	{
+		Connection idleConn;
+		while ((idleConn = scriptsConnectionsIdle.pollFirst()) != null)
+		{
+			closeQuietly(idleConn);
+		}
+
+		if (conn != null)
+		{
+			closeQuietly(conn);
+			conn = null;
+		}
+	}
+
+	private static void closeQuietly(final Connection conn)
+	{
+		try
+		{
+			conn.close();
+		}
+		catch (final SQLException e)
+		{
+			logger.warn("Failed closing {}", conn, e);
+		}
+	}
+
+	private static boolean isOpen(final Connection conn)
+	{
+		try
+		{
+			return !conn.isClosed();
+		}
+		catch (final SQLException e)
+		{
+			return false;
+		}
+	}
 }
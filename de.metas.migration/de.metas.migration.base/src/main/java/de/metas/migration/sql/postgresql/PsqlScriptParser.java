@@ -0,0 +1,323 @@
+package de.metas.migration.sql.postgresql;
+
+/*
+ * #%L
+ * de.metas.migration.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.util.regex.Pattern;
+
+import com.google.common.collect.ImmutableList;
+
+import lombok.NonNull;
+import lombok.Value;
+
+/**
+ * Splits an SQL script into statements the same way <code>psql</code> does, i.e. on top level semicolons,
+ * respecting quoted strings and identifiers, dollar quoted strings (e.g. function bodies), comments and parentheses.
+ * <p>
+ * Scripts which use features that only <code>psql</code> can execute (backslash meta-commands, <code>COPY ... FROM STDIN</code>)
+ * are rejected with an {@link UnsupportedPsqlFeatureException}.
+ */
+public final class PsqlScriptParser
+{
+	private static final Pattern PATTERN_CopyFromStdin = Pattern.compile("(?is)^COPY\\b.*\\bFROM\\s+STDIN\\b.*");
+
+	@Value
+	public static class PsqlStatement
+	{
+		@NonNull
+		String sql;
+
+		/** 1-based line number where the statement starts */
+		int lineNo;
+	}
+
+	public static class UnsupportedPsqlFeatureException extends RuntimeException
+	{
+		private static final long serialVersionUID = 4586734473208212582L;
+
+		private UnsupportedPsqlFeatureException(final String message)
+		{
+			super(message);
+		}
+	}
+
+	public static ImmutableList<PsqlStatement> parse(@NonNull final String script)
+	{
+		return new PsqlScriptParser(script).parse();
+	}
+
+	private final String script;
+	private final int length;
+
+	private int pos = 0;
+	private int lineNo = 1;
+
+	private final ImmutableList.Builder<PsqlStatement> statements = ImmutableList.builder();
+	private final StringBuilder currentSql = new StringBuilder();
+	private int currentLineNo = -1;
+	private int parenthesesDepth = 0;
+
+	private PsqlScriptParser(final String script)
+	{
+		this.script = script;
+		this.length = script.length();
+	}
+
+	private ImmutableList<PsqlStatement> parse()
+	{
+		while (pos < length)
+		{
+			final char ch = script.charAt(pos);
+			final char next = pos + 1 < length ? script.charAt(pos + 1) : 0;
+
+			if (ch == '-' && next == '-')
+			{
+				skipLineComment();
+			}
+			else if (ch == '/' && next == '*')
+			{
+				skipBlockComment();
+			}
+			else if (ch == '\'')
+			{
+				final boolean backslashEscapes = isEscapeStringPrefix();
+				appendQuoted('\'', backslashEscapes);
+			}
+			else if (ch == '"')
+			{
+				appendQuoted('"', false);
+			}
+			else if (ch == '$' && tryAppendDollarQuoted())
+			{
+				// already appended
+			}
+			else if (ch == '\\')
+			{
+				throw new UnsupportedPsqlFeatureException("psql meta-command found at line " + lineNo);
+			}
+			else if (ch == ';' && parenthesesDepth <= 0)
+			{
+				pos++;
+				flushStatement();
+			}
+			else
+			{
+				if (ch == '(')
+				{
+					parenthesesDepth++;
+				}
+				else if (ch == ')')
+				{
+					parenthesesDepth--;
+				}
+				append(ch);
+				pos++;
+			}
+		}
+
+		// like psql, execute what remained after the last semicolon
+		flushStatement();
+
+		return statements.build();
+	}
+
+	private void append(final char ch)
+	{
+		if (currentLineNo < 0)
+		{
+			if (Character.isWhitespace(ch))
+			{
+				countNewLine(ch);
+				return;
+			}
+			currentLineNo = lineNo;
+		}
+
+		countNewLine(ch);
+		currentSql.append(ch);
+	}
+
+	private void appendRange(final int start, final int end)
+	{
+		for (int i = start; i < end; i++)
+		{
+			append(script.charAt(i));
+		}
+	}
+
+	private void countNewLine(final char ch)
+	{
+		if (ch == '\n')
+		{
+			lineNo++;
+		}
+	}
+
+	private void flushStatement()
+	{
+		final String sql = currentSql.toString().trim();
+		if (!sql.isEmpty())
+		{
+			if (PATTERN_CopyFromStdin.matcher(sql).matches())
+			{
+				throw new UnsupportedPsqlFeatureException("COPY FROM STDIN found at line " + currentLineNo);
+			}
+			statements.add(new PsqlStatement(sql, currentLineNo));
+		}
+
+		currentSql.setLength(0);
+		currentLineNo = -1;
+		parenthesesDepth = 0;
+	}
+
+	private void skipLineComment()
+	{
+		while (pos < length && script.charAt(pos) != '\n')
+		{
+			pos++;
+		}
+	}
+
+	/** Skips a (possibly nested) block comment, but keeps its line breaks for line counting */
+	private void skipBlockComment()
+	{
+		int depth = 0;
+		while (pos < length)
+		{
+			final char ch = script.charAt(pos);
+			final char next = pos + 1 < length ? script.charAt(pos + 1) : 0;
+			if (ch == '/' && next == '*')
+			{
+				depth++;
+				pos += 2;
+			}
+			else if (ch == '*' && next == '/')
+			{
+				depth--;
+				pos += 2;
+				if (depth == 0)
+				{
+					break;
+				}
+			}
+			else
+			{
+				countNewLine(ch);
+				pos++;
+			}
+		}
+
+		// a comment separates tokens
+		append(' ');
+	}
+
+	/** @return true if the quote at current position is preceded by an <code>E</code> prefix (i.e. <code>E'...'</code>) */
+	private boolean isEscapeStringPrefix()
+	{
+		if (pos < 1)
+		{
+			return false;
+		}
+		final char prefix = script.charAt(pos - 1);
+		if (prefix != 'E' && prefix != 'e')
+		{
+			return false;
+		}
+		return pos < 2 || !isIdentifierChar(script.charAt(pos - 2));
+	}
+
+	private void appendQuoted(final char quote, final boolean backslashEscapes)
+	{
+		final int start = pos;
+		pos++; // opening quote
+		while (pos < length)
+		{
+			final char ch = script.charAt(pos);
+			if (backslashEscapes && ch == '\\')
+			{
+				pos += 2;
+			}
+			else if (ch == quote)
+			{
+				if (pos + 1 < length && script.charAt(pos + 1) == quote)
+				{
+					pos += 2; // escaped quote
+				}
+				else
+				{
+					pos++; // closing quote
+					break;
+				}
+			}
+			else
+			{
+				pos++;
+			}
+		}
+
+		pos = Math.min(pos, length);
+		appendRange(start, pos);
+	}
+
+	/**
+	 * Appends a dollar quoted string, e.g. <code>$$ ... $$</code> or <code>$body$ ... $body$</code>.
+	 *
+	 * @return false if there is no dollar quote at current position (e.g. it's a positional parameter like <code>$1</code>)
+	 */
+	private boolean tryAppendDollarQuoted()
+	{
+		if (pos > 0 && isIdentifierChar(script.charAt(pos - 1)))
+		{
+			return false;
+		}
+
+		int tagEnd = pos + 1;
+		while (tagEnd < length && script.charAt(tagEnd) != '$')
+		{
+			final char ch = script.charAt(tagEnd);
+			final boolean valid = tagEnd == pos + 1 ? Character.isLetter(ch) || ch == '_' : isIdentifierChar(ch);
+			if (!valid)
+			{
+				return false;
+			}
+			tagEnd++;
+		}
+		if (tagEnd >= length)
+		{
+			return false;
+		}
+
+		final String tag = script.substring(pos, tagEnd + 1);
+		final int bodyStart = tagEnd + 1;
+		final int closingTagStart = script.indexOf(tag, bodyStart);
+		final int end = closingTagStart < 0 ? length : closingTagStart + tag.length();
+
+		appendRange(pos, end);
+		pos = end;
+		return true;
+	}
+
+	private static boolean isIdentifierChar(final char ch)
+	{
+		return Character.isLetterOrDigit(ch) || ch == '_' || ch == '$';
+	}
+}
@@ -0,0 +1,281 @@
+package de.metas.migration.applier.impl;
+
+/*
+ * #%L
+ * de.metas.migration.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.migration.IDatabase;
+import de.metas.migration.IScript;
+import de.metas.migration.IScriptsRegistry;
+import de.metas.migration.ScriptType;
+import de.metas.migration.exception.ScriptExecutionException;
+import de.metas.migration.executor.IScriptExecutor;
+import de.metas.migration.executor.impl.DefaultScriptExecutorFactory;
+
+public class ScriptsApplierTest
+{
+	private TestDatabase database;
+
+	/** Executed scripts, by project name, in the order they were executed */
+	private Map<String, List<String>> executedScriptsByProjectName;
+
+	@Before
+	public void init()
+	{
+		database = new TestDatabase();
+		executedScriptsByProjectName = new ConcurrentHashMap<>();
+	}
+
+	private ScriptsApplier createScriptsApplier(final int parallelism, final Consumer<IScript> scriptAction)
+	{
+		final ScriptsApplier scriptsApplier = new ScriptsApplier(database);
+		scriptsApplier.setParallelism(parallelism);
+		scriptsApplier.setSkipExecutingAfterScripts(true);
+		scriptsApplier.setScriptExecutorFactory(new DefaultScriptExecutorFactory()
+		{
+			@Override
+			public IScriptExecutor createScriptExecutor(final IDatabase targetDatabase, final ScriptType scriptType)
+			{
+				return script -> {
+					scriptAction.accept(script);
+					executedScriptsByProjectName
+							.computeIfAbsent(script.getProjectName(), k -> Collections.synchronizedList(new ArrayList<>()))
+							.add(script.getFileName());
+				};
+			}
+		});
+		return scriptsApplier;
+	}
+
+	private static List<IScript> scripts(final String projectName, final String... fileNames)
+	{
+		return ImmutableList.copyOf(fileNames)
+				.stream()
+				.map(fileName -> new TestScript(projectName, fileName))
+				.collect(Collectors.toList());
+	}
+
+	private static List<IScript> concat(final List<IScript> scripts1, final List<IScript> scripts2)
+	{
+		return ImmutableList.<IScript> builder().addAll(scripts1).addAll(scripts2).build();
+	}
+
+	@Test
+	public void parallel_projectsAreAppliedConcurrently_andEachProjectInOrder()
+	{
+		final List<IScript> scripts = concat(
+				scripts("project1", "1.sql", "2.sql", "3.sql"),
+				scripts("project2", "1.sql", "2.sql"));
+
+		// the first script of each project waits for the first script of the other project, so this only passes if the projects are applied concurrently
+		final CyclicBarrier bothProjectsStarted = new CyclicBarrier(2);
+		final ScriptsApplier scriptsApplier = createScriptsApplier(2, script -> {
+			if ("1.sql".equals(script.getFileName()))
+			{
+				awaitQuietly(bothProjectsStarted);
+			}
+		});
+
+		scriptsApplier.apply(scripts::iterator);
+
+		assertThat(executedScriptsByProjectName.get("project1"), contains("1.sql", "2.sql", "3.sql"));
+		assertThat(executedScriptsByProjectName.get("project2"), contains("1.sql", "2.sql"));
+		assertThat(database.getAppliedScripts(), containsInAnyOrder("project1/1.sql", "project1/2.sql", "project1/3.sql", "project2/1.sql", "project2/2.sql"));
+		assertThat(scriptsApplier.getCountAll(), is(5));
+		assertThat(scriptsApplier.getCountApplied(), is(5));
+	}
+
+	@Test
+	public void parallel_alreadyAppliedScriptsAreSkipped()
+	{
+		final List<IScript> scripts = concat(
+				scripts("project1", "1.sql", "2.sql"),
+				scripts("project2", "1.sql"));
+		database.getScriptsRegistry().markApplied(scripts.get(0));
+
+		final ScriptsApplier scriptsApplier = createScriptsApplier(2, script -> {});
+		scriptsApplier.apply(scripts::iterator);
+
+		assertThat(executedScriptsByProjectName.get("project1"), contains("2.sql"));
+		assertThat(executedScriptsByProjectName.get("project2"), contains("1.sql"));
+		assertThat(scriptsApplier.getCountAll(), is(3));
+		assertThat(scriptsApplier.getCountApplied(), is(2));
+	}
+
+	@Test
+	public void parallel_failureStopsTheFailingProject()
+	{
+		final List<IScript> scripts = concat(
+				scripts("project1", "1.sql", "2_fails.sql", "3.sql"),
+				scripts("project2", "1.sql"));
+
+		final ScriptsApplier scriptsApplier = createScriptsApplier(2, script -> {
+			if (script.getFileName().endsWith("_fails.sql"))
+			{
+				throw new ScriptExecutionException("failing on purpose");
+			}
+		});
+
+		try
+		{
+			scriptsApplier.apply(scripts::iterator);
+			fail("Exception was expected");
+		}
+		catch (final ScriptExecutionException e)
+		{
+			assertThat(e.getMessage().contains("failing on purpose"), is(true));
+		}
+
+		assertThat(executedScriptsByProjectName.get("project1"), contains("1.sql"));
+		assertThat(database.getAppliedScripts().contains("project1/2_fails.sql"), is(false));
+		assertThat(database.getAppliedScripts().contains("project1/3.sql"), is(false));
+	}
+
+	private static void awaitQuietly(final CyclicBarrier barrier)
+	{
+		try
+		{
+			barrier.await(10, TimeUnit.SECONDS);
+		}
+		catch (final Exception e)
+		{
+			throw new RuntimeException("Scripts of different projects were not applied concurrently", e);
+		}
+	}
+
+	private static final class TestScript implements IScript
+	{
+		private final String projectName;
+		private final String fileName;
+		private long lastDurationMillis;
+
+		private TestScript(final String projectName, final String fileName)
+		{
+			this.projectName = projectName;
+			this.fileName = fileName;
+		}
+
+		@Override
+		public String toString()
+		{
+			return projectName + "/" + fileName;
+		}
+
+		@Override
+		public String getProjectName()
+		{
+			return projectName;
+		}
+
+		@Override
+		public String getFileName()
+		{
+			return fileName;
+		}
+
+		@Override
+		public ScriptType getType()
+		{
+			return ScriptType.SQL;
+		}
+
+		@Override
+		public File getLocalFile()
+		{
+			return null;
+		}
+
+		@Override
+		public long getLastDurationMillis()
+		{
+			return lastDurationMillis;
+		}
+
+		@Override
+		public void setLastDurationMillis(final long lastDurationMillis)
+		{
+			this.lastDurationMillis = lastDurationMillis;
+		}
+	}
+
+	private static final class TestDatabase implements IDatabase, IScriptsRegistry
+	{
+		private final Set<String> appliedScripts = ConcurrentHashMap.newKeySet();
+
+		public Set<String> getAppliedScripts()
+		{
+			return appliedScripts;
+		}
+
+		// @formatter:off
+		@Override public String getDbType() { return "test"; }
+		@Override public String getDbHostname() { return "localhost"; }
+		@Override public String getDbPort() { return null; }
+		@Override public String getDbName() { return "test"; }
+		@Override public String getDbUser() { return "test"; }
+		@Override public String getDbPassword() { return PASSWORD_NA; }
+		@Override public Connection getConnection() { throw new UnsupportedOperationException(); }
+		@Override public IScriptsRegistry getScriptsRegistry() { return this; }
+		// @formatter:on
+
+		@Override
+		public boolean isApplied(final IScript script)
+		{
+			return appliedScripts.contains(script.toString());
+		}
+
+		@Override
+		public void markApplied(final IScript script)
+		{
+			appliedScripts.add(script.toString());
+		}
+
+		@Override
+		public void markIgnored(final IScript script)
+		{
+			appliedScripts.add(script.toString());
+		}
+	}
+}
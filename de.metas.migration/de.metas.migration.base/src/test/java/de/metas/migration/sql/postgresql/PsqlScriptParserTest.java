@@ -0,0 +1,102 @@
+package de.metas.migration.sql.postgresql;
+
+/*
+ * #%L
+ * de.metas.migration.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.metas.migration.sql.postgresql.PsqlScriptParser.PsqlStatement;
+import de.metas.migration.sql.postgresql.PsqlScriptParser.UnsupportedPsqlFeatureException;
+
+public class PsqlScriptParserTest
+{
+	@Test
+	public void test_commentsAndStrings()
+	{
+		final String script = "-- comment; with semicolon\n"
+				+ "INSERT INTO t (a) VALUES ('x;y''z');\n"
+				+ "/* block; /* nested; */ comment */\n"
+				+ "UPDATE \"Some;Table\" SET b=E'it\\'s;';\n"
+				+ "\n"
+				+ "SELECT 1";
+
+		final List<PsqlStatement> statements = PsqlScriptParser.parse(script);
+
+		Assert.assertEquals(3, statements.size());
+		Assert.assertEquals(new PsqlStatement("INSERT INTO t (a) VALUES ('x;y''z')", 2), statements.get(0));
+		Assert.assertEquals(new PsqlStatement("UPDATE \"Some;Table\" SET b=E'it\\'s;'", 4), statements.get(1));
+		Assert.assertEquals(new PsqlStatement("SELECT 1", 6), statements.get(2));
+	}
+
+	@Test
+	public void test_dollarQuotedFunctionBody()
+	{
+		final String function = "CREATE OR REPLACE FUNCTION f() RETURNS void AS $BODY$\n"
+				+ "BEGIN\n"
+				+ "  UPDATE t SET a = $$x;$$;\n"
+				+ "END;\n"
+				+ "$BODY$ LANGUAGE plpgsql";
+		final String script = function + ";\nSELECT f();";
+
+		final List<PsqlStatement> statements = PsqlScriptParser.parse(script);
+
+		Assert.assertEquals(2, statements.size());
+		Assert.assertEquals(function, statements.get(0).getSql());
+		Assert.assertEquals(new PsqlStatement("SELECT f()", 6), statements.get(1));
+	}
+
+	@Test
+	public void test_semicolonsWithinParentheses()
+	{
+		final String rule = "CREATE RULE r AS ON INSERT TO t DO INSTEAD (INSERT INTO t1 VALUES (1); INSERT INTO t2 VALUES (2))";
+
+		final List<PsqlStatement> statements = PsqlScriptParser.parse(rule + ";");
+
+		Assert.assertEquals(1, statements.size());
+		Assert.assertEquals(rule, statements.get(0).getSql());
+	}
+
+	@Test
+	public void test_positionalParameterIsNotDollarQuote()
+	{
+		final List<PsqlStatement> statements = PsqlScriptParser.parse("SELECT $1 FROM t; SELECT $2 FROM t;");
+
+		Assert.assertEquals(2, statements.size());
+		Assert.assertEquals("SELECT $1 FROM t", statements.get(0).getSql());
+		Assert.assertEquals("SELECT $2 FROM t", statements.get(1).getSql());
+	}
+
+	@Test(expected = UnsupportedPsqlFeatureException.class)
+	public void test_metaCommand()
+	{
+		PsqlScriptParser.parse("SELECT 1;\n\\i other.sql\n");
+	}
+
+	@Test(expected = UnsupportedPsqlFeatureException.class)
+	public void test_copyFromStdin()
+	{
+		PsqlScriptParser.parse("COPY t (a, b) FROM STDIN;\n1\t2\n\\.\n");
+	}
+}
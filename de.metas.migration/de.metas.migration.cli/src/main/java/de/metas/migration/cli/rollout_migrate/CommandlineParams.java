@@ -65,6 +65,8 @@ class CommandlineParams
 	public static final String OPTION_DoNotFailIfRolloutIsGreaterThanDB = "i";
 
 	public static final String OPTION_LONG_AddSqlDir = "add-sql-dir";
+	public static final String OPTION_LONG_JdbcExecutor = "jdbc-executor";
+	public static final String OPTION_LONG_Parallelism = "parallelism";
 
 	private final Options options;
 
@@ -169,6 +171,25 @@ class CommandlineParams
 			options.addOption(option);
 		}
 
+		{
+			final Option option = new Option(/* opt */null, "Execute the SQL scripts over JDBC instead of starting a psql process for each script.\n"
+					+ "Scripts which contain psql meta-commands or COPY FROM STDIN are still executed using psql.");
+			option.setLongOpt(OPTION_LONG_JdbcExecutor);
+			option.setArgs(0);
+			option.setRequired(false);
+			options.addOption(option);
+		}
+
+		{
+			final Option option = new Option(/* opt */null, "Apply the scripts of up to <n> projects (i.e. sql directories) in parallel. The scripts of one project are still applied one after the other.\n"
+					+ "WARNING: Only use it if the scripts of different projects don't depend on each other! Default is 1, i.e. all scripts are applied one after the other in their global order.");
+			option.setLongOpt(OPTION_LONG_Parallelism);
+			option.setArgs(1);
+			option.setArgName("n");
+			option.setRequired(false);
+			options.addOption(option);
+		}
+
 		return options;
 	}
 
@@ -240,12 +261,43 @@ class CommandlineParams
 
 		configBuilder.additionalSqlDirs(extractAdditionalSqlDirs(cmd));
 
+		if (cmd.hasOption(OPTION_LONG_JdbcExecutor))
+		{
+			logger.info("Will execute the SQL scripts over JDBC");
+			configBuilder.useJdbcExecutor(true);
+		}
+		configBuilder.parallelism(extractParallelism(cmd));
+
 		final Config config = configBuilder.canRun(true).build();
 		logger.info("config={}", config);
 
 		return config;
 	}
 
+	private static int extractParallelism(final CommandLine cmd)
+	{
+		final String parallelismStr = cmd.getOptionValue(OPTION_LONG_Parallelism);
+		if (parallelismStr == null || parallelismStr.trim().isEmpty())
+		{
+			return 1;
+		}
+
+		final int parallelism;
+		try
+		{
+			parallelism = Integer.parseInt(parallelismStr.trim());
+		}
+		catch (final NumberFormatException ex)
+		{
+			throw new IllegalArgumentException("Invalid " + OPTION_LONG_Parallelism + " argument : " + parallelismStr, ex);
+		}
+		if (parallelism < 1)
+		{
+			throw new IllegalArgumentException("Invalid " + OPTION_LONG_Parallelism + " argument : " + parallelismStr + ". It shall be at least 1.");
+		}
+		return parallelism;
+	}
+
 	private ImmutableSet<IFileRef> extractAdditionalSqlDirs(final CommandLine cmd)
 	{
 		final String[] additionalSqlDirs = cmd.getOptionValues(OPTION_LONG_AddSqlDir);
@@ -89,4 +89,16 @@ class Config
 	@Default
 	@NonNull
 	ImmutableSet<IFileRef> additionalSqlDirs = ImmutableSet.of();
+
+	/**
+	 * If true, the SQL scripts are executed over JDBC instead of using one psql process per script.
+	 */
+	@Default
+	boolean useJdbcExecutor = false;
+
+	/**
+	 * How many projects' scripts may be applied in parallel. One means that all scripts are applied sequentially, in their global order.
+	 */
+	@Default
+	int parallelism = 1;
 }
@@ -6,14 +6,18 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import de.metas.migration.IDatabase;
+import de.metas.migration.ScriptType;
 import de.metas.migration.applier.IScriptsApplierListener;
+import de.metas.migration.applier.impl.ScriptsApplier;
 import de.metas.migration.executor.IScriptExecutorFactory;
+import de.metas.migration.executor.impl.PostgresqlJdbcExecutor;
 import de.metas.migration.impl.AbstractScriptsApplierTemplate;
 import de.metas.migration.scanner.IScriptFactory;
 import de.metas.migration.scanner.IScriptScanner;
 import de.metas.migration.scanner.IScriptScannerFactory;
 import de.metas.migration.scanner.impl.CompositeScriptScanner;
 import de.metas.migration.scanner.impl.GloballyOrderedScannerDecorator;
+import de.metas.migration.sql.postgresql.PgSQLDatabaseDriver;
 import lombok.AllArgsConstructor;
 import lombok.NonNull;
 
@@ -76,6 +80,18 @@ class MigrationScriptApplier
 			protected void configureScriptExecutorFactory(final IScriptExecutorFactory scriptExecutorFactory)
 			{
 				scriptExecutorFactory.setDryRunMode(config.isJustMarkScriptAsExecuted());
+				if (config.isUseJdbcExecutor())
+				{
+					scriptExecutorFactory.registerScriptExecutorClass(PgSQLDatabaseDriver.DBTYPE, ScriptType.SQL, PostgresqlJdbcExecutor.class);
+				}
+			}
+
+			@Override
+			protected ScriptsApplier createScriptApplier(final IDatabase database)
+			{
+				final ScriptsApplier scriptsApplier = super.createScriptApplier(database);
+				scriptsApplier.setParallelism(config.getParallelism());
+				return scriptsApplier;
 			}
 
 			@Override
@@ -51,8 +51,23 @@ public interface IMeter
 
 	/**
 	 * 
-	 * @return rate (per second) of {@link #plusOne()} and {@link #minusOne()} invocations.
+	 * @return rate (per second) of {@link #plusOne()} and {@link #minusOne()} invocations, computed from the interval between the last two invocations.
 	 */
 	BigDecimal getInvokeRate();
 
+	/**
+	 * @return exponentially weighted rate (per second) of {@link #plusOne()} and {@link #minusOne()} invocations during the last minute
+	 */
+	double getOneMinuteRate();
+
+	/**
+	 * @return like {@link #getOneMinuteRate()}, but for the last five minutes
+	 */
+	double getFiveMinuteRate();
+
+	/**
+	 * @return like {@link #getOneMinuteRate()}, but for the last fifteen minutes
+	 */
+	double getFifteenMinuteRate();
+
 }
@@ -1,5 +1,9 @@
 package de.metas.monitoring.api;
 
+import java.util.Map;
+
+import com.google.common.collect.ImmutableMap;
+
 import de.metas.util.ISingletonService;
 
 /**
@@ -21,5 +25,29 @@ public interface IMonitoringBL extends ISingletonService
 	 * @param meterName
 	 * @return meter
 	 */
-	IMeter createOrGet(String moduleName, String meterName);
+	default IMeter createOrGet(final String moduleName, final String meterName)
+	{
+		return createOrGet(moduleName, meterName, ImmutableMap.of());
+	}
+
+	/**
+	 * Like {@link #createOrGet(String, String)}, but the meter is additionally identified by the given tags.
+	 * The tags are appended to the JMX object name as additional key properties and are exported as Prometheus labels.
+	 */
+	IMeter createOrGet(String moduleName, String meterName, Map<String, String> tags);
+
+	default ITimer createOrGetTimer(final String moduleName, final String timerName)
+	{
+		return createOrGetTimer(moduleName, timerName, ImmutableMap.of());
+	}
+
+	/**
+	 * Creates or gets a timer with the given names and tags. The JMX object name is built like the one of {@link #createOrGet(String, String, Map)}.
+	 */
+	ITimer createOrGetTimer(String moduleName, String timerName, Map<String, String> tags);
+
+	/**
+	 * @return all meters and timers in the Prometheus text exposition format (version 0.0.4)
+	 */
+	String toPrometheusText();
 }
@@ -0,0 +1,63 @@
+package de.metas.monitoring.api;
+
+/*
+ * #%L
+ * de.metas.monitoring
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.util.concurrent.TimeUnit;
+
+import org.adempiere.util.lang.IAutoCloseable;
+
+/**
+ * Records durations, e.g. of workpackage processing or cache loading, and provides their count, rate and percentiles.
+ * <p>
+ * Implementations are thread safe and don't block the recording threads.
+ */
+public interface ITimer
+{
+	void record(long duration, TimeUnit unit);
+
+	/**
+	 * Starts a measurement which is recorded when the returned closeable is closed. Intended to be used in a try-with-resources block.
+	 */
+	IAutoCloseable start();
+
+	long getCount();
+
+	double getMeanMillis();
+
+	double getMaxMillis();
+
+	/**
+	 * @param percentile the percentile, between 0 and 100 (e.g. 99 for the 99th percentile)
+	 * @return the approximated percentile of all recorded durations. The approximation error is less than 20%.
+	 */
+	double getPercentileMillis(double percentile);
+
+	/**
+	 * @return exponentially weighted rate (per second) of recordings during the last minute
+	 */
+	double getOneMinuteRate();
+
+	double getFiveMinuteRate();
+
+	double getFifteenMinuteRate();
+}
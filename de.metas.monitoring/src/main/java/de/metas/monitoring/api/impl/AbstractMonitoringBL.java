@@ -23,44 +23,69 @@ package de.metas.monitoring.api.impl;
  */
 
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import de.metas.monitoring.api.IMeter;
 import de.metas.monitoring.api.IMonitoringBL;
-import de.metas.util.Check;
+import de.metas.monitoring.api.ITimer;
 
 public abstract class AbstractMonitoringBL implements IMonitoringBL
 {
-	/**
-	 * NOTE: don't access this field on methods which are not synchronized/thread safe.
-	 */
-	private final Map<String, IMeter> names2Meters = new HashMap<String, IMeter>();
+	private final Map<MetricId, Meter> meters = new ConcurrentHashMap<>();
+	private final Map<MetricId, Timer> timers = new ConcurrentHashMap<>();
 
 	@Override
-	public final synchronized IMeter createOrGet(final String moduleName, final String meterName)
+	public final IMeter createOrGet(final String moduleName, final String meterName, final Map<String, String> tags)
 	{
-		Check.errorIf(Check.isEmpty(moduleName), "Param 'moduleName' may not be empty");
-		Check.errorIf(Check.isEmpty(meterName), "Param 'meterName' may not be empty");
+		final MetricId id = new MetricId(moduleName, meterName, tags);
 
-		final String jmxName = mkJmxName(moduleName, meterName);
-		if (names2Meters.containsKey(jmxName))
+		// lock free fast path, because meters are looked up by hot callers like the async queue processors
+		final Meter existingMeter = meters.get(id);
+		if (existingMeter != null)
 		{
-			return names2Meters.get(jmxName);
+			return existingMeter;
 		}
 
-		final Meter meter = new Meter();
-		registerJMX(jmxName, meter);
-		names2Meters.put(jmxName, meter);
+		return meters.computeIfAbsent(id, this::createMeter);
+	}
 
+	private Meter createMeter(final MetricId id)
+	{
+		final Meter meter = new Meter();
+		registerJMX(id.toJmxName(), new JMXMeter(meter));
 		return meter;
 	}
 
-	private final String mkJmxName(final String moduleName, final String meterName)
+	@Override
+	public final ITimer createOrGetTimer(final String moduleName, final String timerName, final Map<String, String> tags)
+	{
+		final MetricId id = new MetricId(moduleName, timerName, tags);
+
+		final Timer existingTimer = timers.get(id);
+		if (existingTimer != null)
+		{
+			return existingTimer;
+		}
+
+		return timers.computeIfAbsent(id, this::createTimer);
+	}
+
+	private Timer createTimer(final MetricId id)
+	{
+		final Timer timer = new Timer();
+		registerJMX(id.toJmxName(), new JMXTimer(timer));
+		return timer;
+	}
+
+	@Override
+	public final String toPrometheusText()
 	{
-		final String jmxName = moduleName + ":type=" + meterName;
-		return jmxName;
+		return new PrometheusTextWriter()
+				.appendMeters(meters)
+				.appendTimers(timers)
+				.build();
 	}
 
-	protected abstract void registerJMX(final String jmxName, final Meter meter);
+	protected abstract void registerJMX(final String jmxName, final Object mbean);
 }
@@ -0,0 +1,117 @@
+package de.metas.monitoring.api.impl;
+
+/*
+ * #%L
+ * de.metas.monitoring
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock free histogram of durations.
+ * <p>
+ * The buckets grow exponentially by a factor of 2^(1/4), starting with one microsecond, so each percentile is approximated with less than 20% error.
+ * Durations of more than about one hour all end up in the last bucket.
+ */
+final class Histogram
+{
+	private static final long FIRST_BUCKET_UPPER_BOUND_NANOS = 1_000;
+	private static final int BUCKETS_PER_POWER_OF_TWO = 4;
+	private static final int BUCKETS_COUNT = 128;
+
+	private static final long[] BUCKET_UPPER_BOUNDS_NANOS = computeBucketUpperBounds();
+
+	private final LongAdder[] bucketCounts = new LongAdder[BUCKETS_COUNT];
+
+	public Histogram()
+	{
+		for (int i = 0; i < BUCKETS_COUNT; i++)
+		{
+			bucketCounts[i] = new LongAdder();
+		}
+	}
+
+	private static long[] computeBucketUpperBounds()
+	{
+		final long[] upperBounds = new long[BUCKETS_COUNT];
+		for (int i = 0; i < BUCKETS_COUNT; i++)
+		{
+			upperBounds[i] = (long)Math.ceil(FIRST_BUCKET_UPPER_BOUND_NANOS * Math.pow(2, (double)i / BUCKETS_PER_POWER_OF_TWO));
+		}
+		return upperBounds;
+	}
+
+	public void record(final long nanos)
+	{
+		bucketCounts[bucketIndex(nanos)].increment();
+	}
+
+	private static int bucketIndex(final long nanos)
+	{
+		if (nanos <= FIRST_BUCKET_UPPER_BOUND_NANOS)
+		{
+			return 0;
+		}
+
+		final double log2 = Math.log((double)nanos / FIRST_BUCKET_UPPER_BOUND_NANOS) / Math.log(2);
+		int index = Math.min((int)Math.ceil(log2 * BUCKETS_PER_POWER_OF_TWO), BUCKETS_COUNT - 1);
+
+		// compensate floating point rounding
+		while (index < BUCKETS_COUNT - 1 && BUCKET_UPPER_BOUNDS_NANOS[index] < nanos)
+		{
+			index++;
+		}
+		while (index > 0 && BUCKET_UPPER_BOUNDS_NANOS[index - 1] >= nanos)
+		{
+			index--;
+		}
+		return index;
+	}
+
+	/**
+	 * @return the upper bound of the bucket which contains the given percentile, or zero if nothing was recorded yet.
+	 */
+	public long getPercentileNanos(final double percentile)
+	{
+		final long[] counts = new long[BUCKETS_COUNT];
+		long totalCount = 0;
+		for (int i = 0; i < BUCKETS_COUNT; i++)
+		{
+			counts[i] = bucketCounts[i].sum();
+			totalCount += counts[i];
+		}
+		if (totalCount == 0)
+		{
+			return 0;
+		}
+
+		final long rank = Math.max((long)Math.ceil(percentile / 100 * totalCount), 1);
+		long cumulatedCount = 0;
+		for (int i = 0; i < BUCKETS_COUNT; i++)
+		{
+			cumulatedCount += counts[i];
+			if (cumulatedCount >= rank)
+			{
+				return BUCKET_UPPER_BOUNDS_NANOS[i];
+			}
+		}
+		return BUCKET_UPPER_BOUNDS_NANOS[BUCKETS_COUNT - 1];
+	}
+}
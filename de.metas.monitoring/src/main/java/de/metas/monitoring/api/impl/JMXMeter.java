@@ -37,13 +37,39 @@ public class JMXMeter implements JMXMeterMBean
 		this.meter = meter;
 	}
 
+	@Override
 	public long getCount()
 	{
 		return meter.getInvokeCount();
 	}
 
+	@Override
 	public BigDecimal getRate()
 	{
 		return meter.getInvokeRate();
 	}
+
+	@Override
+	public long getGauge()
+	{
+		return meter.getGauge();
+	}
+
+	@Override
+	public double getOneMinuteRate()
+	{
+		return meter.getOneMinuteRate();
+	}
+
+	@Override
+	public double getFiveMinuteRate()
+	{
+		return meter.getFiveMinuteRate();
+	}
+
+	@Override
+	public double getFifteenMinuteRate()
+	{
+		return meter.getFifteenMinuteRate();
+	}
 }
@@ -30,4 +30,12 @@ public interface JMXMeterMBean
 	long getCount();
 
 	BigDecimal getRate();
+
+	long getGauge();
+
+	double getOneMinuteRate();
+
+	double getFiveMinuteRate();
+
+	double getFifteenMinuteRate();
 }
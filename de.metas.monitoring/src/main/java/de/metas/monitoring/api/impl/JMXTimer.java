@@ -0,0 +1,90 @@
+package de.metas.monitoring.api.impl;
+
+/*
+ * #%L
+ * de.metas.monitoring
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import de.metas.util.Check;
+
+public class JMXTimer implements JMXTimerMBean
+{
+	private final Timer timer;
+
+	/* package */ JMXTimer(final Timer timer)
+	{
+		Check.assumeNotNull(timer, "Param 'timer' not null");
+		this.timer = timer;
+	}
+
+	@Override
+	public long getCount()
+	{
+		return timer.getCount();
+	}
+
+	@Override
+	public double getMeanMillis()
+	{
+		return timer.getMeanMillis();
+	}
+
+	@Override
+	public double getMaxMillis()
+	{
+		return timer.getMaxMillis();
+	}
+
+	@Override
+	public double get50thPercentileMillis()
+	{
+		return timer.getPercentileMillis(50);
+	}
+
+	@Override
+	public double get95thPercentileMillis()
+	{
+		return timer.getPercentileMillis(95);
+	}
+
+	@Override
+	public double get99thPercentileMillis()
+	{
+		return timer.getPercentileMillis(99);
+	}
+
+	@Override
+	public double getOneMinuteRate()
+	{
+		return timer.getOneMinuteRate();
+	}
+
+	@Override
+	public double getFiveMinuteRate()
+	{
+		return timer.getFiveMinuteRate();
+	}
+
+	@Override
+	public double getFifteenMinuteRate()
+	{
+		return timer.getFifteenMinuteRate();
+	}
+}
@@ -26,88 +26,102 @@ package de.metas.monitoring.api.impl;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 import de.metas.monitoring.api.IMeter;
 import de.metas.util.time.SystemTime;
 
+/**
+ * Thread safe meter. Recording only updates {@link LongAdder}s and atomics, so many threads can record concurrently without contention.
+ */
 public class Meter implements IMeter
 {
-	private AtomicLong invokeCount = new AtomicLong(0);
+	private final LongAdder invokeCount = new LongAdder();
+
+	private final LongAdder gauge = new LongAdder();
 
-	private BigDecimal invokeRate = BigDecimal.ZERO;
+	private final AtomicLong millisLastInvoke = new AtomicLong(0);
 
-	private AtomicLong millisLastInvoke = new AtomicLong(0);
+	private volatile long intervalLastInvoke = 0;
 
-	private AtomicLong gauge = new AtomicLong(0);
-	
-	private BigDecimal intervalLastInvoke = null;
+	private final MovingAverages movingAverages = new MovingAverages();
 
 	@Override
 	public void plusOne()
 	{
-		gauge.addAndGet(1);
+		gauge.increment();
 		onInvoke();
 	}
 
 	@Override
-	public void minusOne()	
+	public void minusOne()
 	{
-		gauge.addAndGet(-1);
+		gauge.decrement();
 		onInvoke();
 	}
 
 	private void onInvoke()
 	{
 		final long millisNow = SystemTime.millis();
-		intervalLastInvoke = new BigDecimal(millisNow - millisLastInvoke.get());
-		millisLastInvoke.set(millisNow);
+		intervalLastInvoke = millisNow - millisLastInvoke.getAndSet(millisNow);
 
-		invokeCount.addAndGet(1);
-		updateInvokeRate();
+		invokeCount.increment();
+		movingAverages.mark(millisNow);
+	}
+
+	@Override
+	public long getInvokeCount()
+	{
+		return invokeCount.sum();
 	}
-	
-	private void updateInvokeRate()
+
+	@Override
+	public BigDecimal getInvokeRate()
 	{
-		// getting local copies to ensure that the values we work with aren't changed by other threads 
+		// getting local copies to ensure that the values we work with aren't changed by other threads
 		// while this method executes
-		final BigDecimal intervalLastInvokeLocal = this.intervalLastInvoke;
-		final long invokeCountLocal = invokeCount.get();
-		
+		final long intervalLastInvokeLocal = this.intervalLastInvoke;
+		final long invokeCountLocal = invokeCount.sum();
+
 		if (invokeCountLocal < 2)
 		{
 			// need at least two 'plusOne()' invocations to get a rate
-			invokeRate = BigDecimal.ZERO;
+			return BigDecimal.ZERO;
 		}
-		else if (intervalLastInvokeLocal.signum() == 0)
+		else if (intervalLastInvokeLocal == 0)
 		{
 			// omit division by zero
-			invokeRate = new BigDecimal(Long.MAX_VALUE);
+			return new BigDecimal(Long.MAX_VALUE);
 		}
 		else
 		{
-			invokeRate = new BigDecimal("1000")
-					.setScale(2, BigDecimal.ROUND_HALF_UP)
-					.divide(intervalLastInvokeLocal, RoundingMode.HALF_UP)
-					.abs(); // be tolerant against intervalLastChange < 0
+			return new BigDecimal("1000")
+					.setScale(2, RoundingMode.HALF_UP)
+					.divide(BigDecimal.valueOf(Math.abs(intervalLastInvokeLocal)), RoundingMode.HALF_UP); // be tolerant against intervalLastChange < 0
 		}
 	}
-	
+
 	@Override
-	public long getInvokeCount()
+	public long getGauge()
 	{
-		return invokeCount.get();
+		return gauge.sum();
 	}
 
 	@Override
-	public BigDecimal getInvokeRate()
+	public double getOneMinuteRate()
 	{
-		return invokeRate;
+		return movingAverages.getOneMinuteRate();
 	}
-	
+
 	@Override
-	public long getGauge()
+	public double getFiveMinuteRate()
 	{
-		return gauge.get();
+		return movingAverages.getFiveMinuteRate();
 	}
 
+	@Override
+	public double getFifteenMinuteRate()
+	{
+		return movingAverages.getFifteenMinuteRate();
+	}
 }
@@ -0,0 +1,113 @@
+package de.metas.monitoring.api.impl;
+
+/*
+ * #%L
+ * de.metas.monitoring
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.util.Map;
+import java.util.Objects;
+
+import javax.management.ObjectName;
+
+import com.google.common.collect.ImmutableSortedMap;
+
+import de.metas.util.Check;
+
+/**
+ * Identifies a meter or timer by module name, name and tags.
+ */
+final class MetricId
+{
+	private final String moduleName;
+	private final String name;
+	private final ImmutableSortedMap<String, String> tags;
+
+	private transient int hashcode;
+
+	MetricId(final String moduleName, final String name, final Map<String, String> tags)
+	{
+		Check.errorIf(Check.isEmpty(moduleName), "Param 'moduleName' may not be empty");
+		Check.errorIf(Check.isEmpty(name), "Param 'name' may not be empty");
+
+		this.moduleName = moduleName;
+		this.name = name;
+		this.tags = tags != null ? ImmutableSortedMap.copyOf(tags) : ImmutableSortedMap.of();
+	}
+
+	public String getModuleName()
+	{
+		return moduleName;
+	}
+
+	public String getName()
+	{
+		return name;
+	}
+
+	public ImmutableSortedMap<String, String> getTags()
+	{
+		return tags;
+	}
+
+	/**
+	 * @return JMX object name; the tag values are quoted, because they may contain characters like <code>,</code> or <code>:</code>
+	 */
+	public String toJmxName()
+	{
+		final StringBuilder jmxName = new StringBuilder(moduleName).append(":type=").append(name);
+		tags.forEach((tagName, tagValue) -> jmxName.append(',').append(tagName).append('=').append(ObjectName.quote(tagValue)));
+		return jmxName.toString();
+	}
+
+	@Override
+	public String toString()
+	{
+		return toJmxName();
+	}
+
+	@Override
+	public int hashCode()
+	{
+		if (hashcode == 0)
+		{
+			hashcode = Objects.hash(moduleName, name, tags);
+		}
+		return hashcode;
+	}
+
+	@Override
+	public boolean equals(final Object obj)
+	{
+		if (this == obj)
+		{
+			return true;
+		}
+		if (!(obj instanceof MetricId))
+		{
+			return false;
+		}
+
+		final MetricId other = (MetricId)obj;
+		return moduleName.equals(other.moduleName)
+				&& name.equals(other.name)
+				&& tags.equals(other.tags);
+	}
+}
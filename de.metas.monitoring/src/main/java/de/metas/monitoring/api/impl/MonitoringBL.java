@@ -38,10 +38,9 @@ public class MonitoringBL extends AbstractMonitoringBL
 {
 
 	@Override
-	protected void registerJMX(final String jmxName, final Meter meter)
+	protected void registerJMX(final String jmxName, final Object mbean)
 	{
 		final MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
-		final JMXMeterMBean jmxMeter = new JMXMeter(meter);
 
 		final ObjectName name;
 		try
@@ -59,7 +58,7 @@ public class MonitoringBL extends AbstractMonitoringBL
 			{
 				if (!mbs.isRegistered(name))
 				{
-					mbs.registerMBean(jmxMeter, name);
+					mbs.registerMBean(mbean, name);
 				}
 			}
 		}
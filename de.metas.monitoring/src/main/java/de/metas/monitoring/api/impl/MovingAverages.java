@@ -0,0 +1,135 @@
+package de.metas.monitoring.api.impl;
+
+/*
+ * #%L
+ * de.metas.monitoring
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import de.metas.util.time.SystemTime;
+
+/**
+ * Exponentially weighted moving average rates over one, five and fifteen minutes, like the load averages of unix.
+ * <p>
+ * The events are counted in {@link LongAdder}s. Every {@value #TICK_INTERVAL_SECONDS} seconds, the counts are folded into the averages.
+ * There is no background thread; the averages are updated lazily by whichever thread marks an event or reads a rate.
+ */
+final class MovingAverages
+{
+	private static final int TICK_INTERVAL_SECONDS = 5;
+	private static final long TICK_INTERVAL_MILLIS = TICK_INTERVAL_SECONDS * 1000L;
+
+	private final EWMA m1Rate = new EWMA(1);
+	private final EWMA m5Rate = new EWMA(5);
+	private final EWMA m15Rate = new EWMA(15);
+
+	private final AtomicLong lastTickMillis = new AtomicLong(SystemTime.millis());
+
+	public void mark(final long millisNow)
+	{
+		tickIfNecessary(millisNow);
+
+		m1Rate.update();
+		m5Rate.update();
+		m15Rate.update();
+	}
+
+	public double getOneMinuteRate()
+	{
+		tickIfNecessary(SystemTime.millis());
+		return m1Rate.getRatePerSecond();
+	}
+
+	public double getFiveMinuteRate()
+	{
+		tickIfNecessary(SystemTime.millis());
+		return m5Rate.getRatePerSecond();
+	}
+
+	public double getFifteenMinuteRate()
+	{
+		tickIfNecessary(SystemTime.millis());
+		return m15Rate.getRatePerSecond();
+	}
+
+	private void tickIfNecessary(final long millisNow)
+	{
+		final long oldTickMillis = lastTickMillis.get();
+		final long age = millisNow - oldTickMillis;
+		if (age < TICK_INTERVAL_MILLIS)
+		{
+			return;
+		}
+
+		// only the thread which wins the CAS does the ticking, so the EWMAs are never ticked concurrently
+		final long newTickMillis = millisNow - age % TICK_INTERVAL_MILLIS;
+		if (lastTickMillis.compareAndSet(oldTickMillis, newTickMillis))
+		{
+			final long requiredTicks = age / TICK_INTERVAL_MILLIS;
+			for (long i = 0; i < requiredTicks; i++)
+			{
+				m1Rate.tick();
+				m5Rate.tick();
+				m15Rate.tick();
+			}
+		}
+	}
+
+	private static final class EWMA
+	{
+		private final double alpha;
+		private final LongAdder uncounted = new LongAdder();
+
+		private volatile boolean initialized = false;
+		private volatile double ratePerSecond = 0.0;
+
+		private EWMA(final int minutes)
+		{
+			this.alpha = 1 - Math.exp(-TICK_INTERVAL_SECONDS / 60.0 / minutes);
+		}
+
+		public void update()
+		{
+			uncounted.increment();
+		}
+
+		public void tick()
+		{
+			final long count = uncounted.sumThenReset();
+			final double instantRate = (double)count / TICK_INTERVAL_SECONDS;
+			if (initialized)
+			{
+				ratePerSecond += alpha * (instantRate - ratePerSecond);
+			}
+			else
+			{
+				ratePerSecond = instantRate;
+				initialized = true;
+			}
+		}
+
+		public double getRatePerSecond()
+		{
+			return ratePerSecond;
+		}
+	}
+}
@@ -28,7 +28,7 @@ public class PlainMonitoringBL extends AbstractMonitoringBL
 {
 
 	@Override
-	protected void registerJMX(String jmxName, Meter meter)
+	protected void registerJMX(String jmxName, Object mbean)
 	{
 		// do nothing
 	}
@@ -0,0 +1,178 @@
+package de.metas.monitoring.api.impl;
+
+/*
+ * #%L
+ * de.metas.monitoring
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Renders meters and timers in the Prometheus text exposition format.
+ * <p>
+ * All meters share the {@code metasfresh_meter_*} metric families and all timers share {@code metasfresh_timer_*};
+ * the module name, the meter or timer name and the tags are rendered as labels.
+ */
+final class PrometheusTextWriter
+{
+	private static final double[] TIMER_PERCENTILES = { 50, 95, 99 };
+
+	private final StringBuilder text = new StringBuilder();
+
+	public PrometheusTextWriter appendMeters(final Map<MetricId, Meter> meters)
+	{
+		if (meters.isEmpty())
+		{
+			return this;
+		}
+
+		appendFamily("metasfresh_meter_gauge", "gauge", "Current gauge of the meter", meters, meter -> meter.getGauge());
+		appendFamily("metasfresh_meter_invocations_total", "counter", "Number of meter invocations", meters, meter -> meter.getInvokeCount());
+
+		appendHeader("metasfresh_meter_rate", "gauge", "Exponentially weighted rate of meter invocations per second");
+		for (final Map.Entry<MetricId, Meter> entry : meters.entrySet())
+		{
+			final Meter meter = entry.getValue();
+			appendSample("metasfresh_meter_rate", entry.getKey(), ImmutableMap.of("window", "1m"), meter.getOneMinuteRate());
+			appendSample("metasfresh_meter_rate", entry.getKey(), ImmutableMap.of("window", "5m"), meter.getFiveMinuteRate());
+			appendSample("metasfresh_meter_rate", entry.getKey(), ImmutableMap.of("window", "15m"), meter.getFifteenMinuteRate());
+		}
+		return this;
+	}
+
+	public PrometheusTextWriter appendTimers(final Map<MetricId, Timer> timers)
+	{
+		if (timers.isEmpty())
+		{
+			return this;
+		}
+
+		appendHeader("metasfresh_timer_seconds", "summary", "Recorded durations");
+		for (final Map.Entry<MetricId, Timer> entry : timers.entrySet())
+		{
+			final MetricId id = entry.getKey();
+			final Timer timer = entry.getValue();
+			for (final double percentile : TIMER_PERCENTILES)
+			{
+				final String quantile = String.valueOf(percentile / 100);
+				appendSample("metasfresh_timer_seconds", id, ImmutableMap.of("quantile", quantile), timer.getPercentileMillis(percentile) / 1000);
+			}
+			appendSample("metasfresh_timer_seconds_sum", id, ImmutableMap.of(), timer.getTotalMillis() / 1000);
+			appendSample("metasfresh_timer_seconds_count", id, ImmutableMap.of(), timer.getCount());
+		}
+
+		appendFamily("metasfresh_timer_seconds_max", "gauge", "Maximum recorded duration", timers, timer -> timer.getMaxMillis() / 1000);
+		return this;
+	}
+
+	public String build()
+	{
+		return text.toString();
+	}
+
+	private <T> void appendFamily(
+			final String metricName,
+			final String type,
+			final String help,
+			final Map<MetricId, T> metrics,
+			final ToDoubleFunction<T> valueExtractor)
+	{
+		appendHeader(metricName, type, help);
+		metrics.forEach((id, metric) -> appendSample(metricName, id, ImmutableMap.of(), valueExtractor.applyAsDouble(metric)));
+	}
+
+	private void appendHeader(final String metricName, final String type, final String help)
+	{
+		text.append("# HELP ").append(metricName).append(' ').append(help).append('\n');
+		text.append("# TYPE ").append(metricName).append(' ').append(type).append('\n');
+	}
+
+	private void appendSample(final String metricName, final MetricId id, final Map<String, String> additionalLabels, final double value)
+	{
+		text.append(metricName).append('{');
+		appendLabel("module", id.getModuleName());
+		text.append(',');
+		appendLabel("name", id.getName());
+		id.getTags().forEach((tagName, tagValue) -> {
+			text.append(',');
+			appendLabel(toLabelName(tagName), tagValue);
+		});
+		additionalLabels.forEach((labelName, labelValue) -> {
+			text.append(',');
+			appendLabel(labelName, labelValue);
+		});
+		text.append("} ").append(toPrometheusValue(value)).append('\n');
+	}
+
+	private void appendLabel(final String labelName, final String labelValue)
+	{
+		text.append(labelName).append("=\"");
+		final String value = labelValue != null ? labelValue : "";
+		for (int i = 0; i < value.length(); i++)
+		{
+			final char ch = value.charAt(i);
+			if (ch == '\\' || ch == '"')
+			{
+				text.append('\\').append(ch);
+			}
+			else if (ch == '\n')
+			{
+				text.append("\\n");
+			}
+			else
+			{
+				text.append(ch);
+			}
+		}
+		text.append('"');
+	}
+
+	/**
+	 * Prometheus label names must match {@code [a-zA-Z_][a-zA-Z0-9_]*}.
+	 */
+	private static String toLabelName(final String tagName)
+	{
+		final String labelName = tagName.replaceAll("[^a-zA-Z0-9_]", "_");
+		return labelName.isEmpty() || Character.isDigit(labelName.charAt(0)) ? "_" + labelName : labelName;
+	}
+
+	private static String toPrometheusValue(final double value)
+	{
+		if (Double.isNaN(value))
+		{
+			return "NaN";
+		}
+		else if (Double.isInfinite(value))
+		{
+			return value > 0 ? "+Inf" : "-Inf";
+		}
+		else if (value == Math.rint(value) && Math.abs(value) < 1e15)
+		{
+			return String.valueOf((long)value);
+		}
+		else
+		{
+			return String.valueOf(value);
+		}
+	}
+}
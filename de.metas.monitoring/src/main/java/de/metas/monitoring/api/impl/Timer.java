@@ -0,0 +1,115 @@
+package de.metas.monitoring.api.impl;
+
+/*
+ * #%L
+ * de.metas.monitoring
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.adempiere.util.lang.IAutoCloseable;
+
+import de.metas.monitoring.api.ITimer;
+import de.metas.util.time.SystemTime;
+
+public class Timer implements ITimer
+{
+	private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+	private final LongAdder count = new LongAdder();
+	private final LongAdder totalNanos = new LongAdder();
+	private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0);
+	private final Histogram histogram = new Histogram();
+	private final MovingAverages movingAverages = new MovingAverages();
+
+	@Override
+	public void record(final long duration, final TimeUnit unit)
+	{
+		final long nanos = unit.toNanos(duration);
+		if (nanos < 0)
+		{
+			return; // can happen if the system clock was changed
+		}
+
+		count.increment();
+		totalNanos.add(nanos);
+		maxNanos.accumulate(nanos);
+		histogram.record(nanos);
+		movingAverages.mark(SystemTime.millis());
+	}
+
+	@Override
+	public IAutoCloseable start()
+	{
+		final long startNanos = System.nanoTime();
+		return () -> record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+	}
+
+	@Override
+	public long getCount()
+	{
+		return count.sum();
+	}
+
+	@Override
+	public double getMeanMillis()
+	{
+		final long countLocal = count.sum();
+		return countLocal > 0 ? totalNanos.sum() / NANOS_PER_MILLI / countLocal : 0;
+	}
+
+	public double getTotalMillis()
+	{
+		return totalNanos.sum() / NANOS_PER_MILLI;
+	}
+
+	@Override
+	public double getMaxMillis()
+	{
+		return maxNanos.get() / NANOS_PER_MILLI;
+	}
+
+	@Override
+	public double getPercentileMillis(final double percentile)
+	{
+		// the histogram only knows the bucket's upper bound, but the real value can't be bigger than the max
+		return Math.min(histogram.getPercentileNanos(percentile), maxNanos.get()) / NANOS_PER_MILLI;
+	}
+
+	@Override
+	public double getOneMinuteRate()
+	{
+		return movingAverages.getOneMinuteRate();
+	}
+
+	@Override
+	public double getFiveMinuteRate()
+	{
+		return movingAverages.getFiveMinuteRate();
+	}
+
+	@Override
+	public double getFifteenMinuteRate()
+	{
+		return movingAverages.getFifteenMinuteRate();
+	}
+}
@@ -157,6 +157,29 @@ public class MeterTests
 	}
 
 	
+	@Test
+	public void oneMinuteRate()
+	{
+		setTime(0);
+		final Meter meter = new Meter();
+
+		// 10 invocations per second during the first tick interval
+		for (int i = 0; i < 50; i++)
+		{
+			setTime(i * 100);
+			meter.plusOne();
+		}
+
+		setTime(5000);
+		assertThat(meter.getOneMinuteRate(), closeTo(10, 0.001));
+		assertThat(meter.getFifteenMinuteRate(), closeTo(10, 0.001));
+
+		// no invocations in the following minute; the one minute rate decays much faster than the 15 minutes rate
+		setTime(65000);
+		assertThat(meter.getOneMinuteRate(), closeTo(10 * Math.exp(-1), 0.1));
+		assertThat(meter.getFifteenMinuteRate(), closeTo(10 * Math.exp(-1.0 / 15), 0.1));
+	}
+
 	private void setTime(final long millis)
 	{
 		SystemTime.setTimeSource(new TimeSource()
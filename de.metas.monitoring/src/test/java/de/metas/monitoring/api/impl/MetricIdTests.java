@@ -0,0 +1,56 @@
+package de.metas.monitoring.api.impl;
+
+/*
+ * #%L
+ * de.metas.monitoring
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+import javax.management.ObjectName;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+public class MetricIdTests
+{
+	@Test
+	public void toJmxName_tagValuesWithSpecialCharacters() throws Exception
+	{
+		final MetricId id = new MetricId("de.metas.monitoring", "meter", ImmutableMap.of("url", "http://host:8080/api?a=1,b=\"2\"*"));
+
+		final ObjectName objectName = new ObjectName(id.toJmxName());
+
+		assertThat(objectName.getDomain(), is("de.metas.monitoring"));
+		assertThat(objectName.getKeyProperty("type"), is("meter"));
+		assertThat(ObjectName.unquote(objectName.getKeyProperty("url")), is("http://host:8080/api?a=1,b=\"2\"*"));
+	}
+
+	@Test
+	public void toJmxName_noTags() throws Exception
+	{
+		final MetricId id = new MetricId("de.metas.monitoring", "meter", null);
+
+		assertThat(id.toJmxName(), is("de.metas.monitoring:type=meter"));
+	}
+}
@@ -0,0 +1,84 @@
+package de.metas.monitoring.api.impl;
+
+/*
+ * #%L
+ * de.metas.monitoring
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+import de.metas.monitoring.api.ITimer;
+
+public class TimerTests
+{
+	@Test
+	public void percentiles()
+	{
+		final Timer timer = new Timer();
+		for (int millis = 1; millis <= 100; millis++)
+		{
+			timer.record(millis, TimeUnit.MILLISECONDS);
+		}
+
+		assertThat(timer.getCount(), is(100L));
+		assertThat(timer.getMeanMillis(), closeTo(50.5, 0.001));
+		assertThat(timer.getMaxMillis(), closeTo(100, 0.001));
+
+		// the histogram's buckets are less than 20% wide
+		assertThat(timer.getPercentileMillis(50), closeTo(50, 10));
+		assertThat(timer.getPercentileMillis(99), closeTo(99, 1));
+		assertThat(timer.getPercentileMillis(100), closeTo(100, 0.001));
+	}
+
+	@Test
+	public void noRecordings()
+	{
+		final Timer timer = new Timer();
+
+		assertThat(timer.getCount(), is(0L));
+		assertThat(timer.getMeanMillis(), closeTo(0, 0.001));
+		assertThat(timer.getPercentileMillis(99), closeTo(0, 0.001));
+	}
+
+	@Test
+	public void prometheusText()
+	{
+		final PlainMonitoringBL monitoringBL = new PlainMonitoringBL();
+		monitoringBL.createOrGet("de.metas.async", "Processed", ImmutableMap.of("processor", "My\"Processor")).plusOne();
+
+		final ITimer timer = monitoringBL.createOrGetTimer("de.metas.async", "Duration");
+		timer.record(250, TimeUnit.MILLISECONDS);
+
+		final String text = monitoringBL.toPrometheusText();
+		assertThat(text, containsString("# TYPE metasfresh_meter_gauge gauge\n"));
+		assertThat(text, containsString("metasfresh_meter_gauge{module=\"de.metas.async\",name=\"Processed\",processor=\"My\\\"Processor\"} 1\n"));
+		assertThat(text, containsString("metasfresh_timer_seconds_count{module=\"de.metas.async\",name=\"Duration\"} 1\n"));
+		assertThat(text, containsString("metasfresh_timer_seconds_max{module=\"de.metas.async\",name=\"Duration\"} 0.25\n"));
+	}
+}
@@ -32,6 +32,7 @@ import de.metas.util.Services;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NonNull;
+import lombok.Value;
 
 /*
  * #%L
@@ -67,6 +68,20 @@ public final class MasterdataProvider
 
 	private final Map<String, OrgId> orgIdsByCode = new HashMap<>();
 
+	// all requests of one bulk usually share the same few orgs, pricing systems etc, so we look up each of them only once
+	private final Map<JsonOrganization, OrgId> orgIdsByJson = new HashMap<>();
+	private final Map<String, PricingSystemId> pricingSystemIdsByValue = new HashMap<>();
+	private final Map<String, CurrencyId> currencyIdsByCode = new HashMap<>();
+	private final Map<DocTypeKey, DocTypeId> docTypeIdsByKey = new HashMap<>();
+	private final Map<Integer, JsonOrganization> jsonOrganizationsById = new HashMap<>();
+
+	@Value
+	private static class DocTypeKey
+	{
+		JsonDocTypeInfo invoiceDocType;
+		OrgId orgId;
+	}
+
 	private final PermissionService permissionService;
 
 	@Getter
@@ -103,7 +118,7 @@ public final class MasterdataProvider
 			return null;
 		}
 
-		return priceListsRepo.getPricingSystemIdByValue(pricingSystemCode);
+		return pricingSystemIdsByValue.computeIfAbsent(pricingSystemCode, priceListsRepo::getPricingSystemIdByValue);
 	}
 
 	public OrgId getCreateOrgId(@Nullable final JsonOrganization json)
@@ -113,7 +128,10 @@ public final class MasterdataProvider
 			return defaultOrgId;
 		}
 
-		return orgIdsByCode.compute(json.getCode(), (code, existingOrgId) -> createOrUpdateOrgId(json, existingOrgId));
+		// note: the same JsonOrganization is synced only once; a different one with the same code is synced again
+		return orgIdsByJson.computeIfAbsent(
+				json,
+				j -> orgIdsByCode.compute(j.getCode(), (code, existingOrgId) -> createOrUpdateOrgId(j, existingOrgId)));
 	}
 
 	@VisibleForTesting
@@ -177,6 +195,11 @@ public final class MasterdataProvider
 	}
 
 	public JsonOrganization getJsonOrganizationById(final int orgId)
+	{
+		return jsonOrganizationsById.computeIfAbsent(orgId, this::retrieveJsonOrganizationById);
+	}
+
+	private JsonOrganization retrieveJsonOrganizationById(final int orgId)
 	{
 		final I_AD_Org orgRecord = orgsRepo.retrieveOrg(orgId);
 		if (orgRecord == null)
@@ -193,6 +216,15 @@ public final class MasterdataProvider
 	public DocTypeId getDocTypeId(
 			@NonNull final JsonDocTypeInfo invoiceDocType,
 			@NonNull final OrgId orgId)
+	{
+		return docTypeIdsByKey.computeIfAbsent(
+				new DocTypeKey(invoiceDocType, orgId),
+				key -> retrieveDocTypeId(key.getInvoiceDocType(), key.getOrgId()));
+	}
+
+	private DocTypeId retrieveDocTypeId(
+			@NonNull final JsonDocTypeInfo invoiceDocType,
+			@NonNull final OrgId orgId)
 	{
 		final String docSubType = Util.firstNotEmptyTrimmed(
 				invoiceDocType.getDocSubType(),
@@ -217,6 +249,11 @@ public final class MasterdataProvider
 		{
 			return null;
 		}
+		return currencyIdsByCode.computeIfAbsent(currencyCode, this::retrieveCurrencyId);
+	}
+
+	private CurrencyId retrieveCurrencyId(@NonNull final String currencyCode)
+	{
 		final I_C_Currency currencyRecord = Services
 				.get(ICurrencyDAO.class)
 				.retrieveCurrencyByISOCode(Env.getCtx(), currencyCode);
@@ -99,28 +99,36 @@ public class OrderCandidatesRestControllerImpl implements OrderCandidatesRestEnd
 
 		final MasterdataProvider masterdataProvider = masterdataProviderFactory.createMasterDataProvider();
 		final ITrxManager trxManager = Services.get(ITrxManager.class);
+		final ServerTiming serverTiming = new ServerTiming();
 
 		// load/create/update the master data (according to SyncAdvice) in a dedicated trx.
 		// because when creating the actual order line candidates, there is e.g. code invoked by model interceptors that gets AD_OrgInfo out of transaction.
-		trxManager.run(() -> createOrUpdateMasterdata(bulkRequest, masterdataProvider));
+		serverTiming.run("masterdata", () -> trxManager.run(() -> createOrUpdateMasterdata(bulkRequest, masterdataProvider)));
 		// the required masterdata should be there now, and cached within masterdataProvider for quick retrieval as the olcands are created.
 
-		final JsonOLCandCreateBulkResponse //
-		jsonOLCandCreateBulkResponse = trxManager.call(() ->
+		final List<OLCand> olCands = serverTiming.call("olcands", () -> trxManager.call(() ->
 
 		// invoke creatOrderLineCandidates with the unchanged bulkRequest, because the request's bpartner and product instances are
 		// (at least currently) part of the respective caching keys.
-		creatOrderLineCandidates(bulkRequest, masterdataProvider));
+		creatOrderLineCandidates(bulkRequest, masterdataProvider)));
+
+		final JsonOLCandCreateBulkResponse //
+		jsonOLCandCreateBulkResponse = serverTiming.call("json", () -> jsonConverters.toJson(olCands, masterdataProvider));
 
-		return new ResponseEntity<>(jsonOLCandCreateBulkResponse, HttpStatus.CREATED);
+		return ResponseEntity.status(HttpStatus.CREATED)
+				.header(ServerTiming.HEADER_NAME, serverTiming.toHeaderValue())
+				.body(jsonOLCandCreateBulkResponse);
 	}
 
 	private void assertCanCreate(
-			@NonNull final JsonOLCandCreateRequest request,
+			@NonNull final JsonOLCandCreateBulkRequest bulkRequest,
 			@NonNull final MasterdataProvider masterdataProvider)
 	{
-		final OrgId orgId = masterdataProvider.getCreateOrgId(request.getOrg());
-		masterdataProvider.assertCanCreateNewOLCand(orgId);
+		bulkRequest.getRequests()
+				.stream()
+				.map(request -> masterdataProvider.getCreateOrgId(request.getOrg()))
+				.distinct()
+				.forEach(masterdataProvider::assertCanCreateNewOLCand);
 	}
 
 	private void createOrUpdateMasterdata(
@@ -148,19 +156,19 @@ public class OrderCandidatesRestControllerImpl implements OrderCandidatesRestEnd
 		productMasterDataProvider.getCreateProductInfo(json.getProduct(), orgId);
 	}
 
-	private JsonOLCandCreateBulkResponse creatOrderLineCandidates(
+	private List<OLCand> creatOrderLineCandidates(
 			@NonNull final JsonOLCandCreateBulkRequest bulkRequest,
 			@NonNull final MasterdataProvider masterdataProvider)
 	{
+		assertCanCreate(bulkRequest, masterdataProvider);
+
 		final List<OLCandCreateRequest> requests = bulkRequest
 				.getRequests()
 				.stream()
-				.peek(request -> assertCanCreate(request, masterdataProvider))
 				.map(request -> fromJson(request, masterdataProvider))
 				.collect(ImmutableList.toImmutableList());
 
-		final List<OLCand> olCands = olCandRepo.create(requests);
-		return jsonConverters.toJson(olCands, masterdataProvider);
+		return olCandRepo.create(requests);
 	}
 
 	private OLCandCreateRequest fromJson(
@@ -0,0 +1,79 @@
+package de.metas.ordercandidate.rest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.adempiere.exceptions.AdempiereException;
+
+import com.google.common.base.Stopwatch;
+
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.ordercandidate.rest-api-impl
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Measures the phases of one REST call and renders them as a {@value #HEADER_NAME} response header
+ * (e.g. {@code masterdata;dur=120, olcands;dur=3400}), so API clients can see where the time was spent.
+ */
+final class ServerTiming
+{
+	public static final String HEADER_NAME = "Server-Timing";
+
+	private final Map<String, Long> durationMillisByPhase = new LinkedHashMap<>();
+
+	public void run(@NonNull final String phase, @NonNull final Runnable runnable)
+	{
+		call(phase, () -> {
+			runnable.run();
+			return null;
+		});
+	}
+
+	public <T> T call(@NonNull final String phase, @NonNull final Callable<T> callable)
+	{
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		try
+		{
+			return callable.call();
+		}
+		catch (final Exception ex)
+		{
+			throw AdempiereException.wrapIfNeeded(ex);
+		}
+		finally
+		{
+			durationMillisByPhase.merge(phase, stopwatch.elapsed(TimeUnit.MILLISECONDS), Long::sum);
+		}
+	}
+
+	public String toHeaderValue()
+	{
+		return durationMillisByPhase.entrySet()
+				.stream()
+				.map(entry -> entry.getKey() + ";dur=" + entry.getValue())
+				.collect(Collectors.joining(", "));
+	}
+}
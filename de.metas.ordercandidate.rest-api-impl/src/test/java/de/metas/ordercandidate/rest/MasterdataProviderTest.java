@@ -146,4 +146,40 @@ public class MasterdataProviderTest
 		assertThat(bpartnerRecord.getValue()).isEqualTo("jsonBPartner.code");
 		assertThat(bpartnerRecord.getName()).isEqualTo("jsonBPartner.name");
 	}
+
+	@Test
+	void getCreateOrgId_sameJsonIsSyncedOnlyOnce()
+	{
+		final OrgId orgId = masterdataProvider.getCreateOrgId(jsonOrganization);
+
+		final I_AD_Org orgRecord = load(orgId, I_AD_Org.class);
+		orgRecord.setName("changedMeanwhile");
+		saveRecord(orgRecord);
+
+		// same (equal) JSON => memoized, the record is not synced again
+		final JsonOrganization equalJsonOrganization = jsonOrganization.toBuilder().build();
+		assertThat(masterdataProvider.getCreateOrgId(equalJsonOrganization)).isEqualTo(orgId);
+		assertThat(load(orgId, I_AD_Org.class).getName()).isEqualTo("changedMeanwhile");
+
+		// different JSON with the same code => synced again
+		final JsonOrganization otherJsonOrganization = jsonOrganization.toBuilder().name("otherName").build();
+		assertThat(masterdataProvider.getCreateOrgId(otherJsonOrganization)).isEqualTo(orgId);
+		assertThat(load(orgId, I_AD_Org.class).getName()).isEqualTo("otherName");
+	}
+
+	@Test
+	void getJsonOrganizationById_memoized()
+	{
+		final OrgId orgId = masterdataProvider.getCreateOrgId(jsonOrganization);
+
+		final JsonOrganization json = masterdataProvider.getJsonOrganizationById(orgId.getRepoId());
+		assertThat(json.getCode()).isEqualTo("jsonOrganization.code");
+		assertThat(json.getName()).isEqualTo("jsonOrganization.name");
+
+		final I_AD_Org orgRecord = load(orgId, I_AD_Org.class);
+		orgRecord.setName("changedMeanwhile");
+		saveRecord(orgRecord);
+
+		assertThat(masterdataProvider.getJsonOrganizationById(orgId.getRepoId())).isSameAs(json);
+	}
 }
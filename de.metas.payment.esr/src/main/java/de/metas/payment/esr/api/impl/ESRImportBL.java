@@ -36,6 +36,7 @@ import org.adempiere.service.IOrgDAO;
 import org.adempiere.service.ISysConfigBL;
 import org.adempiere.util.lang.IMutable;
 import org.adempiere.util.lang.Mutable;
+import org.adempiere.util.lang.MutableInt;
 import org.compiere.acct.Doc;
 import org.compiere.model.I_AD_Org;
 import org.compiere.model.I_C_BPartner;
@@ -169,15 +170,46 @@ public class ESRImportBL implements IESRImportBL
 			@NonNull final I_ESR_Import esrImport,
 			@NonNull final InputStream in)
 	{
-		int countLines = 0;
 		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
-		if (sysConfigBL.getBooleanValue(ESRConstants.SYSCONFIG_CHECK_DUPLICATED, false))
+		final IESRImportDAO esrImportDAO = Services.get(IESRImportDAO.class);
+
+		// if there are already lines before starting reading the file, means that we already tried to import once.
+		// load their keys once, instead of querying for every single transaction
+		final Set<String> existingLineTexts = new HashSet<>();
+		final boolean checkDuplicates = sysConfigBL.getBooleanValue(ESRConstants.SYSCONFIG_CHECK_DUPLICATED, false)
+				&& esrImportDAO.countLines(esrImport, null) > 0;
+		if (checkDuplicates)
 		{
-			countLines = Services.get(IESRImportDAO.class).countLines(esrImport, null);
+			esrImportDAO.retrieveLines(esrImport)
+					.stream()
+					.map(I_ESR_ImportLine::getESRLineText)
+					.filter(Objects::nonNull)
+					.map(ESRImportBL::normalizeLineText)
+					.forEach(existingLineTexts::add);
 		}
 
+		// create the lines while the importer is reading the input, so that we never have all the transactions in memory
+		final MutableInt lineNo = MutableInt.zero();
 		final IESRDataImporter loader = ESRDataLoaderFactory.createImporter(esrImport, in);
-		final ESRStatement esrStatement = loader.importData();
+		final ESRStatement esrStatement = loader.importData(esrTransaction -> {
+			lineNo.incrementAndGet();
+
+			//
+			// create line only if does not exist
+			// (transactions without key can't be matched, so they are always created, just like before)
+			final String transactionKey = esrTransaction.getTransactionKey();
+			if (transactionKey != null && existingLineTexts.contains(normalizeLineText(transactionKey)))
+			{
+				return;
+			}
+
+			createEsrImportLine(esrImport, lineNo.getValue(), esrTransaction);
+			if (checkDuplicates && transactionKey != null)
+			{
+				// also skip a transaction which occurs more than once in the file itself
+				existingLineTexts.add(normalizeLineText(transactionKey));
+			}
+		});
 		try
 		{
 			in.close();
@@ -198,31 +230,17 @@ public class ESRImportBL implements IESRImportBL
 		// TODO verify that the bankaccounts match!
 		save(esrImport);
 
-		final List<ESRTransaction> transactions = esrStatement.getTransactions();
-		int lineNo = 0;
-		for (final ESRTransaction esrTransaction : transactions)
-		{
-			lineNo++;
-
-			//
-			// create line only if does not exist
-			I_ESR_ImportLine existentLine = null;
-			// if there are already lines before starting reading the file, means that we already tried to import once
-			if (countLines > 0)
-			{
-				existentLine = Services.get(IESRImportDAO.class).fetchLineForESRLineText(esrImport, esrTransaction.getTransactionKey());
-				if (existentLine != null)
-				{
-					continue;
-				}
-			}
-
-			createEsrImportLine(esrImport, lineNo, esrTransaction);
-		}
-
 		evaluate(esrImport);
 	}
 
+	/**
+	 * Same matching rule as {@link IESRImportDAO#fetchLineForESRLineText(I_ESR_Import, String)}: trimmed and case insensitive.
+	 */
+	private static String normalizeLineText(@NonNull final String esrLineText)
+	{
+		return esrLineText.trim().toLowerCase();
+	}
+
 	private I_ESR_ImportLine createEsrImportLine(final I_ESR_Import esrImport, final int lineNo, final ESRTransaction esrTransaction)
 	{
 		final I_ESR_ImportLine importLine = ESRDataLoaderUtil.newLine(esrImport);
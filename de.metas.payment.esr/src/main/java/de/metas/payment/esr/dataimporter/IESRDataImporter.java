@@ -1,5 +1,7 @@
 package de.metas.payment.esr.dataimporter;
 
+import java.util.function.Consumer;
+
 /*
  * #%L
  * de.metas.payment.esr
@@ -30,4 +32,23 @@ public interface IESRDataImporter
 	 * @return
 	 */
 	ESRStatement importData();
+
+	/**
+	 * Import the data and hand each {@link ESRTransaction} to the given consumer, as soon as it was read.
+	 * <p>
+	 * Importers which are able to read their input incrementally shall override this method, so that the transactions don't need to be held in memory all at once.
+	 *
+	 * @return the statement's header data (control amount and qty, error messages), but without transactions
+	 */
+	default ESRStatement importData(final Consumer<ESRTransaction> transactionsConsumer)
+	{
+		final ESRStatement statement = importData();
+		statement.getTransactions().forEach(transactionsConsumer);
+
+		return ESRStatement.builder()
+				.ctrlAmount(statement.getCtrlAmount())
+				.ctrlQty(statement.getCtrlQty())
+				.errorMsgs(statement.getErrorMsgs())
+				.build();
+	}
 }
@@ -0,0 +1,131 @@
+package de.metas.payment.esr.dataimporter.impl.camt54;
+
+import java.math.BigDecimal;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.adempiere.exceptions.AdempiereException;
+
+import de.metas.payment.esr.dataimporter.ESRStatement;
+import lombok.Builder;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.payment.esr
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Reads a camt.054 XML entry by entry: each <code>GrpHdr</code> and <code>Ntry</code> element is unmarshalled on its own,
+ * so the JAXB object graph of the whole document is never held in memory.
+ * <p>
+ * The schema version specific parts (JAXB classes, amount and transaction extraction) are provided by the caller.
+ *
+ * @param <H> the version's <code>GrpHdr</code> type
+ * @param <E> the version's <code>Ntry</code> type
+ */
+final class Camt54StreamingStatementReader<H, E>
+{
+	private final XMLStreamReader xsr;
+	private final Class<?> documentClass;
+
+	private final Class<H> groupHeaderClass;
+	private final Function<H, String> groupHeaderAddtlInfGetter;
+
+	private final Class<E> entryClass;
+	private final Function<E, BigDecimal> entryAmountGetter;
+	private final BiFunction<BigDecimal, E, BigDecimal> entryProcessor;
+
+	/**
+	 * @param documentClass the version's JAXB <code>Document</code> class, used to create the JAXB context
+	 * @param entryProcessor gets the control qty so far and the entry; shall hand over the entry's transactions and return the new control qty
+	 */
+	@Builder
+	private Camt54StreamingStatementReader(
+			@NonNull final XMLStreamReader xsr,
+			@NonNull final Class<?> documentClass,
+			@NonNull final Class<H> groupHeaderClass,
+			@NonNull final Function<H, String> groupHeaderAddtlInfGetter,
+			@NonNull final Class<E> entryClass,
+			@NonNull final Function<E, BigDecimal> entryAmountGetter,
+			@NonNull final BiFunction<BigDecimal, E, BigDecimal> entryProcessor)
+	{
+		this.xsr = xsr;
+		this.documentClass = documentClass;
+		this.groupHeaderClass = groupHeaderClass;
+		this.groupHeaderAddtlInfGetter = groupHeaderAddtlInfGetter;
+		this.entryClass = entryClass;
+		this.entryAmountGetter = entryAmountGetter;
+		this.entryProcessor = entryProcessor;
+	}
+
+	/**
+	 * @return statement with control amount and qty, but <b>without</b> the transactions
+	 */
+	public ESRStatement read()
+	{
+		BigDecimal ctrAmount = BigDecimal.ZERO;
+
+		BigDecimal ctrlQty = ESRDataImporterCamt54.CTRL_QTY_NOT_YET_SET;
+
+		try
+		{
+			final Unmarshaller unmarshaller = JAXBContext.newInstance(documentClass).createUnmarshaller();
+			while (xsr.hasNext())
+			{
+				if (xsr.isStartElement() && ESRDataImporterCamt54.ELEMENT_GrpHdr.equals(xsr.getLocalName()))
+				{
+					final H grpHdr = unmarshaller.unmarshal(xsr, groupHeaderClass).getValue();
+					ESRDataImporterCamt54.logIfTestFile(groupHeaderAddtlInfGetter.apply(grpHdr));
+					continue; // the reader is already positioned after the element
+				}
+				else if (xsr.isStartElement() && ESRDataImporterCamt54.ELEMENT_Ntry.equals(xsr.getLocalName()))
+				{
+					// gh #1947: there can be many ntry records
+					final E ntry = unmarshaller.unmarshal(xsr, entryClass).getValue();
+
+					ctrAmount = ctrAmount.add(entryAmountGetter.apply(ntry));
+					ctrlQty = entryProcessor.apply(ctrlQty, ntry);
+					continue; // the reader is already positioned after the element
+				}
+
+				xsr.next();
+			}
+		}
+		catch (final JAXBException | XMLStreamException e)
+		{
+			throw AdempiereException.wrapIfNeeded(e);
+		}
+
+		// only use the control qty if all ntry had one set. If one was null, then forward null
+		final BigDecimal ctrlQtyForStatement = ctrlQty.compareTo(ESRDataImporterCamt54.CTRL_QTY_AT_LEAST_ONE_NULL) == 0 ? null : ctrlQty;
+
+		return ESRStatement.builder()
+				.ctrlAmount(ctrAmount)
+				.ctrlQty(ctrlQtyForStatement)
+				.build();
+	}
+}
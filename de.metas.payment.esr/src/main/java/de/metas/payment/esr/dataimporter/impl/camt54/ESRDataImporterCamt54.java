@@ -3,6 +3,9 @@ package de.metas.payment.esr.dataimporter.impl.camt54;
 import java.io.IOException;
 import java.io.InputStream;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
 
 import javax.annotation.Nullable;
 import javax.xml.stream.XMLInputFactory;
@@ -21,9 +24,8 @@ import com.google.common.base.Objects;
 
 import ch.qos.logback.classic.Level;
 import de.metas.logging.LogManager;
-import de.metas.payment.camt054_001_02.BankToCustomerDebitCreditNotificationV02;
-import de.metas.payment.camt054_001_06.BankToCustomerDebitCreditNotificationV06;
 import de.metas.payment.esr.dataimporter.ESRStatement;
+import de.metas.payment.esr.dataimporter.ESRTransaction;
 import de.metas.payment.esr.dataimporter.IESRDataImporter;
 import de.metas.payment.esr.model.I_ESR_Import;
 import de.metas.util.Loggables;
@@ -81,6 +83,9 @@ public class ESRDataImporterCamt54 implements IESRDataImporter
 
 	protected static final String MSG_BANK_ACCOUNT_MISMATCH_2P = "ESR_CAMT54_BankAccountMismatch";
 
+	static final String ELEMENT_GrpHdr = "GrpHdr";
+	static final String ELEMENT_Ntry = "Ntry";
+
 	private static final transient Logger logger = LogManager.getLogger(ESRDataImporterCamt54.class);
 
 	private final I_ESR_Import header;
@@ -135,9 +140,26 @@ public class ESRDataImporterCamt54 implements IESRDataImporter
 
 	@Override
 	public ESRStatement importData()
+	{
+		final List<ESRTransaction> transactions = new ArrayList<>();
+		final ESRStatement statement = importData(transactions::add);
+
+		return ESRStatement.builder()
+				.ctrlAmount(statement.getCtrlAmount())
+				.ctrlQty(statement.getCtrlQty())
+				.errorMsgs(statement.getErrorMsgs())
+				.transactions(transactions)
+				.build();
+	}
+
+	/**
+	 * Unmarshals the input entry by entry and hands each transaction to the given consumer right away, so the memory usage does not depend on the file size.
+	 */
+	@Override
+	public ESRStatement importData(@NonNull final Consumer<ESRTransaction> transactionsConsumer)
 	{
 		XMLStreamReader xsr = null;
-		try
+		try (final IAutoCloseable switchContext = Env.switchContext(InterfaceWrapperHelper.getCtx(header, true)))
 		{
 			final XMLInputFactory xif = XMLInputFactory.newInstance();
 			xsr = xif.createXMLStreamReader(input);
@@ -148,13 +170,12 @@ public class ESRDataImporterCamt54 implements IESRDataImporter
 
 			if (isVersion2Schema(getNameSpaceURI(mxsr)))
 			{
-				return importCamt54v02(mxsr);
+				return new ESRDataImporterCamt54v02(header, mxsr).createESRStatement(transactionsConsumer);
 			}
 			else
 			{
-				return importCamt54v06(mxsr);
+				return new ESRDataImporterCamt54v06(header, mxsr).createESRStatement(transactionsConsumer);
 			}
-
 		}
 		catch (final XMLStreamException e)
 		{
@@ -164,36 +185,13 @@ public class ESRDataImporterCamt54 implements IESRDataImporter
 		{
 			closeXmlReaderAndInputStream(xsr);
 		}
-
-	}
-
-	private ESRStatement importCamt54v02(final MultiVersionStreamReaderDelegate mxsr)
-	{
-		final ESRDataImporterCamt54v02 importerV02 = new ESRDataImporterCamt54v02(header, mxsr);
-		final BankToCustomerDebitCreditNotificationV02 bkToCstmrDbtCdtNtfctn = importerV02.loadXML();
-		if (bkToCstmrDbtCdtNtfctn.getGrpHdr() != null && bkToCstmrDbtCdtNtfctn.getGrpHdr().getAddtlInf() != null)
-		{
-			Loggables.get().withLogger(logger, Level.INFO).addLog("The given input is a test file: bkToCstmrDbtCdtNtfctn/grpHdr/addtlInf={}", bkToCstmrDbtCdtNtfctn.getGrpHdr().getAddtlInf());
-		}
-
-		try (final IAutoCloseable switchContext = Env.switchContext(InterfaceWrapperHelper.getCtx(header, true)))
-		{
-			return importerV02.createESRStatement(bkToCstmrDbtCdtNtfctn);
-		}
 	}
 
-	private ESRStatement importCamt54v06(final MultiVersionStreamReaderDelegate mxsr)
+	static void logIfTestFile(@Nullable final String addtlInf)
 	{
-		final ESRDataImporterCamt54v06 importerV06 = new ESRDataImporterCamt54v06(header, mxsr);
-		final BankToCustomerDebitCreditNotificationV06 bkToCstmrDbtCdtNtfctn = importerV06.loadXML();
-		if (bkToCstmrDbtCdtNtfctn.getGrpHdr() != null && bkToCstmrDbtCdtNtfctn.getGrpHdr().getAddtlInf() != null)
-		{
-			Loggables.get().withLogger(logger, Level.INFO).addLog("The given input is a test file: bkToCstmrDbtCdtNtfctn/grpHdr/addtlInf={}", bkToCstmrDbtCdtNtfctn.getGrpHdr().getAddtlInf());
-		}
-
-		try (final IAutoCloseable switchContext = Env.switchContext(InterfaceWrapperHelper.getCtx(header, true)))
+		if (addtlInf != null)
 		{
-			return importerV06.createESRStatement(bkToCstmrDbtCdtNtfctn);
+			Loggables.get().withLogger(logger, Level.INFO).addLog("The given input is a test file: bkToCstmrDbtCdtNtfctn/grpHdr/addtlInf={}", addtlInf);
 		}
 	}
 
@@ -6,13 +6,10 @@ import java.math.BigDecimal;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 import javax.annotation.Nullable;
 import javax.xml.bind.JAXB;
-import javax.xml.bind.JAXBContext;
-import javax.xml.bind.JAXBElement;
-import javax.xml.bind.JAXBException;
-import javax.xml.bind.Unmarshaller;
 
 import org.adempiere.exceptions.AdempiereException;
 import org.compiere.util.Env;
@@ -20,13 +17,12 @@ import org.compiere.util.Env;
 import com.google.common.annotations.VisibleForTesting;
 
 import de.metas.i18n.IMsgBL;
-import de.metas.payment.camt054_001_06.AccountNotification12;
 import de.metas.payment.camt054_001_06.ActiveOrHistoricCurrencyAndAmount;
-import de.metas.payment.camt054_001_06.BankToCustomerDebitCreditNotificationV06;
 import de.metas.payment.camt054_001_06.CreditDebitCode;
 import de.metas.payment.camt054_001_06.DateAndDateTimeChoice;
 import de.metas.payment.camt054_001_06.Document;
 import de.metas.payment.camt054_001_06.EntryDetails7;
+import de.metas.payment.camt054_001_06.GroupHeader58;
 import de.metas.payment.camt054_001_06.EntryTransaction8;
 import de.metas.payment.camt054_001_06.ReportEntry8;
 import de.metas.payment.esr.ESRConstants;
@@ -70,10 +66,10 @@ import lombok.NonNull;
  * Lots of methods are duplicated from <code>ESRDataImporterCamt54v02</code>
  * Important logical differences are in methods:
  * <ul>
- * <li><code>de.metas.payment.esr.dataimporter.impl.camt54.ESRDataImporterCamt54v06.loadXML()/code>
- * <li><code>de.metas.payment.esr.dataimporter.impl.camt54.ESRDataImporterCamt54v06.verifyTransactionCurrency(EntryTransaction8, ESRTransactionBuilder)/code>
+ * <li><code>de.metas.payment.esr.dataimporter.impl.camt54.ESRDataImporterCamt54v06.createESRStatement(Consumer)</code>
+ * <li><code>de.metas.payment.esr.dataimporter.impl.camt54.ESRDataImporterCamt54v06.verifyTransactionCurrency(EntryTransaction8, ESRTransactionBuilder)</code>
  * <li><code>de.metas.payment.esr.dataimporter.impl.camt54.ESRDataImporterCamt54v06.extractAmountAndType(ReportEntry8, EntryTransaction8, ESRTransactionBuilder)</code>
- * </ul>	
+ * </ul>
  * For the rest, the difference is the object generated from xsd
  * 
  * <p>
@@ -113,41 +109,27 @@ public class ESRDataImporterCamt54v06
 
 	
 	/**
-	 * create ESRStatement using <code>BankToCustomerDebitCreditNotificationV06</code>
-	 * @param bkToCstmrDbtCdtNtfctn
-	 * @return
+	 * Reads the XML entry by entry, see {@link Camt54StreamingStatementReader}.
+	 * 
+	 * @param transactionsConsumer gets each {@link ESRTransaction} as soon as its <code>Ntry</code> was read
+	 * @return statement with control amount and qty, but <b>without</b> the transactions
 	 */
-	public ESRStatement createESRStatement(@NonNull final BankToCustomerDebitCreditNotificationV06 bkToCstmrDbtCdtNtfctn)
+	public ESRStatement createESRStatement(@NonNull final Consumer<ESRTransaction> transactionsConsumer)
 	{
-		final ESRStatementBuilder stmtBuilder = ESRStatement.builder();
-
-		BigDecimal ctrAmount = BigDecimal.ZERO;
-
-		BigDecimal ctrlQty = ESRDataImporterCamt54.CTRL_QTY_NOT_YET_SET;
-
-		for (final AccountNotification12 ntfctn : bkToCstmrDbtCdtNtfctn.getNtfctn())
-		{
-			for (final ReportEntry8 ntry : ntfctn.getNtry()) // gh #1947: there can be many ntry records
-			{
-				final BigDecimal ntryAmt = ntry.getAmt().getValue()
+		return Camt54StreamingStatementReader.<GroupHeader58, ReportEntry8> builder()
+				.xsr(xsr)
+				.documentClass(Document.class)
+				.groupHeaderClass(GroupHeader58.class)
+				.groupHeaderAddtlInfGetter(GroupHeader58::getAddtlInf)
+				.entryClass(ReportEntry8.class)
+				.entryAmountGetter(ntry -> ntry.getAmt().getValue()
 						.multiply(getCrdDbtMultiplier(ntry.getCdtDbtInd()))
-						.multiply(getRvslMultiplier(ntry));
-
-				ctrAmount = ctrAmount.add(ntryAmt);
-				ctrlQty = iterateEntryDetails(stmtBuilder, ctrlQty, ntry);
-			} // for ntry
-		} // ntfctn
-
-		// only use the control qty if all ntry had one set. If one was null, then forward null
-		final BigDecimal ctrlQtyForStatement = ctrlQty.compareTo(ESRDataImporterCamt54.CTRL_QTY_AT_LEAST_ONE_NULL) == 0 ? null : ctrlQty;
-
-		return stmtBuilder
-				.ctrlAmount(ctrAmount)
-				.ctrlQty(ctrlQtyForStatement)
-				.build();
+						.multiply(getRvslMultiplier(ntry)))
+				.entryProcessor((ctrlQty, ntry) -> iterateEntryDetails(transactionsConsumer, ctrlQty, ntry))
+				.build()
+				.read();
 	}
-	
-	
+
 	/**
 	 * iterateEntryDetails for version 6 <code>BankToCustomerDebitCreditNotificationV06</code>
 	 * @param stmtBuilder builder to which the individual {@link ESRTransaction}s are added.
@@ -160,6 +142,14 @@ public class ESRDataImporterCamt54v06
 			@NonNull final ESRStatementBuilder stmtBuilder,
 			@Nullable final BigDecimal ctrlQty,
 			@NonNull final ReportEntry8 ntry)
+	{
+		return iterateEntryDetails(stmtBuilder::transaction, ctrlQty, ntry);
+	}
+
+	private BigDecimal iterateEntryDetails(
+			@NonNull final Consumer<ESRTransaction> transactionsConsumer,
+			@Nullable final BigDecimal ctrlQty,
+			@NonNull final ReportEntry8 ntry)
 	{
 		BigDecimal newCtrlQty = ctrlQty;
 		for (final EntryDetails7 ntryDtl : ntry.getNtryDtls())
@@ -185,7 +175,7 @@ public class ESRDataImporterCamt54v06
 			}
 
 			final List<ESRTransaction> transactions = iterateTransactionDetails(ntry, ntryDtl);
-			stmtBuilder.transactions(transactions);
+			transactions.forEach(transactionsConsumer);
 
 		} // ntryDtl
 
@@ -336,33 +326,6 @@ public class ESRDataImporterCamt54v06
 		}
 	}
 	
-	public BankToCustomerDebitCreditNotificationV06 loadXML()
-	{
-		final Document document;
-		try
-		{
-			final JAXBContext context = JAXBContext.newInstance(Document.class);
-			final Unmarshaller unmarshaller = context.createUnmarshaller();
-
-			// https://github.com/metasfresh/metasfresh/issues/1903
-			// use a delegate to make sure that the unmarshaller won't refuse camt.054.001.02 , camt.054.001.04 and amt.054.001.05
-			@SuppressWarnings("unchecked")
-			final JAXBElement<Document> e = (JAXBElement<Document>)unmarshaller.unmarshal(xsr);
-			document = e.getValue();
-			
-		}
-		catch (final JAXBException  e)
-		{
-			throw AdempiereException.wrapIfNeeded(e);
-		}
-		
-		
-
-		final BankToCustomerDebitCreditNotificationV06 bkToCstmrDbtCdtNtfctn = document.getBkToCstmrDbtCdtNtfctn();
-		return bkToCstmrDbtCdtNtfctn;
-	}
-
-
 	/**
 	 * Marshals the given {@code} into an XML string and return that as the "key".
 	 * mkTrxKey for version 6 <code>BankToCustomerDebitCreditNotificationV06</code>
@@ -5,6 +5,8 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import java.io.InputStream;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.adempiere.test.AdempiereTestHelper;
 import org.assertj.core.api.Condition;
@@ -72,6 +74,22 @@ public class ESRDataImporterCamt54V06Tests
 				.isEqualByComparingTo("10");
 	}
 
+	@Test
+	public void testWithSampleFile_streaming()
+	{
+		final InputStream inputStream = getClass().getResourceAsStream("/camt054.xml");
+		assertThat(inputStream).isNotNull();
+
+		final List<ESRTransaction> transactions = new ArrayList<>();
+		final ESRStatement importData = new ESRDataImporterCamt54(newInstance(I_ESR_Import.class), inputStream).importData(transactions::add);
+
+		assertThat(importData.getTransactions()).as("the transactions are passed to the consumer and not collected").isEmpty();
+		assertThat(transactions).hasSize(10).are(trxHasNoErrors);
+
+		assertThat(importData.getCtrlAmount()).isEqualByComparingTo("1000");
+		assertThat(importData.getCtrlQty()).isEqualByComparingTo("10");
+	}
+
 	/**
 	 * Verifies that is there is one input file without any "Batch" tag, then CtrlQty is null
 	 */
@@ -1,5 +1,7 @@
 package de.metas.payment.sepa.api;
 
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Properties;
 
@@ -23,6 +25,16 @@ public interface ISEPADocumentDAO extends ISingletonService
 
 	List<I_SEPA_Export_Line> retrieveLines(I_SEPA_Export doc);
 
+	/**
+	 * Same lines and same order as {@link #retrieveLines(I_SEPA_Export)}, but without loading them all into memory at once.
+	 */
+	Iterator<I_SEPA_Export_Line> retrieveLinesIterator(I_SEPA_Export doc);
+
+	/**
+	 * @return the lines with the given IDs, in no particular order
+	 */
+	List<I_SEPA_Export_Line> retrieveLinesByIds(Collection<Integer> sepaExportLineIds);
+
 	/**
 	 * Vs82 05761
 	 * Retrieve all SEPA export lines with IsDebitTrxFailed = 'Y' and action Partner-Zahlungsweise zu "auf Rechnung" ändern (change payment rule to from direct debit to invoice)
@@ -23,8 +23,10 @@ package de.metas.payment.sepa.api.impl;
  */
 
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.OutputStream;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Date;
@@ -214,7 +216,8 @@ public class SEPADocumentBL implements ISEPADocumentBL
 
 		try
 		{
-			final FileOutputStream out = new FileOutputStream(fileName, false);
+			// the marshaler writes the document element by element, so make sure we don't hit the disk for each of them
+			final OutputStream out = new BufferedOutputStream(new FileOutputStream(fileName, false));
 			try
 			{
 				// marshaler based on xsd from the https://validation.iso-payments.ch download section
@@ -23,11 +23,14 @@ package de.metas.payment.sepa.api.impl;
  */
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Properties;
 
 import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.ad.dao.IQueryBuilder;
 import org.adempiere.model.InterfaceWrapperHelper;
 import org.compiere.model.I_C_BPartner;
 import org.compiere.model.Query;
@@ -62,6 +65,21 @@ public class SEPADocumentDAO implements ISEPADocumentDAO
 
 	@Override
 	public List<I_SEPA_Export_Line> retrieveLines(@NonNull final I_SEPA_Export doc)
+	{
+		return createLinesQueryBuilder(doc)
+				.create()
+				.list();
+	}
+
+	@Override
+	public Iterator<I_SEPA_Export_Line> retrieveLinesIterator(@NonNull final I_SEPA_Export doc)
+	{
+		return createLinesQueryBuilder(doc)
+				.create()
+				.iterate(I_SEPA_Export_Line.class);
+	}
+
+	private IQueryBuilder<I_SEPA_Export_Line> createLinesQueryBuilder(@NonNull final I_SEPA_Export doc)
 	{
 		return Services.get(IQueryBL.class).createQueryBuilder(I_SEPA_Export_Line.class)
 				.addOnlyActiveRecordsFilter()
@@ -69,7 +87,18 @@ public class SEPADocumentDAO implements ISEPADocumentDAO
 				.addEqualsFilter(I_SEPA_Export_Line.COLUMNNAME_SEPA_Export_ID, doc.getSEPA_Export_ID())
 				.orderBy()
 				.addColumn(I_SEPA_Export_Line.COLUMN_C_Currency_ID)
-				.addColumn(I_SEPA_Export_Line.COLUMN_SEPA_Export_Line_ID).endOrderBy()
+				.addColumn(I_SEPA_Export_Line.COLUMN_SEPA_Export_Line_ID).endOrderBy();
+	}
+
+	@Override
+	public List<I_SEPA_Export_Line> retrieveLinesByIds(@NonNull final Collection<Integer> sepaExportLineIds)
+	{
+		if (sepaExportLineIds.isEmpty())
+		{
+			return Collections.emptyList();
+		}
+		return Services.get(IQueryBL.class).createQueryBuilder(I_SEPA_Export_Line.class)
+				.addInArrayFilter(I_SEPA_Export_Line.COLUMN_SEPA_Export_Line_ID, sepaExportLineIds)
 				.create()
 				.list();
 	}
@@ -2,7 +2,11 @@ package de.metas.payment.sepa.sepamarshaller.impl;
 
 import static java.math.BigDecimal.ZERO;
 
+import lombok.Builder;
+import lombok.Getter;
 import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
 
 import javax.annotation.Nullable;
 
@@ -29,18 +33,19 @@ import javax.annotation.Nullable;
  */
 
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
-import java.io.UnsupportedEncodingException;
-import java.io.Writer;
 import java.math.BigDecimal;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 import java.util.function.Supplier;
 
+import javax.xml.XMLConstants;
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBElement;
 import javax.xml.bind.JAXBException;
@@ -48,6 +53,14 @@ import javax.xml.bind.Marshaller;
 import javax.xml.datatype.DatatypeConfigurationException;
 import javax.xml.datatype.DatatypeFactory;
 import javax.xml.datatype.XMLGregorianCalendar;
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.XMLEvent;
 
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.exceptions.AdempiereException;
@@ -63,6 +76,9 @@ import org.compiere.util.Util;
 import org.compiere.util.Util.ArrayKey;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Maps;
 
 import de.metas.bpartner.service.IBPartnerDAO;
 import de.metas.i18n.IMsgBL;
@@ -110,7 +126,6 @@ import de.metas.util.Services;
 import de.metas.util.StringUtils;
 import de.metas.util.StringUtils.TruncateAt;
 import de.metas.util.time.SystemTime;
-import de.metas.util.xml.DynamicObjectFactory;
 
 /**
  * Written according to "Schweizer Implementation Guidelines für Kunde-an-Bank-Meldungen für Überweisungen im Zahlungsverkehr", "Version 1.4/30.06.2013". There link is
@@ -141,6 +156,15 @@ public class SEPACustomerCTIMarshaler_Pain_001_001_03_CH_02
 	 */
 	private static final String PAIN_001_001_03_CH_02 = "pain.001.001.03.ch.02";
 
+	/** Target namespace of {@value #PAIN_001_001_03_CH_02}. */
+	private static final String NAMESPACE = "http://www.six-interbank-clearing.com/de/pain.001.001.03.ch.02.xsd";
+	private static final QName QNAME_GrpHdr = new QName(NAMESPACE, "GrpHdr");
+	private static final QName QNAME_PmtInf = new QName(NAMESPACE, "PmtInf");
+	private static final QName QNAME_CdtTrfTxInf = new QName(NAMESPACE, "CdtTrfTxInf");
+
+	/** How many lines are loaded at once while writing the document. */
+	private static final int STREAMING_LinesChunkSize = 500;
+
 	/** Title: "ISR" */
 	private static final String PAYMENT_TYPE_1 = "PAYMENT_TYPE_1";
 
@@ -187,106 +211,270 @@ public class SEPACustomerCTIMarshaler_Pain_001_001_03_CH_02
 		}
 	}
 
-	private void marshal(
-			@NonNull final Document xmlDocument,
+	public void marshal(
+			@NonNull final I_SEPA_Export sepaDocument,
 			@NonNull final OutputStream out)
 	{
-		// We force UTF-8 encoding.
-		Writer xmlWriter;
 		try
 		{
-			xmlWriter = new OutputStreamWriter(out, encoding);
+			marshalStreaming(sepaDocument, out);
 		}
-		catch (UnsupportedEncodingException e)
+		catch (final Exception e)
 		{
-			throw new AdempiereException("Could not use encoding " + encoding + ": " + e.getLocalizedMessage());
+			throw new AdempiereException("Error while marshaling " + sepaDocument, e);
 		}
+	}
 
-		try
+	/**
+	 * Writes the same elements and values as {@link #createDocument(I_SEPA_Export)} would contain, but without building the whole document in memory (the output is not indented though).
+	 * <ol>
+	 * <li>The first pass iterates the lines and only remembers their IDs, their payment instruction group and the control sums.
+	 * <li>The second pass loads the lines again in chunks and writes each payment instruction and transaction as soon as it was created.
+	 * </ol>
+	 */
+	private void marshalStreaming(
+			@NonNull final I_SEPA_Export sepaDocument,
+			@NonNull final OutputStream out) throws JAXBException, XMLStreamException
+	{
+		final ISEPADocumentDAO sepaDocumentDAO = Services.get(ISEPADocumentDAO.class);
+
+		final List<PmtInfPlan> pmtInfPlans = createPmtInfPlans(sepaDocumentDAO.retrieveLinesIterator(sepaDocument));
+		if (pmtInfPlans.isEmpty())
+		{
+			throw createNoLinesException(sepaDocument);
+		}
+
+		final GroupHeader32CH grpHdr = createGroupHeader(sepaDocument);
+		grpHdr.setNbOfTxs(String.valueOf(pmtInfPlans.stream().mapToInt(plan -> plan.getLines().size()).sum()));
+		grpHdr.setCtrlSum(pmtInfPlans.stream().map(PmtInfPlan::getCtrlSum).reduce(ZERO, BigDecimal::add));
+
+		sepaDocument.setProcessed(true);
+		InterfaceWrapperHelper.save(sepaDocument);
+
+		final JAXBContext jaxbContext = JAXBContext.newInstance(Document.class.getPackage().getName());
+		final Marshaller marshaller = jaxbContext.createMarshaller();
+		marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
+
+		final XMLEventFactory eventFactory = XMLEventFactory.newFactory();
+		final XMLEventWriter xmlWriter = XMLOutputFactory.newFactory().createXMLEventWriter(out, encoding);
+
+		xmlWriter.add(eventFactory.createStartDocument(encoding, "1.0", true));
+		xmlWriter.add(eventFactory.createStartElement("", NAMESPACE, "Document"));
+		xmlWriter.add(eventFactory.createNamespace(NAMESPACE));
+		xmlWriter.add(eventFactory.createNamespace("xsi", XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI));
+		xmlWriter.add(eventFactory.createAttribute("xsi", XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI, "schemaLocation", "urn:sepade:xsd:" + PAIN_001_001_03_CH_02 + " " + PAIN_001_001_03_CH_02 + ".xsd"));
+		xmlWriter.add(eventFactory.createStartElement("", NAMESPACE, "CstmrCdtTrfInitn"));
+
+		marshaller.marshal(new JAXBElement<>(QNAME_GrpHdr, GroupHeader32CH.class, grpHdr), xmlWriter);
+
+		final Iterator<LineRef> lineRefs = pmtInfPlans.stream().flatMap(plan -> plan.getLines().stream()).iterator();
+		final Iterator<List<LineRef>> lineRefChunks = Iterators.partition(lineRefs, STREAMING_LinesChunkSize);
+
+		PmtInfPlan currentPlan = null;
+		while (lineRefChunks.hasNext())
 		{
-			final JAXBElement<Document> jaxbDocument = new DynamicObjectFactory(new ObjectFactory()).createJAXBElement(xmlDocument);
+			final List<LineRef> lineRefsChunk = lineRefChunks.next();
+			final Set<Integer> lineIds = lineRefsChunk.stream().map(LineRef::getLineId).collect(ImmutableSet.toImmutableSet());
+			final Map<Integer, I_SEPA_Export_Line> linesById = Maps.uniqueIndex(sepaDocumentDAO.retrieveLinesByIds(lineIds), I_SEPA_Export_Line::getSEPA_Export_Line_ID);
 
-			final String jaxbContextPath = Document.class.getPackage().getName();
-			final JAXBContext jaxbContext = JAXBContext.newInstance(jaxbContextPath);
+			for (final LineRef lineRef : lineRefsChunk)
+			{
+				final I_SEPA_Export_Line sepaLine = linesById.get(lineRef.getLineId());
+
+				final PmtInfPlan plan = pmtInfPlans.get(lineRef.getPmtInfNo() - 1);
+				if (plan != currentPlan)
+				{
+					if (currentPlan != null)
+					{
+						xmlWriter.add(eventFactory.createEndElement("", NAMESPACE, "PmtInf"));
+					}
+
+					// the transactions are the last PmtInf children, so we write the PmtInf without them and leave it open
+					final PaymentInstructionInformation3CH pmtInf = createPmtInf(grpHdr, sepaDocument, sepaLine, plan.getPmtInfNo());
+					pmtInf.setCtrlSum(plan.getCtrlSum());
+					marshaller.marshal(new JAXBElement<>(QNAME_PmtInf, PaymentInstructionInformation3CH.class, pmtInf), new OpenEndedXMLEventWriter(xmlWriter));
 
-			final Marshaller marshaller = jaxbContext.createMarshaller();
-			marshaller.setProperty("jaxb.formatted.output", Boolean.TRUE);
-			marshaller.setProperty("jaxb.schemaLocation", "urn:sepade:xsd:" + PAIN_001_001_03_CH_02 + " " + PAIN_001_001_03_CH_02 + ".xsd");
-			marshaller.marshal(jaxbDocument, xmlWriter);
+					currentPlan = plan;
+				}
+
+				final CreditTransferTransactionInformation10CH cdtTrfTxInf = createCreditTransferTransactionInformation(
+						sepaLine,
+						lineRef.getEndToEndNo(),
+						lineRef.getInstrPmtInfNo(),
+						lineRef.getInstrTxNo());
+				marshaller.marshal(new JAXBElement<>(QNAME_CdtTrfTxInf, CreditTransferTransactionInformation10CH.class, cdtTrfTxInf), xmlWriter);
+			}
 		}
-		catch (final JAXBException e)
+
+		xmlWriter.add(eventFactory.createEndElement("", NAMESPACE, "PmtInf"));
+		xmlWriter.add(eventFactory.createEndElement("", NAMESPACE, "CstmrCdtTrfInitn"));
+		xmlWriter.add(eventFactory.createEndElement("", NAMESPACE, "Document"));
+		xmlWriter.add(eventFactory.createEndDocument());
+		xmlWriter.flush();
+		xmlWriter.close(); // note: does not close the underlying output stream
+	}
+
+	/**
+	 * First pass of {@link #marshalStreaming(I_SEPA_Export, OutputStream)}.
+	 * Assigns the same PmtInf numbers, EndToEndIds and InstrIds that {@link #createDocument(I_SEPA_Export)} would assign.
+	 *
+	 * @return payment instruction plans, ordered by their PmtInf number
+	 */
+	private List<PmtInfPlan> createPmtInfPlans(@NonNull final Iterator<I_SEPA_Export_Line> sepaLines)
+	{
+		final Map<ArrayKey, PmtInfPlan> key2plan = new HashMap<>();
+		final List<PmtInfPlan> plans = new ArrayList<>();
+
+		int endToEndNo = 0;
+		while (sepaLines.hasNext())
 		{
-			throw new AdempiereException("Marshalling error", e.getCause());
+			final I_SEPA_Export_Line sepaLine = sepaLines.next();
+
+			final PmtInfPlan plan = key2plan.computeIfAbsent(createKey(sepaLine), key -> {
+				final PmtInfPlan newPlan = new PmtInfPlan(plans.size() + 1);
+				plans.add(newPlan);
+				return newPlan;
+			});
+
+			endToEndNo++;
+			plan.addLine(
+					LineRef.builder()
+							.lineId(sepaLine.getSEPA_Export_Line_ID())
+							.pmtInfNo(plan.getPmtInfNo())
+							.endToEndNo(endToEndNo)
+							.instrPmtInfNo(plans.size())
+							.instrTxNo(plan.getLines().size() + 1)
+							.build(),
+					extractAmount(sepaLine));
 		}
+		return plans;
 	}
 
-	public void marshal(
-			@NonNull final I_SEPA_Export sepaDocument,
-			@NonNull final OutputStream out)
+	@Getter
+	private static final class PmtInfPlan
 	{
-		try
+		private final int pmtInfNo;
+		private final List<LineRef> lines = new ArrayList<>();
+		private BigDecimal ctrlSum = ZERO;
+
+		private PmtInfPlan(final int pmtInfNo)
 		{
-			final Document xmlDocument = createDocument(sepaDocument);
-			marshal(xmlDocument, out);
+			this.pmtInfNo = pmtInfNo;
 		}
-		catch (final Exception e)
+
+		private void addLine(@NonNull final LineRef lineRef, @NonNull final BigDecimal amount)
 		{
-			throw new AdempiereException("Error while marshaling " + sepaDocument, e);
+			lines.add(lineRef);
+			ctrlSum = ctrlSum.add(amount);
 		}
 	}
 
-	@VisibleForTesting
-	Document createDocument(@NonNull final I_SEPA_Export sepaDocument)
+	@Value
+	@Builder
+	private static class LineRef
 	{
-		final Document document = objectFactory.createDocument();
+		int lineId;
+		int pmtInfNo;
+		int endToEndNo;
+		int instrPmtInfNo;
+		int instrTxNo;
+	}
 
-		final CustomerCreditTransferInitiationV03CH creditTransferInitiation = objectFactory.createCustomerCreditTransferInitiationV03CH();
-		document.setCstmrCdtTrfInitn(creditTransferInitiation);
+	/**
+	 * Forwards everything except the end element of the top level element, so more children can be appended to it afterwards.
+	 */
+	@RequiredArgsConstructor
+	private static final class OpenEndedXMLEventWriter implements XMLEventWriter
+	{
+		private final XMLEventWriter delegate;
+		private int depth = 0;
 
-		// Group Header
+		@Override
+		public void add(final XMLEvent event) throws XMLStreamException
 		{
-			final GroupHeader32CH groupHeaderSCT = objectFactory.createGroupHeader32CH();
-			creditTransferInitiation.setGrpHdr(groupHeaderSCT);
-
-			// MessageIdentification
-			groupHeaderSCT.setMsgId(sepaDocument.getDocumentNo()); // unique identifier in our system
+			if (event.isStartElement())
+			{
+				depth++;
+			}
+			else if (event.isEndElement())
+			{
+				depth--;
+				if (depth == 0)
+				{
+					return;
+				}
+			}
+			delegate.add(event);
+		}
 
-			// CreationDateTime: The system-generated date and time stamp at the time of formatting of the message.
-			groupHeaderSCT.setCreDtTm(datatypeFactory.newXMLGregorianCalendar(SystemTime.asGregorianCalendar()));
+		@Override
+		public void add(final XMLEventReader reader) throws XMLStreamException
+		{
+			while (reader.hasNext())
+			{
+				add(reader.nextEvent());
+			}
+		}
 
-			// Number of transactions: The total number of direct debit transaction blocks in the message.
-			// NOTE: You can have only one direct debit transaction by payment information.
-			// NOTE: it will be set later, after we know the number of lines
-			groupHeaderSCT.setNbOfTxs(null);
+		@Override
+		public void flush() throws XMLStreamException
+		{
+			delegate.flush();
+		}
 
-			// Control Sum: This is the total amount of the collection.
-			// NOTE: it will be set later, after each payment information
-			groupHeaderSCT.setCtrlSum(BigDecimal.ZERO);
+		@Override
+		public void close()
+		{
+			// nothing; the delegate is closed by its owner
+		}
 
-			final PartyIdentification32CHNameAndId initgPty = objectFactory.createPartyIdentification32CHNameAndId();
-			initgPty.setNm(sepaDocument.getSEPA_CreditorIdentifier());
+		@Override
+		public String getPrefix(final String uri) throws XMLStreamException
+		{
+			return delegate.getPrefix(uri);
+		}
 
-			final ContactDetails2CH ctctDtls = objectFactory.createContactDetails2CH();
-			ctctDtls.setNm("metasfresh");
+		@Override
+		public void setPrefix(final String prefix, final String uri) throws XMLStreamException
+		{
+			delegate.setPrefix(prefix, uri);
+		}
 
-			// if we must truncate, then leave the beginning and discard the end
-			// rationale: when we are depending on this, the resp file is probably a bit only and then the "year" is more important to know that the build#
-			final String versionString = Adempiere.getBuildVersion().getFullVersion();
-			String truncatedVersionString = StringUtils.trunc(versionString.trim(), 35, TruncateAt.STRING_START);
+		@Override
+		public void setDefaultNamespace(final String uri) throws XMLStreamException
+		{
+			delegate.setDefaultNamespace(uri);
+		}
 
-			ctctDtls.setOthr(truncatedVersionString); // 35 is the max allowed length: https://validation.iso-payments.ch/html/en/CustomerBank/pain.001/0221.htm
-			initgPty.setCtctDtls(ctctDtls);
+		@Override
+		public void setNamespaceContext(final NamespaceContext context) throws XMLStreamException
+		{
+			delegate.setNamespaceContext(context);
+		}
 
-			groupHeaderSCT.setInitgPty(initgPty);
+		@Override
+		public NamespaceContext getNamespaceContext()
+		{
+			return delegate.getNamespaceContext();
 		}
+	}
+
+	@VisibleForTesting
+	Document createDocument(@NonNull final I_SEPA_Export sepaDocument)
+	{
+		final Document document = objectFactory.createDocument();
+
+		final CustomerCreditTransferInitiationV03CH creditTransferInitiation = objectFactory.createCustomerCreditTransferInitiationV03CH();
+		document.setCstmrCdtTrfInitn(creditTransferInitiation);
+
+		// Group Header
+		creditTransferInitiation.setGrpHdr(createGroupHeader(sepaDocument));
 
 		// Payment Informations: create one PaymentInstructionInformationSDD for each line
 		final List<I_SEPA_Export_Line> sepaDocumentLines = Services.get(ISEPADocumentDAO.class).retrieveLines(sepaDocument);
 		if (sepaDocumentLines.isEmpty())
 		{
-			throw new AdempiereException("The given SEPA_Export record has no lines with active=Y and error=N")
-					.appendParametersToMessage()
-					.setParameter("SEPA_Export", sepaDocument);
+			throw createNoLinesException(sepaDocument);
 		}
 
 		final Map<ArrayKey, PaymentInstructionInformation3CH> currency2pmtInf = new HashMap<>();
@@ -327,6 +515,50 @@ public class SEPACustomerCTIMarshaler_Pain_001_001_03_CH_02
 
 	}
 
+	private GroupHeader32CH createGroupHeader(@NonNull final I_SEPA_Export sepaDocument)
+	{
+		final GroupHeader32CH groupHeaderSCT = objectFactory.createGroupHeader32CH();
+
+		// MessageIdentification
+		groupHeaderSCT.setMsgId(sepaDocument.getDocumentNo()); // unique identifier in our system
+
+		// CreationDateTime: The system-generated date and time stamp at the time of formatting of the message.
+		groupHeaderSCT.setCreDtTm(datatypeFactory.newXMLGregorianCalendar(SystemTime.asGregorianCalendar()));
+
+		// Number of transactions: The total number of direct debit transaction blocks in the message.
+		// NOTE: You can have only one direct debit transaction by payment information.
+		// NOTE: it will be set later, after we know the number of lines
+		groupHeaderSCT.setNbOfTxs(null);
+
+		// Control Sum: This is the total amount of the collection.
+		// NOTE: it will be set later, after each payment information
+		groupHeaderSCT.setCtrlSum(BigDecimal.ZERO);
+
+		final PartyIdentification32CHNameAndId initgPty = objectFactory.createPartyIdentification32CHNameAndId();
+		initgPty.setNm(sepaDocument.getSEPA_CreditorIdentifier());
+
+		final ContactDetails2CH ctctDtls = objectFactory.createContactDetails2CH();
+		ctctDtls.setNm("metasfresh");
+
+		// if we must truncate, then leave the beginning and discard the end
+		// rationale: when we are depending on this, the resp file is probably a bit only and then the "year" is more important to know that the build#
+		final String versionString = Adempiere.getBuildVersion().getFullVersion();
+		String truncatedVersionString = StringUtils.trunc(versionString.trim(), 35, TruncateAt.STRING_START);
+
+		ctctDtls.setOthr(truncatedVersionString); // 35 is the max allowed length: https://validation.iso-payments.ch/html/en/CustomerBank/pain.001/0221.htm
+		initgPty.setCtctDtls(ctctDtls);
+
+		groupHeaderSCT.setInitgPty(initgPty);
+		return groupHeaderSCT;
+	}
+
+	private static AdempiereException createNoLinesException(@NonNull final I_SEPA_Export sepaDocument)
+	{
+		return new AdempiereException("The given SEPA_Export record has no lines with active=Y and error=N")
+				.appendParametersToMessage()
+				.setParameter("SEPA_Export", sepaDocument);
+	}
+
 	private ArrayKey createKey(@NonNull final I_SEPA_Export_Line sepaLine)
 	{
 		if (extractBatchFlag(sepaLine))
@@ -349,13 +581,23 @@ public class SEPACustomerCTIMarshaler_Pain_001_001_03_CH_02
 			@NonNull final I_SEPA_Export sepaHdr,
 			@NonNull final I_SEPA_Export_Line sepaLine)
 	{
-		final PaymentInstructionInformation3CH pmtInf = objectFactory.createPaymentInstructionInformation3CH();
+		pmtInfCounter++;
+		final PaymentInstructionInformation3CH pmtInf = createPmtInf(cstmrCdtTrfInitn.getGrpHdr(), sepaHdr, sepaLine, pmtInfCounter);
 		cstmrCdtTrfInitn.getPmtInf().add(pmtInf);
+		return pmtInf;
+	}
+
+	private PaymentInstructionInformation3CH createPmtInf(
+			@NonNull final GroupHeader32CH grpHdr,
+			@NonNull final I_SEPA_Export sepaHdr,
+			@NonNull final I_SEPA_Export_Line sepaLine,
+			final int pmtInfNo)
+	{
+		final PaymentInstructionInformation3CH pmtInf = objectFactory.createPaymentInstructionInformation3CH();
 
 		// PaymentInformationIdentification: A system-generated internal code.
 		{
-			pmtInfCounter++;
-			final String pmtInfId = StringUtils.formatMessage("PMTINF-{}", pmtInfCounter);
+			final String pmtInfId = StringUtils.formatMessage("PMTINF-{}", pmtInfNo);
 			pmtInf.setPmtInfId(pmtInfId);
 		}
 
@@ -413,8 +655,7 @@ public class SEPACustomerCTIMarshaler_Pain_001_001_03_CH_02
 
 		//
 		// debitor
-		pmtInf.setDbtr(copyPartyIdentificationSEPA2(
-				cstmrCdtTrfInitn.getGrpHdr().getInitgPty()));
+		pmtInf.setDbtr(copyPartyIdentificationSEPA2(grpHdr.getInitgPty()));
 
 		//
 		// debitor Account
@@ -453,6 +694,16 @@ public class SEPACustomerCTIMarshaler_Pain_001_001_03_CH_02
 	private CreditTransferTransactionInformation10CH createCreditTransferTransactionInformation(
 			@NonNull final PaymentInstructionInformation3CH pmtInf,
 			@NonNull final I_SEPA_Export_Line line)
+	{
+		endToEndIdCounter++;
+		return createCreditTransferTransactionInformation(line, endToEndIdCounter, pmtInfCounter, pmtInf.getCdtTrfTxInf().size() + 1);
+	}
+
+	private CreditTransferTransactionInformation10CH createCreditTransferTransactionInformation(
+			@NonNull final I_SEPA_Export_Line line,
+			final int endToEndNo,
+			final int instrPmtInfNo,
+			final int instrTxNo)
 	{
 		final CreditTransferTransactionInformation10CH cdtTrfTxInf = objectFactory.createCreditTransferTransactionInformation10CH();
 
@@ -460,13 +711,12 @@ public class SEPACustomerCTIMarshaler_Pain_001_001_03_CH_02
 		// Payment ID
 		// EndToEndId: A unique key generated by the system for each payment.
 		{
-			endToEndIdCounter++;
-			final String endToEndId = StringUtils.formatMessage("ENDTOENDID-{}", endToEndIdCounter);
+			final String endToEndId = StringUtils.formatMessage("ENDTOENDID-{}", endToEndNo);
 
 			final PaymentIdentification1 pmtId = objectFactory.createPaymentIdentification1();
 			pmtId.setEndToEndId(endToEndId);
 
-			final String instrId = StringUtils.formatMessage("INSTRID-{}-{}", pmtInfCounter, pmtInf.getCdtTrfTxInf().size() + 1);
+			final String instrId = StringUtils.formatMessage("INSTRID-{}-{}", instrPmtInfNo, instrTxNo);
 			pmtId.setInstrId(instrId);
 
 			cdtTrfTxInf.setPmtId(pmtId);
@@ -478,17 +728,8 @@ public class SEPACustomerCTIMarshaler_Pain_001_001_03_CH_02
 			final AmountType3Choice amt = objectFactory.createAmountType3Choice();
 			final ActiveOrHistoricCurrencyAndAmount instdAmt = objectFactory.createActiveOrHistoricCurrencyAndAmount();
 
-			final I_C_Currency currency = line.getC_Currency();
-
-			final String currencyIsoCode = currency.getISO_Code();
-			instdAmt.setCcy(currencyIsoCode);
-
-			final BigDecimal amount = NumberUtils.stripTrailingDecimalZeros(line.getAmt());
-			Check.errorIf(amount == null || amount.signum() <= 0, "Invalid amount={} of SEPA_Export_Line={}", amount, line);
-			Check.errorIf(amount.scale() > currency.getStdPrecision(),
-					"Invalid number of decimal points; amount={} has {} decimal points, but the currency {} only allows {}; SEPA_Export_Line={}",
-					amount, currencyIsoCode, currency.getStdPrecision(), line);
-			instdAmt.setValue(amount);
+			instdAmt.setCcy(line.getC_Currency().getISO_Code());
+			instdAmt.setValue(extractAmount(line));
 
 			amt.setInstdAmt(instdAmt);
 
@@ -691,6 +932,19 @@ public class SEPACustomerCTIMarshaler_Pain_001_001_03_CH_02
 		return cdtTrfTxInf;
 	}
 
+	private static BigDecimal extractAmount(@NonNull final I_SEPA_Export_Line line)
+	{
+		final I_C_Currency currency = line.getC_Currency();
+		final String currencyIsoCode = currency.getISO_Code();
+
+		final BigDecimal amount = NumberUtils.stripTrailingDecimalZeros(line.getAmt());
+		Check.errorIf(amount == null || amount.signum() <= 0, "Invalid amount={} of SEPA_Export_Line={}", amount, line);
+		Check.errorIf(amount.scale() > currency.getStdPrecision(),
+				"Invalid number of decimal points; amount={} has {} decimal points, but the currency {} only allows {}; SEPA_Export_Line={}",
+				amount, currencyIsoCode, currency.getStdPrecision(), line);
+		return amount;
+	}
+
 	@SafeVarargs
 	private final String getFirstNonEmpty(@NonNull final Supplier<String>... values)
 	{
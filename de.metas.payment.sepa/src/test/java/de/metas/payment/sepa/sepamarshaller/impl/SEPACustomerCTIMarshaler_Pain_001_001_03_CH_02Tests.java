@@ -4,7 +4,13 @@ import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
 import static org.adempiere.model.InterfaceWrapperHelper.save;
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.xml.bind.JAXB;
 
 import org.adempiere.test.AdempiereTestHelper;
 import org.junit.Before;
@@ -13,6 +19,7 @@ import org.junit.Test;
 import de.metas.adempiere.model.I_C_Currency;
 import de.metas.payment.esr.model.I_C_BP_BankAccount;
 import de.metas.payment.sepa.jaxb.sct.pain_001_001_03_ch_02.Document;
+import de.metas.payment.sepa.jaxb.sct.pain_001_001_03_ch_02.PaymentInstructionInformation3CH;
 import de.metas.payment.sepa.model.I_SEPA_Export;
 import de.metas.payment.sepa.model.I_SEPA_Export_Line;
 
@@ -83,6 +90,61 @@ public class SEPACustomerCTIMarshaler_Pain_001_001_03_CH_02Tests
 		assertThat(xmlDocument.getCstmrCdtTrfInitn().getPmtInf()).hasSize(2);
 	}
 
+	@Test
+	public void marshal_batch()
+	{
+		assertMarshalledSameAsDocument(true);
+	}
+
+	@Test
+	public void marshal_noBatch()
+	{
+		assertMarshalledSameAsDocument(false);
+	}
+
+	/**
+	 * Verifies that the streaming {@link SEPACustomerCTIMarshaler_Pain_001_001_03_CH_02#marshal(I_SEPA_Export, java.io.OutputStream)}
+	 * writes the same payment instructions and transactions as {@link SEPACustomerCTIMarshaler_Pain_001_001_03_CH_02#createDocument(I_SEPA_Export)}.
+	 */
+	private void assertMarshalledSameAsDocument(final boolean exportBatchBookings)
+	{
+		final I_SEPA_Export sepaExport = createSEPAExport("org", "INGBNL2A");
+		sepaExport.setIsExportBatchBookings(exportBatchBookings);
+		save(sepaExport);
+
+		createSEPAExportLine(sepaExport, "001", "NL31INGB0000000044", "INGBNL2A", new BigDecimal("100"), eur);
+		createSEPAExportLine(sepaExport, "002", "NL31INGB0000000044", "INGBNL2A", new BigDecimal("40"), chf);
+		createSEPAExportLine(sepaExport, "003", "NL31INGB0000000044", "INGBNL2A", new BigDecimal("30"), eur);
+
+		final Document expected = new SEPACustomerCTIMarshaler_Pain_001_001_03_CH_02().createDocument(sepaExport);
+
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		xmlGenerator.marshal(sepaExport, out);
+		final Document actual = JAXB.unmarshal(new ByteArrayInputStream(out.toByteArray()), Document.class);
+
+		assertThat(actual.getCstmrCdtTrfInitn().getGrpHdr().getNbOfTxs()).isEqualTo(expected.getCstmrCdtTrfInitn().getGrpHdr().getNbOfTxs());
+		assertThat(actual.getCstmrCdtTrfInitn().getGrpHdr().getCtrlSum()).isEqualByComparingTo(expected.getCstmrCdtTrfInitn().getGrpHdr().getCtrlSum());
+		assertThat(actual.getCstmrCdtTrfInitn().getGrpHdr().getInitgPty().getNm()).isEqualTo(expected.getCstmrCdtTrfInitn().getGrpHdr().getInitgPty().getNm());
+		assertThat(toStrings(actual.getCstmrCdtTrfInitn().getPmtInf())).isEqualTo(toStrings(expected.getCstmrCdtTrfInitn().getPmtInf()));
+	}
+
+	private static List<String> toStrings(final List<PaymentInstructionInformation3CH> pmtInfs)
+	{
+		return pmtInfs.stream()
+				.map(pmtInf -> pmtInf.getPmtInfId()
+						+ " btchBookg=" + pmtInf.isBtchBookg()
+						+ " ctrlSum=" + pmtInf.getCtrlSum().stripTrailingZeros().toPlainString()
+						+ " dbtrIBAN=" + pmtInf.getDbtrAcct().getId().getIBAN()
+						+ " txs=" + pmtInf.getCdtTrfTxInf().stream()
+								.map(tx -> tx.getPmtId().getInstrId()
+										+ "/" + tx.getPmtId().getEndToEndId()
+										+ "/" + tx.getAmt().getInstdAmt().getValue().stripTrailingZeros().toPlainString()
+										+ tx.getAmt().getInstdAmt().getCcy()
+										+ "/" + tx.getCdtr().getNm())
+								.collect(Collectors.toList()))
+				.collect(Collectors.toList());
+	}
+
 	private I_SEPA_Export createSEPAExport(
 			final String SEPA_CreditorIdentifier,
 			final String bic)
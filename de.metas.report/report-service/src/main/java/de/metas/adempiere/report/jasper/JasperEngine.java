@@ -40,6 +40,7 @@ import java.util.Set;
 import org.adempiere.ad.security.IUserRolePermissions;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.service.ISysConfigBL;
+import org.adempiere.util.lang.IAutoCloseable;
 import org.compiere.model.I_AD_Process;
 import org.compiere.util.DB;
 import org.compiere.util.Env;
@@ -49,6 +50,7 @@ import org.slf4j.Logger;
 import com.google.common.collect.ImmutableSet;
 
 import de.metas.adempiere.report.jasper.server.MetasJRXlsExporter;
+import de.metas.connection.IReadReplicaRoutingService;
 import de.metas.i18n.Language;
 import de.metas.logging.LogManager;
 import de.metas.process.AdProcessId;
@@ -112,10 +114,17 @@ public class JasperEngine extends AbstractReportEngine
 	/**
 	 * Retrieves the server's direct database connection.
 	 *
-	 * @return database connection
+	 * @return database connection; a read replica connection if {@link #routeToReadReplicaIfEnabled()} applies
 	 */
 	private final Connection getConnection()
 	{
+		try (final IAutoCloseable readReplicaRouting = routeToReadReplicaIfEnabled())
+		{
+			if (Services.get(IReadReplicaRoutingService.class).isRoutingToReadReplica())
+			{
+				return DB.getConnectionRO();
+			}
+		}
 		return DB.getConnectionRW();
 	}
 
@@ -3,10 +3,13 @@ package de.metas.report.engine;
 import java.util.Properties;
 
 import org.adempiere.ad.service.IDeveloperModeBL;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.util.lang.IAutoCloseable;
 import org.compiere.util.Env;
 
 import de.metas.adempiere.report.jasper.JasperClassLoader;
 import de.metas.adempiere.report.jasper.JasperCompileClassLoader;
+import de.metas.connection.IReadReplicaRoutingService;
 import de.metas.util.Services;
 
 /*
@@ -33,6 +36,29 @@ import de.metas.util.Services;
 
 public abstract class AbstractReportEngine implements IReportEngine
 {
+	/**
+	 * If <code>Y</code>, the report queries are executed on a read replica, if there is one configured.
+	 * Off by default because the replica might lag behind and not yet have e.g. the selection the report is about.
+	 */
+	private static final String SYSCONFIG_UseReadReplica = "de.metas.report.UseReadReplica";
+
+	/**
+	 * Routes the current thread's out of transaction read-only queries to a read replica, if enabled via {@value #SYSCONFIG_UseReadReplica}.
+	 *
+	 * @see IReadReplicaRoutingService#routeToReadReplica()
+	 */
+	public static IAutoCloseable routeToReadReplicaIfEnabled()
+	{
+		final boolean useReadReplica = Services.get(ISysConfigBL.class).getBooleanValue(SYSCONFIG_UseReadReplica, false);
+		if (!useReadReplica)
+		{
+			return () -> {
+			};
+		}
+
+		return Services.get(IReadReplicaRoutingService.class).routeToReadReplica();
+	}
+
 	protected ClassLoader createReportClassLoader(final ReportContext reportContext)
 	{
 		
@@ -12,12 +12,14 @@ import java.util.TreeMap;
 
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.exceptions.DBException;
+import org.adempiere.util.lang.IAutoCloseable;
 import org.compiere.util.DB;
 
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
 
+import de.metas.report.engine.AbstractReportEngine;
 import de.metas.util.Check;
 
 /*
@@ -89,7 +91,7 @@ public class JdbcXlsDataSource implements IXlsDataSource
 		PreparedStatement pstmt = null;
 		ResultSet rs = null;
 
-		try
+		try (final IAutoCloseable readReplicaRouting = AbstractReportEngine.routeToReadReplicaIfEnabled())
 		{
 			pstmt = DB.prepareStatement(sql, ITrx.TRXNAME_None);
 			rs = pstmt.executeQuery();
@@ -4,15 +4,18 @@ import lombok.Builder;
 import lombok.NonNull;
 
 import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.service.ISysConfigBL;
 import org.compiere.util.ArrayKeyBuilder;
 import org.compiere.util.Env;
 import org.compiere.util.TimeUtil;
@@ -20,6 +23,7 @@ import org.compiere.util.Util;
 import org.compiere.util.Util.ArrayKey;
 import org.slf4j.Logger;
 
+import com.google.common.base.Stopwatch;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ListMultimap;
@@ -62,6 +66,12 @@ import de.metas.util.Services;
 public class OLCandsProcessorExecutor
 {
 	private static final Logger logger = LogManager.getLogger(OLCandsProcessorExecutor.class);
+
+	/**
+	 * Number of threads used to create the orders. If greater than one, the orders are created concurrently, each one in its own transaction.
+	 */
+	private static final String SYSCONFIG_WorkerThreads = "de.metas.ordercandidate.api.OLCandsProcessorExecutor.WorkerThreads";
+
 	private final ILoggable loggable;
 
 	private final IOLCandListener olCandListeners;
@@ -115,6 +125,33 @@ public class OLCandsProcessorExecutor
 				.collect(ImmutableList.toImmutableList());
 		loggable.addLog("Processing {} order line candidates", candidates.size());
 
+		//
+		// Split the candidates into the orders to be created
+		final List<OrderBatch> orderBatches = createOrderBatches(candidates);
+
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		final int workerThreads = getWorkerThreads();
+		if (workerThreads <= 1 || orderBatches.size() <= 1)
+		{
+			orderBatches.forEach(this::processOrderBatch);
+		}
+		else
+		{
+			processOrderBatchesInParallel(orderBatches, workerThreads);
+		}
+		stopwatch.stop();
+
+		final long elapsedMillis = Math.max(stopwatch.elapsed(TimeUnit.MILLISECONDS), 1);
+		loggable.addLog("Processed {} order line candidates into {} orders using {} worker thread(s) in {} ({} orders/sec)",
+				candidates.size(), orderBatches.size(), workerThreads, stopwatch, orderBatches.size() * 1000 / elapsedMillis);
+	}
+
+	/**
+	 * Computes the orders to be created, without creating them yet. Each returned batch will result in one order.
+	 * The batches don't share any candidate, so they can be processed independently from each other.
+	 */
+	private List<OrderBatch> createOrderBatches(@NonNull final List<OLCand> candidates)
+	{
 		//
 		// Compute a grouping key for each candidate and group them according to their key
 		final Map<Integer, ArrayKey> toProcess = new HashMap<>();
@@ -134,10 +171,11 @@ public class OLCandsProcessorExecutor
 			grouping.put(groupingKey, candidate);
 		}
 
-		// 'processedIds' contains the candidates that have already been processed
+		// 'processedIds' contains the candidates that have already been assigned to an order batch
 		final Set<Integer> processedIds = new HashSet<>();
 
-		OLCandOrderFactory currentOrder = null;
+		final List<OrderBatch> orderBatches = new ArrayList<>();
+		OrderBatch currentOrderBatch = null;
 
 		// This variable is used to decide if the current candidate differs from the previous one in a way that requires a new order.
 		OLCand previousCandidate = null;
@@ -151,39 +189,69 @@ public class OLCandsProcessorExecutor
 			}
 
 			// Each group shall go to a separate order line
-			if (currentOrder != null)
+			if (currentOrderBatch != null)
 			{
-				currentOrder.closeCurrentOrderLine();
+				currentOrderBatch.closeCurrentOrderLine();
 			}
 
 			// get the group of the current unprocessed candidate
 			final ArrayKey groupingKey = toProcess.get(olCandId);
 			for (final OLCand candOfGroup : grouping.get(groupingKey))
 			{
-				if (currentOrder != null && isOrderSplit(candOfGroup, previousCandidate))
+				if (currentOrderBatch != null && isOrderSplit(candOfGroup, previousCandidate))
 				{
-					currentOrder.completeOrDelete();
-					currentOrder = null;
+					currentOrderBatch = null;
 				}
-				if (currentOrder == null)
+				if (currentOrderBatch == null)
 				{
-					currentOrder = newOrderFactory();
+					currentOrderBatch = new OrderBatch();
+					orderBatches.add(currentOrderBatch);
 				}
 
-				currentOrder.addOLCand(candOfGroup);
+				currentOrderBatch.addOLCand(candOfGroup);
 
 				Check.assume(processedIds.add(candOfGroup.getId()), candOfGroup + " of grouping " + grouping + " is not processed twice");
 				previousCandidate = candOfGroup;
 			}
 		}
 
-		if (currentOrder != null)
+		Check.assume(processedIds.size() == candidates.size(), "All candidates have been processed");
+
+		return orderBatches;
+	}
+
+	private void processOrderBatch(@NonNull final OrderBatch orderBatch)
+	{
+		final OLCandOrderFactory orderFactory = newOrderFactory();
+		for (final List<OLCand> orderLineCandidates : orderBatch.getOrderLinesCandidates())
 		{
-			currentOrder.completeOrDelete();
-			currentOrder = null;
+			orderFactory.closeCurrentOrderLine();
+			orderLineCandidates.forEach(orderFactory::addOLCand);
 		}
+		orderFactory.completeOrDelete();
+	}
 
-		Check.assume(processedIds.size() == candidates.size(), "All candidates have been processed");
+	/**
+	 * Processes the given batches on a bounded worker pool, one transaction per order.
+	 * If an order fails, its transaction is rolled back, but the other orders are still created.
+	 * Afterwards, the failures are propagated to the caller.
+	 */
+	private void processOrderBatchesInParallel(@NonNull final List<OrderBatch> orderBatches, final int workerThreads)
+	{
+		ParallelOrderBatchProcessor.<OrderBatch> builder()
+				.workerThreads(workerThreads)
+				.threadNamePrefix(OLCandsProcessorExecutor.class.getSimpleName() + "-" + olCandProcessorId)
+				.modelsGetter(orderBatch -> orderBatch.getOLCands().stream().map(OLCand::unbox).collect(ImmutableList.toImmutableList()))
+				.processor(this::processOrderBatch)
+				.loggable(loggable)
+				.build()
+				.processAll(orderBatches);
+	}
+
+	private int getWorkerThreads()
+	{
+		final int workerThreads = Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_WorkerThreads, 1);
+		return Math.max(workerThreads, 1);
 	}
 
 	private OLCandOrderFactory newOrderFactory()
@@ -320,4 +388,53 @@ public class OLCandsProcessorExecutor
 
 		return true;
 	}
+
+	/**
+	 * The candidates that shall end up in one order, already grouped by the order lines they shall end up in.
+	 */
+	private static final class OrderBatch
+	{
+		private final List<List<OLCand>> orderLinesCandidates = new ArrayList<>();
+		private List<OLCand> currentOrderLineCandidates = null;
+
+		public void addOLCand(@NonNull final OLCand candidate)
+		{
+			if (currentOrderLineCandidates == null)
+			{
+				currentOrderLineCandidates = new ArrayList<>();
+				orderLinesCandidates.add(currentOrderLineCandidates);
+			}
+			currentOrderLineCandidates.add(candidate);
+		}
+
+		public void closeCurrentOrderLine()
+		{
+			currentOrderLineCandidates = null;
+		}
+
+		public List<List<OLCand>> getOrderLinesCandidates()
+		{
+			return orderLinesCandidates;
+		}
+
+		public List<OLCand> getOLCands()
+		{
+			return orderLinesCandidates.stream()
+					.flatMap(List::stream)
+					.collect(ImmutableList.toImmutableList());
+		}
+
+		public List<Integer> getOLCandIds()
+		{
+			return getOLCands().stream()
+					.map(OLCand::getId)
+					.collect(ImmutableList.toImmutableList());
+		}
+
+		@Override
+		public String toString()
+		{
+			return "order for C_OLCand_IDs=" + getOLCandIds();
+		}
+	}
 }
@@ -0,0 +1,178 @@
+package de.metas.ordercandidate.api;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.adempiere.util.lang.IAutoCloseable;
+import org.compiere.util.Env;
+import org.slf4j.Logger;
+
+import de.metas.logging.LogManager;
+import de.metas.util.Check;
+import de.metas.util.ILoggable;
+import de.metas.util.Loggables;
+import de.metas.util.Services;
+import lombok.Builder;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.swat.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Processes independent batches on a bounded worker pool, each batch in its own transaction.
+ * <p>
+ * The caller's context and loggable are propagated to the workers; the loggable is wrapped with {@link Loggables#synchronizedLoggable(ILoggable)}, because the workers log concurrently.
+ * While a batch is processed, its models are bound to the worker's transaction; afterwards they get back the transaction they had before.
+ * <p>
+ * If a batch fails, its transaction is rolled back and the remaining batches are still processed.
+ * After all batches were processed, the failures are thrown as one {@link AdempiereException}.
+ *
+ * @param <T> batch type
+ */
+final class ParallelOrderBatchProcessor<T>
+{
+	private static final Logger logger = LogManager.getLogger(ParallelOrderBatchProcessor.class);
+
+	private final int workerThreads;
+	private final String threadNamePrefix;
+	private final Function<T, ? extends Collection<?>> modelsGetter;
+	private final Consumer<T> processor;
+	private final ILoggable loggable;
+
+	/**
+	 * @param modelsGetter provides the models of a batch which shall be saved in the batch's transaction
+	 * @param loggable where the failures are logged; the thread's current loggable if not set
+	 */
+	@Builder
+	private ParallelOrderBatchProcessor(
+			final int workerThreads,
+			@NonNull final String threadNamePrefix,
+			@NonNull final Function<T, ? extends Collection<?>> modelsGetter,
+			@NonNull final Consumer<T> processor,
+			final ILoggable loggable)
+	{
+		Check.assume(workerThreads > 0, "workerThreads > 0 but it was {}", workerThreads);
+
+		this.workerThreads = workerThreads;
+		this.threadNamePrefix = threadNamePrefix;
+		this.modelsGetter = modelsGetter;
+		this.processor = processor;
+		this.loggable = Loggables.synchronizedLoggable(loggable != null ? loggable : Loggables.get());
+	}
+
+	public void processAll(@NonNull final List<T> batches)
+	{
+		final Properties ctx = Env.getCtx();
+		final ILoggable threadLoggable = Loggables.synchronizedLoggable(Loggables.get());
+
+		final ExecutorService executor = Executors.newFixedThreadPool(
+				workerThreads,
+				CustomizableThreadFactory.builder()
+						.setThreadNamePrefix(threadNamePrefix)
+						.setDaemon(true)
+						.build());
+		try
+		{
+			final List<Future<?>> futures = new ArrayList<>(batches.size());
+			for (final T batch : batches)
+			{
+				futures.add(executor.submit(() -> processInNewTrx(batch, ctx, threadLoggable)));
+			}
+
+			final List<Throwable> failures = new ArrayList<>();
+			for (int i = 0; i < futures.size(); i++)
+			{
+				try
+				{
+					futures.get(i).get();
+				}
+				catch (final ExecutionException ex)
+				{
+					final T batch = batches.get(i);
+					final Throwable cause = AdempiereException.extractCause(ex);
+					loggable.addLog("Failed processing {}: {}", batch, cause.getLocalizedMessage());
+					logger.warn("Failed processing {}", batch, cause);
+
+					failures.add(cause);
+				}
+			}
+
+			if (!failures.isEmpty())
+			{
+				final AdempiereException ex = new AdempiereException(failures.size() + " of " + batches.size() + " batches failed: " + failures.get(0).getLocalizedMessage(), failures.get(0));
+				failures.stream().skip(1).forEach(ex::addSuppressed);
+				throw ex;
+			}
+		}
+		catch (final InterruptedException ex)
+		{
+			Thread.currentThread().interrupt();
+			throw AdempiereException.wrapIfNeeded(ex);
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+	}
+
+	private void processInNewTrx(
+			@NonNull final T batch,
+			@NonNull final Properties ctx,
+			@NonNull final ILoggable threadLoggable)
+	{
+		final Map<Object, String> previousTrxNames = new IdentityHashMap<>();
+		try (final IAutoCloseable switchedCtx = Env.switchContext(Env.copyCtx(ctx));
+				final IAutoCloseable switchedLoggable = Loggables.temporarySetLoggable(threadLoggable))
+		{
+			Services.get(ITrxManager.class).runInNewTrx(() -> {
+				// make sure the models are saved within this batch's transaction
+				for (final Object model : modelsGetter.apply(batch))
+				{
+					previousTrxNames.put(model, InterfaceWrapperHelper.getTrxName(model));
+					InterfaceWrapperHelper.setTrxName(model, ITrx.TRXNAME_ThreadInherited);
+				}
+
+				processor.accept(batch);
+			});
+		}
+		finally
+		{
+			// the models still belong to the caller, so don't leave them bound to our (now closed) transaction
+			previousTrxNames.forEach(InterfaceWrapperHelper::setTrxName);
+		}
+	}
+}
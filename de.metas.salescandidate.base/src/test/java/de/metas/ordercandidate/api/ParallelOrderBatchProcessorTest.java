@@ -0,0 +1,124 @@
+package de.metas.ordercandidate.api;
+
+import static org.adempiere.model.InterfaceWrapperHelper.getTrxName;
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
+import static org.adempiere.model.InterfaceWrapperHelper.setTrxName;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.ordercandidate.model.I_C_OLCand;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * de.metas.swat.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ParallelOrderBatchProcessorTest
+{
+	private static final String CALLER_TRXNAME = "callerTrx";
+
+	private ImmutableList<I_C_OLCand> olCands;
+
+	@Before
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+
+		final ImmutableList.Builder<I_C_OLCand> olCands = ImmutableList.builder();
+		for (int i = 0; i < 10; i++)
+		{
+			final I_C_OLCand olCand = newInstance(I_C_OLCand.class);
+			saveRecord(olCand);
+			setTrxName(olCand, CALLER_TRXNAME);
+			olCands.add(olCand);
+		}
+		this.olCands = olCands.build();
+	}
+
+	private ParallelOrderBatchProcessor<I_C_OLCand> newProcessor(final Consumer<I_C_OLCand> processor)
+	{
+		return ParallelOrderBatchProcessor.<I_C_OLCand> builder()
+				.workerThreads(3)
+				.threadNamePrefix("test")
+				.modelsGetter(ImmutableList::of)
+				.processor(processor)
+				.build();
+	}
+
+	@Test
+	public void processAll_eachBatchInItsOwnTrx_andModelsAreRestored()
+	{
+		final ITrxManager trxManager = Services.get(ITrxManager.class);
+		final Map<Integer, String> workerTrxNamesByOLCandId = new ConcurrentHashMap<>();
+
+		newProcessor(olCand -> {
+			assertThat(getTrxName(olCand)).isEqualTo(ITrx.TRXNAME_ThreadInherited);
+			workerTrxNamesByOLCandId.put(olCand.getC_OLCand_ID(), trxManager.getThreadInheritedTrxName());
+		}).processAll(olCands);
+
+		assertThat(workerTrxNamesByOLCandId).hasSize(olCands.size());
+		assertThat(workerTrxNamesByOLCandId.values())
+				.doesNotContainNull()
+				.doesNotHaveDuplicates();
+
+		assertThat(olCands).allSatisfy(olCand -> assertThat(getTrxName(olCand)).isEqualTo(CALLER_TRXNAME));
+	}
+
+	@Test
+	public void processAll_failuresArePropagatedAfterTheOtherBatches()
+	{
+		final I_C_OLCand failingOLCand1 = olCands.get(2);
+		final I_C_OLCand failingOLCand2 = olCands.get(7);
+		final Set<Integer> processedOLCandIds = ConcurrentHashMap.newKeySet();
+
+		final ParallelOrderBatchProcessor<I_C_OLCand> processor = newProcessor(olCand -> {
+			if (olCand == failingOLCand1 || olCand == failingOLCand2)
+			{
+				throw new AdempiereException("failing on purpose");
+			}
+			processedOLCandIds.add(olCand.getC_OLCand_ID());
+		});
+
+		assertThatThrownBy(() -> processor.processAll(olCands))
+				.isInstanceOf(AdempiereException.class)
+				.hasMessageContaining("2 of 10 batches failed")
+				.hasMessageContaining("failing on purpose")
+				.satisfies(ex -> assertThat(ex.getSuppressed()).hasSize(1));
+
+		assertThat(processedOLCandIds).hasSize(olCands.size() - 2);
+		assertThat(olCands).allSatisfy(olCand -> assertThat(getTrxName(olCand)).isEqualTo(CALLER_TRXNAME));
+	}
+}
@@ -37,6 +37,15 @@ public interface IExportDataDestination extends Closeable
 {
 	void appendLine(List<Object> values) throws IOException;
 
+	/**
+	 * Writes everything which was buffered so far. Called after the last line was appended.
+	 * <p>
+	 * Unlike {@link #close()}, which is also called if the export failed, a failure here fails the export.
+	 */
+	default void flush() throws IOException
+	{
+	}
+
 	@Override
 	void close() throws IOException;
 }
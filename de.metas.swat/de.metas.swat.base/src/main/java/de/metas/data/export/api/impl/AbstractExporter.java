@@ -150,6 +150,8 @@ public abstract class AbstractExporter implements IExporter
 				incrementExportedRowCount();
 				// }
 			}
+
+			dataDestination.flush();
 		}
 		catch (Exception e)
 		{
@@ -226,6 +226,15 @@ public class CSVWriter implements IExportDataDestination
 				+ fieldQuote;
 	}
 
+	@Override
+	public void flush() throws IOException
+	{
+		if (writer != null)
+		{
+			writer.flush();
+		}
+	}
+
 	@Override
 	public void close() throws IOException
 	{
@@ -26,6 +26,7 @@ package de.metas.modelvalidator;
  */
 
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 
 import javax.sql.DataSource;
 
@@ -71,6 +72,8 @@ import org.compiere.util.Ini;
 import org.slf4j.Logger;
 
 import com.mchange.v2.c3p0.ComboPooledDataSource;
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
 
 import de.metas.adempiere.callout.C_OrderFastInputTabCallout;
 import de.metas.adempiere.engine.MViewModelValidator;
@@ -428,9 +431,22 @@ public class SwatValidator implements ModelValidator
 				log.info("Config " + maxStatementsSysConfig + "=" + maxStatementsValue + " (Old: " + old + ")");
 			}
 		}
+		else if (ds instanceof HikariDataSource)
+		{
+			// HikariCP has no equivalent for the unreturned connections timeout (it never kills active connections), so we use it for the leak detection.
+			// The leak detection logs the stack trace of the borrower anyways, and statement caching is done by the postgres driver.
+			final HikariConfigMXBean hikariConfig = ((HikariDataSource)ds).getHikariConfigMXBean();
+			if (unreturnedConnectionTimeout > 0)
+			{
+				final long old = hikariConfig.getLeakDetectionThreshold();
+				final long leakDetectionThresholdMillis = TimeUnit.SECONDS.toMillis(unreturnedConnectionTimeout);
+				hikariConfig.setLeakDetectionThreshold(leakDetectionThresholdMillis);
+				log.info("Config " + SYSCONFIG_C3P0_UnreturnedConnectionTimeout + "=" + unreturnedConnectionTimeout + " => LeakDetectionThreshold=" + leakDetectionThresholdMillis + "ms (Old: " + old + "ms)");
+			}
+		}
 		else
 		{
-			log.warn("Can not configure datasource because is not an instance of ComboPooledDataSource: " + ds);
+			log.warn("Can not configure datasource because is not an instance of ComboPooledDataSource or HikariDataSource: " + ds);
 		}
 	}
 }
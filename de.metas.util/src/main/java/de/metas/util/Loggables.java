@@ -72,6 +72,23 @@ public final class Loggables
 		return ThreadLocalLoggableHolder.instance.temporarySetLoggable(loggable);
 	}
 
+	/**
+	 * @return a loggable which can be shared between threads, because it serializes the {@link ILoggable#addLog(String, Object...)} invocations on the given loggable;
+	 *         e.g. a process' loggable is not thread-safe, but workers which run on an executor might all log to it.
+	 */
+	public static ILoggable synchronizedLoggable(final ILoggable loggable)
+	{
+		if (NullLoggable.isNull(loggable))
+		{
+			return getNullLoggable();
+		}
+		if (loggable instanceof SynchronizedLoggable)
+		{
+			return loggable;
+		}
+		return new SynchronizedLoggable(loggable);
+	}
+
 	/**
 	 * @return The null loggable which can be used without NPE, but doesn't do anything
 	 */
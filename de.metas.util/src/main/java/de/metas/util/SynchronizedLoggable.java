@@ -0,0 +1,51 @@
+package de.metas.util;
+
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.util
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * To be created by {@link Loggables#synchronizedLoggable(ILoggable)}.
+ *
+ * @author metas-dev <dev@metasfresh.com>
+ *
+ */
+public final class SynchronizedLoggable implements ILoggable
+{
+	private final ILoggable delegate;
+
+	/* package */ SynchronizedLoggable(@NonNull final ILoggable delegate)
+	{
+		this.delegate = delegate;
+	}
+
+	@Override
+	public ILoggable addLog(final String msg, final Object... msgParameters)
+	{
+		synchronized (delegate)
+		{
+			delegate.addLog(msg, msgParameters);
+		}
+		return this;
+	}
+}
@@ -0,0 +1,84 @@
+package de.metas.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+/*
+ * #%L
+ * de.metas.util
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class LoggablesTest
+{
+	@Test
+	public void synchronizedLoggable_nullLoggable()
+	{
+		assertThat(Loggables.synchronizedLoggable(null)).isSameAs(Loggables.getNullLoggable());
+		assertThat(Loggables.synchronizedLoggable(Loggables.getNullLoggable())).isSameAs(Loggables.getNullLoggable());
+	}
+
+	@Test
+	public void synchronizedLoggable_isNotWrappedTwice()
+	{
+		final ILoggable loggable = Loggables.synchronizedLoggable(new PlainStringLoggable());
+		assertThat(Loggables.synchronizedLoggable(loggable)).isSameAs(loggable);
+	}
+
+	@Test
+	public void synchronizedLoggable_concurrentAddLog() throws Exception
+	{
+		final PlainStringLoggable plainLoggable = new PlainStringLoggable(); // not thread-safe
+		final ILoggable loggable = Loggables.synchronizedLoggable(plainLoggable);
+
+		final int threads = 8;
+		final int messagesPerThread = 1000;
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try
+		{
+			final List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < threads; t++)
+			{
+				futures.add(executor.submit(() -> {
+					for (int i = 0; i < messagesPerThread; i++)
+					{
+						loggable.addLog("message {}", i);
+					}
+				}));
+			}
+			for (final Future<?> future : futures)
+			{
+				future.get();
+			}
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+
+		assertThat(plainLoggable.getSingleMessages()).hasSize(threads * messagesPerThread);
+	}
+}
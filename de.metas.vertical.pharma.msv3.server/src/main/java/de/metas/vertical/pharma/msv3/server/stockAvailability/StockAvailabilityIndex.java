@@ -0,0 +1,107 @@
+package de.metas.vertical.pharma.msv3.server.stockAvailability;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-pharma.msv3.server
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * In-memory copy of the {@code msv3_stock_availability} table, keyed by PZN.
+ * <p>
+ * Reads are lock free. Writes are serialized and follow the same event version rules as the database records,
+ * so that an outdated event can't overwrite newer data.
+ */
+final class StockAvailabilityIndex
+{
+	@Value
+	@Builder
+	static class Entry
+	{
+		int qty;
+		int eventVersion;
+		@NonNull
+		String syncToken;
+	}
+
+	private volatile Map<Long, Entry> entriesByPzn = new ConcurrentHashMap<>();
+
+	public Optional<Entry> get(final long pzn)
+	{
+		return Optional.ofNullable(entriesByPzn.get(pzn));
+	}
+
+	public int size()
+	{
+		return entriesByPzn.size();
+	}
+
+	/**
+	 * Replaces the whole index content.
+	 */
+	public synchronized void reset(@NonNull final Map<Long, Entry> entriesByPzn)
+	{
+		this.entriesByPzn = new ConcurrentHashMap<>(entriesByPzn);
+	}
+
+	/**
+	 * Adds or updates the given PZN's entry, unless the index already has an entry with a higher event version.
+	 *
+	 * @return {@code true} if the entry was stored
+	 */
+	public synchronized boolean put(final long pzn, @NonNull final Entry entry)
+	{
+		final Entry existingEntry = entriesByPzn.get(pzn);
+		if (existingEntry != null && existingEntry.getEventVersion() > entry.getEventVersion())
+		{
+			return false;
+		}
+
+		entriesByPzn.put(pzn, entry);
+		return true;
+	}
+
+	public synchronized void removeIfEventVersionLessThan(final long pzn, final int eventVersion)
+	{
+		final Entry existingEntry = entriesByPzn.get(pzn);
+		if (existingEntry != null && existingEntry.getEventVersion() < eventVersion)
+		{
+			entriesByPzn.remove(pzn);
+		}
+	}
+
+	/**
+	 * Removes all entries that were not updated by the given sync token and have an event version lower than the given one.
+	 * The remaining entries are swapped in at once, so concurrent readers see either the old or the new state.
+	 */
+	public synchronized void removeIfSyncTokenNotAndEventVersionLessThan(@NonNull final String syncToken, final int eventVersion)
+	{
+		final Map<Long, Entry> newEntriesByPzn = new ConcurrentHashMap<>(entriesByPzn);
+		newEntriesByPzn.values().removeIf(entry -> !syncToken.equals(entry.getSyncToken()) && entry.getEventVersion() < eventVersion);
+		this.entriesByPzn = newEntriesByPzn;
+	}
+}
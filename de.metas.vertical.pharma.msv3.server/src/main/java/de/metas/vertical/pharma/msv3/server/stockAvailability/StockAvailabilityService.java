@@ -1,14 +1,29 @@
 package de.metas.vertical.pharma.msv3.server.stockAvailability;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import javax.annotation.PostConstruct;
 import javax.transaction.Transactional;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 
 import de.metas.vertical.pharma.msv3.protocol.stockAvailability.AvailabilityType;
 import de.metas.vertical.pharma.msv3.protocol.stockAvailability.StockAvailabilityQuery;
@@ -65,9 +80,23 @@ public class StockAvailabilityService
 	@Autowired
 	private JpaProductExcludeRepository productExcludeRepo;
 
+	/** Answers the availability queries; kept in sync with {@link #stockAvailabilityRepo} by {@link #handleEvent(MSV3StockAvailabilityUpdatedEvent)}. */
+	private final StockAvailabilityIndex stockAvailabilityIndex = new StockAvailabilityIndex();
+
+	@PostConstruct
+	private void loadStockAvailabilityIndex()
+	{
+		final Map<Long, StockAvailabilityIndex.Entry> entriesByPzn = stockAvailabilityRepo.findAll()
+				.stream()
+				.collect(ImmutableMap.toImmutableMap(JpaStockAvailability::getMfPzn, StockAvailabilityService::toIndexEntry));
+		stockAvailabilityIndex.reset(entriesByPzn);
+		logger.info("Loaded {} stock availability records into the index", stockAvailabilityIndex.size());
+	}
+
 	public StockAvailabilityResponse checkAvailability(final StockAvailabilityQuery query)
 	{
 		final BPartnerId bpartner = query.getBpartner();
+		final Set<Long> excludedPzns = retrieveExcludedPzns(query.getItems(), bpartner);
 
 		final StockAvailabilityResponseBuilder responseBuilder = StockAvailabilityResponse.builder()
 				.id(query.getId())
@@ -77,7 +106,9 @@ public class StockAvailabilityService
 		{
 			final PZN pzn = queryItem.getPzn();
 			final Quantity qtyRequired = queryItem.getQtyRequired();
-			final Quantity qtyOnHand = getQtyAvailable(pzn, bpartner).orElse(Quantity.ZERO);
+			final Quantity qtyOnHand = excludedPzns.contains(pzn.getValueAsLong())
+					? Quantity.ZERO
+					: getQtyAvailableIgnoringExcludes(pzn).orElse(Quantity.ZERO);
 
 			final StockAvailabilityResponseItem item;
 			if (qtyRequired.compareTo(qtyOnHand) <= 0)
@@ -95,6 +126,22 @@ public class StockAvailabilityService
 		return responseBuilder.build();
 	}
 
+	private Set<Long> retrieveExcludedPzns(final Collection<StockAvailabilityQueryItem> queryItems, final BPartnerId bpartner)
+	{
+		final Set<Long> pzns = queryItems.stream()
+				.map(queryItem -> queryItem.getPzn().getValueAsLong())
+				.collect(ImmutableSet.toImmutableSet());
+		if (pzns.isEmpty())
+		{
+			return ImmutableSet.of();
+		}
+
+		return productExcludeRepo.findByMfBpartnerIdAndPznIn(bpartner.getBpartnerId(), pzns)
+				.stream()
+				.map(JpaProductExclude::getPzn)
+				.collect(ImmutableSet.toImmutableSet());
+	}
+
 	private StockAvailabilityResponseItem createStockAvailabilityResponseItem_Available(final PZN pzn, final Quantity qty)
 	{
 		return StockAvailabilityResponseItem.builder()
@@ -128,14 +175,22 @@ public class StockAvailabilityService
 			return Optional.empty();
 		}
 
-		final JpaStockAvailability jpaStockAvailability = stockAvailabilityRepo.findByMfPzn(pzn.getValueAsLong());
-		if (jpaStockAvailability == null)
-		{
-			return Optional.empty();
-		}
+		return getQtyAvailableIgnoringExcludes(pzn);
+	}
 
-		final Quantity qty = Quantity.of(jpaStockAvailability.getMfQty());
-		return Optional.of(qty);
+	private Optional<Quantity> getQtyAvailableIgnoringExcludes(@NonNull final PZN pzn)
+	{
+		return stockAvailabilityIndex.get(pzn.getValueAsLong())
+				.map(entry -> Quantity.of(entry.getQty()));
+	}
+
+	private static StockAvailabilityIndex.Entry toIndexEntry(final JpaStockAvailability jpaStockAvailability)
+	{
+		return StockAvailabilityIndex.Entry.builder()
+				.qty(jpaStockAvailability.getMfQty())
+				.eventVersion(jpaStockAvailability.getMfEventVersion())
+				.syncToken(jpaStockAvailability.getMfSyncToken())
+				.build();
 	}
 
 	@Transactional
@@ -146,15 +201,44 @@ public class StockAvailabilityService
 
 		//
 		// Update
+		if (!event.getItems().isEmpty())
 		{
-			final AtomicInteger countUpdated = new AtomicInteger();
+			final Set<Long> pzns = event.getItems().stream()
+					.map(MSV3StockAvailability::getPzn)
+					.collect(ImmutableSet.toImmutableSet());
+			final Map<Long, JpaStockAvailability> jpaStockAvailabilitiesByPzn = stockAvailabilityRepo.findByMfPznIn(pzns)
+					.stream()
+					.collect(Collectors.toMap(JpaStockAvailability::getMfPzn, Function.identity()));
 
+			final Set<Long> pznsToSave = new LinkedHashSet<>();
+			final Map<Long, JpaStockAvailability> jpaStockAvailabilitiesToDeleteByPzn = new HashMap<>();
 			for (final MSV3StockAvailability eventItem : event.getItems())
 			{
-				updateStockAvailability(eventItem, mfSyncToken, mfEventVersion);
-				countUpdated.incrementAndGet();
+				updateStockAvailability(
+						eventItem,
+						mfSyncToken,
+						mfEventVersion,
+						jpaStockAvailabilitiesByPzn,
+						pznsToSave,
+						jpaStockAvailabilitiesToDeleteByPzn);
 			}
-			logger.debug("Updated {} stock availability records", countUpdated);
+
+			final List<JpaStockAvailability> jpaStockAvailabilitiesToSave = pznsToSave.stream()
+					.map(jpaStockAvailabilitiesByPzn::get)
+					.collect(ImmutableList.toImmutableList());
+			final List<JpaStockAvailability> jpaStockAvailabilitiesToDelete = ImmutableList.copyOf(jpaStockAvailabilitiesToDeleteByPzn.values());
+
+			stockAvailabilityRepo.save(jpaStockAvailabilitiesToSave);
+			stockAvailabilityRepo.deleteInBatch(jpaStockAvailabilitiesToDelete);
+			logger.debug("Updated {} and deleted {} stock availability records", jpaStockAvailabilitiesToSave.size(), jpaStockAvailabilitiesToDelete.size());
+
+			final Map<Long, StockAvailabilityIndex.Entry> savedIndexEntriesByPzn = jpaStockAvailabilitiesToSave.stream()
+					.collect(ImmutableMap.toImmutableMap(JpaStockAvailability::getMfPzn, StockAvailabilityService::toIndexEntry));
+			final Set<Long> deletedPzns = ImmutableSet.copyOf(jpaStockAvailabilitiesToDeleteByPzn.keySet());
+			runAfterCommit(() -> {
+				savedIndexEntriesByPzn.forEach(stockAvailabilityIndex::put);
+				deletedPzns.forEach(pzn -> stockAvailabilityIndex.removeIfEventVersionLessThan(pzn, mfEventVersion.getAsInt()));
+			});
 		}
 
 		//
@@ -166,29 +250,50 @@ public class StockAvailabilityService
 							mfSyncToken,
 							mfEventVersion.getAsInt());
 			logger.debug("Deleted {} stock availability records", countDeleted);
+
+			runAfterCommit(() -> stockAvailabilityIndex.removeIfSyncTokenNotAndEventVersionLessThan(mfSyncToken, mfEventVersion.getAsInt()));
 		}
 
 	}
 
+	/**
+	 * Applies the given request to the pre-loaded records. Saving and deleting is done by the caller, for all requests of one event at once.
+	 */
 	private void updateStockAvailability(
 			@NonNull final MSV3StockAvailability request,
 			final String mfSyncToken,
-			@NonNull final MSV3EventVersion mfEventVersion)
+			@NonNull final MSV3EventVersion mfEventVersion,
+			@NonNull final Map<Long, JpaStockAvailability> jpaStockAvailabilitiesByPzn,
+			@NonNull final Set<Long> pznsToSave,
+			@NonNull final Map<Long, JpaStockAvailability> jpaStockAvailabilitiesToDeleteByPzn)
 	{
+		final long pzn = request.getPzn();
+		JpaStockAvailability jpaStockAvailability = jpaStockAvailabilitiesByPzn.get(pzn);
 		if (request.isDelete())
 		{
-			stockAvailabilityRepo
-					.deleteInBatchByMfPznAndMfEventVersionLessThan(
-							request.getPzn(),
-							mfEventVersion.getAsInt());
+			if (jpaStockAvailability != null
+					&& jpaStockAvailability.getMfEventVersion() < mfEventVersion.getAsInt())
+			{
+				jpaStockAvailabilitiesByPzn.remove(pzn);
+				pznsToSave.remove(pzn);
+				if (jpaStockAvailability.getId() != null)
+				{
+					jpaStockAvailabilitiesToDeleteByPzn.put(pzn, jpaStockAvailability);
+				}
+			}
 		}
 		else
 		{
-			JpaStockAvailability jpaStockAvailability = stockAvailabilityRepo.findByMfPzn(request.getPzn());
 			if (jpaStockAvailability == null)
 			{
-				jpaStockAvailability = new JpaStockAvailability();
-				jpaStockAvailability.setMfPzn(request.getPzn());
+				// if the same event deleted this PZN before, then reuse that record instead of deleting and inserting (mf_pzn is unique)
+				jpaStockAvailability = jpaStockAvailabilitiesToDeleteByPzn.remove(pzn);
+				if (jpaStockAvailability == null)
+				{
+					jpaStockAvailability = new JpaStockAvailability();
+					jpaStockAvailability.setMfPzn(pzn);
+				}
+				jpaStockAvailabilitiesByPzn.put(pzn, jpaStockAvailability);
 			}
 			else if (jpaStockAvailability.getMfEventVersion() > mfEventVersion.getAsInt())
 			{
@@ -200,10 +305,31 @@ public class StockAvailabilityService
 			jpaStockAvailability.setMfEventVersion(mfEventVersion.getAsInt());
 			jpaStockAvailability.setMfQty(request.getQty());
 			jpaStockAvailability.setMfSyncToken(mfSyncToken);
-			stockAvailabilityRepo.save(jpaStockAvailability);
+			pznsToSave.add(pzn);
 		}
 	}
 
+	/**
+	 * Updates the in-memory index only after the database changes were committed, so that the index never serves data that was rolled back.
+	 */
+	private static void runAfterCommit(@NonNull final Runnable runnable)
+	{
+		if (!TransactionSynchronizationManager.isSynchronizationActive())
+		{
+			runnable.run();
+			return;
+		}
+
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter()
+		{
+			@Override
+			public void afterCommit()
+			{
+				runnable.run();
+			}
+		});
+	}
+
 	@Transactional
 	public void handleEvent(@NonNull final MSV3ProductExcludesUpdateEvent event)
 	{
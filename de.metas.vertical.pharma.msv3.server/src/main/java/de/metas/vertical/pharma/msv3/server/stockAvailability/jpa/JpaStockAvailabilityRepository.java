@@ -1,5 +1,8 @@
 package de.metas.vertical.pharma.msv3.server.stockAvailability.jpa;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -30,6 +33,8 @@ public interface JpaStockAvailabilityRepository extends JpaRepository<JpaStockAv
 {
 	JpaStockAvailability findByMfPzn(long pzn);
 
+	List<JpaStockAvailability> findByMfPznIn(Collection<Long> pzns);
+
 	long deleteInBatchByMfSyncTokenNotAndMfEventVersionLessThan(String mfSyncToken, int mfEventVersion);
 
 	long deleteInBatchByMfPznAndMfEventVersionLessThan(long mfPzn, int mfEventVersion);
@@ -0,0 +1,126 @@
+package de.metas.vertical.pharma.msv3.server.stockAvailability;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+import de.metas.vertical.pharma.msv3.server.stockAvailability.StockAvailabilityIndex.Entry;
+
+/*
+ * #%L
+ * metasfresh-pharma.msv3.server
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class StockAvailabilityIndexTest
+{
+	private static final long PZN_1 = 123456789;
+	private static final long PZN_2 = 223456789;
+	private static final long PZN_3 = 323456789;
+
+	private StockAvailabilityIndex index;
+
+	@Before
+	public void init()
+	{
+		index = new StockAvailabilityIndex();
+	}
+
+	private static Entry entry(final int qty, final int eventVersion, final String syncToken)
+	{
+		return Entry.builder()
+				.qty(qty)
+				.eventVersion(eventVersion)
+				.syncToken(syncToken)
+				.build();
+	}
+
+	@Test
+	public void reset()
+	{
+		index.put(PZN_3, entry(33, 1, "sync1"));
+
+		index.reset(ImmutableMap.of(
+				PZN_1, entry(11, 1, "sync1"),
+				PZN_2, entry(22, 1, "sync1")));
+
+		assertThat(index.size()).isEqualTo(2);
+		assertThat(index.get(PZN_1)).contains(entry(11, 1, "sync1"));
+		assertThat(index.get(PZN_2)).contains(entry(22, 1, "sync1"));
+		assertThat(index.get(PZN_3)).isEmpty();
+	}
+
+	@Test
+	public void put_and_get()
+	{
+		assertThat(index.get(PZN_1)).isEmpty();
+
+		assertThat(index.put(PZN_1, entry(11, 1, "sync1"))).isTrue();
+		assertThat(index.get(PZN_1)).contains(entry(11, 1, "sync1"));
+
+		// same event version, e.g. the same event is received twice
+		assertThat(index.put(PZN_1, entry(12, 1, "sync1"))).isTrue();
+		assertThat(index.get(PZN_1)).contains(entry(12, 1, "sync1"));
+
+		assertThat(index.put(PZN_1, entry(13, 2, "sync2"))).isTrue();
+		assertThat(index.get(PZN_1)).contains(entry(13, 2, "sync2"));
+		assertThat(index.size()).isEqualTo(1);
+	}
+
+	@Test
+	public void put_outdatedEntry_isDiscarded()
+	{
+		index.put(PZN_1, entry(11, 2, "sync2"));
+
+		assertThat(index.put(PZN_1, entry(10, 1, "sync1"))).isFalse();
+		assertThat(index.get(PZN_1)).contains(entry(11, 2, "sync2"));
+	}
+
+	@Test
+	public void removeIfEventVersionLessThan()
+	{
+		index.put(PZN_1, entry(11, 1, "sync1"));
+		index.put(PZN_2, entry(22, 3, "sync3"));
+
+		index.removeIfEventVersionLessThan(PZN_1, 2);
+		index.removeIfEventVersionLessThan(PZN_2, 2); // newer than the delete => kept
+		index.removeIfEventVersionLessThan(PZN_3, 2); // unknown PZN
+
+		assertThat(index.get(PZN_1)).isEmpty();
+		assertThat(index.get(PZN_2)).contains(entry(22, 3, "sync3"));
+		assertThat(index.size()).isEqualTo(1);
+	}
+
+	@Test
+	public void removeIfSyncTokenNotAndEventVersionLessThan()
+	{
+		index.put(PZN_1, entry(11, 1, "sync1"));
+		index.put(PZN_2, entry(22, 2, "sync2"));
+		index.put(PZN_3, entry(33, 3, "sync3"));
+
+		index.removeIfSyncTokenNotAndEventVersionLessThan("sync2", 2);
+
+		assertThat(index.get(PZN_1)).isEmpty();
+		assertThat(index.get(PZN_2)).contains(entry(22, 2, "sync2"));
+		assertThat(index.get(PZN_3)).contains(entry(33, 3, "sync3"));
+	}
+}
@@ -238,6 +238,56 @@ public class IntegrationTest
 		testStockAvailability(PZN_4, 44, 44); // PZN_4 is still there because of its higher event version!
 	}
 
+	@Test
+	public void testStockAvailability_updates_and_deletes_in_one_event()
+	{
+		setupDummyCurrentUserForBPartnerId(1234);
+
+		createOrUpdateStockAvailability(PZN_1, 11);
+		createOrUpdateStockAvailability(PZN_2, 22);
+		createOrUpdateStockAvailability(PZN_3, 33);
+		testStockAvailability(PZN_1, 11, 11); // guard
+		testStockAvailability(PZN_2, 22, 22); // guard
+		testStockAvailability(PZN_3, 33, 33); // guard
+
+		final MSV3StockAvailabilityUpdatedEvent event = MSV3StockAvailabilityUpdatedEvent
+				.builder()
+				.eventVersion(MSV3EventVersion.of(++eventVersionCounter))
+				.deleteAllOtherItems(false)
+				.item(MSV3StockAvailability.builder() // update
+						.pzn(PZN_1.getValueAsLong())
+						.qty(12)
+						.build())
+				.item(MSV3StockAvailability.builder() // delete
+						.pzn(PZN_2.getValueAsLong())
+						.delete(true)
+						.build())
+				.item(MSV3StockAvailability.builder() // delete and add again
+						.pzn(PZN_3.getValueAsLong())
+						.delete(true)
+						.build())
+				.item(MSV3StockAvailability.builder()
+						.pzn(PZN_3.getValueAsLong())
+						.qty(34)
+						.build())
+				.item(MSV3StockAvailability.builder() // add
+						.pzn(PZN_4.getValueAsLong())
+						.qty(44)
+						.build())
+				.item(MSV3StockAvailability.builder() // delete an unknown PZN
+						.pzn(PZN_MISSING.getValueAsLong())
+						.delete(true)
+						.build())
+				.build();
+		stockAvailabilityListener.onStockAvailabilityUpdatedEvent(event);
+
+		testStockAvailability(PZN_1, 12, 12);
+		testStockAvailability(PZN_2, 22, 0);
+		testStockAvailability(PZN_3, 34, 34);
+		testStockAvailability(PZN_4, 44, 44);
+		testStockAvailability(PZN_MISSING, 1, 0);
+	}
+
 
 	@Test
 	public void testStockAvailability_UnknownPZN()